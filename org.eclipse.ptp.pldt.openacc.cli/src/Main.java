@@ -33,6 +33,7 @@ import org.eclipse.cdt.core.parser.ScannerInfo;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestPool;
 import org.eclipse.ptp.pldt.openacc.internal.core.transformations.IASTRewrite;
 
 import edu.auburn.oaccrefac.cli.dom.rewrite.ASTRewrite;
@@ -157,6 +158,10 @@ public class Main {
 				case "--find": //$NON-NLS-1$
 					loopName = args[++i];
 					break;
+				case "-threads": //$NON-NLS-1$
+				case "--threads": //$NON-NLS-1$
+					DependenceTestPool.setParallelism(parseInt(args[++i]));
+					break;
 				case "-pos": //$NON-NLS-1$
 				case "--position": //$NON-NLS-1$
 					startOfSelection = parseInt(args[++i]);
@@ -25,13 +25,11 @@ import java.util.Set;
 import java.util.TreeMap;
 
 import org.eclipse.cdt.core.ToolFactory;
-import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.ExpansionOverlapsBoundaryException;
 import org.eclipse.cdt.core.dom.ast.IASTBreakStatement;
 import org.eclipse.cdt.core.dom.ast.IASTComment;
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTContinueStatement;
-import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
 import org.eclipse.cdt.core.dom.ast.IASTDoStatement;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
@@ -45,7 +43,6 @@ import org.eclipse.cdt.core.dom.ast.IASTIdExpression;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
-import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
 import org.eclipse.cdt.core.dom.ast.IASTReturnStatement;
 import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
@@ -332,97 +329,36 @@ public class ASTUtil {
 		return pragCode;
 	}
 
+	/**
+	 * Returns the pragmas immediately preceding a statement, i.e., those between the statement and the nearest
+	 * statement or declaration that starts before it, in source order.
+	 * 
+	 * @see PragmaIndex
+	 */
 	public static List<IASTPreprocessorPragmaStatement> getPragmaNodes(IASTNode statement) {
-		int loopLoc = statement.getFileLocation().getNodeOffset();
-		int precedingStmtOffset = getNearestPrecedingStatementOffset(statement);
-		List<IASTPreprocessorPragmaStatement> pragmas = new ArrayList<IASTPreprocessorPragmaStatement>();
-		for (IASTPreprocessorStatement pre : statement.getTranslationUnit().getAllPreprocessorStatements()) {
-			if (pre instanceof IASTPreprocessorPragmaStatement
-					&& ((IASTPreprocessorPragmaStatement) pre).getFileLocation().getNodeOffset() < loopLoc
-					&& ((IASTPreprocessorPragmaStatement) pre).getFileLocation()
-							.getNodeOffset() > precedingStmtOffset) {
-				pragmas.add((IASTPreprocessorPragmaStatement) pre);
-			}
-		}
-		Collections.sort(pragmas, ASTUtil.FORWARD_COMPARATOR);
-		return pragmas;
+		return PragmaIndex.forTranslationUnit(statement.getTranslationUnit()).getPrecedingPragmas(statement);
 	}
 	
 	public static List<IASTPreprocessorPragmaStatement> getInternalPragmaNodes(IASTStatement statement) {
-		List<IASTPreprocessorPragmaStatement> pragmas = new ArrayList<IASTPreprocessorPragmaStatement>();
-		for (IASTPreprocessorStatement pre : statement.getTranslationUnit().getAllPreprocessorStatements()) {
-			if (pre instanceof IASTPreprocessorPragmaStatement && doesNodeLexicallyContain(statement, pre)) {
-				pragmas.add((IASTPreprocessorPragmaStatement) pre);
-			}
-		}
-		return pragmas;
+		return PragmaIndex.forTranslationUnit(statement.getTranslationUnit()).getContainedPragmas(statement);
 	}
 
 
     public static Map<IASTPreprocessorPragmaStatement, IASTNode> getEnclosingPragmas(IASTStatement statement) {
         Map<IASTPreprocessorPragmaStatement, IASTNode> pragmas = new TreeMap<>(ASTUtil.FORWARD_COMPARATOR);
 
-        IASTPreprocessorStatement[] preprocessorStatements = statement.getTranslationUnit().getAllPreprocessorStatements();
+        PragmaIndex index = PragmaIndex.forTranslationUnit(statement.getTranslationUnit());
         
         for (IASTNode node = statement; node != null; node = node.getParent()) {
-            int location = node.getFileLocation().getNodeOffset();
-            
             if (node instanceof IASTStatement) {
-	            int precedingStmtOffset = getNearestPrecedingStatementOffset((IASTStatement) node);
-	            
-	            for (IASTPreprocessorStatement pre : preprocessorStatements) {
-	                if (pre instanceof IASTPreprocessorPragmaStatement
-	                        && ((IASTPreprocessorPragmaStatement) pre).getFileLocation().getNodeOffset() < location
-	                        && ((IASTPreprocessorPragmaStatement) pre).getFileLocation()
-	                                .getNodeOffset() > precedingStmtOffset) {
-	                    pragmas.put((IASTPreprocessorPragmaStatement) pre, node);
-	                }
-	            }
+                for (IASTPreprocessorPragmaStatement pragma : index.getPrecedingPragmas(node)) {
+                    pragmas.put(pragma, node);
+                }
             }
         }
         return pragmas;
     }
 
-	private static int getNearestPrecedingStatementOffset(IASTNode stmt) {
-
-		class OffsetFinder extends ASTVisitor {
-
-			// the offset of the nearest lexical predecessor of the given node
-			int finalOffset;
-			int thisOffset;
-
-			public OffsetFinder(int offset) {
-				shouldVisitStatements = true;
-				shouldVisitDeclarations = true;
-				this.thisOffset = offset;
-			}
-
-			@Override
-			public int visit(IASTStatement stmt) {
-				int foundOffset = stmt.getFileLocation().getNodeOffset();
-				if (thisOffset - foundOffset < thisOffset - finalOffset && foundOffset < thisOffset) {
-					this.finalOffset = foundOffset;
-				}
-				return PROCESS_CONTINUE;
-			}
-
-			@Override
-			public int visit(IASTDeclaration dec) {
-				int foundOffset = dec.getFileLocation().getNodeOffset();
-				if (thisOffset - foundOffset < thisOffset - finalOffset && foundOffset < thisOffset) {
-					this.finalOffset = foundOffset;
-				}
-				return PROCESS_CONTINUE;
-			}
-
-		}
-
-		OffsetFinder finder = new OffsetFinder(stmt.getFileLocation().getNodeOffset());
-		IASTNode containingNode = ASTUtil.findNearestAncestor(stmt, IASTNode.class);
-		containingNode.accept(finder);
-		return finder.finalOffset;
-	}
-
 	public static List<IASTComment> getLeadingComments(IASTStatement statement) {
 		int stmtOffset = statement.getFileLocation().getNodeOffset();
 		List<IASTComment> comments = new ArrayList<IASTComment>();
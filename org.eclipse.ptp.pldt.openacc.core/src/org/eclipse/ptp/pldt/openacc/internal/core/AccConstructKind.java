@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccAtomicNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccCacheNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccDataNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccDeclareNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccEnterDataNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccExitDataNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccHostdataNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccRoutineNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccUpdateNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccWaitNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.Lexer;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser.Terminal;
+
+/**
+ * The kinds of OpenACC directives, which can be determined from the keywords following <code>#pragma acc</code>
+ * without parsing the directive's clauses.
+ *
+ * @author Jeff Overbey
+ */
+public enum AccConstructKind {
+    LOOP(ASTAccLoopNode.class),
+    PARALLEL(ASTAccParallelNode.class),
+    PARALLEL_LOOP(ASTAccParallelLoopNode.class),
+    KERNELS(ASTAccKernelsNode.class),
+    KERNELS_LOOP(ASTAccKernelsLoopNode.class),
+    DATA(ASTAccDataNode.class),
+    HOST_DATA(ASTAccHostdataNode.class),
+    DECLARE(ASTAccDeclareNode.class),
+    CACHE(ASTAccCacheNode.class),
+    WAIT(ASTAccWaitNode.class),
+    UPDATE(ASTAccUpdateNode.class),
+    ENTER_DATA(ASTAccEnterDataNode.class),
+    EXIT_DATA(ASTAccExitDataNode.class),
+    ROUTINE(ASTAccRoutineNode.class),
+    ATOMIC(ASTAccAtomicNode.class);
+
+    private final Class<? extends IAccConstruct> constructClass;
+
+    private AccConstructKind(Class<? extends IAccConstruct> constructClass) {
+        this.constructClass = constructClass;
+    }
+
+    /**
+     * @return the class of the AST node that {@link org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser}
+     *         produces for a directive of this kind
+     */
+    public Class<? extends IAccConstruct> getConstructClass() {
+        return constructClass;
+    }
+
+    /**
+     * @return true iff this is a parallel or kernels construct (possibly combined with a loop construct)
+     */
+    public boolean isAccelConstruct() {
+        return this == PARALLEL || this == PARALLEL_LOOP || this == KERNELS || this == KERNELS_LOOP;
+    }
+
+    /**
+     * Determines the kind of an OpenACC directive by scanning only <code>#pragma acc</code> and the directive name.
+     * Unlike a full parse, this does not check the directive's clauses, so a directive with a malformed clause list is
+     * classified by its name.
+     *
+     * @param pragma
+     *            the text of a pragma, e.g., <code>#pragma acc parallel loop copy(a)</code>
+     * @return the kind of directive, or <code>null</code> if the pragma is not an OpenACC directive
+     */
+    public static AccConstructKind classify(CharSequence pragma) {
+        Lexer lexer = new Lexer(pragma, 0, pragma.length());
+        try {
+            if (lexer.nextTerminal() != Terminal.PRAGMA_ACC) {
+                return null;
+            }
+            Terminal directive = lexer.nextTerminal();
+            if (directive == Terminal.LITERAL_STRING_LOOP) {
+                return LOOP;
+            } else if (directive == Terminal.LITERAL_STRING_PARALLEL) {
+                return followedByLoop(lexer) ? PARALLEL_LOOP : PARALLEL;
+            } else if (directive == Terminal.LITERAL_STRING_KERNELS) {
+                return followedByLoop(lexer) ? KERNELS_LOOP : KERNELS;
+            } else if (directive == Terminal.LITERAL_STRING_DATA) {
+                return DATA;
+            } else if (directive == Terminal.LITERAL_STRING_HOST_UNDERSCOREDATA) {
+                return HOST_DATA;
+            } else if (directive == Terminal.LITERAL_STRING_DECLARE) {
+                return DECLARE;
+            } else if (directive == Terminal.LITERAL_STRING_CACHE) {
+                return CACHE;
+            } else if (directive == Terminal.LITERAL_STRING_WAIT) {
+                return WAIT;
+            } else if (directive == Terminal.LITERAL_STRING_UPDATE) {
+                return UPDATE;
+            } else if (directive == Terminal.LITERAL_STRING_ENTER) {
+                return lexer.nextTerminal() == Terminal.LITERAL_STRING_DATA ? ENTER_DATA : null;
+            } else if (directive == Terminal.LITERAL_STRING_EXIT) {
+                return lexer.nextTerminal() == Terminal.LITERAL_STRING_DATA ? EXIT_DATA : null;
+            } else if (directive == Terminal.LITERAL_STRING_ROUTINE) {
+                return ROUTINE;
+            } else if (directive == Terminal.LITERAL_STRING_ATOMIC) {
+                return ATOMIC;
+            } else {
+                return null;
+            }
+        } catch (Exception e) {
+            // Characters which cannot appear in an OpenACC directive
+            return null;
+        }
+    }
+
+    private static boolean followedByLoop(Lexer lexer) {
+        try {
+            return lexer.nextTerminal() == Terminal.LITERAL_STRING_LOOP;
+        } catch (Exception e) {
+            // The clause list is malformed, but the directive name is not loop
+            return false;
+        }
+    }
+}
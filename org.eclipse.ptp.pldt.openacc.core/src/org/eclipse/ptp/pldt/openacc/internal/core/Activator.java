@@ -12,6 +12,7 @@ package org.eclipse.ptp.pldt.openacc.internal.core;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestPool;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -60,6 +61,7 @@ public final class Activator extends Plugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		try {
+			DependenceTestPool.shutdown();
 		} finally {
 			super.stop(context);
 		}
@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Holds the results of the analyses performed on a single translation unit.
+ * <p>
+ * Analyses of functions, loops, and other constructs (e.g., {@link ForStatementInquisitor},
+ * {@link org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation}) are computed on demand by calling
+ * {@link #get(Analysis, IASTNode)} and stored in the session for the translation unit containing the node. A stored
+ * result is reused until:
+ * <ul>
+ * <li>the node's children are replaced (e.g., a function's body is replaced), in which case the result is recomputed
+ * on the next request. This is not checked for results about the translation unit itself, since comparing every
+ * top-level declaration on each request would be too expensive; code that changes the translation unit must
+ * invalidate it, as {@link org.eclipse.ptp.pldt.openacc.internal.core.transformations.SourceAlteration} does;
+ * <li>{@link #invalidate(IASTNode)} is called for the node, one of its ancestors, or one of its descendants, which
+ * should be done whenever the AST is modified in place or rewritten; or
+ * <li>it is evicted because the estimated size of the session's results exceeds its memory budget. Results are evicted
+ * in least-recently-used order. Results of analyses which are not {@link Analysis#isEvictable() evictable} are not
+ * counted against the budget and are never evicted.
+ * </ul>
+ * At most {@link #MAX_SESSIONS} sessions are kept; when another translation unit is analyzed, the session for the least
+ * recently used translation unit is discarded. Sessions are safe for concurrent use: a result requested by several
+ * threads at once is computed only once, and different results are computed in parallel.
+ * <p>
+ * Analysis results are not modified after they are computed (or synchronize any state they fill in on demand), and the
+ * analyses share no mutable static state other than the sessions themselves, so different translation units can be
+ * analyzed concurrently. The CDT AST, however, resolves bindings lazily and is not thread-safe, so a translation unit
+ * whose bindings have not all been resolved should be analyzed by one thread at a time.
+ *
+ * @author Jeff Overbey
+ */
+public final class AnalysisSession {
+
+    /**
+     * A kind of analysis which can be stored in a session.
+     *
+     * @param <K>
+     *            the type of node analyzed
+     * @param <T>
+     *            the type of the analysis result
+     */
+    public static abstract class Analysis<K extends IASTNode, T> {
+        private final String name;
+
+        protected Analysis(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Performs the analysis.
+         *
+         * @param node
+         *            non-<code>null</code>
+         * @param monitor
+         *            non-<code>null</code>
+         * @return the analysis result
+         */
+        protected abstract T compute(K node, IProgressMonitor monitor);
+
+        /**
+         * Estimates the number of bytes of memory retained by an analysis result. The default estimate is proportional
+         * to the length of the analyzed source code.
+         */
+        protected long estimateSize(K node, T result) {
+            IASTFileLocation loc = node.getFileLocation();
+            long length = loc == null ? 0 : loc.getNodeLength();
+            return Math.max(MIN_ESTIMATED_SIZE, BYTES_PER_CHARACTER * length);
+        }
+
+        /**
+         * Returns true iff results of this analysis may be evicted to keep the session within its memory budget. An
+         * analysis whose result is filled in on demand after it is stored, so that its size cannot be estimated when it
+         * is computed, should return false; its results are then kept until they are invalidated.
+         */
+        protected boolean isEvictable() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** The default limit on the estimated size of the results in one session, in bytes */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /** The maximum number of translation units whose sessions are kept */
+    public static final int MAX_SESSIONS = 4;
+
+    private static final long BYTES_PER_CHARACTER = 256;
+
+    private static final long MIN_ESTIMATED_SIZE = 1024;
+
+    private static final LinkedHashMap<IASTTranslationUnit, AnalysisSession> sessions = new LinkedHashMap<IASTTranslationUnit, AnalysisSession>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IASTTranslationUnit, AnalysisSession> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+
+    /**
+     * @return the session for the given translation unit, creating it if necessary
+     */
+    public static AnalysisSession forTranslationUnit(IASTTranslationUnit tu) {
+        if (tu == null) {
+            throw new IllegalArgumentException("Translation unit cannot be null"); //$NON-NLS-1$
+        }
+        synchronized (sessions) {
+            AnalysisSession session = sessions.get(tu);
+            if (session == null) {
+                session = new AnalysisSession(tu, DEFAULT_MEMORY_BUDGET);
+                sessions.put(tu, session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Returns the result of the given analysis on the given node, computing it only if the session for the node's
+     * translation unit does not already contain a current result. If the node is not part of a translation unit, the
+     * analysis is performed and its result is not stored.
+     */
+    public static <K extends IASTNode, T> T get(Analysis<K, T> analysis, K node) {
+        return get(analysis, node, new NullProgressMonitor());
+    }
+
+    /**
+     * @see #get(Analysis, IASTNode)
+     */
+    public static <K extends IASTNode, T> T get(Analysis<K, T> analysis, K node, IProgressMonitor monitor) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null"); //$NON-NLS-1$
+        }
+        if (monitor == null) {
+            monitor = new NullProgressMonitor();
+        }
+        IASTTranslationUnit tu = node.getTranslationUnit();
+        if (tu == null) {
+            return analysis.compute(node, monitor);
+        }
+        return forTranslationUnit(tu).getResult(analysis, node, monitor);
+    }
+
+    /**
+     * Discards every stored result for the given node, its ancestors, and its descendants. If the node is a
+     * translation unit, its session is discarded.
+     */
+    public static void invalidate(IASTNode node) {
+        if (node == null) {
+            return;
+        }
+        IASTTranslationUnit tu = node.getTranslationUnit();
+        AnalysisSession session;
+        synchronized (sessions) {
+            if (node == tu) {
+                sessions.remove(tu);
+                return;
+            }
+            session = sessions.get(tu);
+        }
+        if (session != null) {
+            session.invalidateResults(node);
+        }
+    }
+
+    /** Discards every session. */
+    public static void invalidateAll() {
+        synchronized (sessions) {
+            sessions.clear();
+        }
+    }
+
+    private static final class Key {
+        private final Analysis<?, ?> analysis;
+        private final IASTNode node;
+
+        Key(Analysis<?, ?> analysis, IASTNode node) {
+            this.analysis = analysis;
+            this.node = node;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(analysis) + System.identityHashCode(node);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).analysis == analysis && ((Key) obj).node == node;
+        }
+    }
+
+    private static final class Entry {
+        final IASTNode node;
+        /** The node's children, or <code>null</code> if the node is the translation unit */
+        final IASTNode[] children;
+        final FutureTask<Object> result;
+        /** The thread computing the result */
+        final Thread owner;
+        final boolean evictable;
+        long size;
+
+        Entry(IASTNode node, FutureTask<Object> result, boolean evictable) {
+            this.node = node;
+            this.children = node instanceof IASTTranslationUnit ? null : node.getChildren();
+            this.result = result;
+            this.owner = Thread.currentThread();
+            this.evictable = evictable;
+            this.size = evictable ? MIN_ESTIMATED_SIZE : 0;
+        }
+
+        /**
+         * @return true iff the node has not been detached and its children have not been replaced. Results for the
+         *         translation unit are always current, since the session is discarded when it changes.
+         */
+        boolean isCurrent(IASTTranslationUnit tu) {
+            if (children == null) {
+                return true;
+            }
+            return node.getTranslationUnit() == tu && Arrays.equals(children, node.getChildren());
+        }
+    }
+
+    private final IASTTranslationUnit tu;
+
+    private final long memoryBudget;
+
+    /** Stored results, in least-recently-used order */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long estimatedSize;
+
+    private long hits, misses, evictions;
+
+    /**
+     * Constructor. Most clients should use {@link #forTranslationUnit(IASTTranslationUnit)} or the static
+     * {@link #get(Analysis, IASTNode)} method instead.
+     *
+     * @param tu
+     *            translation unit whose analyses will be stored in this session
+     * @param memoryBudget
+     *            limit on the estimated size of the stored results, in bytes
+     */
+    public AnalysisSession(IASTTranslationUnit tu, long memoryBudget) {
+        this.tu = tu;
+        this.memoryBudget = memoryBudget;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the result of the given analysis on the given node, computing it only if this session does not already
+     * contain a current result.
+     */
+    public <K extends IASTNode, T> T getResult(final Analysis<K, T> analysis, final K node,
+            final IProgressMonitor monitor) {
+        Key key = new Key(analysis, node);
+        Entry entry;
+        boolean compute = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !entry.isCurrent(tu)) {
+                remove(key, entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(node, new FutureTask<Object>(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return analysis.compute(node, monitor);
+                    }
+                }), analysis.isEvictable());
+                entries.put(key, entry);
+                estimatedSize += entry.size;
+                compute = true;
+                misses++;
+            } else if (entry.owner == Thread.currentThread() && !entry.result.isDone()) {
+                throw new IllegalStateException(analysis + " depends on its own result"); //$NON-NLS-1$
+            } else {
+                hits++;
+            }
+        }
+
+        if (compute) {
+            entry.result.run();
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            T result = (T) entry.result.get();
+            if (compute && entry.evictable) {
+                long size = analysis.estimateSize(node, result);
+                synchronized (this) {
+                    if (entries.get(key) == entry) {
+                        estimatedSize += size - entry.size;
+                        entry.size = size;
+                        evict();
+                    }
+                }
+            }
+            return result;
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    remove(key, entry);
+                }
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return analysis.compute(node, monitor);
+        }
+    }
+
+    /** Evicts least recently used results until the estimated size is within the budget */
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (estimatedSize > memoryBudget && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest.evictable && eldest.result.isDone()) {
+                it.remove();
+                estimatedSize -= eldest.size;
+                evictions++;
+            }
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        estimatedSize -= entry.size;
+    }
+
+    /**
+     * Discards every stored result for the given node, its ancestors, and its descendants.
+     */
+    public synchronized void invalidateResults(IASTNode node) {
+        List<Key> stale = new ArrayList<Key>();
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            IASTNode analyzed = e.getKey().node;
+            if (ASTUtil.isAncestor(analyzed, node) || ASTUtil.isAncestor(node, analyzed)) {
+                stale.add(e.getKey());
+            }
+        }
+        for (Key key : stale) {
+            remove(key, entries.get(key));
+        }
+    }
+
+    /** Discards every stored result. */
+    public synchronized void clear() {
+        entries.clear();
+        estimatedSize = 0;
+    }
+
+    /** @return the translation unit whose analyses are stored in this session */
+    public IASTTranslationUnit getTranslationUnit() {
+        return tu;
+    }
+
+    /** @return the number of stored results */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return the estimated size of the stored results, in bytes */
+    public synchronized long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /** @return the limit on the estimated size of the stored results, in bytes */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /** @return the number of requests answered with a stored result */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /** @return the number of requests for which an analysis was performed */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /** @return the number of results discarded to stay within the memory budget */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d results (%d bytes estimated), %d hits, %d misses, %d evictions", entries.size(), //$NON-NLS-1$
+                estimatedSize, hits, misses, evictions);
+    }
+}
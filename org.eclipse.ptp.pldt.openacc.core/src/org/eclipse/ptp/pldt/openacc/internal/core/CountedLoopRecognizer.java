@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core;
+
+import org.eclipse.cdt.core.dom.ast.IASTArrayDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
+import org.eclipse.cdt.core.dom.ast.IASTDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarationStatement;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTEqualsInitializer;
+import org.eclipse.cdt.core.dom.ast.IASTExpression;
+import org.eclipse.cdt.core.dom.ast.IASTExpressionStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFieldDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTInitializerClause;
+import org.eclipse.cdt.core.dom.ast.IASTLiteralExpression;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNamedTypeSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTUnaryExpression;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+
+/**
+ * Recognizes the header of a counted <code>for</code> loop in a single pass over the loop header.
+ * <p>
+ * A loop is counted if its header has the form
+ *
+ * <pre>
+ * for (<i>init</i>; <i>i</i> <i>op</i> <i>bound</i>; <i>step</i>)
+ * </pre>
+ *
+ * where
+ * <ul>
+ * <li><i>init</i> is either <code>i = c</code> or a declaration <code>T i = c</code> of a single variable, where
+ * <code>c</code> is an integer constant and <code>T</code> is a builtin integer type (<code>int</code>,
+ * <code>long</code>, ...) or a typedef name (<code>int32_t</code>, <code>uint64_t</code>, ...);</li>
+ * <li><i>op</i> is <code>&lt;</code> or <code>&lt;=</code>;</li>
+ * <li><i>bound</i> is an integer constant, a variable <code>j</code>, or a simple field reference
+ * <code>j.k</code>; and</li>
+ * <li><i>step</i> is <code>i++</code>, <code>i += c</code>, or <code>i = i + c</code>, where <code>c</code> is an
+ * integer constant.</li>
+ * </ul>
+ * These are the same loop shapes that were previously described by a list of AST patterns; the recognizer checks
+ * the header structurally, so nothing is parsed or copied when a loop is classified.
+ *
+ * @author Jeff Overbey
+ * @see ForStatementInquisitor#isCountedLoop()
+ */
+public final class CountedLoopRecognizer {
+
+	/** The recognizer is stateless, so a single instance is shared by every query. */
+	private static final CountedLoopRecognizer INSTANCE = new CountedLoopRecognizer();
+
+	/** Result returned by {@link CountedLoopRecognizer#recognize(IASTForStatement)}. */
+	public static final class Result {
+		private final IASTName indexName;
+		private final IASTExpression initializer;
+		private final int boundOperator;
+		private final IASTExpression bound;
+		private final IASTLiteralExpression step;
+
+		private Result(IASTName indexName, IASTExpression initializer, int boundOperator, IASTExpression bound,
+				IASTLiteralExpression step) {
+			this.indexName = indexName;
+			this.initializer = initializer;
+			this.boundOperator = boundOperator;
+			this.bound = bound;
+			this.step = step;
+		}
+
+		/** @return the occurrence of the index variable in the loop's condition expression (non-<code>null</code>) */
+		public IASTName getIndexName() {
+			return indexName;
+		}
+
+		/** @return the binding for the index variable, or <code>null</code> if it cannot be resolved */
+		public IBinding getIndexBinding() {
+			return indexName.resolveBinding();
+		}
+
+		/** @return the integer constant assigned to the index variable before the first iteration */
+		public IASTExpression getInitializer() {
+			return initializer;
+		}
+
+		/**
+		 * @return {@link IASTBinaryExpression#op_lessThan} or {@link IASTBinaryExpression#op_lessEqual}
+		 */
+		public int getBoundOperator() {
+			return boundOperator;
+		}
+
+		/** @return the right-hand side of the loop's condition expression */
+		public IASTExpression getBound() {
+			return bound;
+		}
+
+		/**
+		 * @return the integer constant added to the index variable on each iteration, or <code>null</code> if the
+		 *         loop is incremented by <code>i++</code>
+		 */
+		public IASTLiteralExpression getStepLiteral() {
+			return step;
+		}
+
+		/** @return the amount added to the index variable on each iteration */
+		public int getStep() {
+			return step == null ? 1 : Integer.parseInt(new String(step.getValue()));
+		}
+	}
+
+	/**
+	 * Determines whether the given loop is a counted loop.
+	 *
+	 * @param loop
+	 *            loop to classify (may be <code>null</code>)
+	 * @return the parts of the loop header, or <code>null</code> if the loop is not a counted loop
+	 */
+	public static Result recognize(IASTForStatement loop) {
+		return INSTANCE.match(loop);
+	}
+
+	private CountedLoopRecognizer() {
+	}
+
+	private Result match(IASTForStatement loop) {
+		if (loop == null || loop.getBody() == null)
+			return null;
+
+		IASTStatement initStmt = loop.getInitializerStatement();
+		IASTName initName;
+		IASTExpression initializer;
+		if (initStmt instanceof IASTExpressionStatement) {
+			IASTExpression initExpr = ((IASTExpressionStatement) initStmt).getExpression();
+			Pair<IASTExpression, IASTExpression> asgt = ASTPatternUtil.getAssignment(initExpr);
+			if (asgt == null)
+				return null;
+			initName = ASTPatternUtil.getIdExpression(asgt.getFirst());
+			initializer = asgt.getSecond();
+		} else if (initStmt instanceof IASTDeclarationStatement) {
+			IASTDeclarator declarator = getIndexDeclarator(((IASTDeclarationStatement) initStmt).getDeclaration());
+			if (declarator == null || !(declarator.getInitializer() instanceof IASTEqualsInitializer))
+				return null;
+			IASTInitializerClause clause = ((IASTEqualsInitializer) declarator.getInitializer()).getInitializerClause();
+			if (!(clause instanceof IASTExpression))
+				return null;
+			initName = declarator.getName();
+			initializer = (IASTExpression) clause;
+		} else {
+			return null;
+		}
+		if (initName == null || !isIntegerConstant(initializer))
+			return null;
+
+		if (!(loop.getConditionExpression() instanceof IASTBinaryExpression))
+			return null;
+		IASTBinaryExpression condition = (IASTBinaryExpression) loop.getConditionExpression();
+		int op = condition.getOperator();
+		if (op != IASTBinaryExpression.op_lessThan && op != IASTBinaryExpression.op_lessEqual)
+			return null;
+		IASTName indexName = ASTPatternUtil.getIdExpression(condition.getOperand1());
+		String index = indexName == null ? null : indexName.toString();
+		if (index == null || !index.equals(initName.toString()) || !isBound(condition.getOperand2()))
+			return null;
+
+		IASTExpression iter = loop.getIterationExpression();
+		IASTLiteralExpression step;
+		if (iter instanceof IASTUnaryExpression) {
+			IASTUnaryExpression unary = (IASTUnaryExpression) iter;
+			if (unary.getOperator() != IASTUnaryExpression.op_postFixIncr || !isName(unary.getOperand(), index))
+				return null;
+			step = null;
+		} else if (iter instanceof IASTBinaryExpression) {
+			IASTBinaryExpression binary = (IASTBinaryExpression) iter;
+			if (!isName(binary.getOperand1(), index))
+				return null;
+			IASTExpression increment;
+			if (binary.getOperator() == IASTBinaryExpression.op_plusAssign) {
+				increment = binary.getOperand2();
+			} else if (binary.getOperator() == IASTBinaryExpression.op_assign
+					&& binary.getOperand2() instanceof IASTBinaryExpression) {
+				IASTBinaryExpression sum = (IASTBinaryExpression) binary.getOperand2();
+				if (sum.getOperator() != IASTBinaryExpression.op_plus || !isName(sum.getOperand1(), index))
+					return null;
+				increment = sum.getOperand2();
+			} else {
+				return null;
+			}
+			if (!isIntegerConstant(increment))
+				return null;
+			step = (IASTLiteralExpression) increment;
+		} else {
+			return null;
+		}
+
+		return new Result(indexName, initializer, op, condition.getOperand2(), step);
+	}
+
+	/**
+	 * @return the declarator for <code>T i = ...</code>, or <code>null</code> if the declaration does not declare
+	 *         exactly one plain variable with a supported type
+	 */
+	private IASTDeclarator getIndexDeclarator(IASTDeclaration declaration) {
+		if (!(declaration instanceof IASTSimpleDeclaration))
+			return null;
+		IASTSimpleDeclaration simpleDecl = (IASTSimpleDeclaration) declaration;
+		if (!isIndexType(simpleDecl.getDeclSpecifier()) || simpleDecl.getDeclarators().length != 1)
+			return null;
+
+		IASTDeclarator declarator = simpleDecl.getDeclarators()[0];
+		if (declarator instanceof IASTArrayDeclarator || declarator instanceof IASTFunctionDeclarator
+				|| declarator instanceof IASTFieldDeclarator || declarator.getNestedDeclarator() != null)
+			return null;
+		return declarator;
+	}
+
+	private boolean isIndexType(IASTDeclSpecifier declSpec) {
+		if (declSpec == null || declSpec.getStorageClass() != IASTDeclSpecifier.sc_unspecified
+				|| declSpec.getAlignmentSpecifiers().length != 0)
+			return false;
+
+		if (declSpec instanceof IASTSimpleDeclSpecifier) {
+			// int, long (which is t_unspecified with the long modifier), etc.
+			IASTSimpleDeclSpecifier simple = (IASTSimpleDeclSpecifier) declSpec;
+			return (simple.getType() == IASTSimpleDeclSpecifier.t_int
+					|| simple.getType() == IASTSimpleDeclSpecifier.t_unspecified)
+					&& simple.getDeclTypeExpression() == null;
+		} else {
+			// int32_t, uint64_t, etc.
+			return declSpec instanceof IASTNamedTypeSpecifier;
+		}
+	}
+
+	private boolean isBound(IASTExpression expr) {
+		return isIntegerConstant(expr) //
+				|| ASTPatternUtil.getIdExpression(expr) != null //
+				|| ASTPatternUtil.getSimpleFieldReference(expr) != null;
+	}
+
+	private boolean isName(IASTExpression expr, String name) {
+		IASTName idName = ASTPatternUtil.getIdExpression(expr);
+		return idName != null && name.equals(idName.toString());
+	}
+
+	private boolean isIntegerConstant(IASTExpression expr) {
+		return expr instanceof IASTLiteralExpression
+				&& ((IASTLiteralExpression) expr).getKind() == IASTLiteralExpression.lk_integer_constant;
+	}
+}
@@ -14,7 +14,6 @@ package org.eclipse.ptp.pldt.openacc.internal.core;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.WeakHashMap;
 
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
@@ -28,19 +27,14 @@ import org.eclipse.cdt.core.dom.ast.IASTForStatement;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
 import org.eclipse.cdt.core.dom.ast.IASTInitializerClause;
 import org.eclipse.cdt.core.dom.ast.IASTLiteralExpression;
-import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
-import org.eclipse.cdt.core.dom.ast.IASTNode.CopyStyle;
 import org.eclipse.cdt.core.dom.ast.IASTNullStatement;
 import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IASTUnaryExpression;
 import org.eclipse.cdt.core.dom.ast.IBinding;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation;
-import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ASTMatcher;
-import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryIntegerConstant;
-import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.DemandDrivenConstantEvaluator;
 
 public class ForStatementInquisitor {
 
@@ -49,26 +43,28 @@ public class ForStatementInquisitor {
 	}
 
 	private static class InquisitorFactory {
-		private static final WeakHashMap<IASTForStatement, ForStatementInquisitor> refs = new WeakHashMap<>();
+		private static final AnalysisSession.Analysis<IASTForStatement, ForStatementInquisitor> ANALYSIS = new AnalysisSession.Analysis<IASTForStatement, ForStatementInquisitor>(
+				"For statement inquisitor") { //$NON-NLS-1$
+			@Override
+			protected ForStatementInquisitor compute(IASTForStatement forStmt, IProgressMonitor monitor) {
+				return new ForStatementInquisitor(forStmt);
+			}
+		};
 
 		/**
-		 * Factory method. Creates a {@link ForStatementInquisitor} (or returns a cached copy) for an {@link IASTForStatement}.
+		 * Factory method. Creates a {@link ForStatementInquisitor} (or returns the one stored in the
+		 * {@link AnalysisSession} for the loop's translation unit) for an {@link IASTForStatement}.
 		 * <p>
-		 * <code>forStmt</code> may be <code>null</code>.
+		 * <code>forStmt</code> may be <code>null</code>, in which case a new inquisitor is always created.
 		 * 
 		 * @param forStmt
 		 *            statement for which to create an inquisitor
 		 * @return {@link ForStatementInquisitor} (non-<code>null</code>)
 		 */
 		public static ForStatementInquisitor getInquisitor(IASTForStatement forStmt) {
-			// Is there a cached ForStatementInquisitor for this loop?
-			if (refs.containsKey(forStmt) && refs.get(forStmt) != null)
-				return refs.get(forStmt);
-
-			// Otherwise we need to create a new one
-			ForStatementInquisitor value = new ForStatementInquisitor(forStmt);
-			refs.put(forStmt, value);
-			return value;
+			if (forStmt == null)
+				return new ForStatementInquisitor(forStmt);
+			return AnalysisSession.get(ANALYSIS, forStmt);
 		}
 	}
 
@@ -78,254 +74,75 @@ public class ForStatementInquisitor {
         return statement;
     }
 
-    private boolean counted;
-
-    // Patterns of for loops that are acceptable to refactor...
-    private static String[] patterns = {
-            // Constant upper bound
-            "for (i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < 1; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= 1; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < 1; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= 1; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < 1; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= 1; i=i+1) ;", // //$NON-NLS-1$
-            // Variable upper bound
-            "for (i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j; i=i+1) ;", // //$NON-NLS-1$
-            // Simple field reference upper bound
-            "for (i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int32_t i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint32_t i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (long i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (int64_t i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j.k; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j.k; i++) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j.k; i+=1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i < j.k; i=i+1) ;", // //$NON-NLS-1$
-            "for (uint64_t i = 0; i <= j.k; i=i+1) ;", // //$NON-NLS-1$
-    };
+    /** Parts of the loop header, or <code>null</code> if this is not a counted loop */
+    private final CountedLoopRecognizer.Result header;
 
     private ForStatementInquisitor(IASTForStatement statement) {
         this.statement = statement;
-        this.counted = determineIfLoopIsCounted(statement); // cache this for performance
+        this.header = CountedLoopRecognizer.recognize(statement); // cache this for performance
     }
 
-	private static boolean determineIfLoopIsCounted(IASTForStatement statement) {
-		class LiteralReplacer extends ASTVisitor {
-            public LiteralReplacer() {
-                shouldVisitExpressions = true;
-            }
-
-            @Override
-            public int visit(IASTExpression expr) {
-                if (expr instanceof IASTLiteralExpression && expr.getParent() != null) {
-                    IASTLiteralExpression literal = (IASTLiteralExpression) expr;
-                    if (literal.getParent() instanceof IASTBinaryExpression)
-                        ((IASTBinaryExpression) literal.getParent()).setOperand2(new ArbitraryIntegerConstant());
-                    else if (literal.getParent() instanceof IASTEqualsInitializer)
-                        ((IASTEqualsInitializer) literal.getParent())
-                                .setInitializerClause(new ArbitraryIntegerConstant());
-                }
-                return PROCESS_CONTINUE;
-            }
-        }
-
-        for (String pattern : patterns) {
-            IASTForStatement orig = (IASTForStatement) ASTUtil.parseStatementNoFail(pattern);
-            IASTForStatement patternAST = orig.copy(CopyStyle.withoutLocations);
-            patternAST.accept(new LiteralReplacer());
-            patternAST.setBody(new ArbitraryStatement());
-            if (ASTMatcher.unify(patternAST, statement) != null) {
-                return true;
-            }
-        }    
-        return false;
-	}
-
     /**
-     * Method matches the parameter with all of the patterns defined in the pattern string array above. It parses each
-     * string into a corresponding AST and then uses a pattern matching utility to match if the pattern is loosely
-     * synonymous to the matchee. (Basically, we have to check some pre-conditions before refactoring or else we could
-     * run into some hairy cases such as an array subscript expression being in the initializer statement...which would
-     * be a nightmare to refactor).
+     * Returns whether the loop header has one of the forms described in {@link CountedLoopRecognizer}. (Basically, we
+     * have to check some pre-conditions before refactoring or else we could run into some hairy cases such as an array
+     * subscript expression being in the initializer statement...which would be a nightmare to refactor).
      * 
-     * @param matchee
-     *            -- tree or AST to match
-     * @return Boolean describing whether the matchee matches any supported pattern
-     * @throws CoreException
+     * @return Boolean describing whether the loop matches any supported pattern
      */
     public boolean isCountedLoop() {
-        return counted;
+        return header != null;
     }
 
     /**
      * Returns the index variable for a counted loop, or <code>null</code> if the loop does not match one of the
      * supported patterns for counted loops.
      * 
-     * @param matchee
      * @return IBinding
      */
     public IBinding getIndexVariable() {
         if (!isCountedLoop())
             return null;
 
-        class NameFinder extends ASTVisitor {
-            private IASTName name = null;
-
-            NameFinder() {
-                super(true);
-            }
-
-            @Override
-            public int visit(IASTName name) {
-                if (this.name == null)
-                    this.name = name;
-                return PROCESS_ABORT;
-            }
-        }
-
-        NameFinder nameFinder = new NameFinder();
-        statement.getConditionExpression().accept(nameFinder);
-        // nameFinder.name will be non-null for all of the patterns we match
-        return nameFinder.name.resolveBinding();
+        return header.getIndexBinding();
     }
 
     public Long getLowerBound() {
-        // This makes assumptions about the tree structure based on the patterns above
         IASTFunctionDefinition enclosingFunction = ASTUtil.findNearestAncestor(statement, IASTFunctionDefinition.class);
-        if (statement.getInitializerStatement() instanceof IASTDeclarationStatement) {
+        if (isCountedLoop()) {
+            return DemandDrivenConstantEvaluator.forFunction(enclosingFunction).evaluate(header.getInitializer());
+        } else if (statement.getInitializerStatement() instanceof IASTDeclarationStatement) {
             IASTDeclarationStatement stmt = (IASTDeclarationStatement) statement.getInitializerStatement();
             IASTSimpleDeclaration simpleDecl = (IASTSimpleDeclaration) stmt.getDeclaration();
             for (IASTDeclarator declarator : simpleDecl.getDeclarators()) {
                 IASTEqualsInitializer eqInit = (IASTEqualsInitializer) declarator.getInitializer();
                 IASTInitializerClause initializer = eqInit.getInitializerClause();
-                return new ConstantPropagation(enclosingFunction).evaluate((IASTExpression) initializer);
+                return DemandDrivenConstantEvaluator.forFunction(enclosingFunction).evaluate((IASTExpression) initializer);
             }
         } else if (statement.getInitializerStatement() instanceof IASTExpressionStatement) {
             IASTExpressionStatement stmt = (IASTExpressionStatement) statement.getInitializerStatement();
-            return new ConstantPropagation(enclosingFunction).evaluate(stmt.getExpression());
+            return DemandDrivenConstantEvaluator.forFunction(enclosingFunction).evaluate(stmt.getExpression());
         }
         throw new IllegalStateException();
     }
 
     public Long getInclusiveUpperBound() {
-        IASTBinaryExpression condExpr = (IASTBinaryExpression) statement.getConditionExpression();
-        IASTExpression ubExpr = condExpr.getOperand2();
+        IASTExpression ubExpr;
+        int operator;
+        if (isCountedLoop()) {
+            ubExpr = header.getBound();
+            operator = header.getBoundOperator();
+        } else {
+            IASTBinaryExpression condExpr = (IASTBinaryExpression) statement.getConditionExpression();
+            ubExpr = condExpr.getOperand2();
+            operator = condExpr.getOperator();
+        }
 
         IASTFunctionDefinition enclosingFunction = ASTUtil.findNearestAncestor(statement, IASTFunctionDefinition.class);
-        Long newUB = new ConstantPropagation(enclosingFunction).evaluate(ubExpr);
+        Long newUB = DemandDrivenConstantEvaluator.forFunction(enclosingFunction).evaluate(ubExpr);
         if (newUB == null)
             return null;
 
-        if (condExpr.getOperator() == IASTBinaryExpression.op_lessThan)
+        if (operator == IASTBinaryExpression.op_lessThan)
             newUB = newUB.longValue() - 1;
 
         return newUB;
@@ -497,11 +314,15 @@ public class ForStatementInquisitor {
      * @return integer describing linear loop's iterator returns -1 if invalid depth
      */
     public int getIterationFactor(int depth) {
-        IASTForStatement header = ASTUtil.findDepth(statement, IASTForStatement.class, depth);
-        if (header == null) {
+        IASTForStatement loop = ASTUtil.findDepth(statement, IASTForStatement.class, depth);
+        if (loop == null) {
             return -1;
         }
-        IASTExpression iterationExpression = header.getIterationExpression();
+        CountedLoopRecognizer.Result loopHeader = getInquisitor(loop).header;
+        if (loopHeader != null) {
+            return loopHeader.getStep();
+        }
+        IASTExpression iterationExpression = loop.getIterationExpression();
 
         // Based on our accepted patterns, the only literal in this expression
         // should be how the linear iteration is depicted. For now, find the
@@ -28,7 +28,6 @@ import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccGangClauseNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccVectorClauseNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccWorkerClauseNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
 
 /**
  * Used to create and analyze a function call graph.
@@ -143,25 +142,23 @@ public class FunctionNode {
 	}
 
 	private FunctionLevel getLevelFromPragma(IASTPreprocessorPragmaStatement pragma, FunctionLevel level) throws FunctionGraphException {
-		try {
-			IAccConstruct parse = new OpenACCParser().parse(pragma.getRawSignature());
-			if (!OpenACCUtil.find(parse, 
-					ASTAccVectorClauseNode.class).isEmpty() && 
-					(level == null || level == FunctionLevel.SEQ)) {
-				level = FunctionLevel.VECTOR;
-			} else if (!OpenACCUtil.find(parse, 
-					ASTAccWorkerClauseNode.class).isEmpty() && 
-					(level == null || level.compareTo(FunctionLevel.WORKER) < 0)) {
-				level = FunctionLevel.WORKER;
-			} else if (OpenACCUtil.isAccAccelConstruct(parse)
-					|| !OpenACCUtil.find(parse, 
-							ASTAccGangClauseNode.class).isEmpty()) {
-				level = FunctionLevel.GANG;
-			} 
-		} catch (Exception e) {
+		IAccConstruct parse = OpenACCUtil.getAccConstruct(pragma);
+		if (parse == null) {
 			root.status.addError(Messages.FunctionNode_CannotParsePreprocessorStatement, 
 					ASTUtil.getStatusContext(pragma, pragma));
-		}
+		} else if (!OpenACCUtil.find(parse, 
+				ASTAccVectorClauseNode.class).isEmpty() && 
+				(level == null || level == FunctionLevel.SEQ)) {
+			level = FunctionLevel.VECTOR;
+		} else if (!OpenACCUtil.find(parse, 
+				ASTAccWorkerClauseNode.class).isEmpty() && 
+				(level == null || level.compareTo(FunctionLevel.WORKER) < 0)) {
+			level = FunctionLevel.WORKER;
+		} else if (OpenACCUtil.isAccAccelConstruct(parse)
+				|| !OpenACCUtil.find(parse, 
+						ASTAccGangClauseNode.class).isEmpty()) {
+			level = FunctionLevel.GANG;
+		} 
 		return level;
 	}
 	
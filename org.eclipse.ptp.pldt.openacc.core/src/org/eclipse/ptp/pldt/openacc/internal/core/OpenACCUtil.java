@@ -15,29 +15,141 @@ package org.eclipse.ptp.pldt.openacc.internal.core;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IASTNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
 
 public class OpenACCUtil {
 
+    /** Stored in place of a construct for a pragma that is not an OpenACC directive */
+    private static final Object NOT_OPENACC = new Object();
+
+    /**
+     * For each translation unit, the OpenACC construct (or {@link #NOT_OPENACC}) for every pragma that has been
+     * parsed. The session is discarded when the translation unit is changed, and pragma statements are compared by
+     * identity, so each pragma is parsed at most once for each version of the AST. The map is filled in after it is
+     * stored, so its size cannot be estimated; it is bounded by the number of pragmas in the translation unit, and it
+     * is not evicted, since that would only cause the pragmas to be parsed again.
+     */
+    private static final AnalysisSession.Analysis<IASTTranslationUnit, ConcurrentMap<IASTPreprocessorPragmaStatement, Object>> PARSED_PRAGMAS = new AnalysisSession.Analysis<IASTTranslationUnit, ConcurrentMap<IASTPreprocessorPragmaStatement, Object>>(
+            "Parsed OpenACC pragmas") { //$NON-NLS-1$
+        @Override
+        protected ConcurrentMap<IASTPreprocessorPragmaStatement, Object> compute(IASTTranslationUnit tu,
+                IProgressMonitor monitor) {
+            return new ConcurrentHashMap<IASTPreprocessorPragmaStatement, Object>();
+        }
+
+        @Override
+        protected boolean isEvictable() {
+            return false;
+        }
+    };
+
+    /**
+     * For each translation unit, the {@link AccConstructKind} (or {@link #NOT_OPENACC}) for every pragma that has been
+     * classified. Classifying a pragma only scans its directive name, so queries about the kind of a construct do not
+     * require the pragma to be parsed. Like {@link #PARSED_PRAGMAS}, the map is not evicted.
+     */
+    private static final AnalysisSession.Analysis<IASTTranslationUnit, ConcurrentMap<IASTPreprocessorPragmaStatement, Object>> PRAGMA_KINDS = new AnalysisSession.Analysis<IASTTranslationUnit, ConcurrentMap<IASTPreprocessorPragmaStatement, Object>>(
+            "OpenACC pragma kinds") { //$NON-NLS-1$
+        @Override
+        protected ConcurrentMap<IASTPreprocessorPragmaStatement, Object> compute(IASTTranslationUnit tu,
+                IProgressMonitor monitor) {
+            return new ConcurrentHashMap<IASTPreprocessorPragmaStatement, Object>();
+        }
+
+        @Override
+        protected boolean isEvictable() {
+            return false;
+        }
+    };
+
+    /** Parsers can be reused but are not thread-safe, so each thread reuses its own */
+    private static final ThreadLocal<OpenACCParser> PARSER = new ThreadLocal<OpenACCParser>() {
+        @Override
+        protected OpenACCParser initialValue() {
+            return new OpenACCParser();
+        }
+    };
+
+    /**
+     * Returns the OpenACC construct for the given pragma, parsing it only if it has not already been parsed.
+     * <p>
+     * The construct is shared by every caller, so it must not be modified; clients that need to change it should parse
+     * their own copy with {@link OpenACCParser}.
+     *
+     * @return the construct, or <code>null</code> if the pragma is not an OpenACC directive
+     */
+    public static IAccConstruct getAccConstruct(IASTPreprocessorPragmaStatement pragma) {
+        IASTTranslationUnit tu = pragma.getTranslationUnit();
+        Object result;
+        if (tu == null) {
+            result = parse(pragma);
+        } else {
+            ConcurrentMap<IASTPreprocessorPragmaStatement, Object> parsed = AnalysisSession.get(PARSED_PRAGMAS, tu);
+            result = parsed.get(pragma);
+            if (result == null) {
+                result = parse(pragma);
+                Object previous = parsed.putIfAbsent(pragma, result);
+                if (previous != null) {
+                    result = previous;
+                }
+            }
+        }
+        return result == NOT_OPENACC ? null : (IAccConstruct) result;
+    }
+
+    private static Object parse(IASTPreprocessorPragmaStatement pragma) {
+        try {
+            IAccConstruct construct = PARSER.get().parse(pragma.getRawSignature());
+            return construct == null ? NOT_OPENACC : construct;
+        } catch (Exception e) {
+            return NOT_OPENACC;
+        }
+    }
+
+    /**
+     * Returns the kind of OpenACC directive in the given pragma. Only the directive name is scanned, so this is much
+     * cheaper than {@link #getAccConstruct(IASTPreprocessorPragmaStatement)}, but it does not check that the
+     * directive's clauses are well-formed.
+     *
+     * @return the kind of directive, or <code>null</code> if the pragma is not an OpenACC directive
+     */
+    public static AccConstructKind getAccConstructKind(IASTPreprocessorPragmaStatement pragma) {
+        IASTTranslationUnit tu = pragma.getTranslationUnit();
+        Object result;
+        if (tu == null) {
+            result = classify(pragma);
+        } else {
+            ConcurrentMap<IASTPreprocessorPragmaStatement, Object> kinds = AnalysisSession.get(PRAGMA_KINDS, tu);
+            result = kinds.get(pragma);
+            if (result == null) {
+                result = classify(pragma);
+                kinds.putIfAbsent(pragma, result);
+            }
+        }
+        return result == NOT_OPENACC ? null : (AccConstructKind) result;
+    }
+
+    private static Object classify(IASTPreprocessorPragmaStatement pragma) {
+        AccConstructKind kind = AccConstructKind.classify(pragma.getRawSignature());
+        return kind == null ? NOT_OPENACC : kind;
+    }
+
     public static <T extends IAccConstruct> boolean isAccConstruct(org.eclipse.cdt.core.dom.ast.IASTNode statement, Class<T> accClazz) {
     	for(IASTPreprocessorPragmaStatement pragma : ASTUtil.getPragmaNodes(statement)) {
-    		IAccConstruct construct = null;
-    		try {
-    			construct = new OpenACCParser().parse(pragma.getRawSignature());
-    		}
-    		catch(Exception e) {
-    			continue;
-    		}
-    		if((construct != null) && (accClazz.isInstance(construct))) {
+    		AccConstructKind kind = getAccConstructKind(pragma);
+    		if(kind != null && accClazz.isAssignableFrom(kind.getConstructClass())) {
     			return true;
     		}
     	}
@@ -46,22 +158,21 @@ public class OpenACCUtil {
     
     public static boolean isAccConstruct(IASTStatement statement) {
     	for(IASTPreprocessorPragmaStatement pragma : ASTUtil.getPragmaNodes(statement)) {
-    		try {
-    			new OpenACCParser().parse(pragma.getRawSignature());
-    		}
-    		catch(Exception e) {
-    			continue;
+    		if(getAccConstructKind(pragma) != null) {
+    			return true;
     		}
-    		return true;
     	}
     	return false;
     }
   
     public static boolean isAccAccelConstruct(org.eclipse.cdt.core.dom.ast.IASTNode statement) {
-    	return isAccConstruct(statement, ASTAccParallelNode.class) || 
-    			isAccConstruct(statement, ASTAccParallelLoopNode.class) || 
-    			isAccConstruct(statement, ASTAccKernelsNode.class) ||
-    			isAccConstruct(statement, ASTAccKernelsLoopNode.class);
+    	for(IASTPreprocessorPragmaStatement pragma : ASTUtil.getPragmaNodes(statement)) {
+    		AccConstructKind kind = getAccConstructKind(pragma);
+    		if(kind != null && kind.isAccelConstruct()) {
+    			return true;
+    		}
+    	}
+    	return false;
     }
     
     public static boolean isAccAccelConstruct(IAccConstruct pragma) {
@@ -71,6 +182,32 @@ public class OpenACCUtil {
     			pragma instanceof ASTAccKernelsLoopNode;
     }
 
+    /**
+     * Returns the first pragma preceding or contained in the given statements which names a parallel, kernels, or data
+     * construct but cannot be parsed (e.g., <code>#pragma acc data copy(</code>). Such a pragma is counted as a
+     * construct by {@link #isAccConstruct(IASTStatement)}, but its clauses are unknown, so transformations which infer
+     * or rewrite data clauses must not be applied to code containing it. Other directives (e.g., <code>loop</code>) do
+     * not affect data clause inference, so they are classified but not parsed.
+     *
+     * @return the pragma, or <code>null</code> if every parallel, kernels, and data construct in the statements is
+     *         well-formed
+     */
+    public static IASTPreprocessorPragmaStatement findMalformedAccPragma(IASTStatement... statements) {
+        for (IASTStatement statement : statements) {
+            List<IASTPreprocessorPragmaStatement> pragmas = new ArrayList<IASTPreprocessorPragmaStatement>();
+            pragmas.addAll(ASTUtil.getPragmaNodes(statement));
+            pragmas.addAll(ASTUtil.getInternalPragmaNodes(statement));
+            for (IASTPreprocessorPragmaStatement pragma : pragmas) {
+                AccConstructKind kind = getAccConstructKind(pragma);
+                if (kind != null && (kind.isAccelConstruct() || kind == AccConstructKind.DATA)
+                        && getAccConstruct(pragma) == null) {
+                    return pragma;
+                }
+            }
+        }
+        return null;
+    }
+
     public static IASTStatement findNearestAccConstructAncestor(org.eclipse.cdt.core.dom.ast.IASTNode startingNode) {
     	for (org.eclipse.cdt.core.dom.ast.IASTNode node = startingNode.getParent(); node != null; node = node.getParent()) {
 			if (node instanceof IASTStatement && isAccConstruct((IASTStatement) node)) {
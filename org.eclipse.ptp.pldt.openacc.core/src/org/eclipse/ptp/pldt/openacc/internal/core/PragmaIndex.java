@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * An index of the pragmas in a translation unit and the offsets at which its statements and declarations start, used
+ * to find the pragmas attached to a statement without scanning every preprocessor statement and visiting the
+ * statement's siblings on every query.
+ * <p>
+ * A pragma is attached to a node if it lies between the start of the node and the start of the nearest statement or
+ * declaration preceding the node. The index is built once per version of the translation unit and stored in its
+ * {@link AnalysisSession}; each query is then a binary search. Offsets are only compared within a single file, so
+ * pragmas and declarations in included files are not attached to statements in the main file.
+ *
+ * @author Jeff Overbey
+ */
+public final class PragmaIndex {
+
+    private static final AnalysisSession.Analysis<IASTTranslationUnit, PragmaIndex> ANALYSIS = new AnalysisSession.Analysis<IASTTranslationUnit, PragmaIndex>(
+            "Pragma index") { //$NON-NLS-1$
+        @Override
+        protected PragmaIndex compute(IASTTranslationUnit tu, IProgressMonitor monitor) {
+            return new PragmaIndex(tu);
+        }
+    };
+
+    /**
+     * @return the index for the given translation unit, building it only if the translation unit's analysis session
+     *         does not already contain a current index
+     */
+    public static PragmaIndex forTranslationUnit(IASTTranslationUnit tu) {
+        return AnalysisSession.get(ANALYSIS, tu);
+    }
+
+    /** The pragmas and statement offsets in a single file */
+    private static final class FileIndex {
+        /** Sorted start offsets of the statements and declarations in the file */
+        int[] statementOffsets;
+
+        /** Pragmas in the file, sorted by offset */
+        IASTPreprocessorPragmaStatement[] pragmas;
+
+        /** Start offsets of the pragmas, parallel to {@link #pragmas} */
+        int[] pragmaOffsets;
+    }
+
+    private static final int[] NO_OFFSETS = new int[0];
+
+    private static final IASTPreprocessorPragmaStatement[] NO_PRAGMAS = new IASTPreprocessorPragmaStatement[0];
+
+    private final Map<String, FileIndex> files = new HashMap<String, FileIndex>();
+
+    /**
+     * Constructor. Most clients should use {@link #forTranslationUnit(IASTTranslationUnit)} instead, which reuses the
+     * index until the translation unit is changed.
+     */
+    public PragmaIndex(IASTTranslationUnit tu) {
+        final Map<String, List<Integer>> statementOffsets = new HashMap<String, List<Integer>>();
+        tu.accept(new ASTVisitor() {
+            {
+                shouldVisitStatements = true;
+                shouldVisitDeclarations = true;
+            }
+
+            @Override
+            public int visit(IASTStatement stmt) {
+                add(stmt);
+                return PROCESS_CONTINUE;
+            }
+
+            @Override
+            public int visit(IASTDeclaration dec) {
+                add(dec);
+                return PROCESS_CONTINUE;
+            }
+
+            private void add(IASTNode node) {
+                IASTFileLocation loc = node.getFileLocation();
+                if (loc != null) {
+                    List<Integer> offsets = statementOffsets.get(loc.getFileName());
+                    if (offsets == null) {
+                        offsets = new ArrayList<Integer>();
+                        statementOffsets.put(loc.getFileName(), offsets);
+                    }
+                    offsets.add(loc.getNodeOffset());
+                }
+            }
+        });
+
+        Map<String, List<IASTPreprocessorPragmaStatement>> pragmas = new HashMap<String, List<IASTPreprocessorPragmaStatement>>();
+        for (IASTPreprocessorStatement pre : tu.getAllPreprocessorStatements()) {
+            if (pre instanceof IASTPreprocessorPragmaStatement && pre.getFileLocation() != null) {
+                String fileName = pre.getFileLocation().getFileName();
+                List<IASTPreprocessorPragmaStatement> list = pragmas.get(fileName);
+                if (list == null) {
+                    list = new ArrayList<IASTPreprocessorPragmaStatement>();
+                    pragmas.put(fileName, list);
+                }
+                list.add((IASTPreprocessorPragmaStatement) pre);
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : statementOffsets.entrySet()) {
+            List<Integer> offsets = entry.getValue();
+            FileIndex file = getOrCreate(entry.getKey());
+            file.statementOffsets = new int[offsets.size()];
+            for (int i = 0; i < offsets.size(); i++) {
+                file.statementOffsets[i] = offsets.get(i);
+            }
+            Arrays.sort(file.statementOffsets);
+        }
+        for (Map.Entry<String, List<IASTPreprocessorPragmaStatement>> entry : pragmas.entrySet()) {
+            List<IASTPreprocessorPragmaStatement> list = entry.getValue();
+            Collections.sort(list, ASTUtil.FORWARD_COMPARATOR);
+            FileIndex file = getOrCreate(entry.getKey());
+            file.pragmas = list.toArray(new IASTPreprocessorPragmaStatement[list.size()]);
+            file.pragmaOffsets = new int[file.pragmas.length];
+            for (int i = 0; i < file.pragmas.length; i++) {
+                file.pragmaOffsets[i] = file.pragmas[i].getFileLocation().getNodeOffset();
+            }
+        }
+    }
+
+    private FileIndex getOrCreate(String fileName) {
+        FileIndex file = files.get(fileName);
+        if (file == null) {
+            file = new FileIndex();
+            file.statementOffsets = NO_OFFSETS;
+            file.pragmas = NO_PRAGMAS;
+            file.pragmaOffsets = NO_OFFSETS;
+            files.put(fileName, file);
+        }
+        return file;
+    }
+
+    /**
+     * @return the pragmas immediately preceding the given node, i.e., those after the start of the nearest statement
+     *         or declaration that starts before the node, in source order
+     */
+    public List<IASTPreprocessorPragmaStatement> getPrecedingPragmas(IASTNode node) {
+        List<IASTPreprocessorPragmaStatement> result = new ArrayList<IASTPreprocessorPragmaStatement>();
+        IASTFileLocation loc = node.getFileLocation();
+        FileIndex file = loc == null ? null : files.get(loc.getFileName());
+        if (file == null) {
+            return result;
+        }
+        int offset = loc.getNodeOffset();
+        int preceding = lowerBound(file.statementOffsets, offset) - 1;
+        int from = preceding < 0 ? 0 : file.statementOffsets[preceding] + 1;
+        for (int i = lowerBound(file.pragmaOffsets, from); i < file.pragmas.length
+                && file.pragmaOffsets[i] < offset; i++) {
+            result.add(file.pragmas[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the pragmas lexically contained in the given node, in source order
+     */
+    public List<IASTPreprocessorPragmaStatement> getContainedPragmas(IASTNode node) {
+        List<IASTPreprocessorPragmaStatement> result = new ArrayList<IASTPreprocessorPragmaStatement>();
+        IASTFileLocation loc = node.getFileLocation();
+        FileIndex file = loc == null ? null : files.get(loc.getFileName());
+        if (file == null) {
+            return result;
+        }
+        int end = loc.getNodeOffset() + loc.getNodeLength();
+        for (int i = lowerBound(file.pragmaOffsets, loc.getNodeOffset()); i < file.pragmas.length
+                && file.pragmaOffsets[i] < end; i++) {
+            IASTFileLocation pragmaLoc = file.pragmas[i].getFileLocation();
+            if (pragmaLoc.getNodeOffset() + pragmaLoc.getNodeLength() <= end) {
+                result.add(file.pragmas[i]);
+            }
+        }
+        return result;
+    }
+
+    /** @return the index of the first element of the sorted array that is greater than or equal to the key */
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.DOMException;
+import org.eclipse.cdt.core.dom.ast.EScopeKind;
+import org.eclipse.cdt.core.dom.ast.IASTArraySubscriptExpression;
+import org.eclipse.cdt.core.dom.ast.IASTExpression;
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionCallExpression;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTIdExpression;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IArrayType;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IField;
+import org.eclipse.cdt.core.dom.ast.IPointerType;
+import org.eclipse.cdt.core.dom.ast.IQualifierType;
+import org.eclipse.cdt.core.dom.ast.IType;
+import org.eclipse.cdt.core.dom.ast.ITypedef;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ForStatementInquisitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.Pair;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.AddressTakenAnalysis;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FunctionWhitelist;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.LinearExpression;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.VariableAccess;
+
+/**
+ * Infers the section of each array accessed in an OpenACC construct, so that data clauses can transfer
+ * <code>a[lo:len]</code> rather than all of <code>a</code>.
+ * <p>
+ * Every reference to the array in the construct must be a fully subscripted array access whose leftmost subscript is a
+ * linear function of the indices of counted loops inside the construct, and those loops must have constant bounds. The
+ * range of the leftmost subscript is then computed from the loop bounds, and the section is the smallest one containing
+ * the ranges of all of the accesses. Only the leftmost dimension is narrowed, since a section of a multidimensional C
+ * array must be contiguous. If the section cannot be determined, or if it is the entire array, the whole array is
+ * transferred.
+ *
+ * @author Jeff Overbey
+ */
+public class ArraySectionInference {
+
+    private final IASTStatement[] construct;
+
+    private final boolean callsUnknownFunction;
+
+    private final Map<IBinding, String> sections = new HashMap<IBinding, String>();
+
+    public ArraySectionInference(IASTStatement... construct) {
+        this.construct = construct;
+
+        boolean calls = false;
+        for (IASTStatement stmt : construct) {
+            for (IASTFunctionCallExpression call : ASTUtil.find(stmt, IASTFunctionCallExpression.class)) {
+                if (!FunctionWhitelist.isWhitelisted(call)) {
+                    calls = true;
+                }
+            }
+        }
+        this.callsUnknownFunction = calls;
+    }
+
+    /**
+     * @return the section of the given variable accessed in the construct, e.g., <code>[0:50]</code> or
+     *         <code>[2:3][0:30]</code>, or <code>null</code> if the entire variable should be transferred
+     */
+    public String getSection(IBinding variable) {
+        if (!sections.containsKey(variable)) {
+            sections.put(variable, computeSection(variable));
+        }
+        return sections.get(variable);
+    }
+
+    private String computeSection(IBinding variable) {
+        if (!(variable instanceof IVariable) || variable instanceof IField) {
+            return null;
+        }
+
+        // Determine the rank of the array and the sizes of its dimensions (null if unknown)
+        List<Long> sizes = new ArrayList<Long>();
+        IType type = unwrap(((IVariable) variable).getType());
+        if (type instanceof IArrayType) {
+            while (type instanceof IArrayType) {
+                IArrayType arrayType = (IArrayType) type;
+                if (arrayType.getSize() == null) {
+                    sizes.add(null);
+                } else {
+                    sizes.add(arrayType.getSize().numericalValue());
+                }
+                type = unwrap(arrayType.getType());
+            }
+        } else if (type instanceof IPointerType) {
+            sizes.add(null);
+        } else {
+            return null;
+        }
+        for (int i = 1; i < sizes.size(); i++) {
+            if (sizes.get(i) == null) {
+                return null;
+            }
+        }
+
+        // A function call could access the array through a global variable or a pointer
+        if (callsUnknownFunction && (!isLocal(variable) || isAddressTaken((IVariable) variable))) {
+            return null;
+        }
+
+        long lo = Long.MAX_VALUE;
+        long hi = Long.MIN_VALUE;
+        for (IASTStatement stmt : construct) {
+            for (IASTName name : ASTUtil.find(stmt, IASTName.class)) {
+                if (!variable.equals(name.resolveBinding())) {
+                    continue;
+                }
+                VariableAccess access = arrayAccess(name, sizes.size());
+                if (access == null || access.getLinearSubscriptExpressions() == null) {
+                    return null;
+                }
+                long[] range = range(access.getLinearSubscriptExpressions()[0], access);
+                if (range == null) {
+                    return null;
+                }
+                lo = Math.min(lo, range[0]);
+                hi = Math.max(hi, range[1]);
+            }
+        }
+
+        Long size = sizes.get(0);
+        if (lo > hi || lo < 0 || (size != null && hi >= size.longValue())) {
+            return null;
+        }
+        if (size != null && lo == 0 && hi == size.longValue() - 1) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[').append(lo).append(':').append(hi - lo + 1).append(']');
+        for (int i = 1; i < sizes.size(); i++) {
+            sb.append("[0:").append(sizes.get(i)).append(']'); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the array access for the given name if it is subscripted in all of the given number of dimensions, or
+     *         <code>null</code> otherwise
+     */
+    private static VariableAccess arrayAccess(IASTName name, int rank) {
+        if (!(name.getParent() instanceof IASTIdExpression)) {
+            return null;
+        }
+        IASTExpression expr = (IASTExpression) name.getParent();
+        int depth = 0;
+        while (expr.getParent() instanceof IASTArraySubscriptExpression
+                && ((IASTArraySubscriptExpression) expr.getParent()).getArrayExpression() == expr) {
+            expr = (IASTExpression) expr.getParent();
+            depth++;
+        }
+        if (depth != rank) {
+            return null;
+        }
+        Pair<IASTName, LinearExpression[]> access = ASTPatternUtil.getMultidimArrayAccess(expr);
+        if (access == null || access.getFirst() != name) {
+            return null;
+        }
+        return new VariableAccess(ASTPatternUtil.isDefinition(name), access.getFirst(), access.getSecond());
+    }
+
+    /**
+     * @return the minimum and maximum values of the given subscript over the iterations of the loops in the construct,
+     *         or <code>null</code> if they cannot be determined
+     */
+    private long[] range(LinearExpression subscript, VariableAccess access) {
+        long min = subscript.getConstantCoefficient();
+        long max = min;
+        for (IBinding var : subscript.getVariables()) {
+            int coefficient = subscript.getCoefficient(var);
+            if (coefficient == 0) {
+                continue;
+            }
+            ForStatementInquisitor loop = enclosingLoopWithIndex(access, var);
+            if (loop == null) {
+                return null;
+            }
+            Long lb = loop.getLowerBound();
+            Long ub = loop.getInclusiveUpperBound();
+            if (lb == null || ub == null || lb.longValue() > ub.longValue() || loop.getIterationFactor() < 1) {
+                return null;
+            }
+            if (coefficient > 0) {
+                min += coefficient * lb.longValue();
+                max += coefficient * ub.longValue();
+            } else {
+                min += coefficient * ub.longValue();
+                max += coefficient * lb.longValue();
+            }
+        }
+        return new long[] { min, max };
+    }
+
+    /**
+     * @return the counted loop inside the construct and enclosing the given access whose index is the given variable,
+     *         provided the index is not assigned in the loop body; otherwise, <code>null</code>
+     */
+    private ForStatementInquisitor enclosingLoopWithIndex(VariableAccess access, IBinding index) {
+        for (IASTForStatement loop : access.getEnclosingLoops()) {
+            if (!ASTUtil.isAncestor(loop, construct)) {
+                continue;
+            }
+            ForStatementInquisitor inq = ForStatementInquisitor.getInquisitor(loop);
+            if (inq.isCountedLoop() && index.equals(inq.getIndexVariable())) {
+                for (IASTName name : ASTUtil.find(loop.getBody(), IASTName.class)) {
+                    if (index.equals(name.resolveBinding()) && ASTPatternUtil.isDefinition(name)) {
+                        return null;
+                    }
+                }
+                return inq;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAddressTaken(IVariable variable) {
+        IASTFunctionDefinition func = ASTUtil.findNearestAncestor(construct[0], IASTFunctionDefinition.class);
+        if (func == null) {
+            return true;
+        }
+        return AddressTakenAnalysis.forFunction(func, new NullProgressMonitor()).isAddressTaken(variable);
+    }
+
+    private static boolean isLocal(IBinding binding) {
+        try {
+            return binding.getScope().getKind().equals(EScopeKind.eLocal);
+        } catch (DOMException e) {
+            return false;
+        }
+    }
+
+    private static IType unwrap(IType type) {
+        while (type instanceof ITypedef || type instanceof IQualifierType) {
+            if (type instanceof ITypedef) {
+                type = ((ITypedef) type).getType();
+            } else {
+                type = ((IQualifierType) type).getType();
+            }
+        }
+        return type;
+    }
+}
@@ -10,10 +10,6 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.IVariable;
 
@@ -23,40 +19,241 @@ import org.eclipse.cdt.core.dom.ast.IVariable;
  * A constant environment maps a variable ({@link IBinding}) to an {@link Long} representing its constant value at a
  * particular point in a program, or <code>null</code> if it is not constant-valued.
  * <p>
+ * Constant environments are immutable and persistent: they are stored as hash array mapped tries, so
+ * {@link #set(IBinding, Long)} and {@link #without(IVariable)} copy only the path from the root to the affected
+ * entry (O(log n)) and share the rest of the trie with the original environment. {@link #intersect(ConstEnv)} reuses
+ * any subtrie that is shared by both environments without examining it, which is the common case at a merge point
+ * where only a few variables were assigned on each incoming path.
+ * <p>
  * Used by {@link ConstantPropagation}.
  */
 public class ConstEnv {
     /** An empty constant environment, where no variables are constant-valued. */
-    public static final ConstEnv EMPTY = new ConstEnv(Collections.<IBinding, Long> emptyMap());
+    public static final ConstEnv EMPTY = new ConstEnv(null);
+
+    /** Number of hash bits consumed at each level of the trie */
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** One or more entries whose keys have the same hash code */
+    private static final class Leaf {
+        final int hash;
+        final IBinding[] keys;
+        final Long[] values;
+
+        Leaf(int hash, IBinding[] keys, Long[] values) {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        Leaf(int hash, IBinding key, Long value) {
+            this(hash, new IBinding[] { key }, new Long[] { value });
+        }
+
+        int indexOf(IBinding key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** An interior node of the trie; each child is a {@link Leaf} or another {@link Node} */
+    private static final class Node {
+        final int bitmap;
+        final Object[] children;
+        final int size;
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+            int n = 0;
+            for (Object child : children) {
+                n += size(child);
+            }
+            this.size = n;
+        }
+    }
+
+    /** The root of the trie: <code>null</code>, a {@link Leaf}, or a {@link Node} */
+    private final Object root;
+
+    /** Lazily computed hash code, or 0 if it has not been computed */
+    private int hashCode;
+
+    private ConstEnv(Object root) {
+        this.root = root;
+    }
 
-    private final Map<IBinding, Long> env;
+    private static ConstEnv of(Object root) {
+        return root == null ? EMPTY : new ConstEnv(root);
+    }
+
+    private static int size(Object trie) {
+        if (trie == null)
+            return 0;
+        else if (trie instanceof Leaf)
+            return ((Leaf) trie).keys.length;
+        else
+            return ((Node) trie).size;
+    }
+
+    private static int hash(IBinding key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
 
-    private ConstEnv(Map<IBinding, Long> values) {
-        this.env = Collections.unmodifiableMap(values);
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
     }
 
     public ConstEnv intersect(ConstEnv that) {
-        if (that == null)
+        if (that == null || that.root == this.root)
             return this;
 
-        Map<IBinding, Long> result = new HashMap<IBinding, Long>();
-        for (IBinding b : this.env.keySet()) {
-            Long thatValue = that.env.get(b);
-            if (this.env.get(b).equals(thatValue)) {
-                result.put(b, thatValue);
+        Object result = intersect(this.root, that.root, 0);
+        if (result == this.root)
+            return this;
+        else if (result == that.root)
+            return that;
+        else
+            return of(result);
+    }
+
+    /**
+     * @return a trie containing the entries which appear in both tries with the same value, sharing structure with
+     *         <code>a</code> (or <code>b</code>) wherever possible
+     */
+    private static Object intersect(Object a, Object b, int shift) {
+        if (a == b)
+            return a;
+        if (a == null || b == null)
+            return null;
+
+        if (a instanceof Leaf)
+            return retainEntriesIn((Leaf) a, b, shift);
+        if (b instanceof Leaf)
+            return retainEntriesIn((Leaf) b, a, shift);
+
+        Node na = (Node) a;
+        Node nb = (Node) b;
+        int common = na.bitmap & nb.bitmap;
+        boolean sameAsA = common == na.bitmap;
+        int bitmap = 0;
+        Object[] children = new Object[Integer.bitCount(common)];
+        int n = 0;
+        for (int remaining = common; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            Object childA = na.children[index(na.bitmap, bit)];
+            Object child = intersect(childA, nb.children[index(nb.bitmap, bit)], shift + BITS);
+            sameAsA = sameAsA && child == childA;
+            if (child != null) {
+                bitmap |= bit;
+                children[n++] = child;
             }
         }
-        return new ConstEnv(result);
+        if (sameAsA)
+            return a;
+        return node(bitmap, children, n);
     }
 
-    public ConstEnv without(IVariable var) {
-        Map<IBinding, Long> result = new HashMap<IBinding, Long>();
-        for (IBinding b : this.env.keySet()) {
-            if (!b.equals(var)) {
-                result.put(b, this.env.get(b));
+    /** @return the entries of the given leaf which also appear in the given trie with the same value */
+    private static Object retainEntriesIn(Leaf leaf, Object trie, int shift) {
+        int n = 0;
+        boolean[] keep = new boolean[leaf.keys.length];
+        for (int i = 0; i < leaf.keys.length; i++) {
+            keep[i] = leaf.values[i].equals(get(trie, leaf.hash, leaf.keys[i], shift));
+            if (keep[i])
+                n++;
+        }
+        if (n == leaf.keys.length)
+            return leaf;
+        if (n == 0)
+            return null;
+
+        IBinding[] keys = new IBinding[n];
+        Long[] values = new Long[n];
+        n = 0;
+        for (int i = 0; i < leaf.keys.length; i++) {
+            if (keep[i]) {
+                keys[n] = leaf.keys[i];
+                values[n] = leaf.values[i];
+                n++;
             }
         }
-        return new ConstEnv(result);
+        return new Leaf(leaf.hash, keys, values);
+    }
+
+    /**
+     * @return a node with the first <code>n</code> of the given children, or the only child if it is a leaf, or
+     *         <code>null</code> if there are no children
+     */
+    private static Object node(int bitmap, Object[] children, int n) {
+        if (n == 0)
+            return null;
+        if (n == 1 && children[0] instanceof Leaf)
+            return children[0];
+        if (n < children.length) {
+            Object[] trimmed = new Object[n];
+            System.arraycopy(children, 0, trimmed, 0, n);
+            children = trimmed;
+        }
+        return new Node(bitmap, children);
+    }
+
+    public ConstEnv without(IVariable var) {
+        if (var == null)
+            return this;
+        Object result = remove(root, hash(var), var, 0);
+        return result == root ? this : of(result);
+    }
+
+    private static Object remove(Object trie, int hash, IBinding key, int shift) {
+        if (trie == null)
+            return null;
+
+        if (trie instanceof Leaf) {
+            Leaf leaf = (Leaf) trie;
+            int i = leaf.hash == hash ? leaf.indexOf(key) : -1;
+            if (i < 0)
+                return leaf;
+            if (leaf.keys.length == 1)
+                return null;
+            IBinding[] keys = new IBinding[leaf.keys.length - 1];
+            Long[] values = new Long[leaf.keys.length - 1];
+            System.arraycopy(leaf.keys, 0, keys, 0, i);
+            System.arraycopy(leaf.keys, i + 1, keys, i, keys.length - i);
+            System.arraycopy(leaf.values, 0, values, 0, i);
+            System.arraycopy(leaf.values, i + 1, values, i, values.length - i);
+            return new Leaf(hash, keys, values);
+        }
+
+        Node node = (Node) trie;
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0)
+            return node;
+        int index = index(node.bitmap, bit);
+        Object child = node.children[index];
+        Object newChild = remove(child, hash, key, shift + BITS);
+        if (newChild == child)
+            return node;
+        if (newChild != null) {
+            Object[] children = node.children.clone();
+            children[index] = newChild;
+            return node(node.bitmap, children, children.length);
+        }
+        Object[] children = new Object[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        return node(node.bitmap & ~bit, children, children.length);
     }
 
     public ConstEnv set(IBinding variable, Long value) {
@@ -67,21 +264,124 @@ public class ConstEnv {
             throw new IllegalArgumentException(
                     "Value is out of range for " + variable + ".  Invoke isInTrackedRange() before calling set()."); //$NON-NLS-1$ //$NON-NLS-2$
 
-        Map<IBinding, Long> updated = new HashMap<IBinding, Long>(this.env);
+        Object result;
         if (value == null)
-            updated.remove(variable);
+            result = remove(root, hash(variable), variable, 0);
+        else
+            result = put(root, hash(variable), variable, value, 0);
+        return result == root ? this : of(result);
+    }
+
+    private static Object put(Object trie, int hash, IBinding key, Long value, int shift) {
+        if (trie == null)
+            return new Leaf(hash, key, value);
+
+        if (trie instanceof Leaf) {
+            Leaf leaf = (Leaf) trie;
+            if (leaf.hash != hash)
+                return merge(leaf, new Leaf(hash, key, value), shift);
+            int i = leaf.indexOf(key);
+            if (i >= 0) {
+                if (leaf.values[i].equals(value))
+                    return leaf;
+                Long[] values = leaf.values.clone();
+                values[i] = value;
+                return new Leaf(hash, leaf.keys, values);
+            }
+            IBinding[] keys = new IBinding[leaf.keys.length + 1];
+            Long[] values = new Long[leaf.keys.length + 1];
+            System.arraycopy(leaf.keys, 0, keys, 0, leaf.keys.length);
+            System.arraycopy(leaf.values, 0, values, 0, leaf.values.length);
+            keys[leaf.keys.length] = key;
+            values[leaf.keys.length] = value;
+            return new Leaf(hash, keys, values);
+        }
+
+        Node node = (Node) trie;
+        int bit = bit(hash, shift);
+        int index = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            children[index] = new Leaf(hash, key, value);
+            System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+            return new Node(node.bitmap | bit, children);
+        }
+        Object child = node.children[index];
+        Object newChild = put(child, hash, key, value, shift + BITS);
+        if (newChild == child)
+            return node;
+        Object[] children = node.children.clone();
+        children[index] = newChild;
+        return new Node(node.bitmap, children);
+    }
+
+    /** @return a node containing two leaves with different hash codes */
+    private static Object merge(Leaf a, Leaf b, int shift) {
+        int bitA = bit(a.hash, shift);
+        int bitB = bit(b.hash, shift);
+        if (bitA == bitB)
+            return new Node(bitA, new Object[] { merge(a, b, shift + BITS) });
+        else if (Integer.compareUnsigned(bitA, bitB) < 0)
+            return new Node(bitA | bitB, new Object[] { a, b });
         else
-            updated.put(variable, value);
-        return new ConstEnv(updated);
+            return new Node(bitA | bitB, new Object[] { b, a });
     }
 
     public Long getValue(IBinding binding) {
-        return this.env.get(binding);
+        if (binding == null)
+            return null;
+        return get(root, hash(binding), binding, 0);
+    }
+
+    private static Long get(Object trie, int hash, IBinding key, int shift) {
+        while (trie instanceof Node) {
+            Node node = (Node) trie;
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0)
+                return null;
+            trie = node.children[index(node.bitmap, bit)];
+            shift += BITS;
+        }
+        if (trie == null)
+            return null;
+        Leaf leaf = (Leaf) trie;
+        int i = leaf.hash == hash ? leaf.indexOf(key) : -1;
+        return i < 0 ? null : leaf.values[i];
+    }
+
+    /**
+     * @return the number of constant-valued variables in this environment
+     */
+    public int size() {
+        return size(root);
     }
 
     @Override
     public int hashCode() {
-        return env.hashCode();
+        int h = hashCode;
+        if (h == 0 && root != null) {
+            h = hashCode(root);
+            hashCode = h;
+        }
+        return h;
+    }
+
+    private static int hashCode(Object trie) {
+        if (trie instanceof Leaf) {
+            Leaf leaf = (Leaf) trie;
+            int h = 0;
+            for (int i = 0; i < leaf.keys.length; i++) {
+                h += leaf.keys[i].hashCode() ^ leaf.values[i].hashCode();
+            }
+            return h;
+        } else {
+            int h = 0;
+            for (Object child : ((Node) trie).children) {
+                h += hashCode(child);
+            }
+            return h;
+        }
     }
 
     @Override
@@ -93,26 +393,55 @@ public class ConstEnv {
         if (getClass() != obj.getClass())
             return false;
         ConstEnv other = (ConstEnv) obj;
-        if (env == null) {
-            if (other.env != null)
-                return false;
-        } else if (!env.equals(other.env))
+        if (root == other.root)
+            return true;
+        if (size() != other.size())
             return false;
+        return containsAll(root, other.root, 0);
+    }
+
+    /** @return true iff every entry in <code>a</code> appears in <code>b</code> with the same value */
+    private static boolean containsAll(Object a, Object b, int shift) {
+        if (a == b || a == null)
+            return true;
+        if (a instanceof Leaf)
+            return retainEntriesIn((Leaf) a, b, shift) == a;
+        if (b instanceof Leaf || b == null)
+            return false; // a is a node with at least two entries
+        Node na = (Node) a;
+        Node nb = (Node) b;
+        if ((na.bitmap & ~nb.bitmap) != 0)
+            return false;
+        int i = 0;
+        for (int remaining = na.bitmap; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            if (!containsAll(na.children[i++], nb.children[index(nb.bitmap, bit)], shift + BITS))
+                return false;
+        }
         return true;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        for (IBinding b : this.env.keySet()) {
-            if (!first)
-                sb.append(", "); //$NON-NLS-1$
-            first = false;
-            sb.append(b);
-            sb.append(" -> "); //$NON-NLS-1$
-            sb.append(this.env.get(b));
-        }
+        append(sb, root);
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    private static void append(StringBuilder sb, Object trie) {
+        if (trie instanceof Leaf) {
+            Leaf leaf = (Leaf) trie;
+            for (int i = 0; i < leaf.keys.length; i++) {
+                if (sb.length() > 0)
+                    sb.append(", "); //$NON-NLS-1$
+                sb.append(leaf.keys[i]);
+                sb.append(" -> "); //$NON-NLS-1$
+                sb.append(leaf.values[i]);
+            }
+        } else if (trie != null) {
+            for (Object child : ((Node) trie).children) {
+                append(sb, child);
+            }
+        }
+    }
+}
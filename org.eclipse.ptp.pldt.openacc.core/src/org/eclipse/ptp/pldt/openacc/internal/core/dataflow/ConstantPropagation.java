@@ -10,12 +10,20 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.codan.core.model.cfg.IBranchNode;
 import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
-import org.eclipse.cdt.codan.core.model.cfg.IControlFlowGraph;
+import org.eclipse.cdt.codan.core.model.cfg.IDecisionNode;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
 import org.eclipse.cdt.core.dom.ast.IASTName;
@@ -25,7 +33,9 @@ import org.eclipse.cdt.core.dom.ast.IBasicType.Kind;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.IType;
 import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
 
 /**
  * Constant propagation analysis.
@@ -38,19 +48,64 @@ import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
  * are tracked only after they are assigned a constant value. When the analysis reaches an assignment through a pointer,
  * a function call, or any other construct it cannot handle, it conservatively discards the entire constant environment,
  * assuming that all of its knowledge about constant-valued variables may be wrong after that point.
+ * <p>
+ * The analysis is sparse conditional constant propagation (Wegman and Zadeck) over the {@link SSAForm} of the function.
+ * Each SSA value is either not yet known, constant, or not constant, and it can only move down that order. A CFG node
+ * is evaluated once one of its incoming edges is found to be executable, and again only when one of the SSA values it
+ * reads changes; a phi function meets only the values flowing in along executable edges. An edge leaving a condition is
+ * executable only if the condition may select it, so code on a branch which can never be taken is never evaluated, and
+ * it does not prevent a variable from being constant where the branches merge. Since each SSA value changes at most
+ * twice, the number of node evaluations is proportional to the number of SSA edges.
  * 
  * @author Jeff Overbey
  */
 @SuppressWarnings("restriction")
 public final class ConstantPropagation {
-    /** The control flow graph on which constant propagation will be performed. */
-    private final IControlFlowGraph cfg;
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, ConstantPropagation> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, ConstantPropagation>(
+            "Constant propagation") { //$NON-NLS-1$
+        @Override
+        protected ConstantPropagation compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new ConstantPropagation(func);
+        }
+    };
+
+    /**
+     * Returns the results of constant propagation on the given function, performing the analysis only if it has not
+     * already been performed on the current version of the function.
+     * <p>
+     * Results are stored in the {@link AnalysisSession} for the function's translation unit. A stored result is
+     * discarded if the function's body has been replaced since the analysis was performed. Clients that modify a
+     * function's body in place should call {@link #invalidate(IASTFunctionDefinition)} afterward.
+     * 
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link ConstantPropagation} (non-<code>null</code>)
+     */
+    public static ConstantPropagation forFunction(IASTFunctionDefinition func) {
+        return AnalysisSession.get(ANALYSIS, func);
+    }
+
+    /**
+     * Discards the cached results of constant propagation for the given function, if any.
+     * 
+     * @see #forFunction(IASTFunctionDefinition)
+     */
+    public static void invalidate(IASTFunctionDefinition func) {
+        AnalysisSession.invalidate(func);
+    }
 
-    /** The constant environment at the entry to each block in the CFG. */
-    private final Map<IBasicBlock, ConstEnv> entrySets;
+    /** The SSA form over which constant propagation is performed. */
+    private final SSAForm ssa;
+
+    /**
+     * Maps each SSA value whose value has been determined to its constant value, or to <code>null</code> if it is not
+     * constant-valued. SSA values which are not yet known (including all values in code which is never executed) are
+     * absent.
+     */
+    private final Map<SSAForm.Value, Long> lattice;
 
-    /** The constant environment at the exit from each block in the CFG. */
-    private final Map<IBasicBlock, ConstEnv> exitSets;
+    /** The blocks found to be executable. */
+    private final BitSet executable;
 
     /**
      * If an {@link IASTName} node in an AST corresponds to a variable that has been determined to be constant-valued,
@@ -63,62 +118,224 @@ public final class ConstantPropagation {
      * <p>
      * Results can be retried by visiting {@link IASTName} nodes in an AST and using this class's
      * {@link #getConstantValue(IASTName)} method to determine the constant value of that name (if any).
+     * <p>
+     * Most clients should use {@link #forFunction(IASTFunctionDefinition)} instead, which reuses previous results.
      * 
      * @param func
      *            non-<code>null</code>
      */
     public ConstantPropagation(IASTFunctionDefinition func) {
-        this.cfg = new ControlFlowGraphBuilder().build(func);
-
-        this.entrySets = new HashMap<IBasicBlock, ConstEnv>();
-        this.exitSets = new HashMap<IBasicBlock, ConstEnv>();
+        this.ssa = SSAForm.forFunction(func);
+        this.lattice = new HashMap<SSAForm.Value, Long>();
+        this.executable = new BitSet(ssa.getBlocks().size());
         this.constValuedNames = new HashMap<IASTName, Long>();
-        propagateConstants(cfg);
-    }
-
-    private void propagateConstants(IControlFlowGraph cfg) {
-        boolean changed;
-        do {
-            changed = false;
-            for (IBasicBlock bb : cfg.getNodes()) {
-                ConstEnv env = null;
-                for (IBasicBlock pred : bb.getIncomingNodes()) {
-                    if (pred != null) {
-                        ConstEnv exitSet = this.exitSets.get(pred);
-                        if (env == null) {
-                            env = exitSet;
-                        } else {
-                            env = env.intersect(exitSet);
-                        }
+        propagateConstants();
+    }
+
+    /**
+     * Propagates constants over the SSA edges of the function, evaluating only blocks reachable along executable CFG
+     * edges.
+     * <p>
+     * Blocks are taken from the worklist in reverse postorder. Visiting a block meets its phi functions, evaluates its
+     * node in an environment containing the constant values of the SSA values the node reads, lowers the values it
+     * defines, and marks the outgoing edges which may be taken executable. When an SSA value is lowered, the
+     * executable blocks which read it (directly or through a phi function) are added to the worklist.
+     */
+    private void propagateConstants() {
+        List<IBasicBlock> blocks = ssa.getBlocks();
+        int numBlocks = blocks.size();
+        Map<IBasicBlock, Integer> blockIndex = new HashMap<IBasicBlock, Integer>(numBlocks * 2);
+        for (int i = 0; i < numBlocks; i++) {
+            blockIndex.put(blocks.get(i), i);
+        }
+
+        // The SSA values read by each block, and the blocks which read each SSA value
+        List<Set<SSAForm.Value>> reads = new ArrayList<Set<SSAForm.Value>>(numBlocks);
+        Map<SSAForm.Value, BitSet> readers = new HashMap<SSAForm.Value, BitSet>();
+        for (int i = 0; i < numBlocks; i++) {
+            Set<SSAForm.Value> blockReads = findValuesRead(blocks.get(i));
+            for (SSAForm.Value value : blockReads) {
+                BitSet set = readers.get(value);
+                if (set == null) {
+                    set = new BitSet(numBlocks);
+                    readers.put(value, set);
+                }
+                set.set(i);
+            }
+            reads.add(blockReads);
+        }
+
+        // The predecessors of each block along executable edges, and the names evaluated in each block's last visit
+        List<BitSet> executablePreds = new ArrayList<BitSet>(numBlocks);
+        List<Map<IASTName, Long>> namesByBlock = new ArrayList<Map<IASTName, Long>>(numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+            executablePreds.add(new BitSet());
+            namesByBlock.add(Collections.<IASTName, Long> emptyMap());
+        }
+
+        BitSet worklist = new BitSet(numBlocks);
+        if (numBlocks > 0) {
+            executable.set(0);
+            worklist.set(0);
+        }
+        for (int i = worklist.nextSetBit(0); i >= 0; i = worklist.nextSetBit(0)) {
+            worklist.clear(i);
+            IBasicBlock bb = blocks.get(i);
+            Set<SSAForm.Value> changed = new LinkedHashSet<SSAForm.Value>();
+
+            for (SSAForm.Value phi : ssa.getPhiFunctions(bb)) {
+                for (Map.Entry<IBasicBlock, SSAForm.Value> operand : phi.getOperands().entrySet()) {
+                    Integer p = blockIndex.get(operand.getKey());
+                    if (p != null && executablePreds.get(i).get(p) && isKnown(operand.getValue())
+                            && lower(phi, lattice.get(operand.getValue()))) {
+                        changed.add(phi);
+                    }
+                }
+            }
+
+            Long condition = null;
+            Object data = ((ICfgData) bb).getData();
+            if (data instanceof IASTNode) {
+                ConstEnv env = ConstEnv.EMPTY;
+                for (SSAForm.Value value : reads.get(i)) {
+                    Long constant = lattice.get(value);
+                    if (constant != null) {
+                        env = env.set(value.getVariable(), constant);
+                    }
+                }
+
+                ConstEnv after;
+                if (data instanceof IASTExpression) {
+                    ExpressionEvaluator.Result result = ExpressionEvaluator.evaluate((IASTExpression) data, env);
+                    after = result.environment;
+                    condition = result.value;
+                    namesByBlock.set(i, result.constValuedNames);
+                } else {
+                    ConstPropNodeEvaluator.Result result = ConstPropNodeEvaluator.evaluate((IASTNode) data, env);
+                    after = result.environment;
+                    namesByBlock.set(i, result.constValuedNames);
+                }
+
+                for (SSAForm.Value value : ssa.getDefinedValues(bb)) {
+                    if (lower(value, after.getValue(value.getVariable()))) {
+                        changed.add(value);
                     }
                 }
-                this.entrySets.put(bb, env);
+            }
 
-                ConstEnv before = this.exitSets.get(bb);
-                ConstEnv after = propagateAcross(bb, env);
-                this.exitSets.put(bb, after);
-                changed = changed || !areEqual(before, after);
+            for (IBasicBlock succ : bb.getOutgoingNodes()) {
+                Integer s = blockIndex.get(succ);
+                if (s != null && mayTake(bb, succ, condition) && !executablePreds.get(s).get(i)) {
+                    executablePreds.get(s).set(i);
+                    executable.set(s);
+                    worklist.set(s);
+                }
             }
-        } while (changed);
+
+            for (SSAForm.Value value : changed) {
+                BitSet users = readers.get(value);
+                if (users != null) {
+                    BitSet executableUsers = (BitSet) users.clone();
+                    executableUsers.and(executable);
+                    worklist.or(executableUsers);
+                }
+                for (SSAForm.Value phi : value.getPhiUses()) {
+                    Integer p = blockIndex.get(phi.getBlock());
+                    if (p != null && executable.get(p)) {
+                        worklist.set(p);
+                    }
+                }
+            }
+        }
+
+        for (int i = executable.nextSetBit(0); i >= 0; i = executable.nextSetBit(i + 1)) {
+            constValuedNames.putAll(namesByBlock.get(i));
+        }
+    }
+
+    /**
+     * @return the SSA values read by the node in the given block: the values reaching its uses, and the values replaced
+     *         by its assignments and clobbers (e.g., the previous value of a variable incremented by <code>x++</code>)
+     *         <p>
+     *         The value replaced by a declarator is not read, since a declarator whose initializer is not constant
+     *         does not remove its variable from the constant environment.
+     */
+    private Set<SSAForm.Value> findValuesRead(IBasicBlock bb) {
+        Set<SSAForm.Value> result = new LinkedHashSet<SSAForm.Value>();
+        Object data = ((ICfgData) bb).getData();
+        if (data instanceof IASTNode) {
+            for (IASTName name : ASTUtil.find((IASTNode) data, IASTName.class)) {
+                SSAForm.Value value = ssa.getValue(name);
+                if (value != null && value.getDefinition() != name) {
+                    result.add(value);
+                }
+            }
+        }
+        List<SSAForm.Value> defined = ssa.getDefinedValues(bb);
+        for (SSAForm.Value value : defined) {
+            SSAForm.Value previous = value.getPrevious();
+            if (previous != null && !defined.contains(previous) && !isDeclarator(value.getDefinition())) {
+                result.add(previous);
+            }
+        }
+        return result;
     }
 
-    private boolean areEqual(ConstEnv before, ConstEnv after) {
-        if (before != null && after != null)
-            return before.equals(after);
-        else if (before == null && after == null)
+    private static boolean isDeclarator(IASTName name) {
+        return name != null && name.getParent() instanceof IASTDeclarator;
+    }
+
+    /** @return true iff the value of the given SSA value has been determined */
+    private boolean isKnown(SSAForm.Value value) {
+        return value.isEntry() || lattice.containsKey(value);
+    }
+
+    /**
+     * Meets the given SSA value with the given constant value (or <code>null</code>, if it is not constant-valued).
+     * 
+     * @return true iff the SSA value changed
+     */
+    private boolean lower(SSAForm.Value value, Long constant) {
+        if (lattice.containsKey(value)) {
+            Long current = lattice.get(value);
+            if (current == null || current.equals(constant)) {
+                return false;
+            }
+            constant = null;
+        }
+        lattice.put(value, constant);
+        return true;
+    }
+
+    /**
+     * @return false iff the given edge leaves a condition whose constant value selects the other branch
+     */
+    private static boolean mayTake(IBasicBlock bb, IBasicBlock succ, Long condition) {
+        if (condition == null || !(bb instanceof IDecisionNode) || !(succ instanceof IBranchNode)) {
             return true;
-        else
-            return false;
+        }
+        String label = ((IBranchNode) succ).getLabel();
+        if (IBranchNode.THEN.equals(label)) {
+            return condition.longValue() != 0;
+        } else if (IBranchNode.ELSE.equals(label)) {
+            return condition.longValue() == 0;
+        } else {
+            return true;
+        }
     }
 
-    private ConstEnv propagateAcross(IBasicBlock bb, ConstEnv entryEnv) {
-        Object data = ((ICfgData) bb).getData();
-        if (data == null || !(data instanceof IASTNode))
-            return entryEnv;
+    /**
+     * @return true iff the given block was found to be reachable along executable edges, i.e., it was not found to be
+     *         unreachable or on a branch which can never be taken
+     */
+    public boolean isExecutable(IBasicBlock block) {
+        int i = ssa.getBlocks().indexOf(block);
+        return i >= 0 && executable.get(i);
+    }
 
-        ConstPropNodeEvaluator.Result result = ConstPropNodeEvaluator.evaluate((IASTNode) data, entryEnv);
-        constValuedNames.putAll(result.constValuedNames);
-        return result.environment;
+    /** @return the SSA form over which constant propagation was performed */
+    public SSAForm getSSAForm() {
+        return ssa;
     }
 
     public Long getConstantValue(IASTName name) {
@@ -138,15 +355,17 @@ public final class ConstantPropagation {
     }
 
     @Override public String toString() {
+        List<IBasicBlock> blocks = ssa.getBlocks();
         Map<IBasicBlock, Integer> nodeNumbers = new HashMap<IBasicBlock, Integer>();
         int n = 1;
-        for (IBasicBlock bb : cfg.getNodes()) {
+        for (IBasicBlock bb : blocks) {
             nodeNumbers.put(bb, n++);
         }
 
         StringBuilder sb = new StringBuilder();
-        for (IBasicBlock bb : cfg.getNodes()) {
-            sb.append("NODE " + nodeNumbers.get(bb) + ":\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 0; i < blocks.size(); i++) {
+            IBasicBlock bb = blocks.get(i);
+            sb.append("NODE " + nodeNumbers.get(bb) + (executable.get(i) ? "" : " (not executable)") + ":\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
             sb.append("incoming edges from: "); //$NON-NLS-1$
             for (IBasicBlock pred : bb.getIncomingNodes()) {
@@ -154,19 +373,15 @@ public final class ConstantPropagation {
             }
             sb.append("\n"); //$NON-NLS-1$
 
-            sb.append("| " + entrySets.get(bb) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
-            if (bb instanceof ICfgData) {
-                Object data = ((ICfgData) bb).getData();
-                if (data instanceof IASTNode) {
-                    sb.append("V " + bb.getClass().getSimpleName() + ": " + ((IASTNode) data).getClass().getSimpleName() //$NON-NLS-1$ //$NON-NLS-2$
-                            + ": " + ASTUtil.toString((IASTNode) data) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
-                } else {
-                    sb.append("V " + bb.getClass().getSimpleName() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
-                }
+            sb.append("| " + toString(ssa.getPhiFunctions(bb)) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            Object data = ((ICfgData) bb).getData();
+            if (data instanceof IASTNode) {
+                sb.append("V " + bb.getClass().getSimpleName() + ": " + ((IASTNode) data).getClass().getSimpleName() //$NON-NLS-1$ //$NON-NLS-2$
+                        + ": " + ASTUtil.toString((IASTNode) data) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
             } else {
                 sb.append("V " + bb.getClass().getSimpleName() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
             }
-            sb.append("| " + exitSets.get(bb) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            sb.append("| " + toString(ssa.getDefinedValues(bb)) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
 
             sb.append("outgoing edges to: "); //$NON-NLS-1$
             for (IBasicBlock succ : bb.getOutgoingNodes()) {
@@ -180,6 +395,19 @@ public final class ConstantPropagation {
         return sb.toString();
     }
 
+    private String toString(List<SSAForm.Value> values) {
+        StringBuilder sb = new StringBuilder();
+        for (SSAForm.Value value : values) {
+            if (sb.length() > 0) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(value);
+            sb.append("="); //$NON-NLS-1$
+            sb.append(lattice.containsKey(value) ? String.valueOf(lattice.get(value)) : "?"); //$NON-NLS-1$
+        }
+        return "[" + sb + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
     /**
      * @return true if constant values can be tracked for the given binding
      */
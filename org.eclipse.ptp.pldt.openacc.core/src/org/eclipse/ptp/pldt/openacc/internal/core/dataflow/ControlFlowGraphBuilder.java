@@ -17,6 +17,7 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.codan.core.cxx.Activator;
 import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.CxxControlFlowGraph;
@@ -73,6 +74,9 @@ import org.eclipse.osgi.util.NLS;
  */
 @SuppressWarnings("restriction")
 public class ControlFlowGraphBuilder {
+    /** Number of graphs built by all instances of this class, for testing */
+    private static final AtomicInteger graphsBuilt = new AtomicInteger();
+
     CxxStartNode start;
     Collection<IExitNode> exits;
     Collection<IBasicBlock> dead;
@@ -86,6 +90,7 @@ public class ControlFlowGraphBuilder {
      * Builds the graph.
      */
     public CxxControlFlowGraph build(IASTFunctionDefinition def) {
+        graphsBuilt.incrementAndGet();
         IASTStatement body = def.getBody();
         start = new CxxStartNode();
         exits = new ArrayList<>();
@@ -118,6 +123,14 @@ public class ControlFlowGraphBuilder {
         return graph;
     }
 
+    /**
+     * @return the number of control flow graphs that have been built since the class was loaded. This is intended for
+     *         tests that check whether analyses are reusing graphs rather than rebuilding them.
+     */
+    public static int getNumberOfGraphsBuilt() {
+        return graphsBuilt.get();
+    }
+
     private boolean deadConnector(IBasicBlock conn) {
         if (conn instanceof IJumpNode || conn instanceof IConnectorNode) {
             if (conn.getIncomingSize() == 0) {
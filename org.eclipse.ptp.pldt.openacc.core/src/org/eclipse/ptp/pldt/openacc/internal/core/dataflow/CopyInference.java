@@ -16,6 +16,7 @@ import java.util.Set;
 
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class CopyInference extends DataTransferInference {
 	
@@ -31,19 +32,27 @@ public class CopyInference extends DataTransferInference {
 	}
 	
 	public CopyInference(CopyinInference inferCopyin, CopyoutInference inferCopyout) {
-		super(inferCopyin.construct);
+		super(sharedRoot(inferCopyin, inferCopyout), inferCopyin.construct);
 		this.inferCopyin = inferCopyin;
 		this.inferCopyout = inferCopyout;
 		infer();
 	}
 	
 	public CopyInference(CopyinInference inferCopyin, CopyoutInference inferCopyout, IASTStatement... accIgnore) {
-		super(inferCopyin.construct, accIgnore);
+		super(sharedRoot(inferCopyin, inferCopyout), inferCopyin.construct, accIgnore);
 		this.inferCopyin = inferCopyin;
 		this.inferCopyout = inferCopyout;
 		infer();
 	}
 
+	/** Copy inference matches constructs in the copyin and copyout results, including their roots */
+	private static ArbitraryStatement sharedRoot(CopyinInference inferCopyin, CopyoutInference inferCopyout) {
+		if(inferCopyin.getRoot() != inferCopyout.getRoot()) {
+			throw new IllegalArgumentException("Copyin and copyout inferences must be given the same root"); //$NON-NLS-1$
+		}
+		return (ArbitraryStatement) inferCopyin.getRoot();
+	}
+
 	@Override
 	protected void infer() {
 		Map<IASTStatement, Set<IBinding>> copyin = inferCopyin.get();
@@ -15,6 +15,7 @@ import java.util.Set;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class CopyinInference extends DataTransferInference {
 
@@ -23,6 +24,11 @@ public class CopyinInference extends DataTransferInference {
 		infer();
 	}
 	
+	public CopyinInference(ArbitraryStatement root, IASTStatement[] construct, IASTStatement... accIgnore) {
+		super(root, construct, accIgnore);
+		infer();
+	}
+	
 	public CopyinInference(IASTStatement... construct) {
 		super(construct);
 		infer();
@@ -33,7 +39,7 @@ public class CopyinInference extends DataTransferInference {
 
 		for(IASTStatement K : topoSorted) {
     		if(tree.isAccAccelRegion(K)) {
-    			for(IASTName D : rd.reachingDefinitions(K)) {
+    			for(IASTName D : chains.reachingDefinitions(K)) {
     				if(!tree.isAncestor(D, K)) {
     					//special case declaration with no initializer - 
 						//assume we want to create (not copy in) if this is the only definition reaching in
@@ -49,7 +55,7 @@ public class CopyinInference extends DataTransferInference {
     				Set<IBinding> copyinC = treeSetIBinding();
     				copyinC.addAll(transfers.get(C));
     				for(IBinding V : copyinC) {
-    					if(canPropagateUp(V, K, C, rd)) {
+    					if(canPropagateUp(V, K, C)) {
     						transfers.get(C).remove(V);
     						transfers.get(K).add(V);
     					}
@@ -59,9 +65,9 @@ public class CopyinInference extends DataTransferInference {
     	}
     }
 	
-	private boolean canPropagateUp(IBinding V, IASTStatement K, IASTStatement C, ReachingDefinitionsAnalysis rd) {
+	private boolean canPropagateUp(IBinding V, IASTStatement K, IASTStatement C) {
 		//if a definition of V is inside K, is not inside C, reaches C, and is being copied into C as it is, we cannot propagate up
-		for(IASTName D : rd.reachingDefinitions(C)) {
+		for(IASTName D : chains.reachingDefinitions(C)) {
 			if(V.equals(D.resolveBinding()) && 
 					tree.isAncestor(D, K) && 
 					!tree.isAncestor(D, C)) { 
@@ -15,6 +15,7 @@ import java.util.Set;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class CopyoutInference extends DataTransferInference {
 
@@ -23,6 +24,11 @@ public class CopyoutInference extends DataTransferInference {
 		infer();
 	}
 	
+	public CopyoutInference(ArbitraryStatement root, IASTStatement[] construct, IASTStatement... accIgnore) {
+		super(root, construct, accIgnore);
+		infer();
+	}
+	
 	public CopyoutInference(IASTStatement... construct) {
 		super(construct);
 		infer();
@@ -33,8 +39,8 @@ public class CopyoutInference extends DataTransferInference {
 		
 		for(IASTStatement K : topoSorted) {
     		if(tree.isAccAccelRegion(K)) {
-    			for(IASTName U : rd.reachedUses(K)) {
-    				if(!tree.isAncestor(U, K)) {
+    			for(IASTName U : chains.reachedUses(K)) {
+    				if(!tree.isAncestor(U, K) && isLiveAfter(K, U.resolveBinding())) {
     					transfers.get(K).add(U.resolveBinding());
     				}
     			}
@@ -44,7 +50,7 @@ public class CopyoutInference extends DataTransferInference {
     				Set<IBinding> copyoutC = treeSetIBinding();
     				copyoutC.addAll(transfers.get(C));
     				for(IBinding V : copyoutC) {
-    					if(canPropagateUp(V, K, C, rd)) {
+    					if(canPropagateUp(V, K, C)) {
     						transfers.get(C).remove(V);
     						transfers.get(K).add(V);
     					}
@@ -55,8 +61,8 @@ public class CopyoutInference extends DataTransferInference {
     	
 	}
 	
-	private boolean canPropagateUp(IBinding V, IASTStatement K, IASTStatement C, ReachingDefinitionsAnalysis rd) {
-		for(IASTName U : rd.reachedUses(C)) {
+	private boolean canPropagateUp(IBinding V, IASTStatement K, IASTStatement C) {
+		for(IASTName U : chains.reachedUses(C)) {
 			if(V.equals(U.resolveBinding()) && 
 					tree.isAncestor(U, K) && 
 					!tree.isAncestor(U, C) && 
@@ -10,7 +10,9 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.cdt.core.dom.ast.IASTDeclarationStatement;
@@ -21,14 +23,23 @@ import org.eclipse.cdt.core.dom.ast.IField;
 import org.eclipse.cdt.core.dom.ast.IVariable;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class CreateInference extends DataTransferInference {
 
+	/** variables accessed in each construct, since these are needed repeatedly when propagating up **/
+	private final Map<IASTStatement, Set<IBinding>> varsInConstruct = new HashMap<IASTStatement, Set<IBinding>>();
+
 	public CreateInference(IASTStatement[] construct, IASTStatement... accIgnore) {
 		super(construct, accIgnore);
 		infer();
 	}
 	
+	public CreateInference(ArbitraryStatement root, IASTStatement[] construct, IASTStatement... accIgnore) {
+		super(root, construct, accIgnore);
+		infer();
+	}
+	
 	public CreateInference(IASTStatement... construct) {
 		super(construct);
 		infer();
@@ -104,7 +115,7 @@ public class CreateInference extends DataTransferInference {
 	}
 	
 	private boolean anyDefReachingConstructIsOutside(IBinding V, IASTStatement K) {
-		for(IASTName D : rd.reachingDefinitions(K)) {
+		for(IASTName D : chains.reachingDefinitions(K)) {
 			if(!ASTUtil.isAncestor(D, K) && D.resolveBinding().equals(V) && !isUninitializedDeclaration(D)) {
 				return true;
 			}
@@ -113,7 +124,10 @@ public class CreateInference extends DataTransferInference {
 	}
 	
 	private boolean anyUseReachedByConstructIsOutside(IBinding V, IASTStatement K) {
-		for(IASTName D : rd.reachedUses(K)) {
+		if(!isLiveAfter(K, V)) {
+			return false;
+		}
+		for(IASTName D : chains.reachedUses(K)) {
 			if(!ASTUtil.isAncestor(D, K) && D.resolveBinding().equals(V)) {
 				return true;
 			}
@@ -135,13 +149,18 @@ public class CreateInference extends DataTransferInference {
 	}
 
 	private Set<IBinding> varsInConstruct(IASTStatement statement) {
-		Set<IBinding> vars = new HashSet<IBinding>();
+		Set<IBinding> vars = varsInConstruct.get(statement);
+		if(vars != null) {
+			return vars;
+		}
+		vars = new HashSet<IBinding>();
 		for(IASTName name : ASTUtil.find(statement, IASTName.class)) {
 			IBinding binding = name.resolveBinding();
 			if(binding instanceof IVariable && !(binding instanceof IField)) {
 				vars.add(name.resolveBinding());
 			}
 		}
+		varsInConstruct.put(statement, vars);
 		return vars;
 	}
 	
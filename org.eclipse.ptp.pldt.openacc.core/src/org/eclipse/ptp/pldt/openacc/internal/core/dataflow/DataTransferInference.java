@@ -17,7 +17,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
@@ -45,59 +44,47 @@ public abstract class DataTransferInference {
 	protected ConstructTree tree;
 	
 	protected IASTStatement[] construct;
-	protected ReachingDefinitionsAnalysis rd;
+	protected DefUseChains chains;
 	protected List<IASTStatement> topoSorted;
 	
-	private static Map<IASTStatement[], ArbitraryStatement> roots;
-	
-	static {
-		roots = new TreeMap<IASTStatement[], ArbitraryStatement>(new Comparator<IASTStatement[]>() {
-
-			@Override
-			public int compare(IASTStatement[] o1, IASTStatement[] o2) {
-				if(o1.length != o2.length) return -1;
-				for(int i = 0; i < o1.length; i++) {
-					if(!o1[i].equals(o2[i])) {
-						return 1;
-					}
-				}
-				return 0;
-			}
-			
-		});
-	}
+	/** liveness of variables in the enclosing function, or <code>null</code> if there is none **/
+	protected LiveVariablesAnalysis liveness;
 	
 	protected DataTransferInference() {
 		
 	}
 	
 	public DataTransferInference(IASTStatement[] construct, IASTStatement... accIgnore) {
-		init(ReachingDefinitionsAnalysis.forFunction(ASTUtil.findNearestAncestor(construct[0], IASTFunctionDefinition.class)), construct, accIgnore);
+		this(new ArbitraryStatement(), construct, accIgnore);
 	}
 	
 	public DataTransferInference(IASTStatement... construct) {
-		init(ReachingDefinitionsAnalysis.forFunction(ASTUtil.findNearestAncestor(construct[0], IASTFunctionDefinition.class)), construct, new IASTStatement[] {});
+		this(new ArbitraryStatement(), construct, new IASTStatement[] {});
 	}
 	
-	private void init(ReachingDefinitionsAnalysis rd, IASTStatement[] construct, IASTStatement[] accIgnore) {
+	/**
+	 * @param root
+	 *            the root of the construct tree. Inferences whose results are compared with each other (e.g., the
+	 *            copyin and copyout inferences given to a {@link CopyInference}) must be given the same root.
+	 */
+	public DataTransferInference(ArbitraryStatement root, IASTStatement[] construct, IASTStatement... accIgnore) {
 		if(construct.length == 0) {
 			throw new IllegalArgumentException("At least one statement should be in the construct"); //$NON-NLS-1$
 		}
-		
-		ArbitraryStatement root;
-		if(roots.containsKey(construct)) {
-			root = roots.get(construct);
-		}
-		else {
-			root = new ArbitraryStatement();
-			roots.put(construct, root);
+		init(DefUseChains.forFunction(ASTUtil.findNearestAncestor(construct[0], IASTFunctionDefinition.class)), root, construct, accIgnore);
+	}
+	
+	private void init(DefUseChains chains, ArbitraryStatement root, IASTStatement[] construct, IASTStatement[] accIgnore) {
+		IASTFunctionDefinition func = ASTUtil.findNearestAncestor(construct[0], IASTFunctionDefinition.class);
+		if(func != null) {
+			liveness = LiveVariablesAnalysis.forFunction(func);
 		}
 		
 		transfers = new HashMap<IASTStatement, Set<IBinding>>();
     	tree = new ConstructTree(root, construct);
 		this.construct = construct;
     	
-		this.rd = rd;
+		this.chains = chains;
     	
     	class Init extends ASTVisitor {
     		Init() {
@@ -161,6 +148,11 @@ public abstract class DataTransferInference {
     	sorted.add((IASTStatement) root);
     }
     
+    /** conservatively true if liveness is unknown **/
+    protected boolean isLiveAfter(IASTStatement construct, IBinding variable) {
+    	return liveness == null || liveness.isLiveAfter(construct, variable);
+    }
+    
     protected boolean isUninitializedDeclaration(IASTName name) {
     	IASTDeclarator decl = ASTUtil.findNearestAncestor(name, IASTDeclarator.class);
 		IASTSimpleDeclaration simple = ASTUtil.findNearestAncestor(name, IASTSimpleDeclaration.class);
@@ -171,12 +163,7 @@ public abstract class DataTransferInference {
     }
     
     public IASTStatement getRoot() {
-    	for(IASTStatement statement : transfers.keySet()) {
-    		if(statement instanceof ArbitraryStatement) {
-    			return statement;
-    		}
-    	}
-    	return null;
+    	return tree.getRoot();
     }
     
     @Override
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+
+/**
+ * Def-use and use-def chains for a function.
+ * <p>
+ * The chains are computed from the {@link ReachingDefinitionsAnalysis} in a single pass over the names in the function
+ * and stored in tables, so each query is a lookup. {@link #reachingDefinitions(IASTName)} and
+ * {@link #reachedUses(IASTName)} return the same results as the corresponding methods in
+ * {@link ReachingDefinitionsAnalysis}; the results for statements and other nodes are remembered, so asking about the
+ * same construct repeatedly does not rescan it.
+ *
+ * @author Jeff Overbey
+ */
+public final class DefUseChains {
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, DefUseChains> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, DefUseChains>(
+            "Def-use chains") { //$NON-NLS-1$
+        @Override
+        protected DefUseChains compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new DefUseChains(ReachingDefinitionsAnalysis.forFunction(func), func);
+        }
+    };
+
+    /**
+     * Returns the def-use chains for the given function, computing them only if they have not already been computed
+     * for the current version of the function.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link DefUseChains} (non-<code>null</code>)
+     */
+    public static DefUseChains forFunction(IASTFunctionDefinition func) {
+        return AnalysisSession.get(ANALYSIS, func);
+    }
+
+    /** For each use of a variable, the definitions which reach it */
+    private final Map<IASTName, Set<IASTName>> useDef = new HashMap<IASTName, Set<IASTName>>();
+
+    /** For each definition of a variable, the uses it reaches */
+    private final Map<IASTName, Set<IASTName>> defUse = new HashMap<IASTName, Set<IASTName>>();
+
+    /** Remembered results for statements and other nodes; these may be filled in by several threads at once */
+    private final ConcurrentMap<IASTNode, Set<IASTName>> reachingDefinitionsOfNode = new ConcurrentHashMap<IASTNode, Set<IASTName>>();
+
+    private final ConcurrentMap<IASTNode, Set<IASTName>> reachedUsesOfNode = new ConcurrentHashMap<IASTNode, Set<IASTName>>();
+
+    /**
+     * Computes def-use chains for the given function from the results of reaching definitions analysis.
+     */
+    public DefUseChains(ReachingDefinitionsAnalysis rd, IASTFunctionDefinition func) {
+        for (IASTName name : ASTUtil.find(func, IASTName.class)) {
+            if (ASTPatternUtil.isDefinition(name)) {
+                Set<IASTName> uses = rd.reachedUses(name);
+                if (!uses.isEmpty()) {
+                    defUse.put(name, Collections.unmodifiableSet(uses));
+                }
+            } else {
+                Set<IASTName> defs = rd.reachingDefinitions(name);
+                if (!defs.isEmpty()) {
+                    useDef.put(name, Collections.unmodifiableSet(defs));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the definitions which reach the given occurrence of a variable (empty if the occurrence is itself a
+     *         definition)
+     * @see ReachingDefinitionsAnalysis#reachingDefinitions(IASTName)
+     */
+    public Set<IASTName> reachingDefinitions(IASTName use) {
+        Set<IASTName> result = useDef.get(use);
+        return result == null ? Collections.<IASTName> emptySet() : result;
+    }
+
+    /**
+     * @return the uses reached by the given definition (empty if the name is not a definition)
+     * @see ReachingDefinitionsAnalysis#reachedUses(IASTName)
+     */
+    public Set<IASTName> reachedUses(IASTName def) {
+        Set<IASTName> result = defUse.get(def);
+        return result == null ? Collections.<IASTName> emptySet() : result;
+    }
+
+    /**
+     * @return the definitions which reach any use of a variable in the given node
+     * @see ReachingDefinitionsAnalysis#reachingDefinitions(IASTNode)
+     */
+    public Set<IASTName> reachingDefinitions(IASTNode node) {
+        return collect(node, useDef, reachingDefinitionsOfNode);
+    }
+
+    /**
+     * @return the uses reached by any definition in the given node
+     * @see ReachingDefinitionsAnalysis#reachedUses(IASTNode)
+     */
+    public Set<IASTName> reachedUses(IASTNode node) {
+        return collect(node, defUse, reachedUsesOfNode);
+    }
+
+    private static Set<IASTName> collect(IASTNode node, Map<IASTName, Set<IASTName>> chains,
+            ConcurrentMap<IASTNode, Set<IASTName>> memo) {
+        Set<IASTName> result = memo.get(node);
+        if (result == null) {
+            result = new HashSet<IASTName>();
+            for (IASTName name : ASTUtil.find(node, IASTName.class)) {
+                Set<IASTName> chain = chains.get(name);
+                if (chain != null) {
+                    result.addAll(chain);
+                }
+            }
+            result = Collections.unmodifiableSet(result);
+            Set<IASTName> previous = memo.putIfAbsent(node, result);
+            if (previous != null) {
+                result = previous;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
+import org.eclipse.cdt.codan.core.model.cfg.IControlFlowGraph;
+import org.eclipse.cdt.codan.core.model.cfg.IStartNode;
+import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTEqualsInitializer;
+import org.eclipse.cdt.core.dom.ast.IASTExpression;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTInitializer;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTUnaryExpression;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+
+/**
+ * Demand-driven constant evaluation.
+ * <p>
+ * Answers the same queries as {@link ConstantPropagation} -- {@link #getConstantValue(IASTName)} and
+ * {@link #evaluate(IASTExpression)} -- but computes only what is needed to answer them. To find the value of a name,
+ * the CFG node containing it is evaluated in a constant environment containing the value of its variable on entry to
+ * the node (and, if the node may change the variable, the values of the variables read by its definitions). The value
+ * of a variable on entry to a node is found by walking backward from the node, past nodes which leave the variable
+ * unchanged, to the nodes which may change it; each of those nodes is evaluated the same way, in an environment
+ * containing only the variables read by its definitions of that variable. The walk stops as soon as a variable is found
+ * to be non-constant along some path, or to have different constant values along different paths. Nodes are evaluated
+ * with {@link ConstPropNodeEvaluator}, so pointer writes, function calls, and unhandled constructs are treated exactly
+ * as they are in {@link ConstantPropagation}.
+ * <p>
+ * Partial answers (the value of a variable on entry to and exit from a node) are remembered across queries. A
+ * variable whose value depends on itself around a cycle (e.g., a loop index) is treated as non-constant. If answering a
+ * query would require examining more than a fixed number of CFG nodes, the query is answered by
+ * {@link ConstantPropagation} instead.
+ * <p>
+ * Unlike {@link ConstantPropagation}, this evaluator does not prune branches whose conditions are constant, so it may
+ * determine that a variable is not constant-valued where {@link ConstantPropagation} reports a value (e.g., after
+ * <code>if (0) n = 2;</code>), and it reports values for names in code which can never be executed.
+ *
+ * @author Jeff Overbey
+ */
+@SuppressWarnings("restriction")
+public final class DemandDrivenConstantEvaluator {
+    /** The default maximum number of CFG nodes examined to answer a single query */
+    public static final int DEFAULT_BUDGET = 500;
+
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, DemandDrivenConstantEvaluator> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, DemandDrivenConstantEvaluator>(
+            "Demand-driven constant evaluation") { //$NON-NLS-1$
+        @Override
+        protected DemandDrivenConstantEvaluator compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new DemandDrivenConstantEvaluator(func, DEFAULT_BUDGET);
+        }
+    };
+
+    /**
+     * Returns a demand-driven constant evaluator for the given function, reusing an existing one (and its remembered
+     * partial answers) if the function has not changed.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link DemandDrivenConstantEvaluator} (non-<code>null</code>)
+     */
+    public static DemandDrivenConstantEvaluator forFunction(IASTFunctionDefinition func) {
+        return AnalysisSession.get(ANALYSIS, func);
+    }
+
+    /**
+     * Discards the cached evaluator for the given function, if any.
+     *
+     * @see #forFunction(IASTFunctionDefinition)
+     */
+    public static void invalidate(IASTFunctionDefinition func) {
+        AnalysisSession.invalidate(func);
+    }
+
+    /** Thrown when a query cannot be answered within the budget */
+    private static final class SliceTooComplexException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SliceTooComplexException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final SliceTooComplexException SLICE_TOO_COMPLEX = new SliceTooComplexException();
+
+    /** Value used to detect whether a node changes a variable (see {@link #leavesUnchanged(IBasicBlock, IBinding)}) */
+    private static final Long SENTINEL = Long.valueOf(1);
+
+    private final IASTFunctionDefinition func;
+
+    /** The block whose data is each statement or expression in the CFG */
+    private final Map<IASTNode, IBasicBlock> blockOfNode;
+
+    private final int budget;
+
+    /** For each block, the value of each variable on exit from it (<code>null</code> if not constant-valued) */
+    private final Map<IBasicBlock, Map<IBinding, Long>> exitValues;
+
+    /** For each block, the value of each variable on entry to it (<code>null</code> if not constant-valued) */
+    private final Map<IBasicBlock, Map<IBinding, Long>> entryValues;
+
+    /** For each block, the variables whose values on exit from it are being computed by the current query */
+    private final Map<IBasicBlock, Set<IBinding>> inProgress;
+
+    /** Number of blocks which may still be examined by the current query */
+    private int remaining;
+
+    /** Number of queries which were answered by {@link ConstantPropagation}, for testing */
+    private int fallbacks;
+
+    /**
+     * Constructor.
+     * <p>
+     * Most clients should use {@link #forFunction(IASTFunctionDefinition)} instead, which reuses previous results.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @param budget
+     *            maximum number of CFG nodes to examine when answering a single query
+     */
+    public DemandDrivenConstantEvaluator(IASTFunctionDefinition func, int budget) {
+        this.func = func;
+        IControlFlowGraph cfg = new ControlFlowGraphBuilder().build(func);
+        this.budget = budget;
+        this.blockOfNode = new HashMap<IASTNode, IBasicBlock>();
+        for (IBasicBlock bb : cfg.getNodes()) {
+            Object data = ((ICfgData) bb).getData();
+            if (data instanceof IASTNode) {
+                blockOfNode.put((IASTNode) data, bb);
+            }
+        }
+        this.exitValues = new HashMap<IBasicBlock, Map<IBinding, Long>>();
+        this.entryValues = new HashMap<IBasicBlock, Map<IBinding, Long>>();
+        this.inProgress = new HashMap<IBasicBlock, Set<IBinding>>();
+    }
+
+    /**
+     * @return the constant value of the given occurrence of a variable, or <code>null</code> if it is not
+     *         constant-valued
+     * @see ConstantPropagation#getConstantValue(IASTName)
+     */
+    public synchronized Long getConstantValue(IASTName name) {
+        IBasicBlock bb = blockContaining(name);
+        if (bb == null) {
+            return null;
+        }
+        IBinding variable = name.resolveBinding();
+        if (!ConstantPropagation.canTrackConstantValues(variable)) {
+            return null;
+        }
+        remaining = budget;
+        try {
+            return evaluateName(name, variable, bb);
+        } catch (SliceTooComplexException e) {
+            fallbacks++;
+            return ConstantPropagation.forFunction(func).getConstantValue(name);
+        } finally {
+            inProgress.clear();
+        }
+    }
+
+    /**
+     * @return the value of the given expression, or <code>null</code> if it is not constant-valued
+     * @see ConstantPropagation#evaluate(IASTExpression)
+     */
+    public Long evaluate(IASTExpression expr) {
+        class Eval extends ExpressionEvaluator {
+            @Override
+            protected Long evaluateName(IASTName name) {
+                return getConstantValue(name);
+            }
+        }
+        return new Eval().evaluate(expr);
+    }
+
+    /**
+     * @return the number of queries which could not be answered on demand and were answered by
+     *         {@link ConstantPropagation} instead
+     */
+    public synchronized int getFallbackCount() {
+        return fallbacks;
+    }
+
+    /**
+     * @return the block whose data is the innermost statement or expression containing the given node, or
+     *         <code>null</code> if there is none
+     */
+    private IBasicBlock blockContaining(IASTNode node) {
+        for (IASTNode n = node; n != null; n = n.getParent()) {
+            IBasicBlock bb = blockOfNode.get(n);
+            if (bb != null) {
+                return bb;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates the block containing the given name in an environment containing the entry value of its variable and,
+     * if the block may change that variable, the entry values of the variables read by its definitions.
+     */
+    private Long evaluateName(IASTName name, IBinding variable, IBasicBlock bb) {
+        IASTNode data = (IASTNode) ((ICfgData) bb).getData();
+        Set<IBinding> seeds = new LinkedHashSet<IBinding>();
+        seeds.add(variable);
+        if (!leavesUnchanged(bb, variable)) {
+            seeds.addAll(variablesReadByDefinitions(data, variable));
+        }
+        return ConstPropNodeEvaluator.evaluate(data, entryEnvironment(seeds, bb)).constValuedNames.get(name);
+    }
+
+    /**
+     * Evaluates the given block in an environment containing the entry values of the variables read by its
+     * definitions of the given variable.
+     *
+     * @return the value of the variable on exit from the block, or <code>null</code> if it is not constant-valued or
+     *         its value depends on itself around a cycle
+     */
+    private Long valueOnExit(IBinding variable, IBasicBlock bb) {
+        Map<IBinding, Long> values = exitValues.get(bb);
+        if (values != null && values.containsKey(variable)) {
+            return values.get(variable);
+        }
+
+        Set<IBinding> active = inProgress.get(bb);
+        if (active == null) {
+            active = new HashSet<IBinding>();
+            inProgress.put(bb, active);
+        }
+        if (!active.add(variable)) {
+            return null; // Cyclic slice
+        }
+        if (--remaining < 0) {
+            throw SLICE_TOO_COMPLEX;
+        }
+
+        IASTNode data = (IASTNode) ((ICfgData) bb).getData();
+        ConstEnv env = entryEnvironment(variablesReadByDefinitions(data, variable), bb);
+        Long result = ConstPropNodeEvaluator.evaluate(data, env).environment.getValue(variable);
+        active.remove(variable);
+
+        if (values == null) {
+            values = new HashMap<IBinding, Long>();
+            exitValues.put(bb, values);
+        }
+        values.put(variable, result);
+        return result;
+    }
+
+    /** @return an environment containing the constant values of the given variables on entry to the given block */
+    private ConstEnv entryEnvironment(Set<IBinding> variables, IBasicBlock bb) {
+        ConstEnv env = ConstEnv.EMPTY;
+        for (IBinding variable : variables) {
+            Long value = valueOnEntry(variable, bb);
+            if (value != null) {
+                env = env.set(variable, value);
+            }
+        }
+        return env;
+    }
+
+    /**
+     * @return the variables read by the right-hand sides of the definitions of the given variable in the given node
+     *         (including the variable itself for compound assignments, increments, and decrements), or all of the
+     *         variables in the node if a definition has an unrecognized form
+     */
+    private static Set<IBinding> variablesReadByDefinitions(IASTNode node, IBinding variable) {
+        Set<IBinding> result = new LinkedHashSet<IBinding>();
+        for (IASTName name : ASTUtil.find(node, IASTName.class)) {
+            if (!ASTPatternUtil.isDefinition(name) || !variable.equals(name.resolveBinding())) {
+                continue;
+            }
+
+            IASTNode parent = name.getParent();
+            IASTNode grandparent = parent == null ? null : parent.getParent();
+            if (parent instanceof IASTDeclarator) {
+                IASTInitializer init = ((IASTDeclarator) parent).getInitializer();
+                if (init instanceof IASTEqualsInitializer) {
+                    result.addAll(variablesIn(((IASTEqualsInitializer) init).getInitializerClause()));
+                }
+            } else if (grandparent instanceof IASTBinaryExpression
+                    && ((IASTBinaryExpression) grandparent).getOperand1() == parent) {
+                IASTBinaryExpression assignment = (IASTBinaryExpression) grandparent;
+                result.addAll(variablesIn(assignment.getOperand2()));
+                if (assignment.getOperator() != IASTBinaryExpression.op_assign) {
+                    result.add(variable);
+                }
+            } else if (grandparent instanceof IASTUnaryExpression) {
+                result.add(variable);
+            } else {
+                result.addAll(variablesIn(node));
+            }
+        }
+        return result;
+    }
+
+    /** @return the variables referred to in the given node whose constant values can be tracked */
+    private static Set<IBinding> variablesIn(IASTNode node) {
+        Set<IBinding> result = new LinkedHashSet<IBinding>();
+        for (IASTName name : ASTUtil.find(node, IASTName.class)) {
+            IBinding binding = name.resolveBinding();
+            if (ConstantPropagation.canTrackConstantValues(binding)) {
+                result.add(binding);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks backward from the given block to the blocks which may change the given variable, and meets the values
+     * they assign to it.
+     *
+     * @return the value of the variable on entry to the block, or <code>null</code> if it is not constant-valued
+     */
+    private Long valueOnEntry(IBinding variable, IBasicBlock bb) {
+        Map<IBinding, Long> values = entryValues.get(bb);
+        if (values != null && values.containsKey(variable)) {
+            return values.get(variable);
+        }
+
+        Long result = null;
+        boolean first = true;
+        Set<IBasicBlock> visited = new HashSet<IBasicBlock>();
+        List<IBasicBlock> worklist = new ArrayList<IBasicBlock>();
+        addPredecessors(bb, visited, worklist);
+        while (!worklist.isEmpty()) {
+            IBasicBlock pred = worklist.remove(worklist.size() - 1);
+            if (--remaining < 0) {
+                throw SLICE_TOO_COMPLEX;
+            }
+
+            Long value;
+            if (pred instanceof IStartNode) {
+                value = null; // Parameters and globals are not constant-valued on entry
+            } else if (leavesUnchanged(pred, variable)) {
+                addPredecessors(pred, visited, worklist);
+                continue;
+            } else {
+                value = valueOnExit(variable, pred);
+            }
+
+            if (value == null || (!first && !value.equals(result))) {
+                result = null;
+                break;
+            }
+            result = value;
+            first = false;
+        }
+
+        if (values == null) {
+            values = new HashMap<IBinding, Long>();
+            entryValues.put(bb, values);
+        }
+        values.put(variable, result);
+        return result;
+    }
+
+    private static void addPredecessors(IBasicBlock bb, Set<IBasicBlock> visited, List<IBasicBlock> worklist) {
+        for (IBasicBlock pred : bb.getIncomingNodes()) {
+            if (pred != null && visited.add(pred)) {
+                worklist.add(pred);
+            }
+        }
+    }
+
+    /**
+     * @return true iff evaluating the given block cannot change the value of the given variable, regardless of its
+     *         value
+     */
+    private static boolean leavesUnchanged(IBasicBlock bb, IBinding variable) {
+        Object data = ((ICfgData) bb).getData();
+        if (!(data instanceof IASTNode)) {
+            return true;
+        }
+        for (IASTName name : ASTUtil.find((IASTNode) data, IASTName.class)) {
+            if (ASTPatternUtil.isDefinition(name) && variable.equals(name.resolveBinding())) {
+                return false;
+            }
+        }
+        ConstEnv env = ConstEnv.EMPTY.set(variable, SENTINEL);
+        return SENTINEL.equals(ConstPropNodeEvaluator.evaluate((IASTNode) data, env).environment.getValue(variable));
+    }
+}
@@ -10,8 +10,9 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
 
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.ast.ASTNodeProperty;
@@ -31,16 +32,24 @@ import org.eclipse.cdt.core.parser.IToken;
 
 public class Global implements IASTName {
 
-	private IBinding binding;
-	private static Map<IBinding, Global> globals = new HashMap<IBinding, Global>();
+	private final IBinding binding;
+
+	/**
+	 * The canonical instance for each binding. Values are weakly referenced, since each instance refers to its binding;
+	 * an instance is discarded only when no analysis result refers to it.
+	 */
+	private static final Map<IBinding, WeakReference<Global>> globals = new WeakHashMap<IBinding, WeakReference<Global>>();
 	
 	public static Global newInstance(IBinding binding) {
-		if(globals.containsKey(binding)) {
-			return globals.get(binding);
+		synchronized (globals) {
+			WeakReference<Global> ref = globals.get(binding);
+			Global g = ref == null ? null : ref.get();
+			if(g == null) {
+				g = new Global(binding);
+				globals.put(binding, new WeakReference<Global>(g));
+			}
+			return g;
 		}
-		Global g = new Global(binding);
-		globals.put(binding, g);
-		return g;
 	}
 	
 	private Global(IBinding binding) {
@@ -0,0 +1,463 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
+import org.eclipse.cdt.codan.core.model.cfg.IControlFlowGraph;
+import org.eclipse.cdt.codan.core.model.cfg.IExitNode;
+import org.eclipse.cdt.core.dom.ast.DOMException;
+import org.eclipse.cdt.core.dom.ast.EScopeKind;
+import org.eclipse.cdt.core.dom.ast.IASTArraySubscriptExpression;
+import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
+import org.eclipse.cdt.core.dom.ast.IASTBreakStatement;
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTContinueStatement;
+import org.eclipse.cdt.core.dom.ast.IASTExpressionStatement;
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTGotoStatement;
+import org.eclipse.cdt.core.dom.ast.IASTIdExpression;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTReturnStatement;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTUnaryExpression;
+import org.eclipse.cdt.core.dom.ast.IArrayType;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IField;
+import org.eclipse.cdt.core.dom.ast.IParameter;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.ForStatementInquisitor;
+
+/**
+ * Live variables analysis.
+ * <p>
+ * A variable is live at a point in a function if its value at that point may be read along some path before it is
+ * overwritten. Liveness is computed backward over the same control flow graph as {@link ReachingDefinitionsAnalysis},
+ * with one bit vector per block, and writes are treated the same way: an assignment to a variable overwrites it, but an
+ * assignment to an array element does not. In addition, a counted loop which assigns every element of a local,
+ * one-dimensional array, and does not otherwise refer to it, overwrites the array, e.g.,
+ *
+ * <pre>
+ * double a[100];
+ * ...
+ * for (int i = 0; i < 100; i++)
+ *     a[i] = 0.0;
+ * </pre>
+ *
+ * This is the case that matters for data transfer inference: a definition inside an accelerator region may reach a use
+ * after such a loop, but the value it defines can never be read on the host.
+ * <p>
+ * Global variables and parameters are assumed to be live on exit from the function.
+ *
+ * @author Jeff Overbey
+ */
+@SuppressWarnings("restriction")
+public final class LiveVariablesAnalysis {
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, LiveVariablesAnalysis> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, LiveVariablesAnalysis>(
+            "Live variables") { //$NON-NLS-1$
+        @Override
+        protected LiveVariablesAnalysis compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new LiveVariablesAnalysis(func);
+        }
+    };
+
+    /**
+     * Returns the results of live variables analysis on the given function, performing the analysis only if its
+     * results are not already stored in the {@link AnalysisSession} for the function's translation unit.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link LiveVariablesAnalysis} (non-<code>null</code>)
+     */
+    public static LiveVariablesAnalysis forFunction(IASTFunctionDefinition func) {
+        return AnalysisSession.get(ANALYSIS, func);
+    }
+
+    /** The basic blocks in the CFG, in reverse postorder (followed by any unreachable blocks) */
+    private final List<IBasicBlock> blocks;
+
+    private final Map<IBasicBlock, Integer> blockIndex;
+
+    /** The index (in {@link #blocks}) of the block whose data is each statement or expression in the CFG */
+    private final Map<IASTNode, Integer> blockIndexOfNode;
+
+    /** The variables whose liveness is tracked, and their bit positions */
+    private final Map<IBinding, Integer> variableIndex;
+
+    /** Live variables on entry to each block, indexed as in {@link #blocks} */
+    private final BitSet[] liveIn;
+
+    /** Variables live on exit from each construct queried with {@link #isLiveAfter(IASTStatement, IBinding)} */
+    private final ConcurrentMap<IASTStatement, BitSet> liveAfterConstruct = new ConcurrentHashMap<IASTStatement, BitSet>();
+
+    /**
+     * Constructor. Performs live variables analysis on the given function.
+     * <p>
+     * Most clients should use {@link #forFunction(IASTFunctionDefinition)} instead, which reuses previous results.
+     *
+     * @param func
+     *            non-<code>null</code>
+     */
+    public LiveVariablesAnalysis(IASTFunctionDefinition func) {
+        IControlFlowGraph cfg = new ControlFlowGraphBuilder().build(func);
+        this.blocks = ReachingDefinitionsAnalysis.reversePostorder(cfg);
+        int numBlocks = blocks.size();
+        this.blockIndex = new HashMap<IBasicBlock, Integer>(numBlocks * 2);
+        this.blockIndexOfNode = new HashMap<IASTNode, Integer>(numBlocks * 2);
+        for (int i = 0; i < numBlocks; i++) {
+            blockIndex.put(blocks.get(i), i);
+            Object data = ((ICfgData) blocks.get(i)).getData();
+            if (data instanceof IASTNode) {
+                blockIndexOfNode.put((IASTNode) data, i);
+            }
+        }
+
+        this.variableIndex = new HashMap<IBinding, Integer>();
+        BitSet liveOnExit = new BitSet();
+        for (IASTName name : ASTUtil.find(func, IASTName.class)) {
+            IBinding binding = name.resolveBinding();
+            if (isTracked(binding) && !variableIndex.containsKey(binding)) {
+                int v = variableIndex.size();
+                variableIndex.put(binding, v);
+                if (binding instanceof IParameter || !isLocal(binding)) {
+                    liveOnExit.set(v);
+                }
+            }
+        }
+
+        // Compute the variables used (read before they may be written) and killed by each block
+        BitSet[] use = new BitSet[numBlocks];
+        BitSet[] kill = new BitSet[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            use[i] = new BitSet();
+            kill[i] = new BitSet();
+            IBasicBlock bb = blocks.get(i);
+            Object data = ((ICfgData) bb).getData();
+            if (data instanceof IASTNode) {
+                for (IASTName name : ASTUtil.find((IASTNode) data, IASTName.class)) {
+                    Integer v = variableIndex.get(name.resolveBinding());
+                    if (v != null) {
+                        if (!ASTPatternUtil.isDefinition(name)) {
+                            use[i].set(v);
+                        } else {
+                            if (isReadModifyWrite(name)) {
+                                use[i].set(v);
+                            }
+                            if (!isArrayElementWrite(name)) {
+                                kill[i].set(v);
+                            }
+                        }
+                    }
+                }
+            }
+            if (bb instanceof IExitNode) {
+                use[i].or(liveOnExit);
+            }
+        }
+        addArrayOverwrites(func, kill);
+
+        this.liveIn = new BitSet[numBlocks];
+        BitSet[] liveOut = new BitSet[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            liveIn[i] = new BitSet();
+            liveOut[i] = new BitSet();
+        }
+
+        // Visit blocks in postorder (the reverse of blocks), revisiting a block when the live-in set of one of its
+        // successors changes
+        BitSet worklist = new BitSet(numBlocks);
+        worklist.set(0, numBlocks);
+        for (int i = worklist.previousSetBit(numBlocks - 1); i >= 0; i = worklist.previousSetBit(numBlocks - 1)) {
+            worklist.clear(i);
+            IBasicBlock bb = blocks.get(i);
+
+            BitSet out = liveOut[i];
+            out.clear();
+            for (IBasicBlock succ : bb.getOutgoingNodes()) {
+                Integer s = blockIndex.get(succ);
+                if (s != null) {
+                    out.or(liveIn[s]);
+                }
+            }
+
+            BitSet in = (BitSet) out.clone();
+            in.andNot(kill[i]);
+            in.or(use[i]);
+            if (!in.equals(liveIn[i])) {
+                liveIn[i] = in;
+                for (IBasicBlock pred : bb.getIncomingNodes()) {
+                    Integer p = blockIndex.get(pred);
+                    if (p != null) {
+                        worklist.set(p);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true iff the given variable may be live immediately before the innermost statement or expression
+     *         containing the given node is executed
+     */
+    public boolean isLiveOnEntry(IASTNode node, IBinding variable) {
+        Integer v = variableIndex.get(variable);
+        if (v == null) {
+            return true;
+        }
+        for (IASTNode n = node; n != null; n = n.getParent()) {
+            Integer block = blockIndexOfNode.get(n);
+            if (block != null) {
+                return liveIn[block].get(v);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true iff the given variable may be live when control leaves the given construct, either by falling
+     *         through, by jumping out of it, or by returning from the function
+     */
+    public boolean isLiveAfter(IASTStatement construct, IBinding variable) {
+        Integer v = variableIndex.get(variable);
+        if (v == null) {
+            return true;
+        }
+        BitSet live = liveAfterConstruct.get(construct);
+        if (live == null) {
+            live = computeLiveAfter(construct);
+            BitSet previous = liveAfterConstruct.putIfAbsent(construct, live);
+            if (previous != null) {
+                live = previous;
+            }
+        }
+        return live.get(v);
+    }
+
+    /**
+     * Unions the live-in sets of the blocks to which control can flow directly from the given construct. Blocks with no
+     * statement or expression (e.g., join points) are passed through.
+     */
+    private BitSet computeLiveAfter(IASTStatement construct) {
+        BitSet result = new BitSet();
+        BitSet visited = new BitSet(blocks.size());
+        List<IBasicBlock> worklist = new ArrayList<IBasicBlock>();
+        for (IBasicBlock bb : blocks) {
+            if (isInside(bb, construct)) {
+                for (IBasicBlock succ : bb.getOutgoingNodes()) {
+                    worklist.add(succ);
+                }
+            }
+        }
+        while (!worklist.isEmpty()) {
+            IBasicBlock bb = worklist.remove(worklist.size() - 1);
+            Integer i = blockIndex.get(bb);
+            if (i == null || visited.get(i)) {
+                continue;
+            }
+            visited.set(i);
+            if (bb instanceof IExitNode || ((ICfgData) bb).getData() instanceof IASTNode) {
+                if (bb instanceof IExitNode || !isInside(bb, construct)) {
+                    result.or(liveIn[i]);
+                }
+            } else {
+                for (IBasicBlock succ : bb.getOutgoingNodes()) {
+                    worklist.add(succ);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isInside(IBasicBlock bb, IASTStatement construct) {
+        Object data = ((ICfgData) bb).getData();
+        return data instanceof IASTNode && ASTUtil.isAncestor((IASTNode) data, construct);
+    }
+
+    private static boolean isTracked(IBinding binding) {
+        return binding instanceof IVariable && !(binding instanceof IField);
+    }
+
+    private static boolean isLocal(IBinding binding) {
+        try {
+            return binding.getScope().getKind().equals(EScopeKind.eLocal);
+        } catch (DOMException e) {
+            return false;
+        }
+    }
+
+    /** @return true iff the given definition also reads the variable (e.g., <code>x += 1</code> or <code>x++</code>) */
+    private static boolean isReadModifyWrite(IASTName name) {
+        IASTNode expr = name.getParent();
+        if (!(expr instanceof IASTIdExpression)) {
+            return false;
+        }
+        IASTNode parent = expr.getParent();
+        if (parent instanceof IASTArraySubscriptExpression
+                && ((IASTArraySubscriptExpression) parent).getArrayExpression() == expr) {
+            expr = parent;
+            parent = parent.getParent();
+        }
+        if (parent instanceof IASTUnaryExpression) {
+            return true;
+        }
+        return parent instanceof IASTBinaryExpression && ((IASTBinaryExpression) parent).getOperand1() == expr
+                && ((IASTBinaryExpression) parent).getOperator() != IASTBinaryExpression.op_assign;
+    }
+
+    /** @return true iff the given definition assigns an element of an array rather than the entire variable */
+    private static boolean isArrayElementWrite(IASTName name) {
+        IASTArraySubscriptExpression arr = ASTUtil.findNearestAncestor(name, IASTArraySubscriptExpression.class);
+        return arr != null && ASTUtil.isAncestor(name, arr.getArrayExpression());
+    }
+
+    /**
+     * Adds each array which is entirely overwritten by a counted loop to the kill set of the block which initializes
+     * the loop.
+     */
+    private void addArrayOverwrites(IASTFunctionDefinition func, BitSet[] kill) {
+        if (ASTUtil.findFirst(func, IASTGotoStatement.class) != null) {
+            return;
+        }
+        for (IASTForStatement loop : ASTUtil.find(func, IASTForStatement.class)) {
+            if (loop.getInitializerStatement() == null) {
+                continue;
+            }
+            Integer init = blockIndexOfNode.get(loop.getInitializerStatement());
+            if (init == null) {
+                continue;
+            }
+            IBinding array = arrayOverwrittenBy(loop);
+            if (array != null && isOnlySubscripted(func, array)) {
+                kill[init].set(variableIndex.get(array));
+            }
+        }
+    }
+
+    /**
+     * @return the array whose every element is assigned by the given loop, if the loop has the form
+     *         <code>for (i = 0; i &lt; n; i++) { ... a[i] = e; ... }</code>, the assignment is executed on every
+     *         iteration, <code>n</code> is at least the size of <code>a</code>, and the loop does not otherwise refer to
+     *         <code>a</code>; otherwise, <code>null</code>
+     */
+    private IBinding arrayOverwrittenBy(IASTForStatement loop) {
+        ForStatementInquisitor inq = ForStatementInquisitor.getInquisitor(loop);
+        if (!inq.isCountedLoop() || inq.getIterationFactor() != 1) {
+            return null;
+        }
+        Long lb = inq.getLowerBound();
+        Long ub = inq.getInclusiveUpperBound();
+        if (lb == null || lb.longValue() != 0 || ub == null) {
+            return null;
+        }
+        IBinding index = inq.getIndexVariable();
+        IASTStatement body = loop.getBody();
+        if (ASTUtil.findFirst(body, IASTBreakStatement.class) != null
+                || ASTUtil.findFirst(body, IASTContinueStatement.class) != null
+                || ASTUtil.findFirst(body, IASTReturnStatement.class) != null) {
+            return null;
+        }
+        for (IASTName name : ASTUtil.find(body, IASTName.class)) {
+            if (index.equals(name.resolveBinding()) && ASTPatternUtil.isDefinition(name)) {
+                return null;
+            }
+        }
+
+        IASTStatement[] statements = body instanceof IASTCompoundStatement
+                ? ((IASTCompoundStatement) body).getStatements() : new IASTStatement[] { body };
+        for (IASTStatement stmt : statements) {
+            IASTName target = elementAssigned(stmt, index);
+            if (target == null) {
+                continue;
+            }
+            IBinding array = target.resolveBinding();
+            if (variableIndex.get(array) == null || !isLocal(array) || array instanceof IParameter
+                    || !(((IVariable) array).getType() instanceof IArrayType)) {
+                continue;
+            }
+            IArrayType type = (IArrayType) ((IVariable) array).getType();
+            if (type.getType() instanceof IArrayType || type.getSize() == null
+                    || type.getSize().numericalValue() == null
+                    || ub.longValue() < type.getSize().numericalValue().longValue() - 1) {
+                continue;
+            }
+            boolean otherReference = false;
+            for (IASTName name : ASTUtil.find(loop, IASTName.class)) {
+                if (name != target && array.equals(name.resolveBinding())) {
+                    otherReference = true;
+                    break;
+                }
+            }
+            if (!otherReference) {
+                return array;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the name of the array if the given statement has the form <code>a[i] = e;</code>, where <code>i</code> is
+     *         the given index variable, or <code>null</code> otherwise
+     */
+    private static IASTName elementAssigned(IASTStatement stmt, IBinding index) {
+        if (!(stmt instanceof IASTExpressionStatement)
+                || !(((IASTExpressionStatement) stmt).getExpression() instanceof IASTBinaryExpression)) {
+            return null;
+        }
+        IASTBinaryExpression assignment = (IASTBinaryExpression) ((IASTExpressionStatement) stmt).getExpression();
+        if (assignment.getOperator() != IASTBinaryExpression.op_assign
+                || !(assignment.getOperand1() instanceof IASTArraySubscriptExpression)) {
+            return null;
+        }
+        IASTArraySubscriptExpression element = (IASTArraySubscriptExpression) assignment.getOperand1();
+        if (!(element.getArrayExpression() instanceof IASTIdExpression)
+                || !(element.getArgument() instanceof IASTIdExpression)
+                || !index.equals(((IASTIdExpression) element.getArgument()).getName().resolveBinding())) {
+            return null;
+        }
+        return ((IASTIdExpression) element.getArrayExpression()).getName();
+    }
+
+    /**
+     * @return true iff every reference to the given array in the function is its declaration or subscripts it, so it
+     *         cannot be accessed through a pointer
+     */
+    private static boolean isOnlySubscripted(IASTFunctionDefinition func, IBinding array) {
+        for (IASTName name : ASTUtil.find(func, IASTName.class)) {
+            if (!array.equals(name.resolveBinding()) || ASTUtil.findNearestAncestor(name, IASTFunctionDeclarator.class) != null) {
+                continue;
+            }
+            IASTNode parent = name.getParent();
+            if (parent instanceof IASTIdExpression) {
+                IASTNode grandparent = parent.getParent();
+                if (!(grandparent instanceof IASTArraySubscriptExpression)
+                        || ((IASTArraySubscriptExpression) grandparent).getArrayExpression() != parent) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -12,6 +12,7 @@
 package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,35 +45,92 @@ import org.eclipse.cdt.core.dom.ast.IASTUnaryExpression;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.IVariable;
 import org.eclipse.cdt.core.dom.ast.gnu.c.ICASTKnRFunctionDeclarator;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.Pair;
 
+/**
+ * Reaching definitions analysis.
+ * <p>
+ * A definition is a pair consisting of a variable and the CFG node which writes it; definitions are numbered densely,
+ * so the entry and exit sets for each basic block are bit vectors. The sets are computed with a worklist algorithm
+ * that visits blocks in reverse postorder and revisits a block only when the exit set of one of its predecessors
+ * changes.
+ */
 @SuppressWarnings("restriction")
 public class ReachingDefinitionsAnalysis { 
 
-	private IControlFlowGraph cfg;
-    private IASTFunctionDefinition func;
-    
-    private Map<IBasicBlock, RDVarSet> entrySets;
-    private Map<IBasicBlock, RDVarSet> exitSets;
-    
-    private static Map<IASTFunctionDefinition, ReachingDefinitionsAnalysis> cache = new HashMap<>();
+	private final IControlFlowGraph cfg;
+    private final IASTFunctionDefinition func;
+
+    /** The basic blocks in the CFG, in reverse postorder (followed by any unreachable blocks) */
+    private final List<IBasicBlock> blocks;
+
+    /** The variable defined by each definition, indexed by definition number */
+    private final List<IBinding> defVariables;
+
+    /** The CFG node (or global/parameter) which generates each definition, indexed by definition number */
+    private final List<IASTNode> defNodes;
+
+    /** The definitions of each variable */
+    private final Map<IBinding, BitSet> defsByVariable;
+
+    /** The index (in {@link #blocks}) of the block whose data is each statement or expression in the CFG */
+    private final Map<IASTNode, Integer> blockIndexOfNode;
+
+    /** The definitions generated by each node in {@link #defNodes} */
+    private final Map<IASTNode, BitSet> defsByNode;
+
+    /**
+     * For each variable, the blocks containing uses (non-definition occurrences) of it, and those uses. Built on
+     * demand by {@link #getUsesByVariable()}, which guards it.
+     */
+    private Map<IBinding, List<Pair<Integer, IASTName>>> usesByVariable;
+
+    /** Entry and exit sets for each block, indexed as in {@link #blocks} */
+    private BitSet[] entrySets;
+    private BitSet[] exitSets;
     
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, ReachingDefinitionsAnalysis> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, ReachingDefinitionsAnalysis>(
+            "Reaching definitions") { //$NON-NLS-1$
+        @Override
+        protected ReachingDefinitionsAnalysis compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new ReachingDefinitionsAnalysis(func);
+        }
+    };
+
+    /**
+     * Returns the results of reaching definitions analysis on the given function, performing the analysis only if its
+     * results are not already stored in the {@link AnalysisSession} for the function's translation unit.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link ReachingDefinitionsAnalysis} (non-<code>null</code>)
+     */
     public static ReachingDefinitionsAnalysis forFunction(IASTFunctionDefinition func) {
-    	if(!cache.containsKey(func)) {
-    		cache.put(func, new ReachingDefinitionsAnalysis(func));
-    	}
-		return cache.get(func);
-	}
+        return AnalysisSession.get(ANALYSIS, func);
+    }
     
     private ReachingDefinitionsAnalysis(IASTFunctionDefinition func) {
         this.cfg = new ControlFlowGraphBuilder().build(func);
         this.func = func;
         
-        this.entrySets = new HashMap<IBasicBlock, RDVarSet>();
-        this.exitSets = new HashMap<IBasicBlock, RDVarSet>();
+        this.blocks = reversePostorder(cfg);
+        this.defVariables = new ArrayList<IBinding>();
+        this.defNodes = new ArrayList<IASTNode>();
+        this.defsByVariable = new HashMap<IBinding, BitSet>();
+        this.defsByNode = new HashMap<IASTNode, BitSet>();
+        this.blockIndexOfNode = new HashMap<IASTNode, Integer>();
+        for (int i = 0; i < blocks.size(); i++) {
+            Object data = ((ICfgData) blocks.get(i)).getData();
+            if (data instanceof IASTNode) {
+                blockIndexOfNode.put((IASTNode) data, i);
+            }
+        }
         
-        identifyReachingDefinitions(cfg);
+        identifyReachingDefinitions();
         
     }
 
@@ -93,29 +151,26 @@ public class ReachingDefinitionsAnalysis {
         //returns a list of definitions of variable that reach the given use
         IBinding variable = varUse.resolveBinding();
         //get block corresponding to use
-        RDVarSet entrySet = null;
-        for(IBasicBlock bb : entrySets.keySet()) {
-            Object data = ((ICfgData) bb).getData();
-            if (data != null && data instanceof IASTNode && ASTUtil.isAncestor(varUse, (IASTNode) data)) {
-                entrySet = entrySets.get(bb);
-            }
-        }
-        if(entrySet == null) {
+        int block = blockContaining(varUse);
+        if(block < 0) {
             //the use node had no entry set, either because there are no reaching defs or because it wasn't a valid block node
             return new HashSet<IASTName>();
         }
+        BitSet entrySet = entrySets[block];
         
-        Set<IASTNode> reachingDefs = entrySet.get(variable);
-        if(reachingDefs == null) {
+        BitSet variableDefs = defsByVariable.get(variable);
+        if(variableDefs == null) {
             return new HashSet<IASTName>();
         }
+        BitSet reachingDefs = (BitSet) entrySet.clone();
+        reachingDefs.and(variableDefs);
         
         /* get the names from the given nodes that represent the definitions of varUse
          * such as the "x" in "int x = y;" or the "y" in "y++"
          */
         Set<IASTName> reachingDefNames = new HashSet<IASTName>();
-        for(IASTNode def : reachingDefs) {
-            for(IASTName name : ASTUtil.find(def, IASTName.class)) {
+        for(int d = reachingDefs.nextSetBit(0); d >= 0; d = reachingDefs.nextSetBit(d + 1)) {
+            for(IASTName name : ASTUtil.find(defNodes.get(d), IASTName.class)) {
                 //if a name found under the definition node is a definition and refers to the right variable
                 if((name instanceof Global || isParam(name) || ASTPatternUtil.isDefinition(name)) && name.resolveBinding().equals(varUse.resolveBinding())) {
                     reachingDefNames.add(name);
@@ -141,24 +196,39 @@ public class ReachingDefinitionsAnalysis {
         
         Set<IASTName> reachedUses = new HashSet<IASTName>();
         
-        for(IBasicBlock bb : entrySets.keySet()) {
-        	RDVarSet entry = entrySets.get(bb);
-        	//if this is a definition found in the entry set
-        	if(entry.contains(def)) {
-        		Object data = ((ICfgData) bb).getData();
-        		if(data instanceof IASTNode) {
-        			for(IASTName use : ASTUtil.find(((IASTNode) data), IASTName.class)) {
-        				if(use.resolveBinding().equals(def.resolveBinding()) && !ASTPatternUtil.isDefinition(use)) {
-        					reachedUses.add(use);
-        				}
-        			}
-        		}
-        		if(bb instanceof IExitNode) {
-        			if(isNonLocal(def.resolveBinding())) {
-        				reachedUses.add(Global.newInstance(def.resolveBinding()));
-        			}
-        		}
-        	}
+        //the definitions generated by nodes containing this name
+        IBinding variable = def.resolveBinding();
+        BitSet variableDefs = defsByVariable.get(variable);
+        if(variableDefs == null) {
+            return reachedUses;
+        }
+        BitSet defs = new BitSet();
+        for(IASTNode node = def; node != null; node = node.getParent()) {
+            BitSet nodeDefs = defsByNode.get(node);
+            if(nodeDefs != null) {
+                defs.or(nodeDefs);
+            }
+        }
+        defs.and(variableDefs);
+        if(defs.isEmpty()) {
+            return reachedUses;
+        }
+        
+        //the uses in blocks whose entry sets contain this definition
+        List<Pair<Integer, IASTName>> uses = getUsesByVariable().get(variable);
+        if(uses != null) {
+            for(Pair<Integer, IASTName> use : uses) {
+                if(entrySets[use.getFirst()].intersects(defs)) {
+                    reachedUses.add(use.getSecond());
+                }
+            }
+        }
+        if(isNonLocal(variable)) {
+            for(int i = 0; i < blocks.size(); i++) {
+                if(blocks.get(i) instanceof IExitNode && entrySets[i].intersects(defs)) {
+                    reachedUses.add(Global.newInstance(variable));
+                }
+            }
         }
         
         return reachedUses;
@@ -202,72 +272,210 @@ public class ReachingDefinitionsAnalysis {
         }
         return uses;
     }
-    
-    private void identifyReachingDefinitions(IControlFlowGraph cfg) {
-
-        boolean changed;
-        do {
-            changed = false;
-            
-            Map<IBasicBlock, RDVarSet> newEntrySets = new HashMap<IBasicBlock, RDVarSet>();
-            Map<IBasicBlock, RDVarSet> newExitSets = new HashMap<IBasicBlock, RDVarSet>();
-            
-            for (IBasicBlock bb : cfg.getNodes()) {
-                
-                RDVarSet bbEntry = new RDVarSet();
-                RDVarSet bbExit = new RDVarSet();
-                
-                if(bb instanceof IStartNode) {
-                	addGlobalDefs(bb, bbEntry);
-                	addParams(bb, bbEntry);
-                }
 
-                for(IBasicBlock pred : bb.getIncomingNodes()) {
-                    if(exitSets.containsKey(pred)) {
-                        bbEntry.union(exitSets.get(pred));
+    /**
+     * @return the index (in {@link #blocks}) of the innermost block whose data contains the given node, or -1 if
+     *         there is none
+     */
+    private int blockContaining(IASTNode node) {
+        for (IASTNode n = node; n != null; n = n.getParent()) {
+            Integer index = blockIndexOfNode.get(n);
+            if (index != null) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a map from each variable to the uses of it in each block, building the map if necessary
+     */
+    private synchronized Map<IBinding, List<Pair<Integer, IASTName>>> getUsesByVariable() {
+        if (usesByVariable == null) {
+            usesByVariable = new HashMap<IBinding, List<Pair<Integer, IASTName>>>();
+            for (int i = 0; i < blocks.size(); i++) {
+                Object data = ((ICfgData) blocks.get(i)).getData();
+                if (data instanceof IASTNode) {
+                    for (IASTName use : ASTUtil.find((IASTNode) data, IASTName.class)) {
+                        IBinding binding = use.resolveBinding();
+                        if (binding != null && !ASTPatternUtil.isDefinition(use)) {
+                            List<Pair<Integer, IASTName>> list = usesByVariable.get(binding);
+                            if (list == null) {
+                                list = new ArrayList<Pair<Integer, IASTName>>();
+                                usesByVariable.put(binding, list);
+                            }
+                            list.add(new Pair<Integer, IASTName>(i, use));
+                        }
                     }
                 }
+            }
+        }
+        return usesByVariable;
+    }
 
-                if(entrySets.containsKey(bb)) {
-                    bbExit.union(entrySets.get(bb));
+    /**
+     * @return the nodes of the CFG in reverse postorder from the start node, followed by any nodes which are not
+     *         reachable from the start node
+     */
+    static List<IBasicBlock> reversePostorder(IControlFlowGraph cfg) {
+        List<IBasicBlock> postorder = new ArrayList<IBasicBlock>();
+        Set<IBasicBlock> visited = new HashSet<IBasicBlock>();
+        if (cfg.getStartNode() != null) {
+            // Iterative depth-first search; each stack entry is a node and the index of its next successor to visit
+            List<IBasicBlock> stack = new ArrayList<IBasicBlock>();
+            List<Integer> nextSuccessor = new ArrayList<Integer>();
+            visited.add(cfg.getStartNode());
+            stack.add(cfg.getStartNode());
+            nextSuccessor.add(0);
+            while (!stack.isEmpty()) {
+                int top = stack.size() - 1;
+                IBasicBlock[] successors = stack.get(top).getOutgoingNodes();
+                int next = nextSuccessor.get(top);
+                if (next < successors.length) {
+                    nextSuccessor.set(top, next + 1);
+                    if (visited.add(successors[next])) {
+                        stack.add(successors[next]);
+                        nextSuccessor.add(0);
+                    }
+                } else {
+                    postorder.add(stack.remove(top));
+                    nextSuccessor.remove(top);
                 }
-                for(IASTName write : varWritesIn(bb)) {
-                	//if writing to an array, don't consider it to kill previous writes
-                	IASTArraySubscriptExpression arr = ASTUtil.findNearestAncestor(write, IASTArraySubscriptExpression.class);
-                	if(arr == null || !ASTUtil.isAncestor(write, arr.getArrayExpression())) {
-                		bbExit.killAll(write.resolveBinding());
-                	}
+            }
+        }
+        List<IBasicBlock> result = new ArrayList<IBasicBlock>(postorder.size());
+        for (int i = postorder.size() - 1; i >= 0; i--) {
+            result.add(postorder.get(i));
+        }
+        for (IBasicBlock bb : cfg.getNodes()) {
+            if (visited.add(bb)) {
+                result.add(bb);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of the definition of the given variable by the given node, assigning a new number if
+     *         necessary
+     */
+    private int definition(IBinding variable, IASTNode node) {
+        BitSet defs = defsByVariable.get(variable);
+        if (defs == null) {
+            defs = new BitSet();
+            defsByVariable.put(variable, defs);
+        }
+        for (int d = defs.nextSetBit(0); d >= 0; d = defs.nextSetBit(d + 1)) {
+            if (defNodes.get(d) == node) {
+                return d;
+            }
+        }
+        int d = defNodes.size();
+        defVariables.add(variable);
+        defNodes.add(node);
+        defs.set(d);
+        BitSet nodeDefs = defsByNode.get(node);
+        if (nodeDefs == null) {
+            nodeDefs = new BitSet();
+            defsByNode.put(node, nodeDefs);
+        }
+        nodeDefs.set(d);
+        return d;
+    }
+
+    private void identifyReachingDefinitions() {
+        int numBlocks = blocks.size();
+        Map<IBasicBlock, Integer> blockIndex = new HashMap<IBasicBlock, Integer>(numBlocks * 2);
+        for (int i = 0; i < numBlocks; i++) {
+            blockIndex.put(blocks.get(i), i);
+        }
+
+        // Number the definitions and compute the gen set and killed variables for each block
+        BitSet boundary = new BitSet();
+        BitSet[] gen = new BitSet[numBlocks];
+        List<List<IBinding>> killedVariables = new ArrayList<List<IBinding>>(numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+            IBasicBlock bb = blocks.get(i);
+            gen[i] = new BitSet();
+            List<IBinding> killed = new ArrayList<IBinding>();
+            killedVariables.add(killed);
+
+            if(bb instanceof IStartNode) {
+            	addGlobalDefs(bb, boundary);
+            	addParams(bb, boundary);
+            }
+
+            Object data = ((ICfgData) bb).getData();
+            for(IASTName write : varWritesIn(bb)) {
+            	//if writing to an array, don't consider it to kill previous writes
+            	IASTArraySubscriptExpression arr = ASTUtil.findNearestAncestor(write, IASTArraySubscriptExpression.class);
+            	if(arr == null || !ASTUtil.isAncestor(write, arr.getArrayExpression())) {
+            		killed.add(write.resolveBinding());
+            	}
+                if (data != null && data instanceof IASTNode) {
+                    gen[i].set(definition(write.resolveBinding(), (IASTNode) data));
                 }
-                for(IASTName write : varWritesIn(bb)) {
-                    Object data = ((ICfgData) bb).getData();
-                    if (data != null && data instanceof IASTNode) {
-                        bbExit.add(write.resolveBinding(), (IASTNode) data);
-                    }
+            }
+        }
+
+        // Kill sets can only be computed once every definition has been numbered
+        BitSet[] kill = new BitSet[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            kill[i] = new BitSet();
+            for (IBinding variable : killedVariables.get(i)) {
+                BitSet defs = defsByVariable.get(variable);
+                if (defs != null) {
+                    kill[i].or(defs);
                 }
-                
-                changed = changed || !areEqual(bbEntry, entrySets.get(bb)) || !areEqual(bbExit, exitSets.get(bb));
-                
-                newEntrySets.put(bb, bbEntry);
-                newExitSets.put(bb, bbExit);
             }
-            
-            for(IBasicBlock bb : newEntrySets.keySet()) {
-                entrySets.put(bb, newEntrySets.get(bb));
+        }
+
+        entrySets = new BitSet[numBlocks];
+        exitSets = new BitSet[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            entrySets[i] = new BitSet();
+            exitSets[i] = new BitSet();
+        }
+
+        BitSet worklist = new BitSet(numBlocks);
+        worklist.set(0, numBlocks);
+        for (int i = worklist.nextSetBit(0); i >= 0; i = worklist.nextSetBit(0)) {
+            worklist.clear(i);
+            IBasicBlock bb = blocks.get(i);
+
+            BitSet entry = entrySets[i];
+            entry.clear();
+            if(bb instanceof IStartNode) {
+                entry.or(boundary);
+            }
+            for(IBasicBlock pred : bb.getIncomingNodes()) {
+                Integer p = blockIndex.get(pred);
+                if(p != null) {
+                    entry.or(exitSets[p]);
+                }
             }
-            for(IBasicBlock bb : newExitSets.keySet()) {
-                exitSets.put(bb, newExitSets.get(bb));
+
+            BitSet exit = (BitSet) entry.clone();
+            exit.andNot(kill[i]);
+            exit.or(gen[i]);
+            if (!exit.equals(exitSets[i])) {
+                exitSets[i] = exit;
+                for(IBasicBlock succ : bb.getOutgoingNodes()) {
+                    Integer s = blockIndex.get(succ);
+                    if(s != null) {
+                        worklist.set(s);
+                    }
+                }
             }
-            
-        } while (changed);
-        return;
+        }
     }
 
-    private void addGlobalDefs(IBasicBlock startNode, RDVarSet entries) {
+    private void addGlobalDefs(IBasicBlock startNode, BitSet entries) {
     	for(IASTName ref : ASTUtil.find(func, IASTName.class)) {
     		IBinding binding = ref.resolveBinding();
 			if(isNonLocal(binding)) {
 				Global fake = Global.newInstance(binding);
-				entries.add(binding, fake);
+				entries.set(definition(binding, fake));
 			}
     	}
 	}
@@ -280,15 +488,15 @@ public class ReachingDefinitionsAnalysis {
 		}
 	}
     
-    private void addParams(IBasicBlock startNode, RDVarSet entries) {
+    private void addParams(IBasicBlock startNode, BitSet entries) {
     	if(func.getDeclarator() instanceof IASTStandardFunctionDeclarator) {
     		for(IASTParameterDeclaration d : ((IASTStandardFunctionDeclarator) func.getDeclarator()).getParameters()) {
-    			entries.add(d.getDeclarator().getName().resolveBinding(), d);
+    			entries.set(definition(d.getDeclarator().getName().resolveBinding(), d));
     		}
     	}
     	else if(func.getDeclarator() instanceof ICASTKnRFunctionDeclarator) {
     		for(IASTName n : ((ICASTKnRFunctionDeclarator) func.getDeclarator()).getParameterNames()) {
-    			entries.add(n.resolveBinding(), n);
+    			entries.set(definition(n.resolveBinding(), n));
     		}
     	}
 	}
@@ -357,71 +565,23 @@ public class ReachingDefinitionsAnalysis {
         return writeAccesses;
     }
     
-    private boolean areEqual(RDVarSet first, RDVarSet second) {
-        
-        if(first == null && second == null) {
-            return true;
-        }
-        else if(first == null || second == null) {
-            return false;
-        }
-        
-        if(first.isEmpty() && second.isEmpty()) {
-            return true;
-        }
-        else if(first.isEmpty() || second.isEmpty()) {
-            return false;
-        }
-        
-        for(IBinding var : first.getMap().keySet()) {
-            if(second.getMap().containsKey(var)) {
-                for(IASTNode statement : first.getMap().get(var)) {
-                    if(!second.getMap().get(var).contains(statement)) {
-                        return false;
-                    }
-                }
-            }
-            else {
-                return false;
-            }
-        }
-        for(IBinding var : second.getMap().keySet()) {
-            if(first.getMap().containsKey(var)) {
-                for(IASTNode statement : second.getMap().get(var)) {
-                    if(!first.getMap().get(var).contains(statement)) {
-                        return false;
-                    }
-                }
-            }
-            else {
-                return false;
-            }
-        }
-        return true;
-    }
-    
-    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (IBasicBlock bb : cfg.getNodes()) {
-            Object data = ((ICfgData) bb).getData();
+        for (int i = 0; i < blocks.size(); i++) {
+            Object data = ((ICfgData) blocks.get(i)).getData();
             if (data != null && data instanceof IASTNode) {
                 sb.append(((IASTNode) data).getRawSignature() + " at " //$NON-NLS-1$
                         + ((IASTNode) data).getFileLocation().getStartingLineNumber() + ":"); //$NON-NLS-1$
                 sb.append(System.lineSeparator());
 
                 sb.append("\tEntries: "); //$NON-NLS-1$
-                if (entrySets.containsKey(bb)) {
-                    sb.append(entrySets.get(bb));
-                }
+                sb.append(toString(entrySets[i]));
 
                 sb.append(System.lineSeparator());
 
                 sb.append("\tExits: "); //$NON-NLS-1$
-                if (exitSets.containsKey(bb)) {
-                    sb.append(exitSets.get(bb));
-                }
+                sb.append(toString(exitSets[i]));
 
                 sb.append(System.lineSeparator());
             }
@@ -429,5 +589,15 @@ public class ReachingDefinitionsAnalysis {
         }
         return sb.toString();
     }
+
+    private String toString(BitSet defs) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ "); //$NON-NLS-1$
+        for (int d = defs.nextSetBit(0); d >= 0; d = defs.nextSetBit(d + 1)) {
+            sb.append("(" + defVariables.get(d) + ", " + defNodes.get(d).getFileLocation().getStartingLineNumber() + ") "); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        sb.append("]"); //$NON-NLS-1$
+        return sb.toString();
+    }
     
 }
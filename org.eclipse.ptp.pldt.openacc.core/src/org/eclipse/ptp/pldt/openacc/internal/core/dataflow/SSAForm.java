@@ -0,0 +1,716 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dataflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
+import org.eclipse.cdt.codan.core.model.cfg.IControlFlowGraph;
+import org.eclipse.cdt.core.dom.ast.IASTArraySubscriptExpression;
+import org.eclipse.cdt.core.dom.ast.IASTConditionalExpression;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+
+/**
+ * Static single assignment (SSA) form for a control flow graph built by {@link ControlFlowGraphBuilder}.
+ * <p>
+ * The dominator tree is computed with the algorithm of Cooper, Harvey, and Kennedy over the blocks in reverse
+ * postorder; phi functions are placed at the iterated dominance frontiers of each variable's definitions, and the
+ * definitions and uses are then renamed by a walk over the dominator tree. The result maps every occurrence of a
+ * variable to a {@link Value}: a use is mapped to the value which reaches it, and a definition to the value it
+ * creates. Each value records its uses, so clients can propagate information along def-use edges sparsely.
+ * <p>
+ * Only whole-variable definitions are modeled; a variable with an element definition (e.g., <code>a[i] = 0</code>) is
+ * not renamed. A node which may change an integer variable without defining it (a write through a pointer, a call
+ * which may change address-taken variables, or a construct which {@link ConstPropNodeEvaluator} cannot handle) gives
+ * the variable a new value with no definition, called a clobber; which variables a node clobbers is determined by
+ * evaluating it with {@link ConstPropNodeEvaluator}, so the SSA form agrees with constant propagation about aliasing.
+ * Clients which care about aliasing of other variables must account for it separately. A definition or clobber takes
+ * effect at the end of the CFG node which contains it, so every use in that node sees the previous value. Blocks which
+ * are not reachable from the start node are ignored.
+ *
+ * @author Jeff Overbey
+ */
+@SuppressWarnings("restriction")
+public final class SSAForm {
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, SSAForm> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, SSAForm>(
+            "SSA form") { //$NON-NLS-1$
+        @Override
+        protected SSAForm compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            return new SSAForm(new ControlFlowGraphBuilder().build(func));
+        }
+    };
+
+    /**
+     * Returns the SSA form of the given function, computing it only if it has not already been computed for the
+     * current version of the function.
+     *
+     * @param func
+     *            non-<code>null</code>
+     * @return {@link SSAForm} (non-<code>null</code>)
+     */
+    public static SSAForm forFunction(IASTFunctionDefinition func) {
+        return AnalysisSession.get(ANALYSIS, func);
+    }
+
+    /** A single value of a variable: its value on entry to the function, a phi function, a definition, or a clobber */
+    public static final class Value {
+        private final IBinding variable;
+        private final int version;
+        private final IBasicBlock block;
+        private final IASTName definition;
+        private final boolean phi;
+        private Value previous;
+        private final Map<IBasicBlock, Value> operands;
+        private final List<IASTName> uses;
+        private final List<Value> phiUses;
+
+        private Value(IBinding variable, int version, IBasicBlock block, IASTName definition, boolean phi) {
+            this.variable = variable;
+            this.version = version;
+            this.block = block;
+            this.definition = definition;
+            this.phi = phi;
+            this.operands = phi ? new LinkedHashMap<IBasicBlock, Value>() : Collections.<IBasicBlock, Value> emptyMap();
+            this.uses = new ArrayList<IASTName>();
+            this.phiUses = new ArrayList<Value>();
+        }
+
+        /** @return the variable of which this is a value */
+        public IBinding getVariable() {
+            return variable;
+        }
+
+        /** @return the version number of this value; the value on entry to the function is version 0 */
+        public int getVersion() {
+            return version;
+        }
+
+        /** @return the block containing the definition or phi function, or <code>null</code> for an entry value */
+        public IBasicBlock getBlock() {
+            return block;
+        }
+
+        /** @return the name being defined, or <code>null</code> for a phi function, a clobber, or an entry value */
+        public IASTName getDefinition() {
+            return definition;
+        }
+
+        /** @return true iff this is the value of the variable on entry to the function */
+        public boolean isEntry() {
+            return version == 0;
+        }
+
+        /** @return true iff this value is a phi function */
+        public boolean isPhi() {
+            return phi;
+        }
+
+        /** @return true iff this value is a clobber (a change to the variable other than by a definition) */
+        public boolean isClobber() {
+            return !phi && definition == null && version > 0;
+        }
+
+        /**
+         * @return for a definition or clobber, the value of the variable immediately before it (e.g., the value
+         *         incremented by <code>i++</code>); otherwise, <code>null</code>
+         */
+        public Value getPrevious() {
+            return previous;
+        }
+
+        /**
+         * @return for a phi function, the value flowing in from each reachable predecessor of its block, in the order
+         *         of the block's incoming edges; otherwise, an empty map
+         */
+        public Map<IBasicBlock, Value> getOperands() {
+            return Collections.unmodifiableMap(operands);
+        }
+
+        /** @return the names which use this value */
+        public List<IASTName> getUses() {
+            return Collections.unmodifiableList(uses);
+        }
+
+        /** @return the phi functions which use this value as an operand */
+        public List<Value> getPhiUses() {
+            return Collections.unmodifiableList(phiUses);
+        }
+
+        @Override
+        public String toString() {
+            return variable.getName() + "_" + version; //$NON-NLS-1$
+        }
+    }
+
+    /** Value given to every variable when determining which variables a node clobbers */
+    private static final Long SENTINEL = Long.valueOf(1);
+
+    /** The reachable blocks of the CFG, in reverse postorder */
+    private final List<IBasicBlock> blocks;
+
+    /** The index of each block in {@link #blocks} */
+    private final Map<IBasicBlock, Integer> blockIndex;
+
+    /** The index of the immediate dominator of each block (the start node is its own immediate dominator) */
+    private final int[] idom;
+
+    /** The dominance frontier of each block */
+    private final BitSet[] frontiers;
+
+    /** The phi functions at the beginning of each block */
+    private final List<List<Value>> phis;
+
+    /** The values created by the definitions and clobbers in each block, in order */
+    private final List<List<Value>> defined;
+
+    /** The value of each variable on entry to the function */
+    private final Map<IBinding, Value> entryValues;
+
+    /** The value reaching each use, and the value created by each definition */
+    private final Map<IASTName, Value> values;
+
+    /** The number of values created for each variable, including the entry value */
+    private final Map<IBinding, Integer> versions;
+
+    /**
+     * Constructor. Computes the dominator tree and SSA form for the given CFG.
+     *
+     * @param cfg
+     *            non-<code>null</code>
+     */
+    public SSAForm(IControlFlowGraph cfg) {
+        List<IBasicBlock> rpo = ReachingDefinitionsAnalysis.reversePostorder(cfg);
+        this.blockIndex = new HashMap<IBasicBlock, Integer>(rpo.size() * 2);
+        for (int i = 0; i < rpo.size(); i++) {
+            blockIndex.put(rpo.get(i), i);
+        }
+        this.idom = computeDominators(rpo);
+
+        // Discard unreachable blocks, which appear at the end of the reverse postorder
+        int numReachable = 0;
+        while (numReachable < rpo.size() && idom[numReachable] >= 0) {
+            numReachable++;
+        }
+        for (int i = numReachable; i < rpo.size(); i++) {
+            blockIndex.remove(rpo.get(i));
+        }
+        this.blocks = Collections.unmodifiableList(new ArrayList<IBasicBlock>(rpo.subList(0, numReachable)));
+
+        this.frontiers = computeDominanceFrontiers();
+        this.phis = new ArrayList<List<Value>>(blocks.size());
+        this.defined = new ArrayList<List<Value>>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            phis.add(new ArrayList<Value>(0));
+            defined.add(new ArrayList<Value>(0));
+        }
+        this.entryValues = new HashMap<IBinding, Value>();
+        this.values = new HashMap<IASTName, Value>();
+        this.versions = new HashMap<IBinding, Integer>();
+
+        List<List<IASTName>> uses = new ArrayList<List<IASTName>>(blocks.size());
+        List<List<IASTName>> defs = new ArrayList<List<IASTName>>(blocks.size());
+        List<Set<IBinding>> clobbers = new ArrayList<Set<IBinding>>(blocks.size());
+        Map<IBinding, BitSet> defBlocks = new LinkedHashMap<IBinding, BitSet>();
+        Set<IBinding> untracked = new HashSet<IBinding>();
+        collectOccurrences(uses, defs, defBlocks, untracked);
+        collectClobbers(defs, clobbers, defBlocks);
+        placePhiFunctions(defBlocks, untracked);
+        rename(uses, defs, clobbers, untracked);
+    }
+
+    /**
+     * Computes immediate dominators using the iterative algorithm of Cooper, Harvey, and Kennedy, "A Simple, Fast
+     * Dominance Algorithm."
+     *
+     * @return the index of each block's immediate dominator, or -1 if it is not reachable
+     */
+    private int[] computeDominators(List<IBasicBlock> rpo) {
+        int[] result = new int[rpo.size()];
+        Arrays.fill(result, -1);
+        if (result.length == 0) {
+            return result;
+        }
+        result[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 1; b < rpo.size(); b++) {
+                int newIdom = -1;
+                for (IBasicBlock pred : rpo.get(b).getIncomingNodes()) {
+                    Integer p = blockIndex.get(pred);
+                    if (p != null && result[p] >= 0) {
+                        newIdom = newIdom < 0 ? p : intersect(result, p, newIdom);
+                    }
+                }
+                if (newIdom >= 0 && result[b] != newIdom) {
+                    result[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** @return the nearest common dominator of blocks <code>b1</code> and <code>b2</code> */
+    private static int intersect(int[] doms, int b1, int b2) {
+        while (b1 != b2) {
+            while (b1 > b2) {
+                b1 = doms[b1];
+            }
+            while (b2 > b1) {
+                b2 = doms[b2];
+            }
+        }
+        return b1;
+    }
+
+    private BitSet[] computeDominanceFrontiers() {
+        BitSet[] result = new BitSet[blocks.size()];
+        for (int b = 0; b < blocks.size(); b++) {
+            result[b] = new BitSet();
+        }
+        for (int b = 0; b < blocks.size(); b++) {
+            List<Integer> preds = reachablePredecessors(b);
+            if (preds.size() >= 2) {
+                for (int runner : preds) {
+                    while (runner != idom[b]) {
+                        result[runner].set(b);
+                        runner = idom[runner];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Integer> reachablePredecessors(int b) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (IBasicBlock pred : blocks.get(b).getIncomingNodes()) {
+            Integer p = blockIndex.get(pred);
+            if (p != null) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the uses and whole-variable definitions in each block, and the blocks containing definitions of each
+     * variable. Variables with element definitions are added to <code>untracked</code>.
+     */
+    private void collectOccurrences(List<List<IASTName>> uses, List<List<IASTName>> defs,
+            Map<IBinding, BitSet> defBlocks, Set<IBinding> untracked) {
+        for (int b = 0; b < blocks.size(); b++) {
+            List<IASTName> blockUses = new ArrayList<IASTName>();
+            List<IASTName> blockDefs = new ArrayList<IASTName>();
+            Object data = ((ICfgData) blocks.get(b)).getData();
+            if (data instanceof IASTNode) {
+                for (IASTName name : ASTUtil.find((IASTNode) data, IASTName.class)) {
+                    IBinding binding = name.resolveBinding();
+                    if (!(binding instanceof IVariable)) {
+                        continue;
+                    }
+                    if (!ASTPatternUtil.isDefinition(name)) {
+                        blockUses.add(name);
+                    } else if (isElementDefinition(name)) {
+                        untracked.add(binding);
+                    } else {
+                        blockDefs.add(name);
+                        addDefBlock(defBlocks, binding, b);
+                    }
+                }
+            }
+            uses.add(blockUses);
+            defs.add(blockDefs);
+        }
+    }
+
+    private static void addDefBlock(Map<IBinding, BitSet> defBlocks, IBinding variable, int b) {
+        BitSet set = defBlocks.get(variable);
+        if (set == null) {
+            set = new BitSet();
+            defBlocks.put(variable, set);
+        }
+        set.set(b);
+    }
+
+    /**
+     * Finds the integer variables which each block may change without defining them, and adds those blocks to the
+     * blocks containing definitions of each variable.
+     */
+    private void collectClobbers(List<List<IASTName>> defs, List<Set<IBinding>> clobbers,
+            Map<IBinding, BitSet> defBlocks) {
+        Set<IBinding> variables = new LinkedHashSet<IBinding>();
+        for (int b = 0; b < blocks.size(); b++) {
+            Object data = ((ICfgData) blocks.get(b)).getData();
+            if (data instanceof IASTNode) {
+                for (IASTName name : ASTUtil.find((IASTNode) data, IASTName.class)) {
+                    IBinding binding = name.resolveBinding();
+                    if (ConstantPropagation.canTrackConstantValues(binding)
+                            && ConstantPropagation.isInTrackedRange(binding, SENTINEL)) {
+                        variables.add(binding);
+                    }
+                }
+            }
+        }
+        ConstEnv sentinels = ConstEnv.EMPTY;
+        for (IBinding variable : variables) {
+            sentinels = sentinels.set(variable, SENTINEL);
+        }
+
+        for (int b = 0; b < blocks.size(); b++) {
+            Object data = ((ICfgData) blocks.get(b)).getData();
+            Set<IBinding> blockClobbers = Collections.emptySet();
+            if (data instanceof IASTNode) {
+                blockClobbers = findChangedVariables((IASTNode) data, sentinels, variables);
+                for (IASTName def : defs.get(b)) {
+                    blockClobbers.remove(def.resolveBinding());
+                }
+                for (IBinding variable : blockClobbers) {
+                    addDefBlock(defBlocks, variable, b);
+                }
+            }
+            clobbers.add(blockClobbers);
+        }
+    }
+
+    /**
+     * @return the variables whose values are changed by evaluating the given node in an environment where each of them
+     *         has the same constant value. Both arms of every conditional expression are evaluated, since
+     *         {@link ExpressionEvaluator} evaluates only the arm selected by the condition.
+     */
+    private static Set<IBinding> findChangedVariables(IASTNode node, ConstEnv sentinels, Set<IBinding> variables) {
+        List<ConstEnv> results = new ArrayList<ConstEnv>();
+        results.add(ConstPropNodeEvaluator.evaluate(node, sentinels).environment);
+        for (IASTConditionalExpression expr : ASTUtil.find(node, IASTConditionalExpression.class)) {
+            results.add(ExpressionEvaluator.evaluate(expr.getPositiveResultExpression(), sentinels).environment);
+            results.add(ExpressionEvaluator.evaluate(expr.getNegativeResultExpression(), sentinels).environment);
+        }
+
+        Set<IBinding> result = new LinkedHashSet<IBinding>();
+        for (ConstEnv env : results) {
+            if (env != sentinels) {
+                for (IBinding variable : variables) {
+                    if (!SENTINEL.equals(env.getValue(variable))) {
+                        result.add(variable);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isElementDefinition(IASTName name) {
+        IASTArraySubscriptExpression arr = ASTUtil.findNearestAncestor(name, IASTArraySubscriptExpression.class);
+        return arr != null && ASTUtil.isAncestor(name, arr.getArrayExpression());
+    }
+
+    /** Places phi functions at the iterated dominance frontier of each variable's definitions */
+    private void placePhiFunctions(Map<IBinding, BitSet> defBlocks, Set<IBinding> untracked) {
+        for (Map.Entry<IBinding, BitSet> entry : defBlocks.entrySet()) {
+            IBinding variable = entry.getKey();
+            if (untracked.contains(variable)) {
+                continue;
+            }
+            BitSet hasPhi = new BitSet();
+            BitSet worklist = (BitSet) entry.getValue().clone();
+            for (int b = worklist.nextSetBit(0); b >= 0; b = worklist.nextSetBit(0)) {
+                worklist.clear(b);
+                BitSet df = frontiers[b];
+                for (int f = df.nextSetBit(0); f >= 0; f = df.nextSetBit(f + 1)) {
+                    if (!hasPhi.get(f)) {
+                        hasPhi.set(f);
+                        phis.get(f).add(newValue(variable, blocks.get(f), null, true));
+                        if (!entry.getValue().get(f)) {
+                            worklist.set(f);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Renames uses, definitions, and clobbers by a preorder walk over the dominator tree */
+    private void rename(List<List<IASTName>> uses, List<List<IASTName>> defs, List<Set<IBinding>> clobbers,
+            Set<IBinding> untracked) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+
+        List<List<Integer>> children = new ArrayList<List<Integer>>(blocks.size());
+        for (int b = 0; b < blocks.size(); b++) {
+            children.add(new ArrayList<Integer>(2));
+        }
+        for (int b = 1; b < blocks.size(); b++) {
+            children.get(idom[b]).add(b);
+        }
+
+        Map<IBinding, List<Value>> stacks = new HashMap<IBinding, List<Value>>();
+        // Each entry is a block index, or ~index to pop the values pushed by that block
+        List<Integer> walk = new ArrayList<Integer>();
+        List<List<Value>> pushed = new ArrayList<List<Value>>(blocks.size());
+        for (int b = 0; b < blocks.size(); b++) {
+            pushed.add(null);
+        }
+        walk.add(0);
+        while (!walk.isEmpty()) {
+            int b = walk.remove(walk.size() - 1);
+            if (b < 0) {
+                for (Value value : pushed.get(~b)) {
+                    List<Value> stack = stacks.get(value.variable);
+                    stack.remove(stack.size() - 1);
+                }
+                pushed.set(~b, null);
+                continue;
+            }
+
+            List<Value> blockPushed = new ArrayList<Value>();
+            for (Value phi : phis.get(b)) {
+                push(stacks, phi);
+                blockPushed.add(phi);
+            }
+            for (IASTName use : uses.get(b)) {
+                IBinding variable = use.resolveBinding();
+                if (!untracked.contains(variable)) {
+                    Value value = top(stacks, variable);
+                    values.put(use, value);
+                    value.uses.add(use);
+                }
+            }
+            for (IASTName def : defs.get(b)) {
+                IBinding variable = def.resolveBinding();
+                if (!untracked.contains(variable)) {
+                    Value value = newValue(variable, blocks.get(b), def, false);
+                    value.previous = top(stacks, variable);
+                    values.put(def, value);
+                    push(stacks, value);
+                    blockPushed.add(value);
+                    defined.get(b).add(value);
+                }
+            }
+            for (IBinding variable : clobbers.get(b)) {
+                if (!untracked.contains(variable)) {
+                    Value value = newValue(variable, blocks.get(b), null, false);
+                    value.previous = top(stacks, variable);
+                    push(stacks, value);
+                    blockPushed.add(value);
+                    defined.get(b).add(value);
+                }
+            }
+            for (IBasicBlock succ : blocks.get(b).getOutgoingNodes()) {
+                Integer s = blockIndex.get(succ);
+                if (s != null) {
+                    for (Value phi : phis.get(s)) {
+                        Value operand = top(stacks, phi.variable);
+                        phi.operands.put(blocks.get(b), operand);
+                        operand.phiUses.add(phi);
+                    }
+                }
+            }
+
+            pushed.set(b, blockPushed);
+            walk.add(~b);
+            List<Integer> kids = children.get(b);
+            for (int i = kids.size() - 1; i >= 0; i--) {
+                walk.add(kids.get(i));
+            }
+        }
+
+        // Order phi operands by the incoming edges of their blocks
+        for (int b = 0; b < blocks.size(); b++) {
+            for (Value phi : phis.get(b)) {
+                Map<IBasicBlock, Value> ordered = new LinkedHashMap<IBasicBlock, Value>();
+                for (IBasicBlock pred : blocks.get(b).getIncomingNodes()) {
+                    if (phi.operands.containsKey(pred)) {
+                        ordered.put(pred, phi.operands.get(pred));
+                    }
+                }
+                phi.operands.clear();
+                phi.operands.putAll(ordered);
+            }
+        }
+    }
+
+    private static void push(Map<IBinding, List<Value>> stacks, Value value) {
+        List<Value> stack = stacks.get(value.variable);
+        if (stack == null) {
+            stack = new ArrayList<Value>();
+            stacks.put(value.variable, stack);
+        }
+        stack.add(value);
+    }
+
+    /** @return the current value of the given variable, which is its entry value if it has not been defined */
+    private Value top(Map<IBinding, List<Value>> stacks, IBinding variable) {
+        List<Value> stack = stacks.get(variable);
+        if (stack != null && !stack.isEmpty()) {
+            return stack.get(stack.size() - 1);
+        }
+        Value entry = entryValues.get(variable);
+        if (entry == null) {
+            entry = new Value(variable, 0, null, null, false);
+            entryValues.put(variable, entry);
+            if (!versions.containsKey(variable)) {
+                versions.put(variable, 1);
+            }
+        }
+        return entry;
+    }
+
+    private Value newValue(IBinding variable, IBasicBlock block, IASTName definition, boolean phi) {
+        Integer count = versions.get(variable);
+        int version = count == null ? 1 : count;
+        versions.put(variable, version + 1);
+        return new Value(variable, version, block, definition, phi);
+    }
+
+    /**
+     * @return the blocks reachable from the start node, in reverse postorder (so the start node is first, and every
+     *         block appears after its dominators)
+     */
+    public List<IBasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return true iff the given block is reachable from the start node
+     */
+    public boolean isReachable(IBasicBlock block) {
+        return blockIndex.containsKey(block);
+    }
+
+    /**
+     * @return the immediate dominator of the given block, or <code>null</code> if the block is the start node or is
+     *         not reachable
+     */
+    public IBasicBlock getImmediateDominator(IBasicBlock block) {
+        Integer b = blockIndex.get(block);
+        if (b == null || b == 0) {
+            return null;
+        }
+        return blocks.get(idom[b]);
+    }
+
+    /**
+     * @return true iff every path from the start node to <code>block</code> passes through <code>dominator</code>
+     *         (every reachable block dominates itself)
+     */
+    public boolean dominates(IBasicBlock dominator, IBasicBlock block) {
+        Integer d = blockIndex.get(dominator);
+        Integer b = blockIndex.get(block);
+        if (d == null || b == null) {
+            return false;
+        }
+        int runner = b;
+        while (runner > d) {
+            runner = idom[runner];
+        }
+        return runner == d;
+    }
+
+    /**
+     * @return the dominance frontier of the given block: the blocks which have a predecessor dominated by the given
+     *         block but which are not strictly dominated by it
+     */
+    public Set<IBasicBlock> getDominanceFrontier(IBasicBlock block) {
+        Integer b = blockIndex.get(block);
+        if (b == null) {
+            return Collections.emptySet();
+        }
+        Set<IBasicBlock> result = new LinkedHashSet<IBasicBlock>();
+        for (int f = frontiers[b].nextSetBit(0); f >= 0; f = frontiers[b].nextSetBit(f + 1)) {
+            result.add(blocks.get(f));
+        }
+        return result;
+    }
+
+    /**
+     * @return the phi functions at the beginning of the given block
+     */
+    public List<Value> getPhiFunctions(IBasicBlock block) {
+        Integer b = blockIndex.get(block);
+        if (b == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(phis.get(b));
+    }
+
+    /**
+     * @return the values created by the definitions and clobbers in the given block, in order
+     */
+    public List<Value> getDefinedValues(IBasicBlock block) {
+        Integer b = blockIndex.get(block);
+        if (b == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(defined.get(b));
+    }
+
+    /**
+     * @return for a use of a variable, the value which reaches it; for a definition, the value it creates; or
+     *         <code>null</code> if the name is not a variable in a reachable block, or the variable is not renamed
+     */
+    public Value getValue(IASTName name) {
+        return values.get(name);
+    }
+
+    /**
+     * @return the value of the given variable on entry to the function, or <code>null</code> if that value is never
+     *         used
+     */
+    public Value getEntryValue(IBinding variable) {
+        return entryValues.get(variable);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < blocks.size(); b++) {
+            sb.append(b);
+            sb.append(": idom="); //$NON-NLS-1$
+            sb.append(idom[b]);
+            sb.append(" df="); //$NON-NLS-1$
+            sb.append(frontiers[b]);
+            for (Value phi : phis.get(b)) {
+                sb.append(" "); //$NON-NLS-1$
+                sb.append(phi);
+                sb.append("=phi"); //$NON-NLS-1$
+                sb.append(phi.operands.values());
+            }
+            Object data = ((ICfgData) blocks.get(b)).getData();
+            if (data instanceof IASTNode) {
+                sb.append(" "); //$NON-NLS-1$
+                sb.append(ASTUtil.toString((IASTNode) data));
+            }
+            sb.append("\n"); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+}
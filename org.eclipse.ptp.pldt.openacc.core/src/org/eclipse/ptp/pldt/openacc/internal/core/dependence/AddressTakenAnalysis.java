@@ -12,9 +12,7 @@
 package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
 
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
@@ -28,6 +26,7 @@ import org.eclipse.cdt.core.dom.ast.IPointerType;
 import org.eclipse.cdt.core.dom.ast.IVariable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
 
 /**
  * AddressTakenAnalysis performs a simple address-taken analysis on a given function.
@@ -39,12 +38,28 @@ import org.eclipse.core.runtime.NullProgressMonitor;
  */
 public class AddressTakenAnalysis {
 
-    private static Map<IASTFunctionDefinition, AddressTakenAnalysis> cache = new WeakHashMap<>();
+    private static final AnalysisSession.Analysis<IASTFunctionDefinition, AddressTakenAnalysis> ANALYSIS = new AnalysisSession.Analysis<IASTFunctionDefinition, AddressTakenAnalysis>(
+            "Address-taken analysis") { //$NON-NLS-1$
+        @Override
+        protected AddressTakenAnalysis compute(IASTFunctionDefinition function, IProgressMonitor monitor) {
+            return new AddressTakenAnalysis(function, monitor);
+        }
+    };
 
+    /**
+     * Returns the results of address-taken analysis on the given function, performing the analysis only if its results
+     * are not already stored in the {@link AnalysisSession} for the function's translation unit.
+     * 
+     * @param function
+     *            IASTFunctionDefinition to perform analysis on.
+     * @param monitor
+     *            IProgressMonitor for analysis project. May be null.
+     */
     public static AddressTakenAnalysis forFunction(IASTFunctionDefinition function, IProgressMonitor monitor) {
-        if (!cache.containsKey(function))
-            cache.put(function, new AddressTakenAnalysis(function, monitor));
-        return cache.get(function);
+        if (function == null) {
+            throw new IllegalArgumentException("function may not be null."); //$NON-NLS-1$
+        }
+        return AnalysisSession.get(ANALYSIS, function, monitor);
     }
 
     /**
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A dependence tester which remembers the results of another dependence tester in a bounded, least-recently-used
+ * cache.
+ * <p>
+ * Loops often contain the same subscript patterns many times (e.g., <code>a[i][j]</code> vs. <code>a[i-1][j]</code>
+ * in a stencil), so the same dependence system is tested repeatedly. Each system is reduced to a canonical key
+ * consisting of the loop bounds, direction vector, number of scalars, and subscript coefficients. Since a write
+ * <i>w</i>&middot;<i>x</i> + <i>c</i><sub>1</sub> and a read <i>r</i>&middot;<i>y</i> + <i>c</i><sub>2</sub> refer
+ * to the same element exactly when <i>w</i>&middot;<i>x</i> = <i>r</i>&middot;<i>y</i> + (<i>c</i><sub>2</sub> -
+ * <i>c</i><sub>1</sub>), the constant terms are normalized so that the write's constant is zero; thus,
+ * <code>a[i]</code> vs. <code>a[i-1]</code> and <code>a[i+1]</code> vs. <code>a[i]</code> share an entry. A system
+ * whose normalized constant terms do not fit in an <code>int</code> is not cached.
+ * <p>
+ * The cache is synchronized, so a single instance can be shared by every analysis in a session (see
+ * {@link #getDefault()}). The underlying tester is run outside the lock, so it may occasionally be run twice for the
+ * same system by different threads; both runs produce the same result.
+ *
+ * @author Jeff Overbey
+ */
+public class CachingDependenceTester implements IDependenceTester {
+
+    /** The default maximum number of entries in the cache */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final CachingDependenceTester DEFAULT = new CachingDependenceTester(new SubscriptDependenceTester(),
+            DEFAULT_CAPACITY);
+
+    /**
+     * @return a shared cache in front of a {@link SubscriptDependenceTester}, with {@link #DEFAULT_CAPACITY} entries
+     */
+    public static CachingDependenceTester getDefault() {
+        return DEFAULT;
+    }
+
+    private final IDependenceTester tester;
+
+    private final int capacity;
+
+    private final LinkedHashMap<Key, Boolean> cache;
+
+    private long hits, misses, evictions;
+
+    /**
+     * @param tester
+     *            dependence test whose results will be cached
+     * @param capacity
+     *            maximum number of results to remember
+     */
+    public CachingDependenceTester(IDependenceTester tester, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity); //$NON-NLS-1$
+        }
+        this.tester = tester;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                if (size() > CachingDependenceTester.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction) {
+        Key key = Key.create(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+        if (key == null) {
+            return tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+        }
+        synchronized (this) {
+            Boolean result = cache.get(key);
+            if (result != null) {
+                hits++;
+                return result.booleanValue();
+            }
+            misses++;
+        }
+
+        boolean result = tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars,
+                direction);
+        synchronized (this) {
+            cache.put(key, Boolean.valueOf(result));
+        }
+        return result;
+    }
+
+    /**
+     * @return the maximum number of entries in the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the number of tests whose results were found in the cache
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of tests whose results were not found in the cache, so the underlying tester was run
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries removed from the cache to make room for newer entries
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Removes every entry from the cache and resets the hit, miss, and eviction counts.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        hits = misses = evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions", cache.size(), hits, misses, //$NON-NLS-1$
+                evictions);
+    }
+
+    /** The canonical form of a dependence system, flattened into an array of <code>int</code>s */
+    private static final class Key {
+        private final int[] data;
+        private final int hashCode;
+
+        /**
+         * @return the canonical key for the given system, or <code>null</code> if normalizing its constant terms would
+         *         overflow
+         */
+        static Key create(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+                int numScalars, Direction[] direction) {
+            try {
+                return new Key(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        private Key(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+                int numScalars, Direction[] direction) {
+            int length = 4 + lowerBounds.length + upperBounds.length + direction.length;
+            for (int dim = 0; dim < writeCoefficients.length; dim++) {
+                length += 1 + writeCoefficients[dim].length;
+            }
+            for (int dim = 0; dim < readCoefficients.length; dim++) {
+                length += 1 + readCoefficients[dim].length;
+            }
+
+            data = new int[length];
+            int n = 0;
+            data[n++] = numScalars;
+            data[n++] = lowerBounds.length;
+            for (int lb : lowerBounds) {
+                data[n++] = lb;
+            }
+            data[n++] = upperBounds.length;
+            for (int ub : upperBounds) {
+                data[n++] = ub;
+            }
+            data[n++] = direction.length;
+            for (Direction d : direction) {
+                data[n++] = d.ordinal();
+            }
+            for (int dim = 0; dim < writeCoefficients.length; dim++) {
+                int[] write = writeCoefficients[dim];
+                int[] read = dim < readCoefficients.length ? readCoefficients[dim] : null;
+                int shift = write.length > 0 && read != null && read.length > 0 ? write[0] : 0;
+                n = append(write, shift, n);
+                if (read != null) {
+                    n = append(read, shift, n);
+                }
+            }
+            for (int dim = writeCoefficients.length; dim < readCoefficients.length; dim++) {
+                n = append(readCoefficients[dim], 0, n);
+            }
+            hashCode = Arrays.hashCode(data);
+        }
+
+        /**
+         * Appends the given row, subtracting <code>shift</code> from its constant term.
+         *
+         * @throws ArithmeticException
+         *             if the difference does not fit in an <code>int</code>, since two different systems could then
+         *             have the same key
+         */
+        private int append(int[] row, int shift, int n) {
+            data[n++] = row.length;
+            for (int i = 0; i < row.length; i++) {
+                if (i == 0) {
+                    long constant = (long) row[i] - shift;
+                    if (constant != (int) constant) {
+                        throw new ArithmeticException();
+                    }
+                    data[n++] = (int) constant;
+                } else {
+                    data[n++] = row[i];
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && hashCode == ((Key) obj).hashCode && Arrays.equals(data, ((Key) obj).data);
+        }
+    }
+}
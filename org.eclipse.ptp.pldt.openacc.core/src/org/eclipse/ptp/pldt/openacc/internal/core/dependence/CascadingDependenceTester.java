@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+/**
+ * A dependence tester which runs a sequence of dependence tests, stopping as soon as one of them proves independence.
+ * <p>
+ * Since every dependence test is conservative, a dependence is reported only if every test in the sequence reports
+ * one. Cheap tests should be placed first, so that more expensive tests are run only when the cheap tests cannot prove
+ * independence.
+ *
+ * @author Jeff Overbey
+ */
+public class CascadingDependenceTester implements IDependenceTester {
+
+    /**
+     * @return a tester which runs the (real-valued) Fourier-Motzkin test and, only if that test reports a dependence,
+     *         runs the exact integer Omega test
+     */
+    public static CascadingDependenceTester realThenExact() {
+        return new CascadingDependenceTester(new FourierMotzkinDependenceTester(), new OmegaDependenceTester());
+    }
+
+    private final IDependenceTester[] testers;
+
+    /**
+     * @param testers
+     *            dependence testers to run, in order
+     */
+    public CascadingDependenceTester(IDependenceTester... testers) {
+        this.testers = testers.clone();
+    }
+
+    @Override
+    public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction) {
+        for (IDependenceTester tester : testers) {
+            if (!tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -17,10 +17,14 @@ package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.cdt.core.dom.ast.IASTArraySubscriptExpression;
 import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
@@ -76,14 +80,48 @@ public class DependenceAnalysis {
 
     private final Set<DataDependence> dependences;
 	
-	private IBinding index;
+	private final IBinding index;
+
+    private final IDependenceTester dependenceTester;
+
+    private final ForkJoinPool pool;
 	
     /**
-     * Analyzes dependences in a sequence of C statements.
+     * Analyzes dependences in a sequence of C statements using the subscript tests, falling back to the
+     * Fourier-Motzkin dependence test. Test results are cached in {@link CachingDependenceTester#getDefault()}.
      * 
      * @throws DependenceTestFailure
      */	
     public DependenceAnalysis(IProgressMonitor pm, IASTStatement... statements) throws DependenceTestFailure, OperationCanceledException {
+        this(CachingDependenceTester.getDefault(), pm, statements);
+    }
+
+    /**
+     * Analyzes dependences in a sequence of C statements using the given dependence test.
+     * 
+     * @throws DependenceTestFailure
+     */	
+    public DependenceAnalysis(IDependenceTester dependenceTester, IProgressMonitor pm, IASTStatement... statements)
+            throws DependenceTestFailure, OperationCanceledException {
+        this(dependenceTester, null, pm, statements);
+    }
+
+    /**
+     * Analyzes dependences in a sequence of C statements using the given dependence test, running the direction vector
+     * hierarchy for each pair of array accesses in the given pool.
+     * <p>
+     * All AST and binding lookups are still done on the calling thread; only the dependence tests themselves, which
+     * operate on the extracted loop bounds and subscript coefficients, run in the pool. The resulting dependences are
+     * the same as for a serial analysis.
+     * 
+     * @param pool
+     *            the pool in which to run dependence tests, or <code>null</code> to run them on the calling thread
+     * @throws DependenceTestFailure
+     */
+    public DependenceAnalysis(IDependenceTester dependenceTester, ForkJoinPool pool, IProgressMonitor pm,
+            IASTStatement... statements) throws DependenceTestFailure, OperationCanceledException {
+        this.dependenceTester = dependenceTester;
+        this.pool = pool;
     	this.variableAccesses = new ArrayList<VariableAccess>();
         this.dependences = new HashSet<DataDependence>();
 
@@ -102,7 +140,7 @@ public class DependenceAnalysis {
     }
     
     public List<VariableAccess> getVariableAccesses() {
-        return this.variableAccesses;
+        return Collections.unmodifiableList(this.variableAccesses);
     }
     
     public int carryDependenceCount() {
@@ -116,7 +154,26 @@ public class DependenceAnalysis {
     }
 
     private void computeDependences(IProgressMonitor pm) throws DependenceTestFailure {
-        SubMonitor progress = SubMonitor.convert(pm, getVariableAccesses().size() * getVariableAccesses().size());
+        // Only accesses to the same variable can be dependent, and at least one of them must be a write,
+        // so index the accesses by variable and test only pairs within each variable's accesses
+        Map<IBinding, List<VariableAccess>> accessesByVariable = new HashMap<IBinding, List<VariableAccess>>();
+        Map<IBinding, List<VariableAccess>> writesByVariable = new HashMap<IBinding, List<VariableAccess>>();
+        for (VariableAccess access : getVariableAccesses()) {
+            if (access.getBinding() == null)
+                throw new IllegalStateException("Unable to resolve binding"); //$NON-NLS-1$
+            getOrCreateList(accessesByVariable, access.getBinding()).add(access);
+            if (access.isWrite()) {
+                getOrCreateList(writesByVariable, access.getBinding()).add(access);
+            }
+        }
+
+        int totalWork = 0;
+        for (VariableAccess v1 : getVariableAccesses()) {
+            totalWork += candidateSinks(v1, accessesByVariable, writesByVariable).size();
+        }
+        // Each pair is one unit of work; for pairs of array accesses, it is reported when the pair's test completes
+        SubMonitor progress = SubMonitor.convert(pm, totalWork);
+        List<ArrayDependenceTest> arrayTests = new ArrayList<ArrayDependenceTest>();
 
         for (VariableAccess v1 : getVariableAccesses()) {
 			progress.subTask(String.format(Messages.DependenceAnalysis_AnalyzingLine,
@@ -125,8 +182,9 @@ public class DependenceAnalysis {
             	throw new DependenceTestFailure(String.format(Messages.DependenceAnalysis_LoopCannotBeAnalyzed,
             		v1.getVariableName().getFileLocation().getStartingLineNumber()));
             }
-            for (VariableAccess v2 : getVariableAccesses()) {
-                if (v1.refersToSameVariableAs(v2) && (v1.isWrite() || v2.isWrite()) && feasibleControlFlow(v1, v2)
+            for (VariableAccess v2 : candidateSinks(v1, accessesByVariable, writesByVariable)) {
+                boolean deferred = false;
+                if (feasibleControlFlow(v1, v2)
                         //if the sink is a declaration of the same variable, there is no dependence
                         && !(v2.getEnclosingStatement() instanceof IASTDeclarationStatement)) {
                     DependenceType dependenceType = v1.getDependenceTypeTo(v2);
@@ -173,26 +231,136 @@ public class DependenceAnalysis {
                             }
                         }
 
-                        DirectionHierarchyTester dht = new DirectionHierarchyTester(lowerBounds, upperBounds,
-                                writeCoefficients, readCoefficients, otherVars.size());
-                        Set<Direction[]> dvs = dht.getPossibleDependenceDirections();
-                        for (Direction[] directionVector : dvs) {
-                        	DataDependence dep = new DataDependence(v1, v2, directionVector, dependenceType);
-                            if(!(v1.equals(v2) && dep.isLoopIndependent()) && !carriedByLoopContainingDeclaration(directionVector, decl)) {
-                            	addDependence(dep);
-                            }
-                        }
+                        arrayTests.add(new ArrayDependenceTest(v1, v2, dependenceType, decl,
+                                new DirectionHierarchyTester(dependenceTester, lowerBounds, upperBounds,
+                                        writeCoefficients, readCoefficients, otherVars.size()),
+                                commonLoops.size()));
+                        deferred = true;
                     }
                 }
 
-                progress.worked(1);
+                if (!deferred) {
+                    progress.worked(1);
+                }
                 if (progress.isCanceled()) {
                     throw new OperationCanceledException(Messages.DependenceAnalysis_DependenceTestCancelled);
                 }
             }
         }
+
+        if (pool == null) {
+            for (ArrayDependenceTest test : arrayTests) {
+                test.run(progress);
+            }
+        } else {
+            pool.invoke(new RunDependenceTests(arrayTests, 0, arrayTests.size(), progress));
+        }
+
+        // Merge in the order the pairs were collected, so the result does not depend on scheduling
+        for (ArrayDependenceTest test : arrayTests) {
+            for (long packed : test.directionVectors) {
+                Direction[] directionVector = PackedDirectionVector.unpack(packed, test.numLevels);
+                DataDependence dep = new DataDependence(test.v1, test.v2, directionVector, test.dependenceType);
+                if (!(test.v1.equals(test.v2) && dep.isLoopIndependent())
+                        && !carriedByLoopContainingDeclaration(directionVector, test.decl)) {
+                    addDependence(dep);
+                }
+            }
+        }
+    }
+
+    /**
+     * A pair of array accesses whose loop bounds and subscript coefficients have been extracted from the AST, so that
+     * the direction vector hierarchy can be run for it on any thread.
+     */
+    private static final class ArrayDependenceTest {
+        final VariableAccess v1;
+        final VariableAccess v2;
+        final DependenceType dependenceType;
+        final VariableAccess decl;
+        final DirectionHierarchyTester dht;
+        final int numLevels;
+        long[] directionVectors;
+
+        ArrayDependenceTest(VariableAccess v1, VariableAccess v2, DependenceType dependenceType, VariableAccess decl,
+                DirectionHierarchyTester dht, int numLevels) {
+            this.v1 = v1;
+            this.v2 = v2;
+            this.dependenceType = dependenceType;
+            this.decl = decl;
+            this.dht = dht;
+            this.numLevels = numLevels;
+        }
+
+        void run(IProgressMonitor pm) {
+            if (pm.isCanceled()) {
+                throw new OperationCanceledException(Messages.DependenceAnalysis_DependenceTestCancelled);
+            }
+            directionVectors = dht.getPossibleDependenceDirectionsPacked();
+            // Tests may complete on several threads at once, and progress monitors are not thread-safe
+            synchronized (pm) {
+                pm.worked(1);
+            }
+        }
+    }
+
+    /**
+     * Runs the direction vector hierarchy for a range of {@link ArrayDependenceTest}s, splitting the range in half
+     * until it is small enough to run directly.
+     */
+    private static final class RunDependenceTests extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 4;
+
+        private final List<ArrayDependenceTest> tests;
+        private final int from, to;
+        private final IProgressMonitor pm;
+
+        RunDependenceTests(List<ArrayDependenceTest> tests, int from, int to, IProgressMonitor pm) {
+            this.tests = tests;
+            this.from = from;
+            this.to = to;
+            this.pm = pm;
+        }
+
+        @Override
+        protected void compute() {
+            if (pm.isCanceled()) {
+                throw new OperationCanceledException(Messages.DependenceAnalysis_DependenceTestCancelled);
+            }
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RunDependenceTests(tests, from, mid, pm), new RunDependenceTests(tests, mid, to, pm));
+            } else {
+                for (int i = from; i < to; i++) {
+                    tests.get(i).run(pm);
+                }
+            }
+        }
     }
     
+    private static List<VariableAccess> getOrCreateList(Map<IBinding, List<VariableAccess>> map, IBinding binding) {
+        List<VariableAccess> list = map.get(binding);
+        if (list == null) {
+            list = new ArrayList<VariableAccess>();
+            map.put(binding, list);
+        }
+        return list;
+    }
+
+    /**
+     * @return the accesses which could be the sink of a dependence from <code>v1</code>, in the order they were
+     *         collected: every access to the same variable if <code>v1</code> is a write, or every write to the same
+     *         variable if it is a read
+     */
+    private static List<VariableAccess> candidateSinks(VariableAccess v1,
+            Map<IBinding, List<VariableAccess>> accessesByVariable,
+            Map<IBinding, List<VariableAccess>> writesByVariable) {
+        List<VariableAccess> result = (v1.isWrite() ? accessesByVariable : writesByVariable).get(v1.getBinding());
+        return result == null ? Collections.<VariableAccess> emptyList() : result;
+    }
+
     private boolean carriedByLoopContainingDeclaration(Direction[] directionVector, VariableAccess decl) {
     	if(decl == null) {
     		return false;
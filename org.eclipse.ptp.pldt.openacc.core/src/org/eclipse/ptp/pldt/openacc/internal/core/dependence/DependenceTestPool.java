@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The shared pool in which refactorings run the dependence tests of a {@link DependenceAnalysis}.
+ * <p>
+ * Parallel dependence testing is off by default, since most loops have too few access pairs to benefit from it. It is
+ * enabled by calling {@link #setParallelism(int)}, e.g., from the <code>-threads</code> option of the command line
+ * interface. Every refactoring then shares a single pool, whose parallelism is bounded by the number of available
+ * processors.
+ *
+ * @author Jeff Overbey
+ */
+public final class DependenceTestPool {
+
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Sets the number of threads in which dependence tests will be run. The number is reduced to the number of
+     * available processors if it is larger.
+     *
+     * @param threads
+     *            the number of threads; 1 disables parallel dependence testing
+     */
+    public static synchronized void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads); //$NON-NLS-1$
+        }
+        int parallelism = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        if (pool != null && pool.getParallelism() == parallelism) {
+            return;
+        }
+        shutdown();
+        if (threads > 1) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    /**
+     * @return the shared pool, or <code>null</code> if parallel dependence testing is disabled
+     */
+    public static synchronized ForkJoinPool get() {
+        return pool;
+    }
+
+    /**
+     * Disables parallel dependence testing and shuts down the shared pool. Tests already running in the pool are
+     * allowed to complete.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private DependenceTestPool() {
+    }
+}
@@ -11,13 +11,12 @@
 package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class DirectionHierarchyTester {
 
-    private FourierMotzkinDependenceTester fourierMotzkin = new FourierMotzkinDependenceTester();
+    private final IDependenceTester dependenceTester;
 
     private int[] lowerBounds;
     private int[] upperBounds;
@@ -25,6 +24,10 @@ public class DirectionHierarchyTester {
     private int[][] readCoefficients;
     private int numScalars;
 
+    /** Possible dependence directions found by {@link #search} */
+    private long[] results;
+    private int numResults;
+
     /**
      * @param lowerBounds 
      * @param upperBounds 
@@ -34,6 +37,21 @@ public class DirectionHierarchyTester {
      */
     public DirectionHierarchyTester(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
             int[][] readCoefficients, int numScalars) {
+        this(new SubscriptDependenceTester(), lowerBounds, upperBounds, writeCoefficients, readCoefficients,
+                numScalars);
+    }
+
+    /**
+     * @param dependenceTester dependence test used to test each direction vector
+     * @param lowerBounds 
+     * @param upperBounds 
+     * @param writeCoefficients constant first, then induction var coeffs, then scalar coeffs 
+     * @param readCoefficients constant first, then induction var coeffs, then scalar coeffs
+     * @param numScalars 
+     */
+    public DirectionHierarchyTester(IDependenceTester dependenceTester, int[] lowerBounds, int[] upperBounds,
+            int[][] writeCoefficients, int[][] readCoefficients, int numScalars) {
+        this.dependenceTester = dependenceTester;
         this.lowerBounds = lowerBounds;
         this.upperBounds = upperBounds;
         this.writeCoefficients = writeCoefficients;
@@ -51,71 +69,73 @@ public class DirectionHierarchyTester {
      */
     
     public Set<Direction[]> getPossibleDependenceDirections() {
-        Direction[] allDirections = new Direction[lowerBounds.length];
-        Arrays.fill(allDirections, Direction.ANY);
-
-        Set<Direction[]> results = new HashSet<Direction[]>();
-
-        
-        Set<Direction[]> allVectors = getPossibleDependenceDirections(allDirections, results);
-        
-        Iterator<Direction[]> iter = allVectors.iterator();
-        while(iter.hasNext()) {
-loop:       for(Direction d : iter.next()) {
-                switch (d) {
-                    case EQ:
-                        continue;
-                    case LT:
-                    case LE:
-                    case ANY:
-                        break loop;
-                    case GT:
-                    case GE:
-                        iter.remove();
-                        break loop;
-                    default:
-                        throw new IllegalStateException();
-                }
-            }
+        long[] packed = getPossibleDependenceDirectionsPacked();
+        Set<Direction[]> results = new LinkedHashSet<Direction[]>(packed.length * 2);
+        for (long dv : packed) {
+            results.add(PackedDirectionVector.unpack(dv, lowerBounds.length));
         }
-        return allVectors;
-
+        return results;
     }
-    private Set<Direction[]> getPossibleDependenceDirections(Direction[] dv, Set<Direction[]> results) {
-        /*
-         * run on given direction vector if there is no dependence, return list as-is otherwise add given direction
-         * vector to the list get new direction vectors where all initial non-'*' elements are the same and the first
-         * '*' is replaced with '<'/'='/'>' recursively run on each of three new direction vectors, adding the result to
-         * the list
-         * 
-         */
-
-        // if there is no dependence
-        if (!fourierMotzkin.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, dv)) {
-            return results;
-        } else {
-            Direction[] originalVector = dv;
-            int firstAny = Arrays.asList(originalVector).indexOf(Direction.ANY);
 
-            // if we have a dependence, but this vector is at the
-            // bottom of the hierarchy (no '*' element in the vector)
-            if (firstAny < 0) {
-                results.add(dv);
-                return results;
-            } else {
-                Direction[] newLT = Arrays.copyOf(originalVector, originalVector.length);
-                Direction[] newGT = Arrays.copyOf(originalVector, originalVector.length);
-                Direction[] newEQ = Arrays.copyOf(originalVector, originalVector.length);
-                newLT[firstAny] = Direction.LT;
-                newGT[firstAny] = Direction.GT;
-                newEQ[firstAny] = Direction.EQ;
+    /**
+     * Uses the direction vector hierarchy to find all possible direction vectors for a loop dependence.
+     * <p>
+     * Each vector in the hierarchy is visited at most once: once a vector is shown to be independent, the vectors
+     * below it are not tested. Vectors whose first non-<code>=</code> direction is <code>&gt;</code> are never
+     * dependences (they are the reverse of a <code>&lt;</code> dependence), so they are not tested either.
+     * 
+     * @return the possible dependence directions, packed as described in {@link PackedDirectionVector}, in the order
+     *         they were found
+     * @throws IllegalArgumentException
+     *             if there are more than {@link PackedDirectionVector#MAX_LEVELS} common loops
+     */
+    public long[] getPossibleDependenceDirectionsPacked() {
+        if (lowerBounds.length > PackedDirectionVector.MAX_LEVELS) {
+            throw new IllegalArgumentException("Too many loop levels: " + lowerBounds.length); //$NON-NLS-1$
+        }
+        Direction[] dv = new Direction[lowerBounds.length];
+        Arrays.fill(dv, Direction.ANY);
+        numResults = 0;
+        results = new long[4];
+        search(dv, 0, 0L, true);
+        return Arrays.copyOf(results, numResults);
+    }
 
-                results.addAll(getPossibleDependenceDirections(newLT, results));
-                results.addAll(getPossibleDependenceDirections(newGT, results));
-                results.addAll(getPossibleDependenceDirections(newEQ, results));
+    /**
+     * Tests the given direction vector and, if there may be a dependence, refines the first <code>*</code> entry
+     * (at the given level) to each of <code>&lt;</code>, <code>&gt;</code>, and <code>=</code>.
+     * 
+     * @param dv
+     *            direction vector to test; entries at and after <code>level</code> are <code>*</code>. It is modified
+     *            during the search but restored before returning.
+     * @param packed
+     *            <code>dv</code>, packed
+     * @param allEqual
+     *            true iff every entry before <code>level</code> is <code>=</code>
+     */
+    private void search(Direction[] dv, int level, long packed, boolean allEqual) {
+        if (!dependenceTester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, dv)) {
+            return;
+        }
 
-                return results;
+        // if we have a dependence, but this vector is at the
+        // bottom of the hierarchy (no '*' element in the vector)
+        if (level == dv.length) {
+            if (numResults == results.length) {
+                results = Arrays.copyOf(results, numResults * 2);
             }
+            results[numResults++] = packed;
+            return;
+        }
+
+        dv[level] = Direction.LT;
+        search(dv, level + 1, PackedDirectionVector.with(packed, level, Direction.LT), false);
+        if (!allEqual) {
+            dv[level] = Direction.GT;
+            search(dv, level + 1, PackedDirectionVector.with(packed, level, Direction.GT), false);
         }
+        dv[level] = Direction.EQ;
+        search(dv, level + 1, PackedDirectionVector.with(packed, level, Direction.EQ), allEqual);
+        dv[level] = Direction.ANY;
     }
 }
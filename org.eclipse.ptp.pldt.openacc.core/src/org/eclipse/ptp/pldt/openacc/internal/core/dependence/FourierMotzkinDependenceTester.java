@@ -12,8 +12,35 @@ package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class FourierMotzkinDependenceTester {
+public class FourierMotzkinDependenceTester implements IDependenceTester {
+
+    /**
+     * The constraint matrix and eliminator are reused between tests to avoid reallocating them (see
+     * {@link #generatePackedDependenceMatrix}); each thread has its own, so this tester may be shared between threads.
+     */
+    private static final class Workspace {
+        final PackedMatrix matrix = new PackedMatrix(0);
+        final PackedFourierMotzkinEliminator eliminator = new PackedFourierMotzkinEliminator();
+    }
+
+    private final ThreadLocal<Workspace> workspace = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    private final AtomicInteger maxNumRows = new AtomicInteger(0);
+
+    /**
+     * @return the largest number of rows in any constraint matrix during elimination, over all tests run by this tester
+     * @see PackedFourierMotzkinEliminator#getMaxNumRows()
+     */
+    public int getMaxNumRows() {
+        return maxNumRows.get();
+    }
 
     /**
      * assumes that the subscript expressions are normalized see example on Wolfe pg 225-226
@@ -25,7 +52,7 @@ public class FourierMotzkinDependenceTester {
      * writeCoefficients constant first, then induction var coeffs, then scalar coeffs
      * readCoefficients constant first, then induction var coeffs, then scalar coeffs
      */
-    
+    @Override
     public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
             int numScalars, Direction[] direction) {
 
@@ -61,6 +88,21 @@ public class FourierMotzkinDependenceTester {
             return true;
         }
 
+        Workspace ws = workspace.get();
+        generatePackedDependenceMatrix(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars,
+                direction, ws.matrix);
+        try {
+            return ws.eliminator.eliminateForRealSolutions(ws.matrix);
+        } catch (ArithmeticException e) {
+            // Coefficients overflowed a long; fall back to floating point
+        } finally {
+            int rows = ws.eliminator.getMaxNumRows();
+            int max;
+            while ((max = maxNumRows.get()) < rows && !maxNumRows.compareAndSet(max, rows)) {
+                // Retry
+            }
+        }
+
         FourierMotzkinEliminator el = new FourierMotzkinEliminator();
         
         Matrix m = generateDependenceMatrix(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars,
@@ -88,6 +130,95 @@ public class FourierMotzkinDependenceTester {
         return ret;
     }
 
+    /**
+     * Fills the given matrix with the same inequalities as {@link #generateDependenceMatrix}, without allocating
+     * intermediate rows.
+     */
+    public void generatePackedDependenceMatrix(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
+            int[][] readCoefficients, int numScalars, Direction[] direction, PackedMatrix m) {
+        int numInductionVars = writeCoefficients[0].length - numScalars - 1;
+        int numColumns = 2 * numInductionVars + numScalars + 1;
+        int constantCol = numColumns - 1;
+        m.clear(numColumns);
+
+        // get the inequalities from the subscripts (as pairs of opposite inequalities)
+        for (int i = 0; i < writeCoefficients.length; i++) {
+            int[] w = writeCoefficients[i];
+            int[] r = readCoefficients[i];
+            int row = m.allocateRow();
+            for (int j = 0; j < numInductionVars; j++) {
+                m.set(row, j, w[1 + j]);
+                m.set(row, numInductionVars + j, -(long) r[1 + j]);
+            }
+            for (int j = 0; j < numScalars; j++) {
+                m.set(row, 2 * numInductionVars + j, (long) w[1 + numInductionVars + j] - r[1 + numInductionVars + j]);
+            }
+            m.set(row, constantCol, (long) r[0] - w[0]);
+
+            int opposite = m.allocateRow();
+            for (int col = 0; col < numColumns; col++) {
+                m.set(opposite, col, -m.get(row, col));
+            }
+        }
+
+        // get the inequalities from the loop bounds
+        for (int i = 0; i < lowerBounds.length; i++) {
+            int row = m.allocateRow();
+            m.set(row, i, -1);
+            m.set(row, constantCol, -(long) lowerBounds[i]);
+            row = m.allocateRow();
+            m.set(row, i, 1);
+            m.set(row, constantCol, upperBounds[i]);
+            row = m.allocateRow();
+            m.set(row, numInductionVars + i, -1);
+            m.set(row, constantCol, -(long) lowerBounds[i]);
+            row = m.allocateRow();
+            m.set(row, numInductionVars + i, 1);
+            m.set(row, constantCol, upperBounds[i]);
+        }
+
+        // get the inequalities from the dependence direction vector
+        for (int i = 0; i < direction.length; i++) {
+            int row;
+            switch (direction[i]) {
+            case ANY:
+                break;
+            case EQ:
+                row = m.allocateRow();
+                m.set(row, i, 1);
+                m.set(row, numInductionVars + i, -1);
+                row = m.allocateRow();
+                m.set(row, i, -1);
+                m.set(row, numInductionVars + i, 1);
+                break;
+            case GT:
+                row = m.allocateRow();
+                m.set(row, i, -1);
+                m.set(row, numInductionVars + i, 1);
+                m.set(row, constantCol, -1);
+                break;
+            case LT:
+                row = m.allocateRow();
+                m.set(row, i, 1);
+                m.set(row, numInductionVars + i, -1);
+                m.set(row, constantCol, -1);
+                break;
+            case GE:
+                row = m.allocateRow();
+                m.set(row, i, -1);
+                m.set(row, numInductionVars + i, 1);
+                break;
+            case LE:
+                row = m.allocateRow();
+                m.set(row, i, 1);
+                m.set(row, numInductionVars + i, -1);
+                break;
+            default:
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+
     public Matrix generateDependenceMatrix(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
             int[][] readCoefficients, int numScalars, Direction[] direction) {
         
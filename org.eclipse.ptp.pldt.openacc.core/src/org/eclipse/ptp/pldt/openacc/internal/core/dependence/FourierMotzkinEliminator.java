@@ -12,8 +12,11 @@
 package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of Fourier-Motzkin elimination with Pugh's dark shadow improvement.
@@ -31,6 +34,22 @@ public class FourierMotzkinEliminator {
 
 	static final double EPSILON = 0.000000001;
 
+	/** Largest number of rows in a matrix after any projection */
+	private int maxNumRows = 0;
+
+	/**
+	 * @return the largest number of rows in a matrix after any projection performed by
+	 *         {@link #eliminateForRealSolutions(Matrix)} since this eliminator was created or
+	 *         {@link #resetMaxNumRows()} was called
+	 */
+	public int getMaxNumRows() {
+		return maxNumRows;
+	}
+
+	public void resetMaxNumRows() {
+		maxNumRows = 0;
+	}
+
 	/**
 	 * The Fourier-Motzkin Elimination algorithm
 	 * 
@@ -57,8 +76,10 @@ public class FourierMotzkinEliminator {
 		matrixIn = deleteRowsOfAllZeroes(matrixIn);
 		if (matrixIn.getNumRows() == 0)
 			return true;
+		maxNumRows = Math.max(maxNumRows, matrixIn.getNumRows());
 		if (containsInconsistentInequalities(matrixIn))
 			return false;
+		matrixIn = deleteParallelRows(matrixIn);
 
 		// if 4 columns, eliminatedVar is 3 (subtract 1)
 		// but Matrix index starts at 0, so subtract 2 to get correct index
@@ -69,8 +90,10 @@ public class FourierMotzkinEliminator {
 		while (eliminatedVar >= 0 && matrixIn.getNumRows() > 0) {
 			matrixIn = realProjection(matrixIn, eliminatedVar);
 			matrixIn = deleteRowsOfAllZeroes(matrixIn);
+			maxNumRows = Math.max(maxNumRows, matrixIn.getNumRows());
 			if (containsInconsistentInequalities(matrixIn))
 				return false;
+			matrixIn = deleteParallelRows(matrixIn);
 			eliminatedVar--;
 		}
 
@@ -153,16 +176,98 @@ public class FourierMotzkinEliminator {
 	 *         <= bj and Ai <= bk where Aj = -Ak and -bk > bj
 	 */
 	public boolean containsInconsistentInequalities(Matrix matrixIn) {
-		boolean inconsistent = false;
+		// Map the coefficients of each row to the smallest b among rows with those coefficients;
+		// then look up the negated coefficients of each row
+		Map<CoefficientKey, Double> smallestBound = new HashMap<CoefficientKey, Double>();
+		int constantCol = matrixIn.getNumColumns() - 1;
+		for (int i = 0; i < matrixIn.getNumRows(); i++) {
+			double[] row = matrixIn.getRow(i);
+			CoefficientKey key = new CoefficientKey(row, 1.0);
+			Double bound = smallestBound.get(key);
+			if (bound == null || row[constantCol] < bound)
+				smallestBound.put(key, row[constantCol]);
+		}
+		for (int i = 0; i < matrixIn.getNumRows(); i++) {
+			double[] row = matrixIn.getRow(i);
+			Double bound = smallestBound.get(new CoefficientKey(row, -1.0));
+			if (bound != null && -row[constantCol] > bound)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Divides each row by the magnitude of its first nonzero coefficient, then deletes duplicate
+	 * and parallel rows, keeping only the row with the tightest bound among rows with the same
+	 * (normalized) coefficients.
+	 * 
+	 * @param matrixIn
+	 * @return matrixIn minus redundant rows
+	 */
+	public Matrix deleteParallelRows(Matrix matrixIn) {
+		int constantCol = matrixIn.getNumColumns() - 1;
+		Map<CoefficientKey, Integer> tightest = new HashMap<CoefficientKey, Integer>();
+		boolean[] redundant = new boolean[matrixIn.getNumRows()];
+		boolean changed = false;
 		for (int i = 0; i < matrixIn.getNumRows(); i++) {
-			for (int k = i + 1; k < matrixIn.getNumRows(); k++) {
-				if (isInconsistentInequality(matrixIn.getRow(i),
-						matrixIn.getRow(k))) {
-					return true;
+			double[] row = matrixIn.getRow(i);
+			for (int col = 0; col < constantCol; col++) {
+				if (row[col] != 0) {
+					double magnitude = Math.abs(row[col]);
+					for (int j = 0; j < row.length; j++)
+						row[j] /= magnitude;
+					break;
 				}
 			}
+
+			CoefficientKey key = new CoefficientKey(row, 1.0);
+			Integer other = tightest.get(key);
+			if (other == null) {
+				tightest.put(key, i);
+			} else if (row[constantCol] < matrixIn.getRow(other)[constantCol]) {
+				redundant[other] = true;
+				tightest.put(key, i);
+				changed = true;
+			} else {
+				redundant[i] = true;
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			int numDeleted = 0;
+			for (int i = 0; i < redundant.length; i++) {
+				if (redundant[i]) {
+					matrixIn.deleteRow(i - numDeleted);
+					numDeleted++;
+				}
+			}
+		}
+		return matrixIn;
+	}
+
+	/** The coefficients of a row (excluding the constant), multiplied by a sign, usable as a hash key */
+	private static final class CoefficientKey {
+		private final double[] coefficients;
+
+		public CoefficientKey(double[] row, double sign) {
+			this.coefficients = new double[row.length - 1];
+			for (int i = 0; i < coefficients.length; i++) {
+				// Adding 0.0 converts -0.0 to 0.0, which compare equal but hash differently
+				this.coefficients[i] = sign * row[i] + 0.0;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(coefficients);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CoefficientKey
+					&& Arrays.equals(coefficients, ((CoefficientKey) obj).coefficients);
 		}
-		return inconsistent;
 	}
 
 	/**
@@ -323,11 +428,10 @@ public class FourierMotzkinEliminator {
 	 * @return matrixIn minus any rows that were full of zeroes
 	 */
 	public Matrix deleteRowsOfAllZeroes(Matrix matrixIn) {
-		int numDeleted = 0;
-		for (int i = 0; i < matrixIn.getNumRows(); i++) {
+		// Iterate backward so that deleting a row does not change the indices of unvisited rows
+		for (int i = matrixIn.getNumRows() - 1; i >= 0; i--) {
 			if (matrixIn.isRowFullOfZeroes(matrixIn.getRow(i))) {
-				matrixIn.deleteRow(i - numDeleted);
-				numDeleted++;
+				matrixIn.deleteRow(i);
 			}
 		}
 		return matrixIn;
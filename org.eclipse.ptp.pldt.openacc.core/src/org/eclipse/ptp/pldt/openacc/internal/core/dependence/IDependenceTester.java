@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+/**
+ * A dependence test: a decision procedure which determines whether two array accesses in a loop nest may refer to the
+ * same element for a particular direction vector.
+ * <p>
+ * Dependence tests must be conservative: a tester may return <code>true</code> when there is no dependence, but it must
+ * never return <code>false</code> when a dependence exists.
+ * <p>
+ * Implementations must be safe for concurrent use: {@link DependenceAnalysis} may call {@link #test} from several
+ * threads at once.
+ *
+ * @author Jeff Overbey
+ * @see FourierMotzkinDependenceTester
+ * @see OmegaDependenceTester
+ * @see CascadingDependenceTester
+ */
+public interface IDependenceTester {
+
+    /**
+     * Determines whether a dependence may exist between a write and a read with the given direction vector.
+     *
+     * @param lowerBounds
+     *            lower bound of each loop in the common loop nest, outermost first
+     * @param upperBounds
+     *            inclusive upper bound of each loop in the common loop nest, outermost first
+     * @param writeCoefficients
+     *            one row per subscript: constant first, then induction var coeffs, then scalar coeffs
+     * @param readCoefficients
+     *            one row per subscript: constant first, then induction var coeffs, then scalar coeffs
+     * @param numScalars
+     *            number of (loop-invariant) scalar variables appearing in the subscripts
+     * @param direction
+     *            direction vector, one entry per loop in the common loop nest
+     * @return <code>false</code> if the accesses are definitely independent; <code>true</code> otherwise
+     */
+    boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction);
+}
@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An exact integer dependence test based on Pugh's Omega test.
+ * <p>
+ * Unlike {@link FourierMotzkinDependenceTester}, which determines whether the dependence system has a <i>real</i>
+ * solution, this tester determines whether it has an <i>integer</i> solution. All arithmetic is performed exactly on
+ * <code>long</code>s. Equalities are eliminated first (normalizing by the GCD of their coefficients and using Pugh's
+ * &quot;mod-hat&quot; substitution when no coefficient is a unit); then variables are eliminated from the remaining
+ * inequalities. When a variable cannot be eliminated exactly, the dark shadow is checked and, if necessary, the
+ * splinters of the grey shadow are enumerated.
+ * <p>
+ * If arithmetic overflows or the problem becomes too large, the tester conservatively reports a dependence.
+ * <p>
+ * Reference: William Pugh, &quot;The Omega test: a fast and practical integer programming algorithm for dependence
+ * analysis,&quot; <i>Supercomputing '91</i>.
+ *
+ * @author Jeff Overbey
+ */
+public class OmegaDependenceTester implements IDependenceTester {
+
+    /** Maximum number of subproblems to solve before giving up (and conservatively assuming a dependence) */
+    private static final int MAX_SUBPROBLEMS = 10000;
+
+    private final FourierMotzkinDependenceTester matrixGenerator = new FourierMotzkinDependenceTester();
+
+    @Override
+    public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction) {
+        Matrix m = matrixGenerator.generateDependenceMatrix(lowerBounds, upperBounds, writeCoefficients,
+                readCoefficients, numScalars, direction);
+        return hasIntegerSolution(m);
+    }
+
+    /**
+     * Determines whether a system of linear inequalities has an integer solution.
+     *
+     * @param matrix
+     *            system of inequalities of the form <i>Ax &lt;= b</i>, where each row contains the coefficients in
+     *            <i>A</i> followed by the corresponding entry of <i>b</i>; all entries must be integers
+     * @return <code>true</code> if the system has an integer solution (or if the test could not be completed),
+     *         <code>false</code> if it definitely does not
+     */
+    public boolean hasIntegerSolution(Matrix matrix) {
+        List<long[]> inequalities = new ArrayList<long[]>(matrix.getNumRows());
+        for (double[] row : matrix.getRows()) {
+            long[] constraint = new long[row.length];
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] != Math.rint(row[i]) || Math.abs(row[i]) > Long.MAX_VALUE / 2)
+                    return true;
+                constraint[i] = (long) row[i];
+            }
+            inequalities.add(constraint);
+        }
+
+        try {
+            return solve(new ArrayList<long[]>(), inequalities, new int[1]);
+        } catch (ArithmeticException e) {
+            return true; // Overflow
+        } catch (ProblemTooLarge e) {
+            return true;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ProblemTooLarge extends RuntimeException {
+    }
+
+    /**
+     * Determines whether a system of equalities and inequalities has an integer solution.
+     * <p>
+     * Each constraint is an array containing the coefficients of each variable followed by a constant
+     * <i>b</i>. Equalities have the form <i>a&middot;x = b</i>; inequalities have the form
+     * <i>a&middot;x &lt;= b</i>. All constraints have the same length. The lists may be modified.
+     * <p>
+     * <code>subproblems[0]</code> counts the number of subproblems solved so far for the current test.
+     */
+    private boolean solve(List<long[]> equalities, List<long[]> inequalities, int[] subproblems) {
+        if (++subproblems[0] > MAX_SUBPROBLEMS)
+            throw new ProblemTooLarge();
+
+        if (!eliminateEqualities(equalities, inequalities))
+            return false;
+
+        // Normalize inequalities, remove duplicates, and detect contradictions and implied equalities
+        Map<Key, long[]> tightest = new HashMap<Key, long[]>();
+        for (long[] ineq : inequalities) {
+            long g = gcd(ineq, ineq.length - 1);
+            if (g == 0) {
+                if (ineq[ineq.length - 1] < 0)
+                    return false;
+                continue;
+            }
+            long[] normalized = new long[ineq.length];
+            for (int i = 0; i < ineq.length - 1; i++)
+                normalized[i] = ineq[i] / g;
+            normalized[ineq.length - 1] = Math.floorDiv(ineq[ineq.length - 1], g);
+
+            Key key = new Key(normalized);
+            long[] existing = tightest.get(key);
+            if (existing == null || normalized[normalized.length - 1] < existing[existing.length - 1])
+                tightest.put(key, normalized);
+        }
+        List<long[]> remaining = new ArrayList<long[]>(tightest.size());
+        for (long[] ineq : tightest.values()) {
+            long[] opposite = tightest.get(new Key(negate(ineq)));
+            if (opposite != null) {
+                // a.x <= b and -a.x <= c; so -c <= a.x <= b
+                long sum = Math.addExact(ineq[ineq.length - 1], opposite[opposite.length - 1]);
+                if (sum < 0) {
+                    return false;
+                } else if (sum == 0) {
+                    List<long[]> newEqualities = new ArrayList<long[]>();
+                    newEqualities.add(ineq);
+                    List<long[]> newInequalities = new ArrayList<long[]>(tightest.values());
+                    newInequalities.remove(ineq);
+                    newInequalities.remove(opposite);
+                    return solve(newEqualities, newInequalities, subproblems);
+                }
+            }
+            remaining.add(ineq);
+        }
+        if (remaining.isEmpty())
+            return true;
+
+        // Choose a variable to eliminate: prefer one that can be eliminated exactly, then one that generates the
+        // fewest new constraints
+        int numVars = remaining.get(0).length - 1;
+        int best = -1;
+        boolean bestIsExact = false;
+        long bestCost = Long.MAX_VALUE;
+        for (int var = 0; var < numVars; var++) {
+            int lower = 0, upper = 0;
+            boolean lowerUnit = true, upperUnit = true;
+            for (long[] ineq : remaining) {
+                if (ineq[var] < 0) {
+                    lower++;
+                    lowerUnit = lowerUnit && ineq[var] == -1;
+                } else if (ineq[var] > 0) {
+                    upper++;
+                    upperUnit = upperUnit && ineq[var] == 1;
+                }
+            }
+            if (lower == 0 && upper == 0)
+                continue;
+            if (lower == 0 || upper == 0) {
+                // The variable is unbounded in one direction, so every constraint involving it can be satisfied
+                List<long[]> newInequalities = new ArrayList<long[]>();
+                for (long[] ineq : remaining)
+                    if (ineq[var] == 0)
+                        newInequalities.add(ineq);
+                return solve(new ArrayList<long[]>(), newInequalities, subproblems);
+            }
+            boolean exact = lowerUnit || upperUnit;
+            long cost = (long) lower * upper;
+            if ((exact && !bestIsExact) || (exact == bestIsExact && cost < bestCost)) {
+                best = var;
+                bestIsExact = exact;
+                bestCost = cost;
+            }
+        }
+        if (best < 0)
+            return true;
+
+        if (bestIsExact)
+            return solve(new ArrayList<long[]>(), shadow(remaining, best, false), subproblems);
+
+        // Real shadow: if there is no real solution, there is no integer solution
+        if (!solve(new ArrayList<long[]>(), shadow(remaining, best, false), subproblems))
+            return false;
+
+        // Dark shadow: if it has an integer solution, so does the original problem
+        if (solve(new ArrayList<long[]>(), shadow(remaining, best, true), subproblems))
+            return true;
+
+        // Grey shadow: any integer solution must lie close to one of the lower bounds
+        long maxUpperCoeff = 0;
+        for (long[] ineq : remaining)
+            maxUpperCoeff = Math.max(maxUpperCoeff, ineq[best]);
+        for (long[] lowerBound : remaining) {
+            if (lowerBound[best] >= 0)
+                continue;
+
+            // lowerBound is -b z + l.x <= r, i.e., b z >= l.x - r; try b z = l.x - r + i for each i
+            long b = -lowerBound[best];
+            long limit = Math.floorDiv(
+                    Math.subtractExact(Math.subtractExact(Math.multiplyExact(maxUpperCoeff, b), maxUpperCoeff), b),
+                    maxUpperCoeff);
+            for (long i = 0; i <= limit; i++) {
+                long[] eq = negate(lowerBound);
+                eq[eq.length - 1] = Math.addExact(eq[eq.length - 1], i);
+                List<long[]> newEqualities = new ArrayList<long[]>();
+                newEqualities.add(eq);
+                if (solve(newEqualities, new ArrayList<long[]>(remaining), subproblems))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Eliminates all of the equalities, substituting into the inequalities.
+     *
+     * @return <code>false</code> if the equalities have no integer solution
+     */
+    private boolean eliminateEqualities(List<long[]> equalities, List<long[]> inequalities) {
+        while (!equalities.isEmpty()) {
+            // Normalize by the GCD of the coefficients, removing trivial equalities
+            for (int i = equalities.size() - 1; i >= 0; i--) {
+                long[] eq = equalities.get(i);
+                long g = gcd(eq, eq.length - 1);
+                if (g == 0) {
+                    if (eq[eq.length - 1] != 0)
+                        return false;
+                    equalities.remove(i);
+                } else if (eq[eq.length - 1] % g != 0) {
+                    return false;
+                } else if (g > 1) {
+                    long[] normalized = new long[eq.length];
+                    for (int j = 0; j < eq.length; j++)
+                        normalized[j] = eq[j] / g;
+                    equalities.set(i, normalized);
+                }
+            }
+            if (equalities.isEmpty())
+                break;
+
+            // Find the coefficient with the smallest magnitude
+            long[] eq = null;
+            int var = -1;
+            for (long[] candidate : equalities) {
+                for (int j = 0; j < candidate.length - 1; j++) {
+                    if (candidate[j] != 0 && (eq == null || Math.abs(candidate[j]) < Math.abs(eq[var]))) {
+                        eq = candidate;
+                        var = j;
+                    }
+                }
+            }
+
+            if (Math.abs(eq[var]) == 1) {
+                // Solve for the variable and substitute it into every other constraint
+                equalities.remove(eq);
+                substitute(eq, var, equalities);
+                substitute(eq, var, inequalities);
+            } else {
+                // Pugh's method: introduce a new variable sigma with
+                // m sigma = sum (a_i mod^ m) x_i - (b mod^ m), where m = |a_k| + 1;
+                // since a_k mod^ m = -sign(a_k), this equation can be solved for x_k
+                long m = Math.addExact(Math.abs(eq[var]), 1);
+                long sign = Long.signum(eq[var]);
+                addVariable(equalities);
+                addVariable(inequalities);
+                long[] sigmaEq = new long[eq.length + 1];
+                for (int j = 0; j < eq.length - 1; j++)
+                    sigmaEq[j] = j == var ? 1 : -sign * modHat(eq[j], m);
+                sigmaEq[eq.length - 1] = Math.multiplyExact(sign, m);
+                sigmaEq[eq.length] = sign * modHat(Math.negateExact(eq[eq.length - 1]), m);
+                equalities.add(sigmaEq);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Given an equality whose coefficient on <code>var</code> is 1 or -1, substitutes the solution for
+     * <code>var</code> into each of the given constraints.
+     */
+    private static void substitute(long[] eq, int var, List<long[]> constraints) {
+        for (int i = 0; i < constraints.size(); i++) {
+            long[] row = constraints.get(i);
+            if (row[var] != 0) {
+                long factor = Math.multiplyExact(row[var], eq[var]);
+                long[] newRow = new long[row.length];
+                for (int j = 0; j < row.length; j++)
+                    newRow[j] = Math.subtractExact(row[j], Math.multiplyExact(factor, eq[j]));
+                constraints.set(i, newRow);
+            }
+        }
+    }
+
+    /** Adds a new variable (with coefficient 0) just before the constant in each constraint. */
+    private static void addVariable(List<long[]> constraints) {
+        for (int i = 0; i < constraints.size(); i++) {
+            long[] row = constraints.get(i);
+            long[] newRow = Arrays.copyOf(row, row.length + 1);
+            newRow[row.length - 1] = 0;
+            newRow[row.length] = row[row.length - 1];
+            constraints.set(i, newRow);
+        }
+    }
+
+    /**
+     * Eliminates a variable from a system of inequalities, returning its real shadow or (if <code>dark</code> is
+     * <code>true</code>) its dark shadow.
+     */
+    private static List<long[]> shadow(List<long[]> inequalities, int var, boolean dark) {
+        List<long[]> result = new ArrayList<long[]>();
+        for (long[] ineq : inequalities)
+            if (ineq[var] == 0)
+                result.add(ineq);
+
+        for (long[] lower : inequalities) {
+            if (lower[var] >= 0)
+                continue;
+            for (long[] upper : inequalities) {
+                if (upper[var] <= 0)
+                    continue;
+
+                // lower: b z >= beta; upper: a z <= alpha
+                // real shadow: a beta <= b alpha; dark shadow: b alpha - a beta >= (a-1)(b-1)
+                long a = upper[var];
+                long b = -lower[var];
+                long[] row = new long[lower.length];
+                for (int j = 0; j < row.length; j++)
+                    row[j] = Math.addExact(Math.multiplyExact(a, lower[j]), Math.multiplyExact(b, upper[j]));
+                if (dark)
+                    row[row.length - 1] = Math.subtractExact(row[row.length - 1],
+                            Math.multiplyExact(a - 1, b - 1));
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /** @return a mod^ m = a - m floor(a/m + 1/2) */
+    private static long modHat(long a, long m) {
+        return Math.subtractExact(a, Math.multiplyExact(m, Math.floorDiv(Math.addExact(Math.multiplyExact(2, a), m),
+                Math.multiplyExact(2, m))));
+    }
+
+    /** @return the GCD of the absolute values of the first <code>count</code> entries of the array */
+    private static long gcd(long[] values, int count) {
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            long a = Math.abs(values[i]);
+            while (a != 0) {
+                long t = result % a;
+                result = a;
+                a = t;
+            }
+        }
+        return result;
+    }
+
+    /** @return the negation of the given constraint (both coefficients and constant) */
+    private static long[] negate(long[] row) {
+        long[] result = new long[row.length];
+        for (int i = 0; i < row.length; i++)
+            result[i] = Math.negateExact(row[i]);
+        return result;
+    }
+
+    /** Hash key for the coefficients of a constraint (excluding the constant) */
+    private static final class Key {
+        private final long[] row;
+
+        Key(long[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 1;
+            for (int i = 0; i < row.length - 1; i++)
+                result = 31 * result + (int) (row[i] ^ (row[i] >>> 32));
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            long[] other = ((Key) obj).row;
+            if (other.length != row.length)
+                return false;
+            for (int i = 0; i < row.length - 1; i++)
+                if (row[i] != other[i])
+                    return false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+/**
+ * Utility methods for direction vectors packed into a <code>long</code>, two bits per loop level.
+ * <p>
+ * Level <i>k</i> is stored in bits 2<i>k</i> and 2<i>k</i>+1. Only the directions produced by the direction vector
+ * hierarchy -- {@link Direction#ANY}, {@link Direction#LT}, {@link Direction#EQ}, and {@link Direction#GT} -- can be
+ * represented. Since {@link Direction#ANY} is encoded as zero, a vector of all <code>*</code> entries is
+ * <code>0L</code>. The length of the vector is not stored.
+ *
+ * @author Jeff Overbey
+ * @see DirectionHierarchyTester
+ */
+public final class PackedDirectionVector {
+
+    /** The largest number of loop levels that can be packed into a <code>long</code> */
+    public static final int MAX_LEVELS = Long.SIZE / 2;
+
+    private static final long ANY = 0, LT = 1, EQ = 2, GT = 3;
+
+    private static final long MASK = 3;
+
+    private PackedDirectionVector() {
+    }
+
+    /**
+     * @return the packed representation of the given direction vector
+     * @throws IllegalArgumentException
+     *             if the vector has more than {@link #MAX_LEVELS} elements or contains {@link Direction#LE} or
+     *             {@link Direction#GE}
+     */
+    public static long pack(Direction[] directions) {
+        if (directions.length > MAX_LEVELS) {
+            throw new IllegalArgumentException("Too many loop levels: " + directions.length); //$NON-NLS-1$
+        }
+        long result = 0;
+        for (int level = 0; level < directions.length; level++) {
+            result = with(result, level, directions[level]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the direction vector with the given number of levels represented by the given packed value
+     */
+    public static Direction[] unpack(long packed, int numLevels) {
+        Direction[] result = new Direction[numLevels];
+        for (int level = 0; level < numLevels; level++) {
+            result[level] = get(packed, level);
+        }
+        return result;
+    }
+
+    /**
+     * @return the direction at the given level
+     */
+    public static Direction get(long packed, int level) {
+        switch ((int) ((packed >>> (2 * level)) & MASK)) {
+        case (int) LT:
+            return Direction.LT;
+        case (int) EQ:
+            return Direction.EQ;
+        case (int) GT:
+            return Direction.GT;
+        default:
+            return Direction.ANY;
+        }
+    }
+
+    /**
+     * @return the given packed vector with the direction at the given level replaced
+     * @throws IllegalArgumentException
+     *             if the direction is {@link Direction#LE} or {@link Direction#GE}
+     */
+    public static long with(long packed, int level, Direction direction) {
+        long code;
+        switch (direction) {
+        case ANY:
+            code = ANY;
+            break;
+        case LT:
+            code = LT;
+            break;
+        case EQ:
+            code = EQ;
+            break;
+        case GT:
+            code = GT;
+            break;
+        default:
+            throw new IllegalArgumentException("Direction cannot be packed: " + direction); //$NON-NLS-1$
+        }
+        int shift = 2 * level;
+        return (packed & ~(MASK << shift)) | (code << shift);
+    }
+
+    /**
+     * @return a string representation of the packed vector, e.g., "&lt; = *"
+     */
+    public static String toString(long packed, int numLevels) {
+        StringBuilder sb = new StringBuilder();
+        for (int level = 0; level < numLevels; level++) {
+            if (level > 0) {
+                sb.append(' ');
+            }
+            sb.append(get(packed, level));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import java.util.Arrays;
+
+/**
+ * Fourier-Motzkin elimination over a {@link PackedMatrix}.
+ * <p>
+ * This determines the same thing as {@link FourierMotzkinEliminator#eliminateForRealSolutions(Matrix)} -- whether a
+ * system of linear inequalities has a real solution -- but it projects the matrix in place, using exact integer
+ * arithmetic. Rather than dividing each bounding row by the magnitude of its coefficient, each new row is computed as
+ * an integer combination of a lower and an upper bound and reduced by the GCD of its entries. Rows are deleted by
+ * marking their slots free, and new rows are written into free slots, so the only allocation occurs when the matrix
+ * (or one of this object's scratch buffers) grows beyond its previous high-water mark.
+ * <p>
+ * Since each projection can square the number of rows, redundant rows are removed before each projection (unless this
+ * is disabled in the constructor):
+ * <ul>
+ * <li>Duplicate and parallel rows are found by hashing their coefficients (divided by their GCD), and only the
+ * tightest of a set of parallel rows is kept. If a row is parallel to the negation of another row and the two bounds
+ * are incompatible, the system is inconsistent.</li>
+ * <li>Each row records which rows of the original matrix it was derived from. By Chernikov's rule (as stated by
+ * Imbert), after <i>k</i> variables have been eliminated, a row derived from more than <i>k</i>+1 original rows is
+ * redundant, so it is never added.</li>
+ * </ul>
+ * <p>
+ * Instances are not thread-safe, but they may be reused for any number of matrices.
+ *
+ * @author Jeff Overbey
+ * @see FourierMotzkinEliminator
+ */
+public final class PackedFourierMotzkinEliminator {
+
+    /** Histories are bit sets over the original rows, so they can only be tracked for matrices this small */
+    private static final int MAX_ROWS_WITH_HISTORY = Long.SIZE;
+
+    private final boolean pruneRedundantRows;
+
+    /** Slot numbers of the rows in the lower bounding set of the variable being eliminated */
+    private int[] lowerBoundSet = new int[16];
+
+    /** Slot numbers of the rows in the upper bounding set of the variable being eliminated */
+    private int[] upperBoundSet = new int[16];
+
+    /** Storage for a combined row before it is copied into the matrix */
+    private long[] scratchRow = new long[8];
+
+    /** For each slot, a bit set of the original rows the row in that slot was derived from */
+    private long[] history = new long[16];
+
+    /** Whether {@link #history} is being maintained for the current matrix */
+    private boolean trackHistory;
+
+    /** For each slot, the GCD of the coefficients (excluding the constant) of the row in that slot */
+    private long[] coefficientGcd = new long[16];
+
+    /** Open-addressing hash table of slot numbers (plus one; zero denotes an empty entry) */
+    private int[] hashTable = new int[32];
+
+    /** Largest number of rows in any matrix during elimination */
+    private int maxNumRows = 0;
+
+    /**
+     * Creates an eliminator which removes redundant rows between projections.
+     */
+    public PackedFourierMotzkinEliminator() {
+        this(true);
+    }
+
+    /**
+     * @param pruneRedundantRows
+     *            whether to remove duplicate, parallel, and (by Chernikov's rule) redundant rows between projections
+     */
+    public PackedFourierMotzkinEliminator(boolean pruneRedundantRows) {
+        this.pruneRedundantRows = pruneRedundantRows;
+    }
+
+    /**
+     * @return the largest number of rows in any matrix during elimination (including rows added by projection), over
+     *         all calls to {@link #eliminateForRealSolutions(PackedMatrix)} since this eliminator was created or
+     *         {@link #resetMaxNumRows()} was called
+     */
+    public int getMaxNumRows() {
+        return maxNumRows;
+    }
+
+    public void resetMaxNumRows() {
+        maxNumRows = 0;
+    }
+
+    /**
+     * Determines whether the given system of inequalities has a real solution. The matrix is modified.
+     *
+     * @return whether a solution exists or not
+     * @throws ArithmeticException
+     *             if a coefficient overflows a <code>long</code>
+     */
+    public boolean eliminateForRealSolutions(PackedMatrix matrix) {
+        int numColumns = matrix.getNumColumns();
+        int constantCol = numColumns - 1;
+        if (scratchRow.length < numColumns) {
+            scratchRow = new long[numColumns];
+        }
+        maxNumRows = Math.max(maxNumRows, matrix.getNumRows());
+
+        if (!deleteRowsOfZeroCoefficients(matrix)) {
+            return false;
+        }
+
+        trackHistory = pruneRedundantRows && matrix.getNumSlots() <= MAX_ROWS_WITH_HISTORY;
+        if (trackHistory) {
+            ensureSlotCapacity(matrix.getNumSlots());
+            for (int row = matrix.nextRow(0); row >= 0; row = matrix.nextRow(row + 1)) {
+                history[row] = 1L << row;
+            }
+        }
+
+        int numEliminated = 0;
+        for (int var = constantCol - 1; var >= 0 && matrix.getNumRows() > 0; var--) {
+            if (pruneRedundantRows && !deleteParallelRows(matrix)) {
+                return false;
+            }
+
+            int numLower = 0, numUpper = 0;
+            for (int row = matrix.nextRow(0); row >= 0; row = matrix.nextRow(row + 1)) {
+                long coeff = matrix.get(row, var);
+                if (coeff < 0) {
+                    if (numLower == lowerBoundSet.length) {
+                        lowerBoundSet = Arrays.copyOf(lowerBoundSet, numLower * 2);
+                    }
+                    lowerBoundSet[numLower++] = row;
+                } else if (coeff > 0) {
+                    if (numUpper == upperBoundSet.length) {
+                        upperBoundSet = Arrays.copyOf(upperBoundSet, numUpper * 2);
+                    }
+                    upperBoundSet[numUpper++] = row;
+                }
+            }
+            numEliminated++;
+
+            // If either bounding set is empty, the variable is unconstrained, and the rows containing it can be
+            // satisfied for any values of the other variables
+            if (numLower > 0 && numUpper > 0) {
+                for (int i = 0; i < numLower; i++) {
+                    for (int k = 0; k < numUpper; k++) {
+                        if (!combine(matrix, lowerBoundSet[i], upperBoundSet[k], var, numEliminated)) {
+                            return false;
+                        }
+                    }
+                }
+                maxNumRows = Math.max(maxNumRows, matrix.getNumRows());
+            }
+
+            for (int i = 0; i < numLower; i++) {
+                matrix.deleteRow(lowerBoundSet[i]);
+            }
+            for (int k = 0; k < numUpper; k++) {
+                matrix.deleteRow(upperBoundSet[k]);
+            }
+        }
+
+        // Every variable has been eliminated, and no row of the form 0 <= b with b < 0 was found
+        return true;
+    }
+
+    /**
+     * Adds a row to the matrix which is a positive combination of the given rows, in which the given variable has a
+     * coefficient of zero. If all of the coefficients in the combination are zero, or if the combination is redundant
+     * by Chernikov's rule, it is not added.
+     *
+     * @return false iff the combination is the inconsistent inequality <i>0 &lt;= b</i> with <i>b &lt; 0</i>
+     */
+    private boolean combine(PackedMatrix matrix, int lower, int upper, int var, int numEliminated) {
+        long combinedHistory = 0;
+        if (trackHistory) {
+            combinedHistory = history[lower] | history[upper];
+            if (Long.bitCount(combinedHistory) > numEliminated + 1) {
+                return true;
+            }
+        }
+
+        int numColumns = matrix.getNumColumns();
+        long a = -matrix.get(lower, var);
+        long b = matrix.get(upper, var);
+        long g = gcd(a, b);
+        a /= g;
+        b /= g;
+
+        long rowGcd = 0;
+        boolean allZero = true;
+        for (int col = 0; col < numColumns; col++) {
+            long value = Math.addExact(Math.multiplyExact(b, matrix.get(lower, col)),
+                    Math.multiplyExact(a, matrix.get(upper, col)));
+            scratchRow[col] = value;
+            rowGcd = gcd(rowGcd, value);
+            if (value != 0 && col < numColumns - 1) {
+                allZero = false;
+            }
+        }
+
+        if (allZero) {
+            return scratchRow[numColumns - 1] >= 0;
+        }
+
+        int row = matrix.allocateRow();
+        for (int col = 0; col < numColumns; col++) {
+            matrix.set(row, col, scratchRow[col] / rowGcd);
+        }
+        if (trackHistory) {
+            ensureSlotCapacity(row + 1);
+            history[row] = combinedHistory;
+        }
+        return true;
+    }
+
+    /**
+     * Deletes every row whose coefficients are all zero.
+     *
+     * @return false iff one of those rows is the inconsistent inequality <i>0 &lt;= b</i> with <i>b &lt; 0</i>
+     */
+    private static boolean deleteRowsOfZeroCoefficients(PackedMatrix matrix) {
+        int constantCol = matrix.getNumColumns() - 1;
+        for (int row = matrix.nextRow(0); row >= 0; row = matrix.nextRow(row + 1)) {
+            if (matrix.isRowOfZeroCoefficients(row)) {
+                if (matrix.get(row, constantCol) < 0) {
+                    return false;
+                }
+                matrix.deleteRow(row);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletes duplicate rows and, among rows whose coefficients are parallel (positive multiples of each other),
+     * keeps only the row with the tightest bound. Also checks for pairs of rows <i>ax &lt;= b</i> and <i>-ax &lt;=
+     * c</i> with <i>b + c &lt; 0</i>.
+     *
+     * @return false iff the matrix contains such a pair of rows, i.e., it is inconsistent
+     */
+    private boolean deleteParallelRows(PackedMatrix matrix) {
+        int constantCol = matrix.getNumColumns() - 1;
+        int tableSize = Integer.highestOneBit(Math.max(matrix.getNumRows(), 1) * 4);
+        if (hashTable.length < tableSize) {
+            hashTable = new int[tableSize];
+        } else {
+            tableSize = hashTable.length;
+            Arrays.fill(hashTable, 0);
+        }
+        ensureSlotCapacity(matrix.getNumSlots());
+        int mask = tableSize - 1;
+
+        for (int row = matrix.nextRow(0); row >= 0; row = matrix.nextRow(row + 1)) {
+            long g = 0;
+            for (int col = 0; col < constantCol; col++) {
+                g = gcd(g, matrix.get(row, col));
+            }
+            coefficientGcd[row] = g;
+
+            // Is there an earlier row parallel to the negation of this row?
+            int opposite = find(matrix, row, -1, mask);
+            if (opposite >= 0) {
+                // b/g + c/h < 0, where b and c are the constants and g and h are the coefficient GCDs
+                long sum = Math.addExact(Math.multiplyExact(matrix.get(row, constantCol), coefficientGcd[opposite]),
+                        Math.multiplyExact(matrix.get(opposite, constantCol), g));
+                if (sum < 0) {
+                    return false;
+                }
+            }
+
+            int index = hashIndex(matrix, row, 1, mask);
+            while (hashTable[index] != 0) {
+                int other = hashTable[index] - 1;
+                if (isParallel(matrix, row, other, 1)) {
+                    // Keep whichever of b/g and c/h is smaller
+                    long thisBound = Math.multiplyExact(matrix.get(row, constantCol), coefficientGcd[other]);
+                    long otherBound = Math.multiplyExact(matrix.get(other, constantCol), g);
+                    if (thisBound < otherBound) {
+                        matrix.deleteRow(other);
+                        hashTable[index] = row + 1;
+                    } else {
+                        matrix.deleteRow(row);
+                    }
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            if (hashTable[index] == 0) {
+                hashTable[index] = row + 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the slot number of a row in the hash table whose coefficients are parallel to the coefficients of the
+     *         given row multiplied by <code>sign</code>, or -1 if there is none
+     */
+    private int find(PackedMatrix matrix, int row, int sign, int mask) {
+        for (int index = hashIndex(matrix, row, sign, mask); hashTable[index] != 0; index = (index + 1) & mask) {
+            int other = hashTable[index] - 1;
+            if (isParallel(matrix, row, other, sign)) {
+                return other;
+            }
+        }
+        return -1;
+    }
+
+    private int hashIndex(PackedMatrix matrix, int row, int sign, int mask) {
+        int constantCol = matrix.getNumColumns() - 1;
+        long g = coefficientGcd[row] * sign;
+        long hash = 0;
+        for (int col = 0; col < constantCol; col++) {
+            hash = 31 * hash + matrix.get(row, col) / g;
+        }
+        hash ^= (hash >>> 32);
+        hash ^= (hash >>> 16);
+        return (int) hash & mask;
+    }
+
+    private boolean isParallel(PackedMatrix matrix, int row, int other, int sign) {
+        int constantCol = matrix.getNumColumns() - 1;
+        long g = coefficientGcd[row] * sign;
+        long h = coefficientGcd[other];
+        for (int col = 0; col < constantCol; col++) {
+            if (matrix.get(row, col) / g != matrix.get(other, col) / h) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureSlotCapacity(int numSlots) {
+        if (history.length < numSlots) {
+            history = Arrays.copyOf(history, Math.max(numSlots, history.length * 2));
+        }
+        if (coefficientGcd.length < numSlots) {
+            coefficientGcd = Arrays.copyOf(coefficientGcd, Math.max(numSlots, coefficientGcd.length * 2));
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import static org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinEliminator.EPSILON;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A system of linear inequalities <i>Ax &lt;= b</i> with integer coefficients, stored in a single packed
+ * <code>long[]</code>.
+ * <p>
+ * Rows are stored in fixed-size slots. A bitmap records which slots are free, so rows can be deleted and added without
+ * shifting other rows; slots are reused before the backing array is grown. Each row contains the coefficients of
+ * <i>A</i> followed by the corresponding entry of <i>b</i>, as in {@link Matrix}.
+ * <p>
+ * Rational coefficients are represented by scaling each row by a common denominator (see {@link #load(Matrix)}).
+ *
+ * @author Jeff Overbey
+ * @see PackedFourierMotzkinEliminator
+ */
+public final class PackedMatrix {
+
+    /** Largest denominator tried when converting a row of a {@link Matrix} to integers */
+    private static final long MAX_DENOMINATOR = 1000000;
+
+    private int numColumns;
+
+    /** Row <i>r</i>, column <i>c</i> is stored at <code>data[r * numColumns + c]</code> */
+    private long[] data;
+
+    /** Number of row slots that have ever been used */
+    private int numSlots;
+
+    /** Bit <i>r</i> is set iff slot <i>r</i> (where <i>r</i> &lt; {@link #numSlots}) does not contain a row */
+    private final BitSet freeSlots;
+
+    private int numRows;
+
+    /**
+     * Creates an empty matrix with the given number of columns.
+     */
+    public PackedMatrix(int numColumns) {
+        this.numColumns = numColumns;
+        this.data = new long[16 * Math.max(numColumns, 1)];
+        this.numSlots = 0;
+        this.freeSlots = new BitSet();
+        this.numRows = 0;
+    }
+
+    /**
+     * Removes all rows from this matrix and changes its number of columns, retaining the backing storage.
+     */
+    public void clear(int numColumns) {
+        this.numColumns = numColumns;
+        this.numSlots = 0;
+        this.freeSlots.clear();
+        this.numRows = 0;
+    }
+
+    /**
+     * Replaces the contents of this matrix with the contents of the given {@link Matrix}.
+     * <p>
+     * Each row is multiplied by the smallest power of ten (up to one million) that makes every entry an integer. This
+     * scaling does not change the set of (real) solutions.
+     *
+     * @return <code>true</code> if successful, or <code>false</code> if some row could not be represented exactly (in
+     *         which case the contents of this matrix are unspecified)
+     */
+    public boolean load(Matrix matrix) {
+        clear(matrix.getNumColumns());
+        for (double[] row : matrix.getRows()) {
+            if (row.length != numColumns) {
+                return false;
+            }
+            int slot = allocateRow();
+            if (!loadRow(row, slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean loadRow(double[] row, int slot) {
+        int base = slot * numColumns;
+        scale: for (long scale = 1; scale <= MAX_DENOMINATOR; scale *= 10) {
+            for (int col = 0; col < numColumns; col++) {
+                double value = row[col] * scale;
+                double rounded = Math.rint(value);
+                if (Math.abs(value - rounded) > EPSILON || Math.abs(rounded) > Integer.MAX_VALUE * 4.0) {
+                    continue scale;
+                }
+                data[base + col] = (long) rounded;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of columns (variables, plus one for the constant)
+     */
+    public int getNumColumns() {
+        return numColumns;
+    }
+
+    /**
+     * @return the number of rows (inequalities) in the matrix
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the number of row slots, i.e., one more than the largest row index that may be passed to
+     *         {@link #nextRow(int)} or {@link #get(int, int)}
+     */
+    public int getNumSlots() {
+        return numSlots;
+    }
+
+    /**
+     * @return the index of the first row at or after the given slot, or -1 if there is none
+     */
+    public int nextRow(int fromSlot) {
+        int result = freeSlots.nextClearBit(fromSlot);
+        return result < numSlots ? result : -1;
+    }
+
+    public long get(int row, int col) {
+        return data[row * numColumns + col];
+    }
+
+    public void set(int row, int col, long value) {
+        data[row * numColumns + col] = value;
+    }
+
+    /**
+     * Adds a new row whose entries are all zero.
+     *
+     * @return the index of the new row
+     */
+    public int allocateRow() {
+        int slot = freeSlots.nextSetBit(0);
+        if (slot < 0 || slot >= numSlots) {
+            slot = numSlots++;
+            int required = numSlots * numColumns;
+            if (required > data.length) {
+                data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+            }
+        } else {
+            freeSlots.clear(slot);
+        }
+        Arrays.fill(data, slot * numColumns, (slot + 1) * numColumns, 0L);
+        numRows++;
+        return slot;
+    }
+
+    /**
+     * Adds a new row.
+     *
+     * @return the index of the new row
+     */
+    public int addRow(long... row) {
+        if (row.length != numColumns) {
+            throw new IllegalArgumentException();
+        }
+        int slot = allocateRow();
+        System.arraycopy(row, 0, data, slot * numColumns, numColumns);
+        return slot;
+    }
+
+    /**
+     * Deletes the row at the given index. Other rows are not moved.
+     */
+    public void deleteRow(int row) {
+        if (row < 0 || row >= numSlots || freeSlots.get(row)) {
+            throw new IndexOutOfBoundsException();
+        }
+        freeSlots.set(row);
+        numRows--;
+    }
+
+    /**
+     * @return true iff every coefficient in the given row (excluding the constant) is zero
+     */
+    public boolean isRowOfZeroCoefficients(int row) {
+        int base = row * numColumns;
+        for (int col = 0; col < numColumns - 1; col++) {
+            if (data[base + col] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the contents of this matrix as a {@link Matrix}
+     */
+    public Matrix toMatrix() {
+        Matrix result = new Matrix();
+        for (int row = nextRow(0); row >= 0; row = nextRow(row + 1)) {
+            double[] values = new double[numColumns];
+            for (int col = 0; col < numColumns; col++) {
+                values[col] = get(row, col);
+            }
+            result.addRowAtIndex(result.getNumRows(), values);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
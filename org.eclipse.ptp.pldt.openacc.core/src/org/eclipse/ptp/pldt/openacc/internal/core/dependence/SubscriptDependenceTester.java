@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.openacc.internal.core.dependence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A dependence tester which applies inexpensive subscript-by-subscript tests before falling back to a more expensive
+ * dependence test (usually Fourier-Motzkin elimination).
+ * <p>
+ * Each subscript (dimension) is classified as ZIV (zero index variables), SIV (single index variable), or MIV
+ * (multiple index variables), and the following tests are applied, in order:
+ * <ol>
+ * <li>the ZIV test;</li>
+ * <li>the strong SIV test (<i>a i + c<sub>1</sub></i> vs. <i>a i' + c<sub>2</sub></i>);</li>
+ * <li>the weak-zero SIV test (<i>a i + c<sub>1</sub></i> vs. <i>c<sub>2</sub></i>);</li>
+ * <li>the GCD test; and</li>
+ * <li>the Banerjee bounds test, constrained by the direction vector.</li>
+ * </ol>
+ * If any test proves independence, the tester returns <code>false</code> immediately. If every subscript is ZIV, strong
+ * SIV, or weak-zero SIV and no two subscripts share an index variable, these tests are exact, so the tester returns
+ * <code>true</code> without running the fallback test. Otherwise (the subscripts are coupled, or some subscript is MIV
+ * or involves other variables), the fallback test is run.
+ * <p>
+ * The tester counts how many tests were resolved by each tier (see {@link #getResolvedCount(Tier)}); the counts are
+ * cumulative over the lifetime of the tester.
+ * <p>
+ * Reference: Allen and Kennedy, <i>Optimizing Compilers for Modern Architectures,</i> Chapter 3.
+ *
+ * @author Jeff Overbey
+ */
+public class SubscriptDependenceTester implements IDependenceTester {
+
+    /** The tests applied by a {@link SubscriptDependenceTester}, in the order they are applied. */
+    public static enum Tier {
+        ZIV, STRONG_SIV, WEAK_ZERO_SIV, GCD, BANERJEE,
+        /** Every subscript was separable and handled exactly by the SIV/ZIV tests, which found a dependence */
+        EXACT_SIV,
+        /** The fallback dependence test was run */
+        FALLBACK;
+    }
+
+    private final IDependenceTester fallback;
+
+    private final AtomicLongArray resolved = new AtomicLongArray(Tier.values().length);
+
+    /**
+     * Creates a subscript dependence tester that falls back to Fourier-Motzkin elimination.
+     */
+    public SubscriptDependenceTester() {
+        this(new FourierMotzkinDependenceTester());
+    }
+
+    /**
+     * @param fallback
+     *            dependence test to run when the subscript tests are inconclusive
+     */
+    public SubscriptDependenceTester(IDependenceTester fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return the number of tests resolved by the given tier
+     */
+    public long getResolvedCount(Tier tier) {
+        return resolved.get(tier.ordinal());
+    }
+
+    @Override
+    public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction) {
+        Tier tier = classify(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+        resolved.incrementAndGet(tier.ordinal());
+        switch (tier) {
+        case EXACT_SIV:
+            return true;
+        case FALLBACK:
+            return fallback.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * @return the tier which proved independence, {@link Tier#EXACT_SIV} if a dependence definitely exists, or
+     *         {@link Tier#FALLBACK} if the subscript tests were inconclusive
+     */
+    private Tier classify(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients, int[][] readCoefficients,
+            int numScalars, Direction[] direction) {
+        int numLoops = lowerBounds.length;
+        if (writeCoefficients.length == 0 || writeCoefficients.length != readCoefficients.length
+                || direction.length != numLoops || upperBounds.length != numLoops) {
+            return Tier.FALLBACK;
+        }
+        for (int dim = 0; dim < writeCoefficients.length; dim++) {
+            if (writeCoefficients[dim].length != 1 + numLoops + numScalars
+                    || readCoefficients[dim].length != 1 + numLoops + numScalars) {
+                return Tier.FALLBACK;
+            }
+        }
+
+        // If the direction vector is infeasible for some loop (e.g., < in a loop with one iteration),
+        // there can be no dependence; let the fallback test decide, since this is rare
+        for (int k = 0; k < numLoops; k++) {
+            if (!isFeasible(lowerBounds[k], upperBounds[k], direction[k])) {
+                return Tier.FALLBACK;
+            }
+        }
+
+        boolean exact = true;
+        boolean[] loopUsed = new boolean[numLoops];
+        for (int dim = 0; dim < writeCoefficients.length; dim++) {
+            int[] w = writeCoefficients[dim];
+            int[] r = readCoefficients[dim];
+
+            // Scalars cancel only if they have the same coefficients in both subscripts
+            boolean symbolic = false;
+            for (int j = 1 + numLoops; j < w.length; j++) {
+                if (w[j] != r[j]) {
+                    symbolic = true;
+                }
+            }
+
+            // Which loops' index variables appear in this subscript?
+            int numIndices = 0;
+            int index = -1;
+            for (int k = 0; k < numLoops; k++) {
+                if (w[1 + k] != 0 || r[1 + k] != 0) {
+                    numIndices++;
+                    index = k;
+                }
+            }
+
+            long constant = (long) r[0] - w[0]; // w.i - r.i' = r_0 - w_0
+            if (!symbolic && numIndices == 0) {
+                if (constant != 0) {
+                    return Tier.ZIV;
+                }
+                continue;
+            }
+
+            if (!symbolic && numIndices == 1) {
+                long a = w[1 + index];
+                long b = r[1 + index];
+                long lb = lowerBounds[index];
+                long ub = upperBounds[index];
+                if (a == b) {
+                    // Strong SIV: a i + c1 = a i' + c2, so i' - i = (c1 - c2) / a
+                    if (-constant % a != 0) {
+                        return Tier.STRONG_SIV;
+                    }
+                    long distance = -constant / a;
+                    if (Math.abs(distance) > ub - lb || !allowsDistance(direction[index], distance)) {
+                        return Tier.STRONG_SIV;
+                    }
+                } else if (a == 0 || b == 0) {
+                    // Weak-zero SIV: a i + c1 = c2 (or c1 = b i' + c2), so i (or i') = constant
+                    long coeff = a != 0 ? a : -b;
+                    if (constant % coeff != 0) {
+                        return Tier.WEAK_ZERO_SIV;
+                    }
+                    long value = constant / coeff;
+                    if (value < lb || value > ub || !allowsFixedIndex(direction[index], value, lb, ub, a != 0)) {
+                        return Tier.WEAK_ZERO_SIV;
+                    }
+                } else {
+                    exact = false;
+                }
+
+                if (loopUsed[index]) {
+                    exact = false; // Coupled subscripts
+                }
+                loopUsed[index] = true;
+            } else {
+                exact = false;
+                for (int k = 0; k < numLoops; k++) {
+                    if (w[1 + k] != 0 || r[1 + k] != 0) {
+                        loopUsed[k] = true;
+                    }
+                }
+            }
+
+            if (!symbolic) {
+                if (!gcdTest(w, r, numLoops, constant)) {
+                    return Tier.GCD;
+                }
+                if (!banerjeeTest(lowerBounds, upperBounds, w, r, direction, constant)) {
+                    return Tier.BANERJEE;
+                }
+            }
+        }
+        return exact ? Tier.EXACT_SIV : Tier.FALLBACK;
+    }
+
+    /** @return true iff there exist i, i' in [lb, ub] related by the given direction */
+    private static boolean isFeasible(long lb, long ub, Direction direction) {
+        switch (direction) {
+        case LT:
+        case GT:
+            return lb < ub;
+        default:
+            return lb <= ub;
+        }
+    }
+
+    /** @return true iff the direction is consistent with i' - i = distance */
+    private static boolean allowsDistance(Direction direction, long distance) {
+        switch (direction) {
+        case LT:
+            return distance > 0;
+        case GT:
+            return distance < 0;
+        case EQ:
+            return distance == 0;
+        case LE:
+            return distance >= 0;
+        case GE:
+            return distance <= 0;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * @return true iff there is an index in [lb, ub] for the other access which is consistent with the direction,
+     *         given that the write's index is <code>value</code> (if <code>writeFixed</code>) or the read's index is
+     *         <code>value</code> (otherwise)
+     */
+    private static boolean allowsFixedIndex(Direction direction, long value, long lb, long ub, boolean writeFixed) {
+        // Direction relates i (write) to i' (read): < means i < i'
+        switch (writeFixed ? direction : reverse(direction)) {
+        case LT:
+            return value < ub;
+        case GT:
+            return value > lb;
+        default:
+            return true;
+        }
+    }
+
+    private static Direction reverse(Direction direction) {
+        switch (direction) {
+        case LT:
+            return Direction.GT;
+        case GT:
+            return Direction.LT;
+        case LE:
+            return Direction.GE;
+        case GE:
+            return Direction.LE;
+        default:
+            return direction;
+        }
+    }
+
+    /** @return false iff the GCD test proves that w.i - r.i' = constant has no integer solution */
+    private static boolean gcdTest(int[] w, int[] r, int numLoops, long constant) {
+        long gcd = 0;
+        for (int k = 0; k < numLoops; k++) {
+            gcd = gcd(gcd, w[1 + k]);
+            gcd = gcd(gcd, r[1 + k]);
+        }
+        return gcd == 0 ? constant == 0 : constant % gcd == 0;
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * @return false iff the Banerjee bounds test proves that w.i - r.i' = constant has no (real) solution within the
+     *         loop bounds and consistent with the direction vector
+     */
+    private static boolean banerjeeTest(int[] lowerBounds, int[] upperBounds, int[] w, int[] r, Direction[] direction,
+            long constant) {
+        try {
+            long min = 0, max = 0;
+            for (int k = 0; k < lowerBounds.length; k++) {
+                long a = w[1 + k];
+                long b = r[1 + k];
+                if (a == 0 && b == 0) {
+                    continue;
+                }
+                long lb = lowerBounds[k];
+                long ub = upperBounds[k];
+
+                // The extreme values of a i - b i' occur at the vertices of the region of (i, i')
+                long[][] vertices;
+                switch (direction[k]) {
+                case LT:
+                    vertices = new long[][] { { lb, lb + 1 }, { lb, ub }, { ub - 1, ub } };
+                    break;
+                case GT:
+                    vertices = new long[][] { { lb + 1, lb }, { ub, lb }, { ub, ub - 1 } };
+                    break;
+                case EQ:
+                    vertices = new long[][] { { lb, lb }, { ub, ub } };
+                    break;
+                case LE:
+                    vertices = new long[][] { { lb, lb }, { lb, ub }, { ub, ub } };
+                    break;
+                case GE:
+                    vertices = new long[][] { { lb, lb }, { ub, lb }, { ub, ub } };
+                    break;
+                default:
+                    vertices = new long[][] { { lb, lb }, { lb, ub }, { ub, lb }, { ub, ub } };
+                    break;
+                }
+
+                long loopMin = Long.MAX_VALUE, loopMax = Long.MIN_VALUE;
+                for (long[] v : vertices) {
+                    long value = Math.subtractExact(Math.multiplyExact(a, v[0]), Math.multiplyExact(b, v[1]));
+                    loopMin = Math.min(loopMin, value);
+                    loopMax = Math.max(loopMax, value);
+                }
+                min = Math.addExact(min, loopMin);
+                max = Math.addExact(max, loopMax);
+            }
+            return min <= constant && constant <= max;
+        } catch (ArithmeticException e) {
+            return true; // Overflow; inconclusive
+        }
+    }
+}
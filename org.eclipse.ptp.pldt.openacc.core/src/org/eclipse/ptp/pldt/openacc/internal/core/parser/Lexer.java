@@ -3588,14 +3588,13 @@ State 467 (FINAL - literal-string-tilde):
 package org.eclipse.ptp.pldt.openacc.internal.core.parser;
 
 import java.io.BufferedReader;
-import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.CharBuffer;
 import java.util.zip.Inflater;
 
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser.ILexer;
@@ -3624,14 +3623,53 @@ public final class Lexer implements ILexer
 
     protected Token previousToken = null;
 
+    /*
+     * When the lexer scans a character sequence in place, source is non-null, input is null, and tokens are located by
+     * their offsets in the source rather than being copied character by character into currentTokenText.
+     */
+    protected final CharSequence source;
+    protected final int sourceStart, sourceEnd;
+    protected int pos;
+    protected int tokenStart, tokenEnd, whiteStart;
+
     public Lexer(String input)
     {
-        this(new StringReader(input));
+        this(input, 0, input == null ? 0 : input.length());
     }
 
     public Lexer(char[] input)
     {
-        this(new CharArrayReader(input));
+        this(input, 0, input == null ? 0 : input.length);
+    }
+
+    public Lexer(char[] input, int start, int end)
+    {
+        this(input == null ? null : CharBuffer.wrap(input), start, end);
+    }
+
+    /**
+     * Creates a lexer which scans the characters of the given sequence from offset <code>start</code> (inclusive) to
+     * <code>end</code> (exclusive) in place. The offsets of the tokens it returns are offsets in the sequence.
+     * <p>
+     * Tokens' text is not copied out of the sequence until it is requested, so the sequence must not be modified while
+     * the lexer or its tokens are in use. Clients that only need the terminals can call {@link #nextTerminal()}, which
+     * does not allocate tokens at all.
+     */
+    public Lexer(CharSequence input, int start, int end)
+    {
+        if (input == null) throw new IllegalArgumentException("input cannot be null");
+        if (start < 0 || end > input.length() || start > end) throw new IndexOutOfBoundsException(start + ".." + end);
+
+        this.input = null;
+        this.source = input;
+        this.sourceStart = start;
+        this.sourceEnd = end;
+        this.pos = start;
+        this.tokenStart = start;
+        this.tokenEnd = start;
+        this.whiteStart = start;
+        this.lastTokenLine = 1;
+        this.lastTokenCol = 1;
     }
 
     public Lexer(File input) throws FileNotFoundException
@@ -3649,6 +3687,8 @@ public final class Lexer implements ILexer
         if (input == null) throw new IllegalArgumentException("input cannot be null");
 
         this.input = input;
+        this.source = null;
+        this.sourceStart = this.sourceEnd = 0;
         this.leftoverInput = new StringBuilder();
         this.leftoverInputPos = 0;
         this.currentTokenText = new StringBuilder(256);
@@ -3667,6 +3707,8 @@ public final class Lexer implements ILexer
 
     public Token getNextToken() throws Exception
     {
+        if (source != null) return getNextTokenInPlace();
+
         StringBuilder whiteText = new StringBuilder();
         Token tok = internalGetNextToken();
         while (tok != null && tok.getTerminal() == Terminal.SKIP)
@@ -3686,13 +3728,157 @@ public final class Lexer implements ILexer
         return tok;
     }
 
+    /**
+     * Scans the next token which is not white text, without allocating a token.  This is only available when the
+     * lexer scans a character sequence in place.
+     *
+     * @return the token's terminal, which is <code>Terminal.END_OF_INPUT</code> at the end of the input; the token
+     *         occupies offsets {@link #getTokenStart()} to {@link #getTokenEnd()} of the sequence
+     */
+    public Terminal nextTerminal() throws Exception
+    {
+        if (source == null) throw new IllegalStateException("Only a lexer scanning a character sequence can return terminals");
+
+        whiteStart = pos;
+        Terminal terminal = scan();
+        while (terminal == Terminal.SKIP)
+            terminal = scan();
+        return terminal;
+    }
+
+    /**
+     * @return the offset in the character sequence of the first character of the last token scanned
+     */
+    public int getTokenStart()
+    {
+        return tokenStart;
+    }
+
+    /**
+     * @return the offset in the character sequence following the last character of the last token scanned
+     */
+    public int getTokenEnd()
+    {
+        return tokenEnd;
+    }
+
+    protected Token getNextTokenInPlace() throws Exception
+    {
+        Terminal terminal = nextTerminal();
+        Token tok;
+        if (terminal == Terminal.END_OF_INPUT)
+        {
+            tok = new Token(Terminal.END_OF_INPUT, "(end of input)", tokenStart);
+            if (previousToken != null)
+            {
+                if (whiteStart < tokenStart)
+                    previousToken.setWhiteAfter(source.subSequence(whiteStart, tokenStart).toString());
+            }
+            else
+            {
+                tok.setWhiteBefore(source.subSequence(whiteStart, tokenStart).toString());
+            }
+        }
+        else
+        {
+            tok = new Token(terminal, source, whiteStart, tokenStart, tokenEnd);
+        }
+
+        previousToken = tok;
+        return tok;
+    }
+
+    /**
+     * Runs the DFA from the current position to find the longest token (possibly white text) starting there.
+     */
+    protected Terminal scan() throws Exception
+    {
+        tokenStart = pos;
+        if (pos >= sourceEnd)
+        {
+            tokenEnd = pos;
+            return Terminal.END_OF_INPUT;
+        }
+
+        int currentState = 0;
+        int p = pos;
+        int posFollowingAcceptedSubstring = pos;
+        Terminal accept = null;
+
+        while (p < sourceEnd)
+        {
+            currentState = DFATransitionTable.get(currentState, dfaTableColumn[source.charAt(p)]);
+            if (currentState < 0) break;
+
+            p++;
+
+            if (acceptTerminal[currentState] != null)
+            {
+                posFollowingAcceptedSubstring = p;
+                accept = acceptTerminal[currentState];
+            }
+        }
+
+        if (accept == null)
+        {
+            int errorPos = p < sourceEnd ? p : sourceEnd - 1;
+            int[] lineCol = lineAndColumn(errorPos);
+            syntaxError(source.charAt(errorPos), lineCol[0], lineCol[1]);
+            return null;
+        }
+
+        tokenEnd = pos = posFollowingAcceptedSubstring;
+        return accept;
+    }
+
+    /**
+     * Computes the line and column of the character at the given offset in the character sequence, counting lines
+     * and columns the same way that the <code>Reader</code>-based lexer does.
+     */
+    protected int[] lineAndColumn(int offset)
+    {
+        int line = 1, col = 1;
+        for (int i = sourceStart + 1; i <= offset && i < sourceEnd; i++)
+        {
+            char c = source.charAt(i);
+            if (c == '\n')
+            {
+                line++;
+                col = 1;
+            }
+            else if (c == '\r')
+            {
+                col = 1;
+            }
+            else
+            {
+                col++;
+            }
+        }
+        return new int[] { line, col };
+    }
+
     @Override public String describeLastTokenPos()
     {
+        if (source != null)
+        {
+            int[] lineCol = lineAndColumn(tokenStart);
+            return " (line " + lineCol[0] + ", column " + lineCol[1] + ")";
+        }
         return " (line " + lastTokenLine + ", column " + lastTokenCol + ")";
     }
 
     public Token internalGetNextToken() throws Exception
     {
+        if (source != null)
+        {
+            Terminal terminal = scan();
+            if (terminal == Terminal.END_OF_INPUT)
+                return new Token(Terminal.END_OF_INPUT, "(end of input)", tokenStart);
+            else
+                return new Token(terminal, source, tokenStart, tokenStart, tokenEnd);
+        }
+
         lastTokenLine = nextCharLine;
         lastTokenCol = nextCharCol;
 
@@ -19,8 +19,6 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Stack;
 import java.util.zip.Inflater;
 
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser.ErrorRecoveryInfo;
@@ -168,6 +166,17 @@ public class OpenACCParser
         return parse(new Lexer(input));
     }
 
+    /**
+     * Parses the characters of the given sequence from offset <code>start</code> (inclusive) to <code>end</code>
+     * (exclusive) without copying them.
+     *
+     * @see Lexer#Lexer(CharSequence, int, int)
+     */
+    public IAccConstruct parse(CharSequence input, int start, int end) throws IOException, SyntaxException, Exception
+    {
+        return parse(new Lexer(input, start, end));
+    }
+
     public IAccConstruct parse(ILexer lexicalAnalyzer) throws IOException, SyntaxException, Exception
     {
         return (IAccConstruct)parse(lexicalAnalyzer, ParsingTables.getInstance());
@@ -180,11 +189,32 @@ public class OpenACCParser
 
         this.lexer = lexicalAnalyzer;
         this.parsingTables = parsingTables;
-        this.semanticActions = new SemanticActions();
-
-        this.parserStack = new ParserStack();
         this.errorInfo = null;
 
+        // The semantic actions are stateless and the stack is emptied after
+        // each parse, so both are reused when this parser is reused
+        if (this.semanticActions == null)
+            this.semanticActions = new SemanticActions();
+        if (this.parserStack == null)
+            this.parserStack = new ParserStack();
+        else
+            this.parserStack.reset();
+
+        try
+        {
+            return parse();
+        }
+        finally
+        {
+            // Do not retain the lexer, tokens, or AST between parses
+            this.lexer = null;
+            this.errorInfo = null;
+            this.parserStack.clear();
+        }
+    }
+
+    protected Object parse() throws IOException, SyntaxException, Exception
+    {
         semanticActions.initialize();
 
         readNextToken();
@@ -273,7 +303,7 @@ public class OpenACCParser
 
         assert parserStack.numValues() >= symbolsToPop;
 
-        Stack<Object> valueStack = parserStack.getValueStack();
+        List<Object> valueStack = parserStack.getValueStack();
         int valueStackSize = valueStack.size();
         int valueStackOffset = valueStackSize - symbolsToPop;
         Object reduceToObject = semanticActions.handle(productionIndex,
@@ -503,7 +533,7 @@ public class OpenACCParser
          * made and the user's code, perhaps <code>return lhs + rhs</code>, is run,
          * this is where that result is stored.
          */
-        protected Stack<Object> valueStack;
+        protected ArrayList<Object> valueStack;
 
         /** Class invariants */
         public boolean invariants() { return stateStack.size() == valueStack.size() + 1; }
@@ -511,27 +541,46 @@ public class OpenACCParser
         public ParserStack()
         {
             this.stateStack = new IntStack();
-            this.valueStack = new Stack<Object>();
+            this.valueStack = new ArrayList<Object>(64);
 
             // The parser starts in state 0
             stateStack.push(0);
         }
 
+        /**
+         * Empties this stack, so that it can be reused for another parse.
+         */
+        public void reset()
+        {
+            clear();
+            stateStack.push(0);
+        }
+
+        /**
+         * Removes all states and values (including the start state), so that
+         * this stack does not retain references to tokens or AST nodes.
+         */
+        public void clear()
+        {
+            stateStack.clear();
+            valueStack.clear();
+            lookahead = null;
+        }
+
         public ParserStack(ParserStack copyFrom)
         {
             this.stateStack = new IntStack(copyFrom.stateStack);
 
-            this.valueStack = new Stack<Object>();
-            this.valueStack.addAll(copyFrom.valueStack);
+            this.valueStack = new ArrayList<Object>(copyFrom.valueStack);
         }
 
         public void push(int state, Object lookahead)
         {
             stateStack.push(state);
-            valueStack.push(lookahead);
+            valueStack.add(lookahead);
         }
 
-        public Stack<Object> getValueStack()
+        public List<Object> getValueStack()
         {
             return valueStack;
         }
@@ -549,7 +598,7 @@ public class OpenACCParser
         public Object pop()
         {
             stateStack.pop();
-            return valueStack.pop();
+            return valueStack.remove(valueStack.size() - 1);
         }
 
         public int topState()
@@ -563,7 +612,7 @@ public class OpenACCParser
         {
             assert !valueStack.isEmpty();
 
-            return valueStack.peek();
+            return valueStack.get(valueStack.size() - 1);
         }
 
         public void setLookahead(Token lookahead)
@@ -714,7 +763,7 @@ public class OpenACCParser
         }
     }
 
-    protected static HashMap<Integer, Terminal> terminals = new HashMap<Integer, Terminal>();
+    protected static final HashMap<Integer, Terminal> terminals = new HashMap<Integer, Terminal>();
 
     static
     {
@@ -2318,6 +2367,73 @@ public class OpenACCParser
 @SuppressWarnings("all")
 final class SemanticActions
 {
+    /**
+     * The value of a nonterminal whose symbols are inlined into the nodes for
+     * the productions that use it.  The symbols are stored in typed fields, and
+     * the list that replaces the value during error recovery is only built if
+     * error recovery discards it.
+     */
+    static abstract class InlinedSymbols
+    {
+        protected abstract IASTNode[] getSymbols();
+
+        public IASTListNode<IASTNode> getErrorRecoveryList()
+        {
+            ASTListNode<IASTNode> list = new ASTListNode<IASTNode>();
+            for (IASTNode symbol : getSymbols())
+                list.add(symbol);
+            return list;
+        }
+    }
+
+    /** The symbols of &lt;acc-wait-parameter&gt; */
+    static final class AccWaitParameterSymbols extends InlinedSymbols
+    {
+        Token hiddenLiteralStringLparen;
+        IConstantExpression waitParameter;
+        Token hiddenLiteralStringRparen;
+
+        @Override protected IASTNode[] getSymbols()
+        {
+            return new IASTNode[] { hiddenLiteralStringLparen, waitParameter, hiddenLiteralStringRparen };
+        }
+    }
+
+    /** The symbols of &lt;acc-count&gt; */
+    static final class AccCountSymbols extends InlinedSymbols
+    {
+        Token hiddenLiteralStringLparen;
+        IConstantExpression count;
+        Token hiddenLiteralStringRparen;
+
+        @Override protected IASTNode[] getSymbols()
+        {
+            return new IASTNode[] { hiddenLiteralStringLparen, count, hiddenLiteralStringRparen };
+        }
+    }
+
+    /** The symbols of &lt;acc-reduction-operator&gt; */
+    static final class AccReductionOperatorSymbols extends InlinedSymbols
+    {
+        Token operator;
+
+        @Override protected IASTNode[] getSymbols()
+        {
+            return new IASTNode[] { operator };
+        }
+    }
+
+    /** The symbols of &lt;unary-operator&gt; */
+    static final class UnaryOperatorSymbols extends InlinedSymbols
+    {
+        Token operator;
+
+        @Override protected IASTNode[] getSymbols()
+        {
+            return new IASTNode[] { operator };
+        }
+    }
+
     public void initialize()
     {
             
@@ -2332,10 +2448,9 @@ final class SemanticActions
     {
                     for (int i = 0; i < errorInfo.discardedSymbols.size(); i++)
                     {
-                        if (errorInfo.discardedSymbols.get(i) instanceof HashMap)
+                        if (errorInfo.discardedSymbols.get(i) instanceof InlinedSymbols)
                         {
-                            HashMap map = (HashMap)errorInfo.discardedSymbols.get(i);
-                            IASTListNode<IASTNode> errorRecoveryList = (IASTListNode<IASTNode>)map.get("errorRecoveryList");
+                            IASTListNode<IASTNode> errorRecoveryList = ((InlinedSymbols)errorInfo.discardedSymbols.get(i)).getErrorRecoveryList();
                             errorInfo.<IASTNode>getDiscardedSymbols().set(i, errorRecoveryList);
                             for (IASTNode n : errorRecoveryList)
                                 if (n != null)
@@ -3807,11 +3922,11 @@ final class SemanticActions
                     if (node.pragmaAcc != null) node.pragmaAcc.setParent(node);
                     node.hiddenLiteralStringWait = (Token)valueStack.get(valueStackOffset + 1);
                     if (node.hiddenLiteralStringWait != null) node.hiddenLiteralStringWait.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.waitParameter = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("waitParameter");
+                    node.waitParameter = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).waitParameter;
                     if (node.waitParameter != null) node.waitParameter.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     node.accWaitClauseList = (IASTListNode<ASTAccWaitClauseListNode>)valueStack.get(valueStackOffset + 3);
                     if (node.accWaitClauseList != null) node.accWaitClauseList.setParent(node);
@@ -3826,11 +3941,11 @@ final class SemanticActions
                     if (node.pragmaAcc != null) node.pragmaAcc.setParent(node);
                     node.hiddenLiteralStringWait = (Token)valueStack.get(valueStackOffset + 1);
                     if (node.hiddenLiteralStringWait != null) node.hiddenLiteralStringWait.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.waitParameter = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("waitParameter");
+                    node.waitParameter = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).waitParameter;
                     if (node.waitParameter != null) node.waitParameter.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccWaitParameterSymbols)valueStack.get(valueStackOffset + 2)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -3862,15 +3977,10 @@ final class SemanticActions
                 case Production.ACC_WAIT_PARAMETER_179_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("hiddenLiteralStringLparen", (Token)valueStack.get(valueStackOffset + 0));
-                    node.put("waitParameter", (IConstantExpression)valueStack.get(valueStackOffset + 1));
-                    node.put("hiddenLiteralStringRparen", (Token)valueStack.get(valueStackOffset + 2));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("hiddenLiteralStringLparen")));
-                    embeddedList.add((IASTNode)(node.get("waitParameter")));
-                    embeddedList.add((IASTNode)(node.get("hiddenLiteralStringRparen")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccWaitParameterSymbols node = new AccWaitParameterSymbols();
+                    node.hiddenLiteralStringLparen = (Token)valueStack.get(valueStackOffset + 0);
+                    node.waitParameter = (IConstantExpression)valueStack.get(valueStackOffset + 1);
+                    node.hiddenLiteralStringRparen = (Token)valueStack.get(valueStackOffset + 2);
                     return node;
 
                 }
@@ -4414,11 +4524,11 @@ final class SemanticActions
                     ASTAccCollapseClauseNode node = new ASTAccCollapseClauseNode();
                     node.hiddenLiteralStringCollapse = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringCollapse != null) node.hiddenLiteralStringCollapse.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4429,11 +4539,11 @@ final class SemanticActions
                     ASTAccGangClauseNode node = new ASTAccGangClauseNode();
                     node.hiddenLiteralStringGang = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringGang != null) node.hiddenLiteralStringGang.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4453,11 +4563,11 @@ final class SemanticActions
                     ASTAccWorkerClauseNode node = new ASTAccWorkerClauseNode();
                     node.hiddenLiteralStringWorker = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringWorker != null) node.hiddenLiteralStringWorker.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4477,11 +4587,11 @@ final class SemanticActions
                     ASTAccVectorClauseNode node = new ASTAccVectorClauseNode();
                     node.hiddenLiteralStringVector = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringVector != null) node.hiddenLiteralStringVector.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4533,7 +4643,7 @@ final class SemanticActions
                     if (node.hiddenLiteralStringReduction != null) node.hiddenLiteralStringReduction.setParent(node);
                     node.hiddenLiteralStringLparen = (Token)valueStack.get(valueStackOffset + 1);
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.operator = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 2)).get("operator");
+                    node.operator = ((AccReductionOperatorSymbols)valueStack.get(valueStackOffset + 2)).operator;
                     if (node.operator != null) node.operator.setParent(node);
                     node.hiddenLiteralStringColon = (Token)valueStack.get(valueStackOffset + 3);
                     if (node.hiddenLiteralStringColon != null) node.hiddenLiteralStringColon.setParent(node);
@@ -4565,11 +4675,11 @@ final class SemanticActions
                     ASTAccAsyncClauseNode node = new ASTAccAsyncClauseNode();
                     node.hiddenLiteralStringAsync = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringAsync != null) node.hiddenLiteralStringAsync.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4604,11 +4714,11 @@ final class SemanticActions
                     ASTAccNumgangsClauseNode node = new ASTAccNumgangsClauseNode();
                     node.hiddenLiteralStringNumUnderscoregangs = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringNumUnderscoregangs != null) node.hiddenLiteralStringNumUnderscoregangs.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4619,11 +4729,11 @@ final class SemanticActions
                     ASTAccNumworkersClauseNode node = new ASTAccNumworkersClauseNode();
                     node.hiddenLiteralStringNumUnderscoreworkers = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringNumUnderscoreworkers != null) node.hiddenLiteralStringNumUnderscoreworkers.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4634,11 +4744,11 @@ final class SemanticActions
                     ASTAccVectorlengthClauseNode node = new ASTAccVectorlengthClauseNode();
                     node.hiddenLiteralStringVectorUnderscorelength = (Token)valueStack.get(valueStackOffset + 0);
                     if (node.hiddenLiteralStringVectorUnderscorelength != null) node.hiddenLiteralStringVectorUnderscorelength.setParent(node);
-                    node.hiddenLiteralStringLparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringLparen");
+                    node.hiddenLiteralStringLparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringLparen;
                     if (node.hiddenLiteralStringLparen != null) node.hiddenLiteralStringLparen.setParent(node);
-                    node.count = (IConstantExpression)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("count");
+                    node.count = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).count;
                     if (node.count != null) node.count.setParent(node);
-                    node.hiddenLiteralStringRparen = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 1)).get("hiddenLiteralStringRparen");
+                    node.hiddenLiteralStringRparen = ((AccCountSymbols)valueStack.get(valueStackOffset + 1)).hiddenLiteralStringRparen;
                     if (node.hiddenLiteralStringRparen != null) node.hiddenLiteralStringRparen.setParent(node);
                     return node;
 
@@ -4991,114 +5101,82 @@ final class SemanticActions
                 case Production.ACC_COUNT_273_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("hiddenLiteralStringLparen", (Token)valueStack.get(valueStackOffset + 0));
-                    node.put("count", (IConstantExpression)valueStack.get(valueStackOffset + 1));
-                    node.put("hiddenLiteralStringRparen", (Token)valueStack.get(valueStackOffset + 2));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("hiddenLiteralStringLparen")));
-                    embeddedList.add((IASTNode)(node.get("count")));
-                    embeddedList.add((IASTNode)(node.get("hiddenLiteralStringRparen")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccCountSymbols node = new AccCountSymbols();
+                    node.hiddenLiteralStringLparen = (Token)valueStack.get(valueStackOffset + 0);
+                    node.count = (IConstantExpression)valueStack.get(valueStackOffset + 1);
+                    node.hiddenLiteralStringRparen = (Token)valueStack.get(valueStackOffset + 2);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_274_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_275_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_276_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_277_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_278_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_279_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_280_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_281_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.ACC_REDUCTION_OPERATOR_282_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    AccReductionOperatorSymbols node = new AccReductionOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
@@ -5339,7 +5417,7 @@ final class SemanticActions
                 {
                     // Cases 1 and 2
                     CPrefixUnaryExpression node = new CPrefixUnaryExpression();
-                    node.operator = (Token)((Map<String, Object>)valueStack.get(valueStackOffset + 0)).get("operator");
+                    node.operator = ((UnaryOperatorSymbols)valueStack.get(valueStackOffset + 0)).operator;
                     if (node.operator != null) node.operator.setParent(node);
                     node.subexpression = (ICExpression)valueStack.get(valueStackOffset + 1);
                     if (node.subexpression != null) node.subexpression.setParent(node);
@@ -5360,66 +5438,48 @@ final class SemanticActions
                 case Production.UNARY_OPERATOR_306_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.UNARY_OPERATOR_307_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.UNARY_OPERATOR_308_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.UNARY_OPERATOR_309_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.UNARY_OPERATOR_310_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
                 case Production.UNARY_OPERATOR_311_INDEX:
                 {
                     // Cases 3 and 4
-                    Map<String, Object> node = new HashMap<String, Object>();
-                    node.put("operator", (Token)valueStack.get(valueStackOffset + 0));
-                    ASTListNode<IASTNode> embeddedList = new ASTListNode<IASTNode>();
-                    embeddedList.add((IASTNode)(node.get("operator")));
-                    node.put("errorRecoveryList", embeddedList);
+                    UnaryOperatorSymbols node = new UnaryOperatorSymbols();
+                    node.operator = (Token)valueStack.get(valueStackOffset + 0);
                     return node;
 
                 }
@@ -5892,12 +5952,10 @@ final class ParsingTables
     public static final int DISCARD_TERMINAL_ACTION = 0x8000;  // 1000 0000 0000 0000
     public static final int RECOVER_ACTION          = 0x4000;  // 0100 0000 0000 0000
 
-    private static ParsingTables instance = null;
+    private static final ParsingTables instance = new ParsingTables();
 
     public static ParsingTables getInstance()
     {
-        if (instance == null)
-            instance = new ParsingTables();
         return instance;
     }
 
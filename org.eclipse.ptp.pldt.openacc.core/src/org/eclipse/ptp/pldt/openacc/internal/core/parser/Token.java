@@ -56,6 +56,26 @@ public class Token implements IASTNode
      */
     protected int offset = -1;
 
+    /**
+     * For a token created by a lexer scanning a character sequence in place, the sequence containing the token's
+     * white text and text; <code>null</code> otherwise.
+     * <p>
+     * The token's text is copied out of the sequence into {@link #text} the first time it is requested (and similarly
+     * for {@link #whiteBefore}), so that tokens whose text is never inspected do not allocate strings.
+     */
+    protected CharSequence source = null;
+
+    /**
+     * For a token with a {@link #source}, the offset in the source of the first character of the white text before
+     * this token
+     */
+    protected int whiteBeforeOffset = -1;
+
+    /**
+     * For a token with a {@link #source}, the offset in the source following the last character of this token's text
+     */
+    protected int endOffset = -1;
+
     ///////////////////////////////////////////////////////////////////////////
     // Constructors
     ///////////////////////////////////////////////////////////////////////////
@@ -84,6 +104,23 @@ public class Token implements IASTNode
         this(terminal, text, -1);
     }
 
+    /**
+     * Creates a token whose white text before it occupies offsets <code>whiteBeforeOffset</code> (inclusive) to
+     * <code>offset</code> (exclusive) of the given source, and whose text occupies offsets <code>offset</code> to
+     * <code>endOffset</code>. The text is not copied until it is requested, so the source must not be modified
+     * while the token is in use.
+     */
+    public Token(Terminal terminal, CharSequence source, int whiteBeforeOffset, int offset, int endOffset)
+    {
+        this.terminal          = terminal;
+        this.source            = source;
+        this.whiteBeforeOffset = whiteBeforeOffset;
+        this.offset            = offset;
+        this.endOffset         = endOffset;
+        this.whiteBefore       = whiteBeforeOffset == offset ? "" : null;
+        this.text              = null;
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // Accessor/Mutator Methods
     ///////////////////////////////////////////////////////////////////////////
@@ -101,7 +138,12 @@ public class Token implements IASTNode
     /**
      * @return the token text
      */
-    public String getText() { return text; }
+    public String getText()
+    {
+        // Racing threads may each copy the text, but they will store equal strings
+        if (text == null) text = source.subSequence(offset, endOffset).toString();
+        return text;
+    }
 
     /**
      * Sets the token text
@@ -111,7 +153,11 @@ public class Token implements IASTNode
     /**
      * @return whitespace and whitetext appearing before this token that should be associated with this token
      */
-    public String getWhiteBefore() { return whiteBefore; }
+    public String getWhiteBefore()
+    {
+        if (whiteBefore == null) whiteBefore = source.subSequence(whiteBeforeOffset, offset).toString();
+        return whiteBefore;
+    }
 
     /**
      * Sets whitespace and whitetext appearing before this token that should be associated with this token
@@ -141,12 +187,18 @@ public class Token implements IASTNode
     /**
      * Sets the 0-based offset of the first character of this token's text ({@link #getText()})
      */
-    public void setOffset(int value) { offset = value; }
+    public void setOffset(int value)
+    {
+        // The text is located by its offset in the source, so copy it before the offset changes
+        getWhiteBefore();
+        getText();
+        offset = value;
+    }
 
     /**
      * @return the length of this token's text ({@link #getText()})
      */
-    public int getLength() { return getText().length(); }
+    public int getLength() { return text == null ? endOffset - offset : text.length(); }
 
     ///////////////////////////////////////////////////////////////////////////
     // Debugging Output
@@ -155,7 +207,7 @@ public class Token implements IASTNode
     /**
      * Returns a string describing the token
      */
-    @Override public String toString() { return terminal + ": \"" + text + "\""; }
+    @Override public String toString() { return terminal + ": \"" + getText() + "\""; }
 
     ///////////////////////////////////////////////////////////////////////////
     // Traversal and Visitor Support
@@ -291,8 +343,8 @@ public class Token implements IASTNode
 
     @Override public void printOn(PrintStream out)
     {
-        out.print(whiteBefore);
-        out.print(text);
+        out.print(getWhiteBefore());
+        out.print(getText());
         out.print(whiteAfter);
     }
 
@@ -312,14 +364,14 @@ public class Token implements IASTNode
         Token o = (Token)other;
         return super.equals(o)
             && o.terminal == this.terminal
-            && o.text.equals(this.text);
+            && o.getText().equals(this.getText());
     }
 
     @Override public int hashCode()
     {
         int result = 29 + super.hashCode();
         result = 17 * result + terminal.hashCode();
-        result = 17 * result + text.hashCode();
+        result = 17 * result + getText().hashCode();
         return result;
     }
 }
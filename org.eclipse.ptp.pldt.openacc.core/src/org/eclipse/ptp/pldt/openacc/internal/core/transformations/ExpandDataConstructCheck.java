@@ -53,6 +53,7 @@ public class ExpandDataConstructCheck extends PragmaDirectiveCheck<RefactoringPa
     @Override
     public void doFormCheck() {
         try {
+            // Not OpenACCUtil#getAccConstruct: Expand and Promote remove clauses from this construct
             construct = (ASTAccDataNode) (new OpenACCParser().parse(getPragma().getRawSignature()));
         }
         catch(Exception e) {
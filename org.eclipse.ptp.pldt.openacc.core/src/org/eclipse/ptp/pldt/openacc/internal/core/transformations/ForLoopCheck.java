@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.openacc.internal.core.transformations;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
 import org.eclipse.cdt.core.dom.ast.IASTForStatement;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
@@ -27,9 +29,12 @@ import org.eclipse.ltk.core.refactoring.FileStatusContext;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.RefactoringStatusContext;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.CachingDependenceTester;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DataDependence;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceAnalysis;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestFailure;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestPool;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
 
 public class ForLoopCheck<T extends RefactoringParams> extends Check<T> {
 
@@ -44,6 +49,22 @@ public class ForLoopCheck<T extends RefactoringParams> extends Check<T> {
     
     protected void doDependenceCheck(DependenceAnalysis dep) { }
 
+    /**
+     * @return the dependence test to use when analyzing dependences in the loop
+     */
+    protected IDependenceTester createDependenceTester() {
+        return CachingDependenceTester.getDefault();
+    }
+
+    /**
+     * @return the pool in which to run dependence tests, or <code>null</code> to run them on the calling thread. By
+     *         default, this is the shared {@link DependenceTestPool}, which is <code>null</code> unless parallel
+     *         dependence testing has been enabled.
+     */
+    protected ForkJoinPool getDependenceTestPool() {
+        return DependenceTestPool.get();
+    }
+
     public RefactoringStatus loopFormCheck(IProgressMonitor pm) {
     	if (ASTUtil.getUnsupportedOp(loop.getBody()) != null) {
             status.addError(
@@ -61,7 +82,8 @@ public class ForLoopCheck<T extends RefactoringParams> extends Check<T> {
         statements = ASTUtil.getStatementsIfCompound(loop.getBody());
         
         try {
-            dependenceAnalysis = new DependenceAnalysis(pm, statements);
+            dependenceAnalysis = new DependenceAnalysis(createDependenceTester(), getDependenceTestPool(), pm,
+                    statements);
         } catch (DependenceTestFailure e) {
             status.addError(Messages.ForLoopCheck_CannotAnalyzeDependences + e.getMessage());
             return status;
@@ -22,12 +22,12 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.AtomicStatementInquisitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
 
 public class IntroAtomicCheck extends SourceStatementsCheck<RefactoringParams> {
 
@@ -75,16 +75,12 @@ public class IntroAtomicCheck extends SourceStatementsCheck<RefactoringParams> {
             }
         }
 
-        OpenACCParser parser = new OpenACCParser();
         Map<IAccConstruct, IASTNode> prags = new HashMap<>();
         Map<IASTPreprocessorPragmaStatement, IASTNode> enclosingPragmas = ASTUtil.getEnclosingPragmas(statement);
         for (IASTPreprocessorPragmaStatement pragma : enclosingPragmas.keySet()) {
-            try {
-                IAccConstruct con = parser.parse(pragma.getRawSignature());
+            IAccConstruct con = OpenACCUtil.getAccConstruct(pragma);
+            if (con != null) {
                 prags.put(con, enclosingPragmas.get(pragma));
-            } catch (Exception e) {
-                // Parser couldn't parse the pragma; it's probably not an
-                // OpenACC pragma.
             }
         }
 
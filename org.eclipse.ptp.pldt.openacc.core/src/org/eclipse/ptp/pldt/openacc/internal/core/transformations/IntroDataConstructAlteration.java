@@ -17,6 +17,8 @@ import java.util.Set;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ArraySectionInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyinInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyoutInference;
@@ -27,7 +29,7 @@ import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class IntroDataConstructAlteration extends SourceStatementsAlteration<IntroDataConstructCheck> {
 
@@ -37,27 +39,30 @@ public class IntroDataConstructAlteration extends SourceStatementsAlteration<Int
 
     @Override
     protected void doChange() {
-        CopyinInference inferCopyin = new CopyinInference(getStatements());
-        CopyoutInference inferCopyout = new CopyoutInference(getStatements());
+        ArbitraryStatement root = new ArbitraryStatement();
+        CopyinInference inferCopyin = new CopyinInference(root, getStatements());
+        CopyoutInference inferCopyout = new CopyoutInference(root, getStatements());
         CopyInference inferCopy = new CopyInference(inferCopyin, inferCopyout);
-        CreateInference inferCreate = new CreateInference(getStatements());
+        CreateInference inferCreate = new CreateInference(root, getStatements());
+        
+        ArraySectionInference sections = new ArraySectionInference(getStatements());
         
         StringBuilder newOuterPragma = new StringBuilder(pragma("acc data")); //$NON-NLS-1$
         if(!inferCopyin.get().get(inferCopyin.getRoot()).isEmpty()) {
         	newOuterPragma.append(" "); //$NON-NLS-1$
-        	newOuterPragma.append(copyin(inferCopyin.get().get(inferCopyin.getRoot())));
+        	newOuterPragma.append(copyin(inferCopyin.get().get(inferCopyin.getRoot()), sections));
         }
         if(!inferCopyout.get().get(inferCopyout.getRoot()).isEmpty()) {
         	newOuterPragma.append(" "); //$NON-NLS-1$
-            newOuterPragma.append(copyout(inferCopyout.get().get(inferCopyout.getRoot())));
+            newOuterPragma.append(copyout(inferCopyout.get().get(inferCopyout.getRoot()), sections));
         }
         if(!inferCopy.get().get(inferCopy.getRoot()).isEmpty()) {
         	newOuterPragma.append(" "); //$NON-NLS-1$
-            newOuterPragma.append(copy(inferCopy.get().get(inferCopy.getRoot())));
+            newOuterPragma.append(copy(inferCopy.get().get(inferCopy.getRoot()), sections));
         }
         if(!inferCreate.get().get(inferCreate.getRoot()).isEmpty()) {
         	newOuterPragma.append(" "); //$NON-NLS-1$
-            newOuterPragma.append(create(inferCreate.get().get(inferCreate.getRoot())));
+            newOuterPragma.append(create(inferCreate.get().get(inferCreate.getRoot()), sections));
         }
         
         replaceContainedPragmas(inferCopyin, inferCopyout, inferCopy, inferCreate);
@@ -78,12 +83,11 @@ public class IntroDataConstructAlteration extends SourceStatementsAlteration<Int
     		if (statement != inferCopyin.getRoot()) {
 				for (IASTPreprocessorPragmaStatement prag : ASTUtil.getPragmaNodes(statement)) {
 					StringBuilder sb = new StringBuilder();
-					IAccConstruct construct = null;
-					try {
-						construct = new OpenACCParser().parse(prag.getRawSignature());
-					} catch (Exception e) {
+					IAccConstruct construct = OpenACCUtil.getAccConstruct(prag);
+					if (construct == null) {
 						continue;
 					}
+					ArraySectionInference sections = new ArraySectionInference(statement);
 					//TODO also get clauses other than copyin/copyout/create from constructs here
 					if (construct instanceof ASTAccDataNode) {
 						sb.append(pragma("acc data")); //$NON-NLS-1$
@@ -97,13 +101,13 @@ public class IntroDataConstructAlteration extends SourceStatementsAlteration<Int
 						sb.append(pragma("acc parallel loop")); //$NON-NLS-1$
 					}
 					if(!inferCopyin.get().get(statement).isEmpty())
-						sb.append(" " + copyin(inferCopyin.get().get(statement))); //$NON-NLS-1$
+						sb.append(" " + copyin(inferCopyin.get().get(statement), sections)); //$NON-NLS-1$
 					if(!inferCopyout.get().get(statement).isEmpty())
-						sb.append(" " + copyout(inferCopyout.get().get(statement))); //$NON-NLS-1$
+						sb.append(" " + copyout(inferCopyout.get().get(statement), sections)); //$NON-NLS-1$
 					if(!inferCopy.get().get(statement).isEmpty())
-						sb.append(" " + copy(inferCopy.get().get(statement))); //$NON-NLS-1$
+						sb.append(" " + copy(inferCopy.get().get(statement), sections)); //$NON-NLS-1$
 					if(!inferCreate.get().get(statement).isEmpty())
-						sb.append(" " + create(inferCreate.get().get(statement))); //$NON-NLS-1$
+						sb.append(" " + create(inferCreate.get().get(statement), sections)); //$NON-NLS-1$
 					this.replace(prag, sb.toString());
 				} 
 			}
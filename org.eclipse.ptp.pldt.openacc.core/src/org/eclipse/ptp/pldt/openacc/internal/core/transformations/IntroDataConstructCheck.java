@@ -25,6 +25,7 @@ import org.eclipse.cdt.core.dom.ast.IASTGotoStatement;
 import org.eclipse.cdt.core.dom.ast.IASTIfStatement;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
 import org.eclipse.cdt.core.dom.ast.IASTReturnStatement;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IASTSwitchStatement;
@@ -54,6 +55,12 @@ public class IntroDataConstructCheck extends SourceStatementsCheck<RefactoringPa
     	if(stmts.length < 1) {
     		status.addWarning(Messages.IntroDataConstructCheck_WillNotSurroundAnyStatements);
     		return;
+    	}
+    	IASTPreprocessorPragmaStatement malformed = OpenACCUtil.findMalformedAccPragma(stmts);
+    	if(malformed != null) {
+    		status.addFatalError(NLS.bind(Messages.IntroDataConstructCheck_ContainsMalformedDirective,
+    				malformed.getFileLocation().getStartingLineNumber()));
+    		return;
     	}
 		for(IASTStatement stmt : stmts) {
 			IASTNode parent = stmt.getParent();
@@ -148,8 +155,9 @@ public class IntroDataConstructCheck extends SourceStatementsCheck<RefactoringPa
     			}
     		}
     		for(IASTName access : accesses) {
-        		CopyinInference copyin = new CopyinInference(statements);
-        		CopyoutInference copyout = new CopyoutInference(statements);
+        		ArbitraryStatement root = new ArbitraryStatement();
+        		CopyinInference copyin = new CopyinInference(root, statements);
+        		CopyoutInference copyout = new CopyoutInference(root, statements);
         		IASTStatement nearest = OpenACCUtil.findNearestAccConstructAncestor(access);
         		if(nearest == null) nearest = copyin.getRoot();
     			if (ancestorSetContains(copyin, nearest, access.resolveBinding()) && !copyout.contains(nearest, access.resolveBinding())) {
@@ -19,8 +19,12 @@ import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.CachingDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.CascadingDependenceTester;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DataDependence;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceAnalysis;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
@@ -29,6 +33,11 @@ import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
 
 public class IntroOpenACCLoopCheck extends ForLoopCheck<RefactoringParams> {
 
+    // A spurious dependence keeps the loop on the host, so confirm real solutions with the exact integer test
+    private static final CachingDependenceTester EXACT_DEPENDENCE_TESTER = new CachingDependenceTester(
+            new SubscriptDependenceTester(CascadingDependenceTester.realThenExact()),
+            CachingDependenceTester.DEFAULT_CAPACITY);
+
     private final boolean kernels;
     private final boolean inParallelRegion;
     private final boolean inKernelsRegion;
@@ -75,6 +84,11 @@ public class IntroOpenACCLoopCheck extends ForLoopCheck<RefactoringParams> {
         checkForExistingPragma();
     }
 
+    @Override
+    protected IDependenceTester createDependenceTester() {
+        return EXACT_DEPENDENCE_TESTER;
+    }
+
     @Override
     public void doDependenceCheck(DependenceAnalysis dep) {
         if (dep != null && dep.hasLevel1CarriedDependence()) {
@@ -18,6 +18,8 @@ import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ArraySectionInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyinInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyoutInference;
@@ -28,7 +30,7 @@ import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelNode;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 public class MergeDataConstructsAlteration extends PragmaDirectiveAlteration<MergeDataConstructsCheck> {
 
@@ -46,10 +48,11 @@ public class MergeDataConstructsAlteration extends PragmaDirectiveAlteration<Mer
 
     	IASTStatement[] statements = concat(ASTUtil.getStatementsIfCompound(getFirstStatement()), ASTUtil.getStatementsIfCompound(getSecondStatement()));
     	
-    	CopyinInference inferCopyin = new CopyinInference(statements, getFirstStatement(), getSecondStatement());
-    	CopyoutInference inferCopyout = new CopyoutInference(statements, getFirstStatement(), getSecondStatement());
+    	ArbitraryStatement root = new ArbitraryStatement();
+    	CopyinInference inferCopyin = new CopyinInference(root, statements, getFirstStatement(), getSecondStatement());
+    	CopyoutInference inferCopyout = new CopyoutInference(root, statements, getFirstStatement(), getSecondStatement());
     	CopyInference inferCopy = new CopyInference(inferCopyin, inferCopyout, getFirstStatement(), getSecondStatement());
-    	CreateInference inferCreate = new CreateInference(statements, getFirstStatement(), getSecondStatement());
+    	CreateInference inferCreate = new CreateInference(root, statements, getFirstStatement(), getSecondStatement());
     	
     	remove(getSecondPragma());
     	removeCurlyBraces(getFirstStatement());
@@ -65,11 +68,8 @@ public class MergeDataConstructsAlteration extends PragmaDirectiveAlteration<Mer
     		if(!con.equals(inferCopyin.getRoot())) {
     			//TODO: this does assume that a statement only has one OpenACC pragma on it - it may have more, even though thats a bad idea
     			for(IASTPreprocessorPragmaStatement pragma : ASTUtil.getPragmaNodes(con)) {
-    				IAccConstruct ast = null;
-    				try {
-    					ast = new OpenACCParser().parse(pragma.getRawSignature());
-    				}
-    				catch(Exception e) {
+    				IAccConstruct ast = OpenACCUtil.getAccConstruct(pragma);
+    				if(ast == null) {
     					continue;
     				}
     				String newPragma;
@@ -79,28 +79,30 @@ public class MergeDataConstructsAlteration extends PragmaDirectiveAlteration<Mer
         			else if(ast instanceof ASTAccKernelsNode) newPragma = pragma("acc kernels"); //$NON-NLS-1$
         			else if(ast instanceof ASTAccKernelsLoopNode) newPragma = pragma("acc kernels loop"); //$NON-NLS-1$
         			else throw new IllegalStateException();
+        			ArraySectionInference sections = new ArraySectionInference(con);
         			if(!inferCopyin.get().get(con).isEmpty())
-        				newPragma += " " + copyin(inferCopyin.get().get(con)); //$NON-NLS-1$
+        				newPragma += " " + copyin(inferCopyin.get().get(con), sections); //$NON-NLS-1$
         			if(!inferCopyout.get().get(con).isEmpty())
-        				newPragma += " " + copyout(inferCopyout.get().get(con)); //$NON-NLS-1$
+        				newPragma += " " + copyout(inferCopyout.get().get(con), sections); //$NON-NLS-1$
         			if(!inferCopy.get().get(con).isEmpty())
-        				newPragma += " " + copy(inferCopy.get().get(con)); //$NON-NLS-1$
+        				newPragma += " " + copy(inferCopy.get().get(con), sections); //$NON-NLS-1$
         			if(!inferCreate.get().get(con).isEmpty())
-        				newPragma += " " + create(inferCreate.get().get(con)); //$NON-NLS-1$
+        				newPragma += " " + create(inferCreate.get().get(con), sections); //$NON-NLS-1$
         			replace(pragma, newPragma);
     			}
     		}
     	}
     	IASTStatement con = inferCopyin.getRoot();
+    	ArraySectionInference rootSections = new ArraySectionInference(statements);
     	String top = pragma("acc data"); //$NON-NLS-1$
     	if(!inferCopyin.get().get(con).isEmpty())
-    		top += " " + copyin(inferCopyin.get().get(con)); //$NON-NLS-1$
+    		top += " " + copyin(inferCopyin.get().get(con), rootSections); //$NON-NLS-1$
     	if(!inferCopyout.get().get(con).isEmpty())
-    		top += " " + copyout(inferCopyout.get().get(con)); //$NON-NLS-1$
+    		top += " " + copyout(inferCopyout.get().get(con), rootSections); //$NON-NLS-1$
     	if(!inferCopy.get().get(con).isEmpty())
-    		top += " " + copy(inferCopy.get().get(con)); //$NON-NLS-1$
+    		top += " " + copy(inferCopy.get().get(con), rootSections); //$NON-NLS-1$
     	if(!inferCreate.get().get(con).isEmpty())
-    		top += " " + create(inferCreate.get().get(con)); //$NON-NLS-1$
+    		top += " " + create(inferCreate.get().get(con), rootSections); //$NON-NLS-1$
     	replace(getFirstPragma(), top);
 		insertBefore(getFirstStatement(), LCURLY);
 		insertAfter(getSecondStatement(), RCURLY);
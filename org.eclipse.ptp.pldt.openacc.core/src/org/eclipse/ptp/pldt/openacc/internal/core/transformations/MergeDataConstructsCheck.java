@@ -23,8 +23,8 @@ import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccDataNode;
-import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
 
 public class MergeDataConstructsCheck extends PragmaDirectiveCheck<RefactoringParams> {
 
@@ -56,6 +56,13 @@ public class MergeDataConstructsCheck extends PragmaDirectiveCheck<RefactoringPa
         secondStmt = (IASTStatement) next;
         secondPrag = getDataPragma(secondStmt);
         
+        IASTPreprocessorPragmaStatement malformed = OpenACCUtil.findMalformedAccPragma(getStatement(), secondStmt);
+        if(malformed != null) {
+        	status.addFatalError(NLS.bind(Messages.MergeDataConstructsCheck_ContainsMalformedDirective,
+        			malformed.getFileLocation().getStartingLineNumber()));
+        	return;
+        }
+        
         IASTName conflict = getNameConflict(getFirstStatement(), getSecondStatement());
         if(conflict != null) {
         	status.addError(NLS.bind(Messages.MergeDataConstructsCheck_VariableShadowingMayOccur, new Object[] { conflict.getRawSignature(), conflict.getRawSignature() }));
@@ -65,16 +72,7 @@ public class MergeDataConstructsCheck extends PragmaDirectiveCheck<RefactoringPa
     }
     
     private boolean isDataPragma(IASTPreprocessorPragmaStatement pragma) {
-    	OpenACCParser parser = new OpenACCParser();
-    	try {
-            if(!(parser.parse(pragma.getRawSignature()) instanceof ASTAccDataNode)) {
-                return false;
-            }
-         }
-         catch(Exception e) {
-             return false;
-         }
-    	return true;
+    	return OpenACCUtil.getAccConstruct(pragma) instanceof ASTAccDataNode;
     }
     
     private IASTName getNameConflict(IASTCompoundStatement first, IASTCompoundStatement second) {
@@ -44,6 +44,7 @@ public class Messages extends NLS {
 	public static String IntroAtomicCheck_NoSuitableAtomicTypeFound;
 	public static String IntroAtomicCheck_NotInParallelRegion;
 	public static String IntroDataConstructCheck_ConditionalDefinitionMayRequireAdditionalDataTransfer;
+	public static String IntroDataConstructCheck_ContainsMalformedDirective;
 	public static String IntroDataConstructCheck_MustBeInConditionalOrSurroundIfAndElse;
 	public static String IntroDataConstructCheck_NoDataTransfer;
 	public static String IntroDataConstructCheck_WillContainBadBreak;
@@ -62,6 +63,7 @@ public class Messages extends NLS {
 	public static String StridedTileCheck_FactorMustBeGreater;
 	public static String StridedTileCheck_InvalidCutFactor;
 	public static String StridedTileCheck_NameAlreadyExists;
+	public static String MergeDataConstructsCheck_ContainsMalformedDirective;
 	public static String MergeDataConstructsCheck_MustBeDataConstruct;
 	public static String MergeDataConstructsCheck_MustBeFollowedByDataConstruct;
 	public static String MergeDataConstructsCheck_ShouldBeCompoundStatements;
@@ -30,7 +30,7 @@ public class NullCheck extends ForLoopCheck<NullParams> {
     public NullCheck(RefactoringStatus status, IASTForStatement loop) {
         super(status, loop);
         IASTFunctionDefinition enclosing = ASTUtil.findNearestAncestor(loop, IASTFunctionDefinition.class);
-        new ConstantPropagation(enclosing);
+        ConstantPropagation.forFunction(enclosing);
     }
 
     @Override
@@ -24,6 +24,8 @@ import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ArraySectionInference;
 import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEditGroup;
 
@@ -85,10 +87,17 @@ public abstract class SourceAlteration<T extends Check<?>> {
     /**
      * Base change method for all inherited classes. This method does some initialization before calling the inherited
      * class' implemented {@link #doChange(IASTRewrite)} method.
+     * <p>
+     * Afterward, the analyses of the translation unit are discarded, since they describe the code before it was
+     * rewritten.
      */
     public final void change() {
         // FIXME: Eliminate doChange -- subclasses can override change() instead???
+        try {
             doChange();
+        } finally {
+            AnalysisSession.invalidate(tu);
+        }
     }
 
     /**
@@ -175,47 +184,50 @@ public abstract class SourceAlteration<T extends Check<?>> {
     }
     
     protected final String copyin(Set<IBinding> vars) {
-        StringBuilder sb = new StringBuilder(COPYIN + LPAREN);
-        String separator = ""; //$NON-NLS-1$
-        for(IBinding var : vars) {
-            sb.append(separator);
-            sb.append(var.getName().trim());
-            separator = COMMA;
-        }
-        sb.append(RPAREN);
-        return sb.toString();
+        return dataClause(COPYIN, vars, null);
+    }
+    
+    protected final String copyin(Set<IBinding> vars, ArraySectionInference sections) {
+        return dataClause(COPYIN, vars, sections);
     }
     
     protected final String copyout(Set<IBinding> vars) {
-        StringBuilder sb = new StringBuilder(COPYOUT + LPAREN);
-        String separator = ""; //$NON-NLS-1$
-        for(IBinding var : vars) {
-            sb.append(separator);
-            sb.append(var.getName().trim());
-            separator = COMMA;
-        }
-        sb.append(RPAREN);
-        return sb.toString();
+        return dataClause(COPYOUT, vars, null);
+    }
+    
+    protected final String copyout(Set<IBinding> vars, ArraySectionInference sections) {
+        return dataClause(COPYOUT, vars, sections);
     }
     
     protected final String copy(Set<IBinding> vars) {
-        StringBuilder sb = new StringBuilder(COPY + LPAREN);
-        String separator = ""; //$NON-NLS-1$
-        for(IBinding var : vars) {
-            sb.append(separator);
-            sb.append(var.getName().trim());
-            separator = COMMA;
-        }
-        sb.append(RPAREN);
-        return sb.toString();
+        return dataClause(COPY, vars, null);
+    }
+    
+    protected final String copy(Set<IBinding> vars, ArraySectionInference sections) {
+        return dataClause(COPY, vars, sections);
     }
     
     protected final String create(Set<IBinding> vars) {
-        StringBuilder sb = new StringBuilder(CREATE + LPAREN);
+        return dataClause(CREATE, vars, null);
+    }
+    
+    protected final String create(Set<IBinding> vars, ArraySectionInference sections) {
+        return dataClause(CREATE, vars, sections);
+    }
+    
+    /**
+     * @param sections
+     *            array sections to transfer, or <code>null</code> to transfer entire variables
+     */
+    private String dataClause(String clause, Set<IBinding> vars, ArraySectionInference sections) {
+        StringBuilder sb = new StringBuilder(clause + LPAREN);
         String separator = ""; //$NON-NLS-1$
         for(IBinding var : vars) {
             sb.append(separator);
             sb.append(var.getName().trim());
+            if (sections != null && sections.getSection(var) != null) {
+                sb.append(sections.getSection(var));
+            }
             separator = COMMA;
         }
         sb.append(RPAREN);
@@ -26,7 +26,7 @@ import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTPatternUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
 import org.eclipse.ptp.pldt.openacc.internal.core.ForStatementInquisitor;
-import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.DemandDrivenConstantEvaluator;
 
 public class UnrollLoopCheck extends ForLoopCheck<UnrollLoopParams> {
 
@@ -35,9 +35,8 @@ public class UnrollLoopCheck extends ForLoopCheck<UnrollLoopParams> {
 	public UnrollLoopCheck(RefactoringStatus status, IASTForStatement loop) {
 		super(status, loop);
 		IASTFunctionDefinition enclosing = ASTUtil.findNearestAncestor(loop, IASTFunctionDefinition.class);
-		ConstantPropagation constantProp = new ConstantPropagation(enclosing);
 		IASTExpression ubExpr = ((IASTBinaryExpression) loop.getConditionExpression()).getOperand2();
-		upperBound = constantProp.evaluate(ubExpr);
+		upperBound = DemandDrivenConstantEvaluator.forFunction(enclosing).evaluate(ubExpr);
 	}
 
 	@Override
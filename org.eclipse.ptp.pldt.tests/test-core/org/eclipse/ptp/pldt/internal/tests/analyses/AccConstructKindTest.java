@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.AccConstructKind;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+
+import junit.framework.TestCase;
+
+public class AccConstructKindTest extends TestCase {
+
+    public void testClassify() {
+        assertEquals(AccConstructKind.LOOP, AccConstructKind.classify("#pragma acc loop gang"));
+        assertEquals(AccConstructKind.PARALLEL, AccConstructKind.classify("#pragma acc parallel"));
+        assertEquals(AccConstructKind.PARALLEL, AccConstructKind.classify("#pragma acc parallel copy(a)"));
+        assertEquals(AccConstructKind.PARALLEL_LOOP, AccConstructKind.classify("  #pragma acc parallel loop"));
+        assertEquals(AccConstructKind.KERNELS, AccConstructKind.classify("#pragma acc kernels if(n > 1)"));
+        assertEquals(AccConstructKind.KERNELS_LOOP, AccConstructKind.classify("#pragma acc kernels /* c */ loop"));
+        assertEquals(AccConstructKind.DATA, AccConstructKind.classify("#pragma acc data copyin(a[0:n])"));
+        assertEquals(AccConstructKind.HOST_DATA, AccConstructKind.classify("#pragma acc host_data use_device(a)"));
+        assertEquals(AccConstructKind.DECLARE, AccConstructKind.classify("#pragma acc declare create(a)"));
+        assertEquals(AccConstructKind.CACHE, AccConstructKind.classify("#pragma acc cache(a[0:4])"));
+        assertEquals(AccConstructKind.WAIT, AccConstructKind.classify("#pragma acc wait(1)"));
+        assertEquals(AccConstructKind.UPDATE, AccConstructKind.classify("#pragma acc update host(a)"));
+        assertEquals(AccConstructKind.ENTER_DATA, AccConstructKind.classify("#pragma acc enter data copyin(a)"));
+        assertEquals(AccConstructKind.EXIT_DATA, AccConstructKind.classify("#pragma acc exit data delete(a)"));
+        assertEquals(AccConstructKind.ROUTINE, AccConstructKind.classify("#pragma acc routine seq"));
+        assertEquals(AccConstructKind.ATOMIC, AccConstructKind.classify("#pragma acc atomic update"));
+    }
+
+    public void testNotOpenACC() {
+        assertNull(AccConstructKind.classify(""));
+        assertNull(AccConstructKind.classify("#pragma omp parallel for"));
+        assertNull(AccConstructKind.classify("#pragma acc"));
+        assertNull(AccConstructKind.classify("#pragma acc kernel loop"));
+        assertNull(AccConstructKind.classify("#pragma acc enter copyin(a)"));
+        assertNull(AccConstructKind.classify("#pragma acc $"));
+    }
+
+    public void testMalformedClauses() {
+        assertEquals(AccConstructKind.DATA, AccConstructKind.classify("#pragma acc data copy("));
+        assertEquals(AccConstructKind.PARALLEL, AccConstructKind.classify("#pragma acc parallel $"));
+    }
+
+    public void testSameKindAsParser() throws Exception {
+        OpenACCParser parser = new OpenACCParser();
+        for (String pragma : new OpenACCParserTests().epccPragmas) {
+            IAccConstruct construct = parser.parse(pragma);
+            AccConstructKind kind = AccConstructKind.classify(pragma);
+            assertNotNull(pragma, kind);
+            assertSame(pragma, construct.getClass(), kind.getConstructClass());
+            assertEquals(pragma, kind.isAccelConstruct(),
+                    construct.getClass().getSimpleName().matches("ASTAcc(Parallel|Kernels)(Loop)?Node"));
+        }
+    }
+}
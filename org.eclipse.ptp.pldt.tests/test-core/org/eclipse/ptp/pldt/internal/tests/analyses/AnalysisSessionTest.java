@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.ForStatementInquisitor;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ReachingDefinitionsAnalysis;
+
+import junit.framework.TestCase;
+
+public class AnalysisSessionTest extends TestCase {
+
+    private static final String PROGRAM = "void f() {\n" + //
+            "  int a[10];\n" + //
+            "  for (int i = 0; i < 10; i++)\n" + //
+            "    a[i] = i;\n" + //
+            "}\n" + //
+            "void g() {\n" + //
+            "  int n = 1;\n" + //
+            "}\n" + //
+            "void h() {\n" + //
+            "  int m = 2;\n" + //
+            "}\n";
+
+    /** Counts the number of times it has been computed; each result is estimated to occupy 100 bytes */
+    private static class CountingAnalysis extends AnalysisSession.Analysis<IASTFunctionDefinition, Object> {
+        final AtomicInteger count = new AtomicInteger();
+
+        CountingAnalysis() {
+            super("Counting analysis");
+        }
+
+        @Override
+        protected Object compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+            count.incrementAndGet();
+            return new Object();
+        }
+
+        @Override
+        protected long estimateSize(IASTFunctionDefinition func, Object result) {
+            return 100;
+        }
+    }
+
+    private IASTTranslationUnit tu;
+    private List<IASTFunctionDefinition> functions;
+
+    @Override
+    protected void setUp() throws Exception {
+        tu = ASTUtil.translationUnitForString(PROGRAM);
+        functions = ASTUtil.find(tu, IASTFunctionDefinition.class);
+        assertEquals(3, functions.size());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        AnalysisSession.invalidate(tu);
+    }
+
+    public void testResultsReused() {
+        IASTFunctionDefinition f = functions.get(0);
+        assertSame(ConstantPropagation.forFunction(f), ConstantPropagation.forFunction(f));
+        assertSame(ReachingDefinitionsAnalysis.forFunction(f), ReachingDefinitionsAnalysis.forFunction(f));
+        IASTForStatement loop = ASTUtil.findFirst(f, IASTForStatement.class);
+        assertSame(ForStatementInquisitor.getInquisitor(loop), ForStatementInquisitor.getInquisitor(loop));
+        assertNotSame(ConstantPropagation.forFunction(f), ConstantPropagation.forFunction(functions.get(1)));
+        assertTrue(AnalysisSession.forTranslationUnit(tu).getHitCount() >= 3);
+    }
+
+    public void testInvalidate() {
+        IASTFunctionDefinition f = functions.get(0);
+        IASTFunctionDefinition g = functions.get(1);
+        ConstantPropagation cpF = ConstantPropagation.forFunction(f);
+        ConstantPropagation cpG = ConstantPropagation.forFunction(g);
+        IASTForStatement loop = ASTUtil.findFirst(f, IASTForStatement.class);
+        ForStatementInquisitor inq = ForStatementInquisitor.getInquisitor(loop);
+
+        // Invalidating a function discards the results for the function and the nodes it contains, but not others
+        ConstantPropagation.invalidate(f);
+        assertNotSame(cpF, ConstantPropagation.forFunction(f));
+        assertNotSame(inq, ForStatementInquisitor.getInquisitor(loop));
+        assertSame(cpG, ConstantPropagation.forFunction(g));
+
+        // Invalidating the translation unit discards everything
+        AnalysisSession session = AnalysisSession.forTranslationUnit(tu);
+        AnalysisSession.invalidate(tu);
+        assertNotSame(session, AnalysisSession.forTranslationUnit(tu));
+        assertNotSame(cpG, ConstantPropagation.forFunction(g));
+    }
+
+    public void testRecomputedAfterBodyReplaced() {
+        IASTFunctionDefinition g = functions.get(1);
+        ConstantPropagation before = ConstantPropagation.forFunction(g);
+        g.setBody(g.getBody().copy());
+        assertNotSame(before, ConstantPropagation.forFunction(g));
+    }
+
+    public void testEviction() {
+        CountingAnalysis analysis = new CountingAnalysis();
+        AnalysisSession session = new AnalysisSession(tu, 250);
+        NullProgressMonitor pm = new NullProgressMonitor();
+        for (IASTFunctionDefinition func : functions) {
+            session.getResult(analysis, func, pm);
+        }
+        assertEquals(3, analysis.count.get());
+        assertEquals(2, session.size());
+        assertEquals(200, session.getEstimatedSize());
+        assertEquals(1, session.getEvictionCount());
+
+        // The least recently used result was evicted
+        session.getResult(analysis, functions.get(2), pm);
+        assertEquals(3, analysis.count.get());
+        session.getResult(analysis, functions.get(0), pm);
+        assertEquals(4, analysis.count.get());
+        assertTrue(session.getEstimatedSize() <= session.getMemoryBudget());
+    }
+
+    public void testNonEvictableResultsAreKept() {
+        final AtomicInteger count = new AtomicInteger();
+        AnalysisSession.Analysis<IASTTranslationUnit, Object> pinned = new AnalysisSession.Analysis<IASTTranslationUnit, Object>(
+                "Non-evictable analysis") {
+            @Override
+            protected Object compute(IASTTranslationUnit node, IProgressMonitor monitor) {
+                count.incrementAndGet();
+                return new Object();
+            }
+
+            @Override
+            protected boolean isEvictable() {
+                return false;
+            }
+        };
+        CountingAnalysis analysis = new CountingAnalysis();
+        AnalysisSession session = new AnalysisSession(tu, 150);
+        NullProgressMonitor pm = new NullProgressMonitor();
+        Object result = session.getResult(pinned, tu, pm);
+        for (IASTFunctionDefinition func : functions) {
+            session.getResult(analysis, func, pm);
+        }
+
+        // The non-evictable result is not counted against the budget, and it was not evicted
+        assertEquals(100, session.getEstimatedSize());
+        assertEquals(2, session.getEvictionCount());
+        assertSame(result, session.getResult(pinned, tu, pm));
+        assertEquals(1, count.get());
+    }
+
+    public void testTranslationUnitResultsDoNotCompareChildren() {
+        // Counts the calls to getChildren() on the translation unit
+        final AtomicInteger getChildrenCalls = new AtomicInteger();
+        final IASTTranslationUnit[] counting = new IASTTranslationUnit[1];
+        counting[0] = (IASTTranslationUnit) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { IASTTranslationUnit.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getChildren")) {
+                            getChildrenCalls.incrementAndGet();
+                        } else if (method.getName().equals("getTranslationUnit")) {
+                            return counting[0];
+                        }
+                        return method.invoke(tu, args);
+                    }
+                });
+        final AtomicInteger count = new AtomicInteger();
+        AnalysisSession.Analysis<IASTTranslationUnit, Object> analysis = new AnalysisSession.Analysis<IASTTranslationUnit, Object>(
+                "Translation unit analysis") {
+            @Override
+            protected Object compute(IASTTranslationUnit node, IProgressMonitor monitor) {
+                count.incrementAndGet();
+                return new Object();
+            }
+        };
+
+        AnalysisSession session = new AnalysisSession(counting[0], AnalysisSession.DEFAULT_MEMORY_BUDGET);
+        NullProgressMonitor pm = new NullProgressMonitor();
+        Object result = session.getResult(analysis, counting[0], pm);
+        for (int i = 0; i < 10; i++) {
+            assertSame(result, session.getResult(analysis, counting[0], pm));
+        }
+        assertEquals(1, count.get());
+        assertEquals(0, getChildrenCalls.get());
+    }
+
+    public void testConcurrentRequestsComputedOnce() throws Exception {
+        final AnalysisSession session = new AnalysisSession(tu, AnalysisSession.DEFAULT_MEMORY_BUDGET);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final AnalysisSession.Analysis<IASTFunctionDefinition, Object> slow = new AnalysisSession.Analysis<IASTFunctionDefinition, Object>(
+                "Slow analysis") {
+            @Override
+            protected Object compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+                count.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return func.getDeclarator().getName().toString();
+            }
+        };
+
+        final List<Object> results = new ArrayList<Object>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final IASTFunctionDefinition func = functions.get(i % 2);
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        Object result = session.getResult(slow, func, new NullProgressMonitor());
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(8, results.size());
+        assertEquals(2, count.get());
+        assertEquals(6, session.getHitCount());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(results.get(i).equals("f") || results.get(i).equals("g"));
+        }
+    }
+
+    public void testFailedAnalysisIsNotStored() {
+        final AtomicInteger count = new AtomicInteger();
+        AnalysisSession.Analysis<IASTFunctionDefinition, Object> failing = new AnalysisSession.Analysis<IASTFunctionDefinition, Object>(
+                "Failing analysis") {
+            @Override
+            protected Object compute(IASTFunctionDefinition func, IProgressMonitor monitor) {
+                count.incrementAndGet();
+                throw new IllegalArgumentException("failed");
+            }
+        };
+        for (int i = 1; i <= 2; i++) {
+            try {
+                AnalysisSession.get(failing, functions.get(0));
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                assertEquals(i, count.get());
+            }
+        }
+        assertEquals(0, AnalysisSession.forTranslationUnit(tu).size());
+    }
+}
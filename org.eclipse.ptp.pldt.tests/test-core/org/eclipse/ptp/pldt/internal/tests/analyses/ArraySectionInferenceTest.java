@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.List;
+
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ArraySectionInference;
+
+import junit.framework.TestCase;
+
+public class ArraySectionInferenceTest extends TestCase {
+
+    private IASTFunctionDefinition func;
+    private IASTStatement[] stmts;
+
+    private void parse(String program) throws Exception {
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(program);
+        List<IASTFunctionDefinition> functions = ASTUtil.find(tu, IASTFunctionDefinition.class);
+        func = functions.get(functions.size() - 1);
+        stmts = ((IASTCompoundStatement) func.getBody()).getStatements();
+    }
+
+    private IBinding var(String name) {
+        for (IASTName n : ASTUtil.find(func, IASTName.class)) {
+            if (n.toString().equals(name)) {
+                return n.resolveBinding();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    public void testOneDimension() throws Exception {
+        parse("void f(double *p) {\n" + //
+                "  double a[100], b[100], c[100], s;\n" + // 0
+                "  for (int i = 0; i < 50; i++) {\n" + // 1
+                "    a[i] = b[i + 10] + b[2 * i];\n" + //
+                "    c[99 - i] = p[i + 1];\n" + //
+                "  }\n" + //
+                "}");
+        ArraySectionInference sections = new ArraySectionInference(stmts[1]);
+        assertEquals("[0:50]", sections.getSection(var("a")));
+        assertEquals("[0:99]", sections.getSection(var("b")));
+        assertEquals("[50:50]", sections.getSection(var("c")));
+        assertEquals("[1:50]", sections.getSection(var("p")));
+        assertNull(sections.getSection(var("s")));
+    }
+
+    public void testMultipleStatements() throws Exception {
+        parse("void f() {\n" + //
+                "  double a[100];\n" + // 0
+                "  for (int i = 10; i <= 20; i++)\n" + // 1
+                "    a[i] = 0;\n" + //
+                "  a[5] = a[30];\n" + // 2
+                "}");
+        assertEquals("[10:11]", new ArraySectionInference(stmts[1]).getSection(var("a")));
+        assertEquals("[5:26]", new ArraySectionInference(stmts[1], stmts[2]).getSection(var("a")));
+    }
+
+    public void testMultipleDimensions() throws Exception {
+        parse("void f() {\n" + //
+                "  double c[20][30];\n" + // 0
+                "  for (int i = 2; i < 5; i++)\n" + // 1
+                "    for (int j = 1; j < 29; j++)\n" + //
+                "      c[i][j] = c[i][j - 1];\n" + //
+                "}");
+        assertEquals("[2:3][0:30]", new ArraySectionInference(stmts[1]).getSection(var("c")));
+    }
+
+    public void testWholeArray() throws Exception {
+        parse("void g(double *x);\n" + //
+                "double h[100];\n" + //
+                "void f(int n) {\n" + //
+                "  double a[100], b[100], c[100], d[100], e[100];\n" + // 0
+                "  for (int i = 0; i < 100; i++) {\n" + // 1
+                "    a[i] = 0;\n" + //
+                "  }\n" + //
+                "  for (int i = 0; i < n; i++) {\n" + // 2
+                "    b[i] = 0;\n" + //
+                "  }\n" + //
+                "  for (int i = 0; i < 10; i++) {\n" + // 3
+                "    c[i * i] = 0;\n" + //
+                "    g(d);\n" + //
+                "    e[n] = 0;\n" + //
+                "    h[i] = 0;\n" + //
+                "  }\n" + //
+                "}");
+        assertNull(new ArraySectionInference(stmts[1]).getSection(var("a")));
+        assertNull(new ArraySectionInference(stmts[2]).getSection(var("b")));
+        ArraySectionInference sections = new ArraySectionInference(stmts[3]);
+        assertNull(sections.getSection(var("c")));
+        assertNull(sections.getSection(var("d")));
+        assertNull(sections.getSection(var("e")));
+        assertNull(sections.getSection(var("h")));
+    }
+
+    public void testLoopOutsideConstruct() throws Exception {
+        parse("void f() {\n" + //
+                "  double a[100];\n" + // 0
+                "  for (int i = 0; i < 10; i++) {\n" + // 1
+                "    a[i] = 0;\n" + //
+                "  }\n" + //
+                "}");
+        IASTStatement body = ASTUtil.findFirst(stmts[1], IASTCompoundStatement.class).getStatements()[0];
+        assertNull(new ArraySectionInference(body).getSection(var("a")));
+    }
+}
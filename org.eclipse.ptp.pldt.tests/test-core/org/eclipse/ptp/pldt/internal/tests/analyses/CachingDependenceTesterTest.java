@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.Random;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.CachingDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DirectionHierarchyTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link CachingDependenceTester} class
+ */
+public class CachingDependenceTesterTest {
+
+    private static final class CountingDependenceTester implements IDependenceTester {
+        private final IDependenceTester tester = new FourierMotzkinDependenceTester();
+        int count = 0;
+
+        @Override
+        public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
+                int[][] readCoefficients, int numScalars, Direction[] direction) {
+            count++;
+            return tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars, direction);
+        }
+    }
+
+    private static final int[] LB = { 1 };
+    private static final int[] UB = { 100 };
+
+    @Test
+    public void testHitsAndMisses() {
+        // for (i = 1; i <= 100; i++) a[i] = a[i-1];
+        CountingDependenceTester counter = new CountingDependenceTester();
+        CachingDependenceTester cache = new CachingDependenceTester(counter, 10);
+        int[][] wc = { { 0, 1 } };
+        int[][] rc = { { -1, 1 } };
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(cache.test(LB, UB, wc, rc, 0, new Direction[] { Direction.LT }));
+            Assert.assertFalse(cache.test(LB, UB, wc, rc, 0, new Direction[] { Direction.EQ }));
+        }
+        Assert.assertEquals(2, counter.count);
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(4, cache.getHitCount());
+        Assert.assertEquals(0, cache.getEvictionCount());
+        Assert.assertEquals(2, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testConstantsAreNormalized() {
+        // a[i] vs. a[i-1], a[i+1] vs. a[i], and a[i+5] vs. a[i+4] are the same system
+        CountingDependenceTester counter = new CountingDependenceTester();
+        CachingDependenceTester cache = new CachingDependenceTester(counter, 10);
+        Direction[] dv = { Direction.LT };
+        Assert.assertTrue(cache.test(LB, UB, new int[][] { { 0, 1 } }, new int[][] { { -1, 1 } }, 0, dv));
+        Assert.assertTrue(cache.test(LB, UB, new int[][] { { 1, 1 } }, new int[][] { { 0, 1 } }, 0, dv));
+        Assert.assertTrue(cache.test(LB, UB, new int[][] { { 5, 1 } }, new int[][] { { 4, 1 } }, 0, dv));
+        Assert.assertEquals(1, counter.count);
+
+        // a[i] vs. a[i+1] is not
+        Assert.assertFalse(cache.test(LB, UB, new int[][] { { 0, 1 } }, new int[][] { { 1, 1 } }, 0, dv));
+        Assert.assertEquals(2, counter.count);
+
+        // Neither is the same system with different bounds
+        Assert.assertFalse(cache.test(LB, new int[] { 1 }, new int[][] { { 0, 1 } }, new int[][] { { -1, 1 } }, 0, dv));
+        Assert.assertEquals(3, counter.count);
+    }
+
+    @Test
+    public void testOverflowingConstantsAreNotCached() {
+        // Normalizing a[i-1] vs. a[i+MAX_VALUE] gives MAX_VALUE + 1, which would wrap to the key for a[i] vs.
+        // a[i+MIN_VALUE] if it were computed in int
+        CountingDependenceTester counter = new CountingDependenceTester();
+        CachingDependenceTester cache = new CachingDependenceTester(counter, 10);
+        Direction[] dv = { Direction.ANY };
+        int[][] wc = { { -1, 1 } };
+        int[][] rc = { { Integer.MAX_VALUE, 1 } };
+        int[][] wrapped = { { Integer.MIN_VALUE, 1 } };
+        boolean expected = new FourierMotzkinDependenceTester().test(LB, UB, wc, rc, 0, dv);
+        Assert.assertEquals(expected, cache.test(LB, UB, wc, rc, 0, dv));
+        Assert.assertEquals(expected, cache.test(LB, UB, wc, rc, 0, dv));
+        Assert.assertEquals(2, counter.count);
+        Assert.assertEquals(0, cache.size());
+
+        // A system whose normalized constant really is MIN_VALUE is still cached, separately
+        Assert.assertEquals(new FourierMotzkinDependenceTester().test(LB, UB, new int[][] { { 0, 1 } }, wrapped, 0, dv),
+                cache.test(LB, UB, new int[][] { { 0, 1 } }, wrapped, 0, dv));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(3, counter.count);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        CountingDependenceTester counter = new CountingDependenceTester();
+        CachingDependenceTester cache = new CachingDependenceTester(counter, 2);
+        Direction[] dv = { Direction.ANY };
+        int[][] wc = { { 0, 1 } };
+        cache.test(LB, UB, wc, new int[][] { { 1, 1 } }, 0, dv);
+        cache.test(LB, UB, wc, new int[][] { { 2, 1 } }, 0, dv);
+        cache.test(LB, UB, wc, new int[][] { { 1, 1 } }, 0, dv); // Hit; { 2, 1 } is now least recently used
+        cache.test(LB, UB, wc, new int[][] { { 3, 1 } }, 0, dv);
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(2, cache.size());
+
+        cache.test(LB, UB, wc, new int[][] { { 1, 1 } }, 0, dv);
+        Assert.assertEquals(2, cache.getHitCount());
+        cache.test(LB, UB, wc, new int[][] { { 2, 1 } }, 0, dv);
+        Assert.assertEquals(4, cache.getMissCount());
+        Assert.assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testAgreesWithUncachedTester() {
+        IDependenceTester uncached = new SubscriptDependenceTester();
+        CachingDependenceTester cached = new CachingDependenceTester(new SubscriptDependenceTester(), 64);
+        Random random = new Random(20160701L);
+        for (int trial = 0; trial < 500; trial++) {
+            int numLoops = 1 + random.nextInt(2);
+            int[] lb = new int[numLoops];
+            int[] ub = new int[numLoops];
+            for (int k = 0; k < numLoops; k++) {
+                lb[k] = random.nextInt(3);
+                ub[k] = lb[k] + random.nextInt(10);
+            }
+            int[][] wc = new int[1 + random.nextInt(2)][1 + numLoops];
+            int[][] rc = new int[wc.length][1 + numLoops];
+            for (int dim = 0; dim < wc.length; dim++) {
+                for (int j = 0; j <= numLoops; j++) {
+                    wc[dim][j] = random.nextInt(5) - 2;
+                    rc[dim][j] = random.nextInt(5) - 2;
+                }
+            }
+            Assert.assertArrayEquals("Trial " + trial,
+                    new DirectionHierarchyTester(uncached, lb, ub, wc, rc, 0).getPossibleDependenceDirectionsPacked(),
+                    new DirectionHierarchyTester(cached, lb, ub, wc, rc, 0).getPossibleDependenceDirectionsPacked());
+        }
+        Assert.assertTrue(cached.getHitCount() > 0);
+        Assert.assertTrue(cached.getEvictionCount() > 0);
+    }
+}
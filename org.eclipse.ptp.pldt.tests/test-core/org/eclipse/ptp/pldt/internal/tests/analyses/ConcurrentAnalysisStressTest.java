@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.transformations.IntroOpenACCLoopCheck;
+
+import junit.framework.TestCase;
+
+/**
+ * Runs {@link IntroOpenACCLoopCheck} on every loop in many translation units from many threads at once, and checks
+ * that the results are the same as for a serial run.
+ * <p>
+ * Each task parses its own translation unit, since CDT ASTs resolve bindings lazily and cannot be shared between
+ * threads; what is shared is every static cache and table in the analyses.
+ */
+public class ConcurrentAnalysisStressTest extends TestCase {
+
+    private static final int NUM_FILES = 16;
+    private static final int NUM_ROUNDS = 4;
+    private static final int NUM_THREADS = 8;
+
+    public void testConcurrentChecksMatchSerialRun() throws Exception {
+        List<List<String>> expected = new ArrayList<List<String>>();
+        for (int i = 0; i < NUM_FILES; i++) {
+            expected.add(checkAllLoops(program(i)));
+        }
+        // The first loop can be parallelized; the second carries a dependence
+        assertEquals("OK", expected.get(0).get(0));
+        assertFalse(expected.get(0).get(2).equals("OK"));
+
+        AnalysisSession.invalidateAll();
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+            for (int round = 0; round < NUM_ROUNDS; round++) {
+                for (int i = 0; i < NUM_FILES; i++) {
+                    final String program = program(i);
+                    results.add(executor.submit(new Callable<List<String>>() {
+                        @Override
+                        public List<String> call() throws Exception {
+                            return checkAllLoops(program);
+                        }
+                    }));
+                }
+            }
+            for (int k = 0; k < results.size(); k++) {
+                assertEquals("File " + (k % NUM_FILES), expected.get(k % NUM_FILES), results.get(k).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** @return a description of the result of the check on each loop, for both parallel and kernels loops */
+    private static List<String> checkAllLoops(String program) throws Exception {
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(program);
+        List<String> result = new ArrayList<String>();
+        for (IASTForStatement loop : ASTUtil.find(tu, IASTForStatement.class)) {
+            for (boolean kernels : new boolean[] { false, true }) {
+                IntroOpenACCLoopCheck check = new IntroOpenACCLoopCheck(new RefactoringStatus(), loop, kernels);
+                result.add(describe(check.performChecks(new NullProgressMonitor(), null)));
+            }
+        }
+        return result;
+    }
+
+    private static String describe(RefactoringStatus status) {
+        if (status.isOK()) {
+            return "OK";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (RefactoringStatusEntry entry : status.getEntries()) {
+            sb.append(entry.getSeverity());
+            sb.append(' ');
+            sb.append(entry.getMessage());
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** @return a program whose loops have a mix of dependences, bounds, and pragmas, varying with k */
+    private static String program(int k) {
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < 3; f++) {
+            int c = k * 3 + f;
+            sb.append("void f" + f + "(int n) {\n");
+            sb.append("  double a[200], b[200], c[20][20], s = 0;\n");
+            sb.append("  int i, j, m = " + (10 + c % 7) + ";\n");
+            sb.append("  for (i = 0; i < m; i++)\n    a[i] = b[i] + " + c + ";\n");
+            sb.append("  for (i = 1; i < 100; i++)\n    a[i] = a[i - " + (1 + c % 3) + "] + 1;\n");
+            sb.append("  for (i = 0; i < m; i++)\n    a[i + m] = a[i] * 2;\n");
+            sb.append("  for (i = 0; i < n; i++)\n    s += b[i];\n");
+            sb.append("  for (i = 0; i < 20; i++)\n    for (j = 1; j < 20; j++)\n" +
+                    (c % 2 == 0 ? "      c[i][j] = c[i][j - 1];\n" : "      c[i][j] = c[i - 1][j];\n"));
+            sb.append("#pragma acc parallel\n  {\n");
+            sb.append("    for (j = 0; j < 50; j++)\n      b[j] = a[j] * " + c + ";\n  }\n");
+            sb.append("#pragma acc loop\n");
+            sb.append("  for (i = 0; i < 100; i++)\n    b[i] = i;\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
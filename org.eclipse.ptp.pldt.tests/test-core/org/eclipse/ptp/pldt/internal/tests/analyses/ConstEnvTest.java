@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstEnv;
+
+import junit.framework.TestCase;
+
+public class ConstEnvTest extends TestCase {
+
+    private static final int NUM_VARIABLES = 300;
+
+    private List<IVariable> variables;
+
+    @Override
+    protected void setUp() throws Exception {
+        StringBuilder program = new StringBuilder("void main() {\n  int v0");
+        for (int i = 1; i < NUM_VARIABLES; i++) {
+            program.append(", v" + i);
+        }
+        program.append(";\n}");
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(program.toString());
+        IASTFunctionDefinition main = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+        variables = new ArrayList<IVariable>();
+        for (IASTDeclarator declarator : ASTUtil.find(main.getBody(), IASTDeclarator.class)) {
+            variables.add((IVariable) declarator.getName().resolveBinding());
+        }
+        assertEquals(NUM_VARIABLES, variables.size());
+    }
+
+    public void testSetAndWithout() {
+        ConstEnv env = ConstEnv.EMPTY;
+        for (int i = 0; i < NUM_VARIABLES; i++) {
+            env = env.set(variables.get(i), Long.valueOf(i));
+        }
+        assertEquals(NUM_VARIABLES, env.size());
+        for (int i = 0; i < NUM_VARIABLES; i++) {
+            assertEquals(Long.valueOf(i), env.getValue(variables.get(i)));
+        }
+
+        ConstEnv changed = env.set(variables.get(7), Long.valueOf(-1));
+        assertEquals(Long.valueOf(-1), changed.getValue(variables.get(7)));
+        assertEquals(Long.valueOf(7), env.getValue(variables.get(7)));
+        assertSame(env, env.set(variables.get(7), Long.valueOf(7)));
+
+        ConstEnv removed = env.without(variables.get(8));
+        assertNull(removed.getValue(variables.get(8)));
+        assertEquals(NUM_VARIABLES - 1, removed.size());
+        assertSame(removed, removed.without(variables.get(8)));
+        assertEquals(removed, env.set(variables.get(8), null));
+        assertEquals(ConstEnv.EMPTY, ConstEnv.EMPTY.set(variables.get(0), 1L).without(variables.get(0)));
+    }
+
+    public void testIntersectSharesStructure() {
+        ConstEnv env = ConstEnv.EMPTY;
+        for (int i = 0; i < NUM_VARIABLES; i++) {
+            env = env.set(variables.get(i), Long.valueOf(i));
+        }
+        assertSame(env, env.intersect(env));
+        assertSame(env, env.intersect(null));
+
+        // Each branch of an if-else statement assigns a different variable
+        ConstEnv then = env.set(variables.get(1), 100L);
+        ConstEnv els = env.set(variables.get(2), 200L);
+        ConstEnv merged = then.intersect(els);
+        assertEquals(NUM_VARIABLES - 2, merged.size());
+        assertNull(merged.getValue(variables.get(1)));
+        assertNull(merged.getValue(variables.get(2)));
+        assertEquals(Long.valueOf(3), merged.getValue(variables.get(3)));
+        assertEquals(merged, els.intersect(then));
+        assertEquals(merged.hashCode(), els.intersect(then).hashCode());
+
+        // Both branches assign the same value
+        ConstEnv same = env.set(variables.get(1), 100L);
+        assertEquals(then, then.intersect(same));
+    }
+
+    public void testAgreesWithHashMap() {
+        Random random = new Random(20160801L);
+        List<ConstEnv> envs = new ArrayList<ConstEnv>();
+        List<Map<IVariable, Long>> maps = new ArrayList<Map<IVariable, Long>>();
+        envs.add(ConstEnv.EMPTY);
+        maps.add(new HashMap<IVariable, Long>());
+        for (int step = 0; step < 2000; step++) {
+            int k = random.nextInt(envs.size());
+            ConstEnv env = envs.get(k);
+            Map<IVariable, Long> map = new HashMap<IVariable, Long>(maps.get(k));
+            IVariable var = variables.get(random.nextInt(NUM_VARIABLES));
+            int op = random.nextInt(4);
+            if (op < 2) {
+                Long value = Long.valueOf(random.nextInt(3));
+                env = env.set(var, value);
+                map.put(var, value);
+            } else if (op == 2) {
+                env = env.without(var);
+                map.remove(var);
+            } else {
+                int j = random.nextInt(envs.size());
+                env = env.intersect(envs.get(j));
+                Map<IVariable, Long> other = maps.get(j);
+                for (IVariable v : new ArrayList<IVariable>(map.keySet())) {
+                    if (!map.get(v).equals(other.get(v))) {
+                        map.remove(v);
+                    }
+                }
+            }
+            envs.add(env);
+            maps.add(map);
+
+            assertEquals(map.size(), env.size());
+            for (IVariable v : variables) {
+                assertEquals(map.get(v), env.getValue(v));
+            }
+        }
+    }
+}
@@ -71,7 +71,6 @@ public class ConstantPropagationTest extends TestCase {
                 /* 14 */ "}";
         String[] expectedValues = { //
                 "Line 4: n = 1", //
-                "Line 6: n = 1", //
                 "Line 7: n = 1", //
         };
         check(program, expectedValues);
@@ -88,7 +87,7 @@ public class ConstantPropagationTest extends TestCase {
                 /* 14 */ "}";
         String[] expectedValues = { //
                 "Line 4: n = 1", //
-                "Line 6: n = 2", //
+                "Line 7: n = 1", //
         };
         check(program, expectedValues);
     }
@@ -166,7 +165,7 @@ public class ConstantPropagationTest extends TestCase {
                 /* 3 */ "  if (2 < 3) var = 2; else var = 3;\n" +
                 /* 4 */ "  var;\n" +
                 /* 5 */ "}";
-        String[] expectedValues = { "Line 2: var = 1\nLine 3: var = 2\nLine 3: var = 3" };
+        String[] expectedValues = { "Line 2: var = 1\nLine 3: var = 2\nLine 4: var = 2" };
         check(program, expectedValues);
     }
 
@@ -186,7 +185,42 @@ public class ConstantPropagationTest extends TestCase {
                 /* 3 */ "  if (2 < 3) var = 2;\n" +
                 /* 4 */ "  var;\n" +
                 /* 5 */ "}";
-        String[] expectedValues = { "Line 2: var = 1\nLine 3: var = 2" };
+        String[] expectedValues = { "Line 2: var = 1\nLine 3: var = 2\nLine 4: var = 2" };
+        check(program, expectedValues);
+    }
+
+    public void testInfeasibleBranch() throws CoreException {
+        String program = "void main() {\n" +
+                /* 2 */ "  int n = 1, debug = 0;\n" +
+                /* 3 */ "  if (debug)\n" +
+                /* 4 */ "    n = 2;\n" +
+                /* 5 */ "  n;\n" +
+                /* 6 */ "}";
+        String[] expectedValues = { //
+                "Line 2: n = 1", //
+                "Line 2: debug = 0", //
+                "Line 3: debug = 0", //
+                "Line 5: n = 1", //
+        };
+        check(program, expectedValues);
+    }
+
+    public void testInfeasibleBranchInLoop() throws CoreException {
+        String program = "void main() {\n" +
+                /* 2 */ "  int k = 4, s = 0;\n" +
+                /* 3 */ "  for (int i = 0; i < 10; i++)\n" +
+                /* 4 */ "    if (k != 4)\n" +
+                /* 5 */ "      k = 5;\n" +
+                /* 6 */ "  s = k;\n" +
+                /* 7 */ "}";
+        String[] expectedValues = { //
+                "Line 2: k = 4", //
+                "Line 2: s = 0", //
+                "Line 3: i = 0", //
+                "Line 4: k = 4", //
+                "Line 6: k = 4", //
+                "Line 6: s = 4", //
+        };
         check(program, expectedValues);
     }
 
@@ -23,23 +23,54 @@ import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyinInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.CopyoutInference;
 import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.DataTransferInference;
+import org.eclipse.ptp.pldt.openacc.internal.core.patternmatching.ArbitraryStatement;
 
 import junit.framework.TestCase;
 
 public class CopyInferenceTests extends TestCase {
 	
-	public void testNothing() throws CoreException {
+	public void testRootsMustBeShared() throws CoreException {
 		IASTTranslationUnit tu = ASTUtil.translationUnitForString(""
                 + "void main() {                    \n"
+                + "    int a[10];                   \n"
                 + "    #pragma acc parallel loop    \n"
                 + "    for(int i = 0; i < 10; i++) {\n"
-                + "        ;//do nothing            \n"
+                + "        a[i] = a[i] + 1;         \n"
                 + "    }                            \n"
                 + "}");
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTStatement[] stmts = ((IASTCompoundStatement) func.getBody()).getStatements();
 		CopyinInference copyins = new CopyinInference(stmts);
 		CopyoutInference copyouts = new CopyoutInference(stmts);
+		assertNotSame(copyins.getRoot(), copyouts.getRoot());
+		try {
+			new CopyInference(copyins, copyouts);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		ArbitraryStatement root = new ArbitraryStatement();
+		copyins = new CopyinInference(root, stmts);
+		copyouts = new CopyoutInference(root, stmts);
+		CopyInference copies = new CopyInference(copyins, copyouts);
+		assertSame(root, copies.getRoot());
+		assertTrue(copies.get().containsKey(root));
+	}
+
+	public void testNothing() throws CoreException {
+		IASTTranslationUnit tu = ASTUtil.translationUnitForString(""
+                + "void main() {                    \n"
+                + "    #pragma acc parallel loop    \n"
+                + "    for(int i = 0; i < 10; i++) {\n"
+                + "        ;//do nothing            \n"
+                + "    }                            \n"
+                + "}");
+		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+		IASTStatement[] stmts = ((IASTCompoundStatement) func.getBody()).getStatements();
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copyouts.get().keySet()) {
 			assertTrue(copyouts.get().get(stmt).isEmpty());
@@ -67,8 +98,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			assertTrue(copyins.get().get(stmt).isEmpty());
@@ -96,8 +128,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) {
@@ -142,8 +175,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) {
@@ -195,8 +229,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) { //copyout b, in b
@@ -259,8 +294,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) { //copyout b, in b
@@ -327,8 +363,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) { //copyout b, in b
@@ -404,8 +441,9 @@ public class CopyInferenceTests extends TestCase {
 		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
 		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
 		IASTStatement[] stmts = outer.getStatements();
-		CopyinInference copyins = new CopyinInference(stmts);
-		CopyoutInference copyouts = new CopyoutInference(stmts);
+		ArbitraryStatement root = new ArbitraryStatement();
+		CopyinInference copyins = new CopyinInference(root, stmts);
+		CopyoutInference copyouts = new CopyoutInference(root, stmts);
 		CopyInference copies = new CopyInference(copyins, copyouts);
 		for(IASTStatement stmt : copies.get().keySet()) {
 			if(stmt.equals(copies.getRoot())) {
@@ -625,6 +625,49 @@ public class CopyoutInferenceTests extends TestCase {
 		}
 	}
 	
+	public void testDeadAfterOverwrite() throws CoreException {
+		IASTTranslationUnit tu = ASTUtil.translationUnitForString(""
+                + "void main() {                        \n" //1
+                + "    int a[3] = {1, 2, 3};            \n" //2
+                + "    int b[3] = {4, 5, 6};            \n" //3
+                + "    int c;                           \n" //4
+                + "	   #pragma acc data copyin(a, b)    \n" //5
+                + "	   {                                \n" //6
+                + "        #pragma acc parallel loop    \n" //7
+                + "        for(int i = 0; i < 3; i++) { \n" //8
+                + "             a[i] = b[2];            \n" //9
+                + "             b[i] = a[2];            \n" //10
+                + "        }                            \n" //11
+                + "    }                                \n" //12
+                + "    for(int i = 0; i < 3; i++) {     \n" //13
+                + "        b[i] = 0;                    \n" //14
+                + "    }                                \n" //15
+                + "    c = a[1] + b[1];                 \n" //16
+                + "}");
+		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+		IASTCompoundStatement outer = getFirstChildCompound(func.getBody());  
+		IASTStatement[] stmts = outer.getStatements();
+		Map<IASTStatement, Set<IBinding>> copyouts = new CopyoutInference(stmts).get(); 
+		for(IASTStatement stmt : copyouts.keySet()) {
+			if(stmt instanceof ArbitraryStatement) {
+				//b is overwritten on the host before it is read, so it need not be copied out
+				assertTrue(containsBinding(copyouts, stmt, "a"));
+				assertTrue(copyouts.get(stmt).size() == 1);
+			}
+			else {
+				switch(stmt.getFileLocation().getStartingLineNumber()) {
+					case 8:
+						assertTrue(copyouts.get(stmt).isEmpty());
+						break;
+					default:
+						//we should be covering every possible case
+						assertTrue(false);
+						break;
+				}
+			}
+		}
+	}
+	
 	private boolean containsBinding(Map<IASTStatement, Set<IBinding>> copyouts, IASTStatement statement, String binding) {
 		Set<IBinding> bindings = copyouts.get(statement);
 		for(IBinding b : bindings) {
@@ -586,6 +586,41 @@ public class CreateInferenceTests extends TestCase {
 		}
 	}
 	
+	public void testDeadAfterOverwrite() throws CoreException {
+		IASTTranslationUnit tu = ASTUtil.translationUnitForString("" 
+				+ "void main() {                        \n" // 1
+				+ "    int a[3];                        \n" // 2
+				+ "    int c;                           \n" // 3
+				+ "	   #pragma acc parallel loop        \n" // 4
+				+ "    for(int i = 0; i < 3; i++) {     \n" // 5
+				+ "        a[i] = i;                    \n" // 6
+				+ "    }                                \n" // 7
+				+ "    for(int i = 0; i < 3; i++) {     \n" // 8
+				+ "        a[i] = 2 * i;                \n" // 9
+				+ "    }                                \n" // 10
+				+ "    c = a[0];                        \n" // 11
+				+ "}");
+		IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+		IASTStatement[] stmts = { ((IASTCompoundStatement) func.getBody()).getStatements()[2] };
+		Map<IASTStatement, Set<IBinding>> create = new CreateInference(stmts).get();
+		for (IASTStatement stmt : create.keySet()) {
+			if (stmt instanceof ArbitraryStatement) {
+				// the values computed on the accelerator are overwritten on the host before they are read
+				assertTrue(containsBinding(create, stmt, "a"));
+			} else {
+				switch (stmt.getFileLocation().getStartingLineNumber()) {
+				case 5:
+					assertFalse(containsBinding(create, stmt, "a"));
+					break;
+				default:
+					// we should be covering every possible case
+					assertTrue(false);
+					break;
+				}
+			}
+		}
+	}
+
 	private boolean containsBinding(Map<IASTStatement, Set<IBinding>> creates, IASTStatement statement,
 			String binding) {
 		Set<IBinding> bindings = creates.get(statement);
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.DefUseChains;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ReachingDefinitionsAnalysis;
+
+import junit.framework.TestCase;
+
+public class DefUseChainsTest extends TestCase {
+
+    public void testSameResultsAsReachingDefinitions() throws Exception {
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(""
+                + "int g;                           \n" //1
+                + "void main(int n) {               \n" //2
+                + "    int a = 10;                  \n" //3
+                + "    int b[10];                   \n" //4
+                + "    for(int i = 0; i < n; i++) { \n" //5
+                + "        b[i] = a + g;            \n" //6
+                + "        if(b[i] > 5)             \n" //7
+                + "            a = b[i];            \n" //8
+                + "        else                     \n" //9
+                + "            g++;                 \n" //10
+                + "    }                            \n" //11
+                + "    a = a + b[0];                \n" //12
+                + "}");
+        IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+        ReachingDefinitionsAnalysis rda = ReachingDefinitionsAnalysis.forFunction(func);
+        DefUseChains chains = DefUseChains.forFunction(func);
+        assertSame(chains, DefUseChains.forFunction(func));
+
+        for(IASTName name : ASTUtil.find(func, IASTName.class)) {
+            assertEquals(name.toString(), rda.reachingDefinitions(name), chains.reachingDefinitions(name));
+            assertEquals(name.toString(), rda.reachedUses(name), chains.reachedUses(name));
+        }
+        for(IASTStatement stmt : ASTUtil.find(func, IASTStatement.class)) {
+            assertEquals(stmt.getRawSignature(), rda.reachingDefinitions(stmt), chains.reachingDefinitions(stmt));
+            assertEquals(stmt.getRawSignature(), rda.reachedUses(stmt), chains.reachedUses(stmt));
+            // Results for statements are remembered
+            assertSame(chains.reachingDefinitions(stmt), chains.reachingDefinitions(stmt));
+        }
+    }
+}
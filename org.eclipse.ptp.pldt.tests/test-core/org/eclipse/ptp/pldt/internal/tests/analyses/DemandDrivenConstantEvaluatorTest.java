@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.DemandDrivenConstantEvaluator;
+
+import junit.framework.TestCase;
+
+public class DemandDrivenConstantEvaluatorTest extends TestCase {
+
+    public void testSameResultsAsConstantPropagation() throws Exception {
+        String program = "void foo();\n" + //
+                "int main() {\n" + //
+                "  int n = 10, m, k = 1, *p = &k;\n" + //
+                "  double a[100];\n" + //
+                "  m = n * 2;\n" + //
+                "  if (a[0] > 5)\n" + //
+                "    n = 20;\n" + //
+                "  else\n" + //
+                "    n = 20;\n" + //
+                "  foo();\n" + //
+                "  k = k + n;\n" + //
+                "  *p = 3;\n" + //
+                "  for (int i = 0; i < n; i++) {\n" + //
+                "    a[i] = m + k;\n" + //
+                "    m += 1;\n" + //
+                "  }\n" + //
+                "  return n + m;\n" + //
+                "}";
+        IASTFunctionDefinition main = parse(program);
+        ConstantPropagation constProp = new ConstantPropagation(main);
+        DemandDrivenConstantEvaluator demand = new DemandDrivenConstantEvaluator(main, 1000);
+        for (IASTName name : ASTUtil.find(main.getBody(), IASTName.class)) {
+            assertEquals(name + " on line " + name.getFileLocation().getStartingLineNumber(),
+                    constProp.getConstantValue(name), demand.getConstantValue(name));
+        }
+    }
+
+    public void testLoopBound() throws Exception {
+        String program = "void main() {\n" + //
+                "  int a[100];\n" + //
+                "  int n = 10, m = 3;\n" + //
+                "  for (int i = 0; i < n; i++)\n" + //
+                "    a[i] = i;\n" + //
+                "  m = n + 5;\n" + //
+                "  for (int j = 0; j <= m; j++)\n" + //
+                "    a[j] = 0;\n" + //
+                "}";
+        IASTFunctionDefinition main = parse(program);
+        DemandDrivenConstantEvaluator demand = new DemandDrivenConstantEvaluator(main, 1000);
+        IASTForStatement second = ASTUtil.find(main, IASTForStatement.class).get(1);
+        assertEquals(Long.valueOf(15),
+                demand.evaluate(((IASTBinaryExpression) second.getConditionExpression()).getOperand2()));
+        assertEquals(0, demand.getFallbackCount());
+    }
+
+    public void testLoopIndexAndBoundInCondition() throws Exception {
+        String program = "void main() {\n" + //
+                "  int a[100];\n" + //
+                "  int n = 10;\n" + //
+                "  for (int i = 0; i < n; i++)\n" + //
+                "    a[i] = i;\n" + //
+                "}";
+        IASTFunctionDefinition main = parse(program);
+        DemandDrivenConstantEvaluator demand = new DemandDrivenConstantEvaluator(main, 1000);
+        IASTBinaryExpression cond = (IASTBinaryExpression) ASTUtil.findFirst(main, IASTForStatement.class)
+                .getConditionExpression();
+        assertNull(demand.evaluate(cond.getOperand1()));
+        assertEquals(Long.valueOf(10), demand.evaluate(cond.getOperand2()));
+        assertNull(demand.evaluate(cond));
+        assertEquals(0, demand.getFallbackCount());
+    }
+
+    public void testCyclicSliceIsNotConstant() throws Exception {
+        String program = "void main() {\n" + //
+                "  int s = 0;\n" + //
+                "  for (int i = 0; i < 10; i++)\n" + //
+                "    s += 2;\n" + //
+                "  s;\n" + //
+                "}";
+        IASTFunctionDefinition main = parse(program);
+        DemandDrivenConstantEvaluator demand = new DemandDrivenConstantEvaluator(main, 1000);
+        IASTName s = ASTUtil.find(main, IASTName.class).get(ASTUtil.find(main, IASTName.class).size() - 1);
+        assertEquals("s", s.toString());
+        assertNull(demand.getConstantValue(s));
+        assertEquals(0, demand.getFallbackCount());
+    }
+
+    public void testBudget() throws Exception {
+        StringBuilder program = new StringBuilder("void main() {\n  int n = 7, x = 0;\n");
+        for (int i = 0; i < 100; i++) {
+            program.append("  x = " + i + ";\n");
+        }
+        program.append("  n;\n}");
+        IASTFunctionDefinition main = parse(program.toString());
+        IASTName n = ASTUtil.find(main, IASTName.class).get(ASTUtil.find(main, IASTName.class).size() - 1);
+
+        DemandDrivenConstantEvaluator small = new DemandDrivenConstantEvaluator(main, 10);
+        assertEquals(Long.valueOf(7), small.getConstantValue(n));
+        assertEquals(1, small.getFallbackCount());
+
+        DemandDrivenConstantEvaluator large = new DemandDrivenConstantEvaluator(main, 1000);
+        assertEquals(Long.valueOf(7), large.getConstantValue(n));
+        assertEquals(0, large.getFallbackCount());
+    }
+
+    private IASTFunctionDefinition parse(String program) throws Exception {
+        IASTTranslationUnit translationUnit = ASTUtil.translationUnitForString(program);
+        return ASTUtil.findFirst(translationUnit, IASTFunctionDefinition.class);
+    }
+}
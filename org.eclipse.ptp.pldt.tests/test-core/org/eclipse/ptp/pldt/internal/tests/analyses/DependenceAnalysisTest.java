@@ -14,13 +14,20 @@ package org.eclipse.ptp.pldt.internal.tests.analyses;
 import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
 import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ControlFlowGraphBuilder;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DataDependence;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceAnalysis;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestFailure;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester;
 
 import junit.framework.TestCase;
 
@@ -240,6 +247,146 @@ public class DependenceAnalysisTest extends TestCase {
         }
     }
 
+    public void testManyDistinctArrays() throws Exception {
+        // Accesses are bucketed by variable, so accesses to different arrays are never paired
+        final int numArrays = 40;
+        StringBuilder decl = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        String[] expected = new String[4 * numArrays];
+        for (int k = 0; k < numArrays; k++) {
+            decl.append(k == 0 ? "  int " : ", ").append("a").append(k).append("[10]");
+            body.append("    a").append(k).append("[i] = a").append(k).append("[i] + 1;\n");
+            int line = 4 + k;
+            expected[4 * k] = "FLOW 2 -> " + line + " []";
+            expected[4 * k + 1] = "OUTPUT 2 -> " + line + " []";
+            expected[4 * k + 2] = "FLOW " + line + " -> " + line + " [=]";
+            expected[4 * k + 3] = "ANTI " + line + " -> " + line + " [=]";
+        }
+        IASTStatement stmt = ASTUtil.parseStatement("{\n" +
+                /* 2 */ decl + ";\n" +
+                /* 3 */ "  for (int i = 0; i < 10; i++) {\n" +
+                /* 4.. */ body +
+                "  }\n" +
+                "}");
+        assertDependencesEqual(expected, stmt);
+    }
+
+    public void testParallelDependenceTesting() throws Exception {
+        IASTStatement stmt = ASTUtil.parseStatement("{\n" +
+                /* 2 */ "  int a[10][10], b[10][10], c[10];\n" +
+                /* 3 */ "  for (int i = 1; i < 10; i++) {\n" +
+                /* 4 */ "    for (int j = 1; j < 10; j++) {\n" +
+                /* 5 */ "      a[i][j] = a[i-1][j] + a[i][j-1];\n" +
+                /* 6 */ "      b[i][j] = b[j][i] + a[i-1][j-1];\n" +
+                /* 7 */ "      c[i] = c[i-1] + b[i][j];\n" +
+                /* 8 */ "      a[j][i] = c[j] + b[i-1][j+1];\n" +
+                /* 9 */ "    }\n" +
+                /* 10 */ "  }\n" +
+                /* 11 */ "}");
+        TreeSet<String> serial = new TreeSet<String>();
+        for (DataDependence dep : analyzeDependences(stmt))
+            serial.add(dep.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 10; run++) {
+                TreeSet<String> parallel = new TreeSet<String>();
+                for (DataDependence dep : new DependenceAnalysis(new SubscriptDependenceTester(), pool,
+                        new NullProgressMonitor(), stmt).getDependences())
+                    parallel.add(dep.toString());
+                assertEquals(stringify(serial), stringify(parallel));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Records the work reported to it, and cancels itself after a given number of dependence tests */
+    private static final class RecordingProgressMonitor extends NullProgressMonitor {
+        int totalWork = -1;
+        int worked = 0;
+        int workedBeforeFirstTest = -1;
+        int testsBeforeCancel = Integer.MAX_VALUE;
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+            if (this.totalWork < 0) {
+                this.totalWork = totalWork;
+            }
+        }
+
+        @Override
+        public void worked(int work) {
+            worked += work;
+        }
+
+        synchronized void testStarted() {
+            if (workedBeforeFirstTest < 0) {
+                workedBeforeFirstTest = worked;
+            }
+            if (--testsBeforeCancel <= 0) {
+                setCanceled(true);
+            }
+        }
+
+        IDependenceTester createTester() {
+            final IDependenceTester tester = new SubscriptDependenceTester();
+            return new IDependenceTester() {
+                @Override
+                public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
+                        int[][] readCoefficients, int numScalars, Direction[] direction) {
+                    testStarted();
+                    return tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars,
+                            direction);
+                }
+            };
+        }
+    }
+
+    /** @return the statements in the body of the first loop in the given statement, as ForLoopCheck analyzes them */
+    private static IASTStatement[] parseLoopBody(String stmt) throws Exception {
+        IASTForStatement loop = ASTUtil.find(ASTUtil.parseStatement(stmt), IASTForStatement.class).get(0);
+        return ASTUtil.getStatementsIfCompound(loop.getBody());
+    }
+
+    public void testProgressIsReportedAsTestsComplete() throws Exception {
+        // Every pair is a pair of array accesses, so no work is done until the dependence tests run
+        IASTStatement[] body = parseLoopBody(
+                "{ int a[10]; for (int i = 1; i < 9; i++) { a[i] = a[i-1] + a[i+1]; } }");
+        for (ForkJoinPool pool : new ForkJoinPool[] { null, new ForkJoinPool(2) }) {
+            try {
+                RecordingProgressMonitor monitor = new RecordingProgressMonitor();
+                new DependenceAnalysis(monitor.createTester(), pool, monitor, body);
+                assertEquals(0, monitor.workedBeforeFirstTest);
+                assertTrue(monitor.totalWork > 0);
+                assertEquals(monitor.totalWork, monitor.worked);
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    public void testCancelDuringDependenceTests() throws Exception {
+        IASTStatement[] body = parseLoopBody(
+                "{ int a[10]; for (int i = 1; i < 9; i++) { a[i] = a[i-1] + a[i+1]; } }");
+        for (ForkJoinPool pool : new ForkJoinPool[] { null, new ForkJoinPool(2) }) {
+            RecordingProgressMonitor monitor = new RecordingProgressMonitor();
+            monitor.testsBeforeCancel = 1;
+            try {
+                new DependenceAnalysis(monitor.createTester(), pool, monitor, body);
+                fail();
+            } catch (OperationCanceledException e) {
+                // Expected
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
     public void testFabsFunctionCall() throws Exception {
         IASTStatement stmt = ASTUtil.parseStatement("{\n" +
                 /* 2 */ "  double two, negtwo;\n" +
@@ -336,6 +483,29 @@ public class DependenceAnalysisTest extends TestCase {
         assertDependencesEqual(expected, stmt);
     }
 
+    public void testControlFlowGraphBuiltOncePerFunction() throws Exception {
+        IASTStatement stmt = ASTUtil.parseStatement("{\n" +
+                /* 2 */ "  int n = 10, a[10][10], b[10][10];\n" +
+                /* 3 */ "  for (int i = 0; i < n; i++) {\n" +
+                /* 4 */ "    for (int j = 1; j < n; j++) {\n" +
+                /* 5 */ "      a[i][j] = a[i][j - 1] + b[i][j];\n" +
+                /* 6 */ "      b[i][j] = a[i][j] + b[i][j - 1];\n" +
+                /* 7 */ "    }\n" +
+                /* 8 */ "  }\n" +
+                /* 9 */ "}");
+
+        // Loop bounds are queried for every pair of array accesses, but constant propagation
+        // (and hence the control flow graph) should be computed only once for the enclosing function
+        int before = ControlFlowGraphBuilder.getNumberOfGraphsBuilt();
+        analyzeDependences(stmt);
+        assertEquals(1, ControlFlowGraphBuilder.getNumberOfGraphsBuilt() - before);
+
+        // A second run on the same (unmodified) function should reuse the previous results
+        before = ControlFlowGraphBuilder.getNumberOfGraphsBuilt();
+        analyzeDependences(stmt);
+        assertEquals(0, ControlFlowGraphBuilder.getNumberOfGraphsBuilt() - before);
+    }
+
     private void assertDependencesEqual(String[] expectedStrings, IASTStatement stmt) throws DependenceTestFailure {
         TreeSet<String> expected = new TreeSet<String>(Arrays.asList(expectedStrings));
 
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DataDependence;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceAnalysis;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DependenceTestPool;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.transformations.ForLoopCheck;
+import org.eclipse.ptp.pldt.openacc.internal.core.transformations.RefactoringParams;
+
+import junit.framework.TestCase;
+
+public class DependenceTestPoolTest extends TestCase {
+
+    /** Records the dependences found by a ForLoopCheck and the pools in which its dependence tests ran */
+    private static final class RecordingCheck extends ForLoopCheck<RefactoringParams> {
+        final Set<ForkJoinPool> pools = Collections.synchronizedSet(new HashSet<ForkJoinPool>());
+        final Set<Thread> callers = Collections.synchronizedSet(new HashSet<Thread>());
+        final TreeSet<String> dependences = new TreeSet<String>();
+
+        RecordingCheck(IASTForStatement loop) {
+            super(new RefactoringStatus(), loop);
+        }
+
+        @Override
+        protected IDependenceTester createDependenceTester() {
+            final IDependenceTester tester = new SubscriptDependenceTester();
+            return new IDependenceTester() {
+                @Override
+                public boolean test(int[] lowerBounds, int[] upperBounds, int[][] writeCoefficients,
+                        int[][] readCoefficients, int numScalars, Direction[] direction) {
+                    Thread thread = Thread.currentThread();
+                    if (thread instanceof ForkJoinWorkerThread) {
+                        pools.add(((ForkJoinWorkerThread) thread).getPool());
+                    } else {
+                        callers.add(thread);
+                    }
+                    return tester.test(lowerBounds, upperBounds, writeCoefficients, readCoefficients, numScalars,
+                            direction);
+                }
+            };
+        }
+
+        @Override
+        protected void doDependenceCheck(DependenceAnalysis dep) {
+            for (DataDependence d : dep.getDependences()) {
+                dependences.add(d.toString());
+            }
+        }
+    }
+
+    private IASTForStatement loop;
+
+    @Override
+    protected void setUp() throws Exception {
+        loop = ASTUtil.find(ASTUtil.parseStatement("{\n" + //
+                "  int a[10][10], c[10];\n" + //
+                "  for (int i = 1; i < 10; i++) {\n" + //
+                "    for (int j = 1; j < 10; j++) {\n" + //
+                "      a[i][j] = a[i-1][j] + a[i][j-1];\n" + //
+                "      c[i] = c[i-1] + a[j][i];\n" + //
+                "    }\n" + //
+                "  }\n" + //
+                "}"), IASTForStatement.class).get(0);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        DependenceTestPool.shutdown();
+    }
+
+    public void testDisabledByDefault() {
+        assertNull(DependenceTestPool.get());
+        RecordingCheck check = new RecordingCheck(loop);
+        check.dependenceCheck(new NullProgressMonitor());
+        assertTrue(check.pools.isEmpty());
+        assertEquals(Collections.singleton(Thread.currentThread()), check.callers);
+    }
+
+    public void testForLoopCheckUsesSharedPool() {
+        RecordingCheck serial = new RecordingCheck(loop);
+        serial.dependenceCheck(new NullProgressMonitor());
+
+        DependenceTestPool.setParallelism(2);
+        ForkJoinPool pool = DependenceTestPool.get();
+        assertNotNull(pool);
+        assertTrue(pool.getParallelism() <= Runtime.getRuntime().availableProcessors());
+
+        RecordingCheck parallel = new RecordingCheck(loop);
+        parallel.dependenceCheck(new NullProgressMonitor());
+        assertEquals(Collections.singleton(pool), parallel.pools);
+        assertEquals(serial.dependences, parallel.dependences);
+
+        // Every check shares the same pool
+        RecordingCheck another = new RecordingCheck(loop);
+        another.dependenceCheck(new NullProgressMonitor());
+        assertEquals(Collections.singleton(pool), another.pools);
+    }
+
+    public void testSetParallelism() {
+        DependenceTestPool.setParallelism(2);
+        ForkJoinPool pool = DependenceTestPool.get();
+        DependenceTestPool.setParallelism(2);
+        assertSame(pool, DependenceTestPool.get());
+
+        DependenceTestPool.setParallelism(1);
+        assertNull(DependenceTestPool.get());
+        assertTrue(pool.isShutdown());
+
+        DependenceTestPool.setParallelism(Integer.MAX_VALUE);
+        assertEquals(Runtime.getRuntime().availableProcessors(), DependenceTestPool.get().getParallelism());
+
+        try {
+            DependenceTestPool.setParallelism(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
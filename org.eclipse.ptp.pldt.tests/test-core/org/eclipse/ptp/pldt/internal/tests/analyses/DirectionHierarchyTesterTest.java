@@ -10,11 +10,16 @@
  *******************************************************************************/
 package org.eclipse.ptp.pldt.internal.tests.analyses;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
 import org.eclipse.ptp.pldt.openacc.internal.core.dependence.DirectionHierarchyTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.IDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.PackedDirectionVector;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -100,6 +105,78 @@ public class DirectionHierarchyTesterTest {
         setupAndAssertSubsetAndSize(lb, ub, wc, rc, null, 0);
     }
     
+    @Test
+    public void testPackedDirectionVector() {
+        Direction[] dv = { Direction.LT, Direction.EQ, Direction.GT, Direction.ANY };
+        long packed = PackedDirectionVector.pack(dv);
+        Assert.assertArrayEquals(dv, PackedDirectionVector.unpack(packed, dv.length));
+        Assert.assertEquals("< = > *", PackedDirectionVector.toString(packed, dv.length));
+        Assert.assertEquals(0L, PackedDirectionVector.pack(new Direction[] { Direction.ANY, Direction.ANY }));
+        Assert.assertEquals(Direction.EQ, PackedDirectionVector.get(
+                PackedDirectionVector.with(packed, 2, Direction.EQ), 2));
+    }
+
+    @Test
+    public void testSameResultsAsUnprunedSearch() {
+        IDependenceTester fm = new FourierMotzkinDependenceTester();
+        Random random = new Random(20160705L);
+        for (int trial = 0; trial < 300; trial++) {
+            int numLoops = 1 + random.nextInt(3);
+            int numDims = 1 + random.nextInt(2);
+            int[] lb = new int[numLoops];
+            int[] ub = new int[numLoops];
+            for (int k = 0; k < numLoops; k++) {
+                ub[k] = 1 + random.nextInt(20);
+            }
+            int[][] wc = new int[numDims][1 + numLoops];
+            int[][] rc = new int[numDims][1 + numLoops];
+            for (int dim = 0; dim < numDims; dim++) {
+                for (int j = 0; j <= numLoops; j++) {
+                    wc[dim][j] = random.nextInt(4) - 1;
+                    rc[dim][j] = random.nextInt(4) - 1;
+                }
+            }
+
+            Set<String> expected = new HashSet<String>();
+            Direction[] all = new Direction[numLoops];
+            Arrays.fill(all, Direction.ANY);
+            unprunedSearch(fm, lb, ub, wc, rc, all, expected);
+
+            Set<Direction[]> actual = new DirectionHierarchyTester(fm, lb, ub, wc, rc, 0)
+                    .getPossibleDependenceDirections();
+            Assert.assertEquals("Trial " + trial, expected, getStringsFromDVs(actual));
+            Assert.assertEquals(expected.size(), actual.size());
+        }
+    }
+
+    /**
+     * Reference implementation: tests every vector in the hierarchy below a dependent vector, then discards vectors
+     * whose first non-= direction is >
+     */
+    private void unprunedSearch(IDependenceTester tester, int[] lb, int[] ub, int[][] wc, int[][] rc, Direction[] dv,
+            Set<String> results) {
+        if (!tester.test(lb, ub, wc, rc, 0, dv)) {
+            return;
+        }
+        int firstAny = Arrays.asList(dv).indexOf(Direction.ANY);
+        if (firstAny < 0) {
+            for (Direction d : dv) {
+                if (d == Direction.GT) {
+                    return;
+                } else if (d != Direction.EQ) {
+                    break;
+                }
+            }
+            results.add(stringifyDV(dv));
+            return;
+        }
+        for (Direction d : new Direction[] { Direction.LT, Direction.GT, Direction.EQ }) {
+            Direction[] child = dv.clone();
+            child[firstAny] = d;
+            unprunedSearch(tester, lb, ub, wc, rc, child, results);
+        }
+    }
+
     private void setupAndAssertSubsetAndSize(int[] lb, int[] ub, int[][] wc, int[][] rc, Direction[] expected, int expectedSize) {
         DirectionHierarchyTester tester = new DirectionHierarchyTester(lb, ub, wc, rc, 0);
         Set<Direction[]> actual = tester.getPossibleDependenceDirections();
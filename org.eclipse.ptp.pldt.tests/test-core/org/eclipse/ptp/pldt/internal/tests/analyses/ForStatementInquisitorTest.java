@@ -23,7 +23,6 @@ import org.eclipse.ptp.pldt.openacc.internal.core.ForStatementInquisitor;
 import org.junit.Assert;
 import org.junit.Test;
 
-//TODO add tests for getLowerBound
 //TODO add more code coverage
 public class ForStatementInquisitorTest {
 
@@ -52,6 +51,39 @@ public class ForStatementInquisitorTest {
         Assert.assertFalse(inq.isCountedLoop());
     }
     
+    @Test
+    public void test_isCountedLoopVariants() {
+        Assert.assertTrue(getInq("for(i = 0; i <= n; i += 2);").isCountedLoop());
+        Assert.assertTrue(getInq("for(long i = 0; i < s.n; i = i + 1);").isCountedLoop());
+        Assert.assertTrue(getInq("for(uint64_t i = 0; i < n; i++);").isCountedLoop());
+    }
+    
+    @Test
+    public void test_isNotCountedLoopVariants() {
+        Assert.assertFalse(getInq("for(i = 0; i > 10; i++);").isCountedLoop());
+        Assert.assertFalse(getInq("for(i = 0; i < 10; ++i);").isCountedLoop());
+        Assert.assertFalse(getInq("for(i = 0; j < 10; j++);").isCountedLoop());
+        Assert.assertFalse(getInq("for(i = 0; i < a[0]; i++);").isCountedLoop());
+    }
+    
+    @Test
+    public void test_getIterationFactor() {
+        Assert.assertEquals(1, getInq(basic).getIterationFactor());
+        Assert.assertEquals(3, getInq("for(i = 0; i < 10; i += 3);").getIterationFactor());
+        Assert.assertEquals(4, getInq("for(i = 0; i < 10; i = i + 4);").getIterationFactor());
+    }
+    
+    @Test
+    public void test_getLowerBound() {
+        Assert.assertEquals(2, getInq("for(int i = 2; i < 10; i++);").getLowerBound().longValue());
+        Assert.assertEquals(3, getInq("for(i = 3; i < 10; i++);").getLowerBound().longValue());
+    }
+    
+    @Test
+    public void test_getInclusiveUpperBoundLessEqual() {
+        Assert.assertEquals(10, getInq("for(int i = 0; i <= 10; i++);").getInclusiveUpperBound().longValue());
+    }
+    
     @Test
     public void test_getIndexVariable() {
         ForStatementInquisitor inq = getInq(basic);
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.Random;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinEliminator;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Matrix;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.PackedFourierMotzkinEliminator;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.PackedMatrix;
+
+/**
+ * Compares the running time of {@link FourierMotzkinEliminator} and {@link PackedFourierMotzkinEliminator} on the
+ * inputs from {@link FourierMotzkinTests} and on randomly generated systems.
+ * <p>
+ * This is not a unit test; run it as a Java application. Each measurement is preceded by a warm-up phase so that both
+ * implementations are JIT-compiled before they are timed.
+ */
+public class FourierMotzkinBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5000;
+
+    private static final int MEASURED_ITERATIONS = 20000;
+
+    /** Prevents the JIT compiler from eliminating the benchmarked code */
+    private static int sink;
+
+    public static void main(String[] args) {
+        double[][][] inputs = PackedFourierMotzkinEliminatorTest.FOURIER_MOTZKIN_TESTS_INPUTS;
+        run("FourierMotzkinTests inputs", inputs);
+
+        Random random = new Random(20160620L);
+        double[][][] randomInputs = new double[50][][];
+        for (int i = 0; i < randomInputs.length; i++) {
+            randomInputs[i] = PackedFourierMotzkinEliminatorTest.randomSystem(random);
+        }
+        run("Random systems", randomInputs);
+    }
+
+    private static void run(String description, double[][][] inputs) {
+        Matrix[] matrices = new Matrix[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            matrices[i] = PackedFourierMotzkinEliminatorTest.toMatrix(inputs[i]);
+        }
+
+        timeMatrix(matrices, WARMUP_ITERATIONS);
+        timePacked(matrices, WARMUP_ITERATIONS);
+        long matrixNanos = timeMatrix(matrices, MEASURED_ITERATIONS);
+        long packedNanos = timePacked(matrices, MEASURED_ITERATIONS);
+
+        long perSystem = (long) MEASURED_ITERATIONS * inputs.length;
+        System.out.printf("%s (%d systems):%n", description, inputs.length);
+        System.out.printf("  FourierMotzkinEliminator:       %8.1f ns/system%n", (double) matrixNanos / perSystem);
+        System.out.printf("  PackedFourierMotzkinEliminator: %8.1f ns/system%n", (double) packedNanos / perSystem);
+        System.out.printf("  Speedup: %.2fx%n", (double) matrixNanos / packedNanos);
+    }
+
+    private static long timeMatrix(Matrix[] matrices, int iterations) {
+        FourierMotzkinEliminator eliminator = new FourierMotzkinEliminator();
+        long start = System.nanoTime();
+        for (int it = 0; it < iterations; it++) {
+            for (Matrix m : matrices) {
+                // eliminateForRealSolutions modifies its argument
+                if (eliminator.eliminateForRealSolutions(m.cloneMatrix())) {
+                    sink++;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timePacked(Matrix[] matrices, int iterations) {
+        PackedMatrix packed = new PackedMatrix(0);
+        PackedFourierMotzkinEliminator eliminator = new PackedFourierMotzkinEliminator();
+        long start = System.nanoTime();
+        for (int it = 0; it < iterations; it++) {
+            for (Matrix m : matrices) {
+                packed.load(m);
+                if (eliminator.eliminateForRealSolutions(packed)) {
+                    sink++;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -457,6 +457,39 @@ public class FourierMotzkinTests extends TestCase
         assertEquals(m.getValueAtMatrixIndex(1, 2), 2.0);
     }
 
+    public void testDeleteAdjacentRowsOfAllZeroes()
+    {
+        Matrix m = new Matrix();
+        double[] row1 = { 0, 0, 0 };
+        double[] row2 = { 0, 0, 0 };
+        double[] row3 = { 0, 1, 2 };
+        m.addRowAtIndex(0, row1);
+        m.addRowAtIndex(1, row2);
+        m.addRowAtIndex(2, row3);
+        m = e.deleteRowsOfAllZeroes(m);
+        assertEquals(1, m.getNumRows());
+        assertEquals(m.getValueAtMatrixIndex(0, 1), 1.0);
+    }
+
+    public void testDeleteParallelRows()
+    {
+        Matrix m = new Matrix();
+        double[] row1 = { 2, 4, 10 };
+        double[] row2 = { 1, 2, 3 };
+        double[] row3 = { -1, 0, 5 };
+        double[] row4 = { -3, 0, 15 };
+        m.addRowAtIndex(0, row1);
+        m.addRowAtIndex(1, row2);
+        m.addRowAtIndex(2, row3);
+        m.addRowAtIndex(3, row4);
+        m = e.deleteParallelRows(m);
+        assertEquals(2, m.getNumRows());
+        assertEquals(m.getValueAtMatrixIndex(0, 1), 2.0);
+        assertEquals(m.getValueAtMatrixIndex(0, 2), 3.0);
+        assertEquals(m.getValueAtMatrixIndex(1, 0), -1.0);
+        assertEquals(m.getValueAtMatrixIndex(1, 2), 5.0);
+    }
+
     public void testIsInconsistent()
     {
         double[] ar1 = { 1, 2, 3, 4 };
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.Lexer;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser.Terminal;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.Token;
+
+import junit.framework.TestCase;
+
+public class LexerTest extends TestCase {
+
+    private static final String[] PRAGMAS = { //
+            "#pragma acc parallel loop", //
+            "  #pragma acc data copyin(A[0:n*n], x[0:n]) /* comment */ create(tmp[0:n]), copyout(ya[0:n])  ", //
+            "#pragma acc loop reduction(+:t1,t2) // comment", //
+            "#pragma acc kernels if(a->b != 1.5e3 && c[i] <= 'x')\t", //
+            "   ", //
+            "", //
+    };
+
+    private static List<Token> tokens(Lexer lexer) throws Exception {
+        List<Token> result = new ArrayList<Token>();
+        Token tok;
+        do {
+            tok = lexer.getNextToken();
+            result.add(tok);
+        } while (tok.getTerminal() != Terminal.END_OF_INPUT);
+        return result;
+    }
+
+    private static void assertSameTokens(List<Token> expected, List<Token> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Token e = expected.get(i);
+            Token a = actual.get(i);
+            assertEquals(e.getTerminal(), a.getTerminal());
+            assertEquals(e.getText(), a.getText());
+            assertEquals(e.getWhiteBefore(), a.getWhiteBefore());
+            assertEquals(e.getWhiteAfter(), a.getWhiteAfter());
+            assertEquals(e.getOffset(), a.getOffset());
+            assertEquals(e.getLength(), a.getLength());
+        }
+    }
+
+    public void testSameTokensAsReader() throws Exception {
+        for (String pragma : PRAGMAS) {
+            assertSameTokens(tokens(new Lexer(new StringReader(pragma))), tokens(new Lexer(pragma)));
+            assertSameTokens(tokens(new Lexer(new StringReader(pragma))), tokens(new Lexer(pragma.toCharArray())));
+        }
+    }
+
+    public void testSlice() throws Exception {
+        String source = "int x;\n#pragma acc loop gang\nfor (;;);";
+        int start = source.indexOf('#');
+        int end = source.indexOf('\n', start);
+        Lexer lexer = new Lexer(source, start, end);
+        assertEquals(Terminal.PRAGMA_ACC, lexer.nextTerminal());
+        assertEquals(start, lexer.getTokenStart());
+        assertEquals("#pragma acc", source.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+        lexer.nextTerminal();
+        assertEquals("loop", source.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+        lexer.nextTerminal();
+        assertEquals("gang", source.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+        assertEquals(end, lexer.getTokenEnd());
+        assertEquals(Terminal.END_OF_INPUT, lexer.nextTerminal());
+        assertEquals(Terminal.END_OF_INPUT, lexer.nextTerminal());
+
+        List<Token> tokens = tokens(new Lexer(source.toCharArray(), start, end));
+        assertEquals(4, tokens.size());
+        assertEquals("loop", tokens.get(1).getText());
+        assertEquals(" ", tokens.get(1).getWhiteBefore());
+        assertEquals(start + "#pragma acc ".length(), tokens.get(1).getOffset());
+    }
+
+    public void testParseSlice() throws Exception {
+        String source = "x;\n#pragma acc data copy(a[0:n]) create(b)\n";
+        int start = source.indexOf('#');
+        int end = source.length() - 1;
+        IAccConstruct construct = new OpenACCParser().parse(source, start, end);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        construct.printOn(new PrintStream(out));
+        assertEquals(source.substring(start, end), out.toString());
+    }
+
+    public void testSyntaxErrorPosition() throws Exception {
+        String pragma = "#pragma acc data\n  copy(a) $";
+        String expected = null;
+        try {
+            tokens(new Lexer(new StringReader(pragma)));
+            fail();
+        } catch (Exception e) {
+            expected = e.getMessage();
+        }
+        try {
+            tokens(new Lexer(pragma));
+            fail();
+        } catch (Exception e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+}
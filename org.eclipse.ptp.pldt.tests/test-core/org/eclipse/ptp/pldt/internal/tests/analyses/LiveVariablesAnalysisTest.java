@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.List;
+
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.LiveVariablesAnalysis;
+
+import junit.framework.TestCase;
+
+public class LiveVariablesAnalysisTest extends TestCase {
+
+    private IASTFunctionDefinition func;
+    private IASTStatement[] stmts;
+    private LiveVariablesAnalysis liveness;
+
+    private void analyze(String program) throws Exception {
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(program);
+        List<IASTFunctionDefinition> functions = ASTUtil.find(tu, IASTFunctionDefinition.class);
+        func = functions.get(functions.size() - 1);
+        stmts = ((IASTCompoundStatement) func.getBody()).getStatements();
+        liveness = new LiveVariablesAnalysis(func);
+    }
+
+    private IBinding var(String name) {
+        for (IASTName n : ASTUtil.find(func, IASTName.class)) {
+            if (n.toString().equals(name)) {
+                return n.resolveBinding();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    public void testScalars() throws Exception {
+        analyze("int main() {\n" + //
+                "  int x = 1, y = 2, z;\n" + // 0
+                "  z = x;\n" + // 1
+                "  x = 3;\n" + // 2
+                "  y += z;\n" + // 3
+                "  return y;\n" + // 4
+                "}");
+        assertTrue(liveness.isLiveAfter(stmts[0], var("x")));
+        assertTrue(liveness.isLiveAfter(stmts[0], var("y")));
+        assertFalse(liveness.isLiveAfter(stmts[0], var("z")));
+        assertFalse(liveness.isLiveAfter(stmts[1], var("x")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("z")));
+        assertFalse(liveness.isLiveAfter(stmts[2], var("x")));
+        assertTrue(liveness.isLiveAfter(stmts[2], var("y")));
+        assertTrue(liveness.isLiveAfter(stmts[3], var("y")));
+        assertFalse(liveness.isLiveAfter(stmts[3], var("z")));
+        assertTrue(liveness.isLiveOnEntry(stmts[3], var("y")));
+        assertFalse(liveness.isLiveOnEntry(stmts[4], var("x")));
+    }
+
+    public void testGlobalsAndParametersLiveOnExit() throws Exception {
+        analyze("int g;\n" + //
+                "void f(int *p, int n) {\n" + //
+                "  int t;\n" + // 0
+                "  g = 1;\n" + // 1
+                "  n = 2;\n" + // 2
+                "  t = 3;\n" + // 3
+                "}");
+        assertTrue(liveness.isLiveAfter(stmts[1], var("g")));
+        assertTrue(liveness.isLiveAfter(stmts[2], var("n")));
+        assertFalse(liveness.isLiveAfter(stmts[3], var("t")));
+    }
+
+    public void testLoop() throws Exception {
+        analyze("void f() {\n" + //
+                "  int s = 0, k = 0;\n" + // 0
+                "  for (int i = 0; i < 10; i++) {\n" + // 1
+                "    k = i;\n" + //
+                "    s = s + k;\n" + //
+                "  }\n" + //
+                "  s;\n" + // 2
+                "}");
+        IASTStatement body = ASTUtil.findFirst(stmts[1], IASTCompoundStatement.class);
+        IASTStatement kAssignment = ((IASTCompoundStatement) body).getStatements()[0];
+        IASTStatement sAssignment = ((IASTCompoundStatement) body).getStatements()[1];
+        // s is read on the next iteration and after the loop; k is always reassigned first
+        assertTrue(liveness.isLiveAfter(sAssignment, var("s")));
+        assertFalse(liveness.isLiveAfter(sAssignment, var("k")));
+        assertTrue(liveness.isLiveAfter(kAssignment, var("k")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("s")));
+        assertFalse(liveness.isLiveAfter(stmts[1], var("k")));
+    }
+
+    public void testArrayElementWriteDoesNotKill() throws Exception {
+        analyze("void f(int n) {\n" + //
+                "  int a[10], b[10], c;\n" + // 0
+                "  a[0] = 1;\n" + // 1
+                "  b[n] = 2;\n" + // 2
+                "  c = a[1] + b[1];\n" + // 3
+                "}");
+        assertTrue(liveness.isLiveAfter(stmts[1], var("a")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("b")));
+    }
+
+    public void testArrayOverwrittenByLoop() throws Exception {
+        analyze("void f(int n) {\n" + //
+                "  double a[100], b[100], c[100], d[100], e[100], s;\n" + // 0
+                "  a[0] = b[0] = c[0] = d[0] = e[0] = 1;\n" + // 1
+                "  for (int i = 0; i < 100; i++) {\n" + // 2
+                "    a[i] = 0;\n" + //
+                "    if (i > 50) b[i] = 0;\n" + //
+                "    c[i] = c[i] + 1;\n" + //
+                "  }\n" + //
+                "  for (int i = 0; i < 50; i++)\n" + // 3
+                "    d[i] = 0;\n" + //
+                "  for (int i = 0; i < n; i++)\n" + // 4
+                "    e[i] = 0;\n" + //
+                "  s = a[1] + b[1] + c[1] + d[1] + e[1];\n" + // 5
+                "}");
+        // Only a is certainly overwritten before it is read
+        assertFalse(liveness.isLiveAfter(stmts[1], var("a")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("b")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("c")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("d")));
+        assertTrue(liveness.isLiveAfter(stmts[1], var("e")));
+    }
+
+    public void testEscapingArrayIsNotOverwritten() throws Exception {
+        analyze("void g(double *p);\n" + //
+                "void f() {\n" + //
+                "  double a[10], *p = a, s;\n" + // 0
+                "  a[0] = 1;\n" + // 1
+                "  for (int i = 0; i < 10; i++)\n" + // 2
+                "    a[i] = 0;\n" + //
+                "  g(p);\n" + // 3
+                "  s = a[1];\n" + // 4
+                "}");
+        // The loop overwrites a, but since a's address is taken, it is not treated as overwriting it
+        assertTrue(liveness.isLiveAfter(stmts[1], var("a")));
+    }
+}
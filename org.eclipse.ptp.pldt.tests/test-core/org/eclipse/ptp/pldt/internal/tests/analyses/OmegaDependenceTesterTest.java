@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.CascadingDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Matrix;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.OmegaDependenceTester;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link OmegaDependenceTester} class
+ */
+public class OmegaDependenceTesterTest {
+
+    private final OmegaDependenceTester omega = new OmegaDependenceTester();
+
+    private final FourierMotzkinDependenceTester fourierMotzkin = new FourierMotzkinDependenceTester();
+
+    @Test
+    public void testEvenOddSubscripts() {
+        // for (i = 0; i <= 100; i++) a[2*i] = a[2*i+1];
+        int[] lb = { 0 };
+        int[] ub = { 100 };
+        int[][] wc = { { 0, 2 } };
+        int[][] rc = { { 1, 2 } };
+        Direction[] any = { Direction.ANY };
+        Assert.assertTrue(fourierMotzkin.test(lb, ub, wc, rc, 0, any));
+        Assert.assertFalse(omega.test(lb, ub, wc, rc, 0, any));
+        Assert.assertFalse(CascadingDependenceTester.realThenExact().test(lb, ub, wc, rc, 0, any));
+    }
+
+    @Test
+    public void testLoopCarriedDependence() {
+        // for (i = 1; i <= 100; i++) a[i] = a[i-1];
+        int[] lb = { 1 };
+        int[] ub = { 100 };
+        int[][] wc = { { 0, 1 } };
+        int[][] rc = { { -1, 1 } };
+        Assert.assertTrue(omega.test(lb, ub, wc, rc, 0, new Direction[] { Direction.ANY }));
+        Assert.assertTrue(omega.test(lb, ub, wc, rc, 0, new Direction[] { Direction.LT }));
+        Assert.assertFalse(omega.test(lb, ub, wc, rc, 0, new Direction[] { Direction.EQ }));
+        Assert.assertFalse(omega.test(lb, ub, wc, rc, 0, new Direction[] { Direction.GT }));
+    }
+
+    @Test
+    public void testCoupledSubscriptsWithScalar() {
+        // for (i...) for (j...) a[3*i + n][2*j] = a[3*i + n + 1][2*j]; -- never the same element
+        int[] lb = { 0, 0 };
+        int[] ub = { 50, 50 };
+        int[][] wc = { { 0, 3, 0, 1 }, { 0, 0, 2, 0 } };
+        int[][] rc = { { 1, 3, 0, 1 }, { 0, 0, 2, 0 } };
+        Direction[] any = { Direction.ANY, Direction.ANY };
+        Assert.assertFalse(omega.test(lb, ub, wc, rc, 1, any));
+    }
+
+    @Test
+    public void testUnknownBounds() {
+        // Unknown bounds are represented by values close to the limits of an int
+        int[] lb = { Integer.MIN_VALUE + 1 };
+        int[] ub = { Integer.MAX_VALUE - 1 };
+        int[][] wc = { { 0, 4 } };
+        int[][] rc = { { 2, 4 } };
+        Assert.assertFalse(omega.test(lb, ub, wc, rc, 0, new Direction[] { Direction.ANY }));
+        int[][] rc2 = { { 4, 4 } };
+        Assert.assertTrue(omega.test(lb, ub, wc, rc2, 0, new Direction[] { Direction.GT }));
+        Assert.assertFalse(omega.test(lb, ub, wc, rc2, 0, new Direction[] { Direction.LT }));
+    }
+
+    @Test
+    public void testPughExample() {
+        // 27 <= 11x + 13y <= 45 and -10 <= 7x - 9y <= 4 has real solutions but no integer solutions
+        Matrix m = new Matrix();
+        m.addRowAtIndex(0, new double[] { -11, -13, -27 });
+        m.addRowAtIndex(1, new double[] { 11, 13, 45 });
+        m.addRowAtIndex(2, new double[] { -7, 9, 10 });
+        m.addRowAtIndex(3, new double[] { 7, -9, 4 });
+        Assert.assertFalse(omega.hasIntegerSolution(m));
+    }
+
+    @Test
+    public void testAgreesWithEnumeration() {
+        Random random = new Random(20160518L);
+        for (int trial = 0; trial < 500; trial++) {
+            int numVars = 2 + random.nextInt(2);
+            List<double[]> rows = new ArrayList<double[]>();
+            for (int var = 0; var < numVars; var++) {
+                double[] lower = new double[numVars + 1];
+                lower[var] = -1;
+                lower[numVars] = 6;
+                rows.add(lower);
+                double[] upper = new double[numVars + 1];
+                upper[var] = 1;
+                upper[numVars] = 6;
+                rows.add(upper);
+            }
+            int numConstraints = 1 + random.nextInt(3);
+            for (int c = 0; c < numConstraints; c++) {
+                double[] row = new double[numVars + 1];
+                for (int var = 0; var < numVars; var++)
+                    row[var] = random.nextInt(11) - 5;
+                row[numVars] = random.nextInt(21) - 10;
+                rows.add(row);
+                if (random.nextBoolean()) {
+                    // Make it an equality
+                    double[] opposite = new double[numVars + 1];
+                    for (int i = 0; i <= numVars; i++)
+                        opposite[i] = -row[i];
+                    rows.add(opposite);
+                }
+            }
+
+            Matrix m = new Matrix();
+            for (double[] row : rows)
+                m.addRowAtIndex(m.getNumRows(), row);
+            Assert.assertEquals("Trial " + trial + ": " + m, hasSolutionInBox(rows, numVars, 6),
+                    omega.hasIntegerSolution(m));
+        }
+    }
+
+    private static boolean hasSolutionInBox(List<double[]> rows, int numVars, int bound) {
+        int[] x = new int[numVars];
+        for (int i = 0; i < numVars; i++)
+            x[i] = -bound;
+        while (true) {
+            boolean satisfied = true;
+            for (double[] row : rows) {
+                double lhs = 0;
+                for (int i = 0; i < numVars; i++)
+                    lhs += row[i] * x[i];
+                if (lhs > row[numVars]) {
+                    satisfied = false;
+                    break;
+                }
+            }
+            if (satisfied)
+                return true;
+
+            int i = 0;
+            while (i < numVars && x[i] == bound)
+                x[i++] = -bound;
+            if (i == numVars)
+                return false;
+            x[i]++;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.Lexer;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+
+/**
+ * Measures the time to parse every OpenACC pragma in the refactoring test code (the <code>testcode</code> directory,
+ * or the directory given as the first argument) and in {@link OpenACCParserTests}.
+ * <p>
+ * Each pragma is parsed both by a new parser reading the pragma through a <code>Reader</code>, as the parser was used
+ * before it could be reused, and by a single reused parser scanning the pragma in place. Pragmas which do not parse
+ * are skipped.
+ * <p>
+ * This is not a unit test; run it as a Java application. Each measurement is preceded by a warm-up phase so that both
+ * configurations are JIT-compiled before they are timed.
+ */
+public class OpenACCParserBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200;
+
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    /** Prevents the JIT compiler from eliminating the benchmarked code */
+    private static int sink;
+
+    public static void main(String[] args) throws Exception {
+        List<String> pragmas = new ArrayList<String>();
+        collectPragmas(new File(args.length > 0 ? args[0] : "testcode"), pragmas);
+        pragmas.addAll(Arrays.asList(new OpenACCParserTests().epccPragmas));
+
+        List<String> corpus = new ArrayList<String>();
+        OpenACCParser parser = new OpenACCParser();
+        for (String pragma : pragmas) {
+            try {
+                parser.parse(pragma);
+                corpus.add(pragma);
+            } catch (Exception e) {
+                // Skip pragmas with syntax errors
+            }
+        }
+        System.out.printf("%d pragmas (%d skipped)%n", corpus.size(), pragmas.size() - corpus.size());
+        if (corpus.isEmpty()) {
+            return;
+        }
+
+        timeFresh(corpus, WARMUP_ITERATIONS);
+        timeReused(corpus, WARMUP_ITERATIONS);
+        long freshNanos = timeFresh(corpus, MEASURED_ITERATIONS);
+        long reusedNanos = timeReused(corpus, MEASURED_ITERATIONS);
+
+        long perPragma = (long) MEASURED_ITERATIONS * corpus.size();
+        System.out.printf("  New parser, Reader:        %8.1f ns/pragma%n", (double) freshNanos / perPragma);
+        System.out.printf("  Reused parser, in place:   %8.1f ns/pragma%n", (double) reusedNanos / perPragma);
+        System.out.printf("  Speedup: %.2fx%n", (double) freshNanos / reusedNanos);
+    }
+
+    private static void collectPragmas(File file, List<String> pragmas) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            Arrays.sort(children);
+            for (File child : children) {
+                collectPragmas(child, pragmas);
+            }
+        } else if (file.getName().endsWith(".c")) {
+            BufferedReader in = new BufferedReader(new FileReader(file));
+            try {
+                StringBuilder pragma = null;
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (pragma == null && line.trim().startsWith("#pragma acc")) {
+                        pragma = new StringBuilder();
+                    }
+                    if (pragma != null) {
+                        // Join lines continued with a backslash
+                        if (line.endsWith("\\")) {
+                            pragma.append(line, 0, line.length() - 1);
+                        } else {
+                            pragmas.add(pragma.append(line).toString().trim());
+                            pragma = null;
+                        }
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    private static long timeFresh(List<String> corpus, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int it = 0; it < iterations; it++) {
+            for (String pragma : corpus) {
+                if (new OpenACCParser().parse(new Lexer(new StringReader(pragma))) != null) {
+                    sink++;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeReused(List<String> corpus, int iterations) throws Exception {
+        OpenACCParser parser = new OpenACCParser();
+        long start = System.nanoTime();
+        for (int it = 0; it < iterations; it++) {
+            for (String pragma : corpus) {
+                if (parser.parse(pragma) != null) {
+                    sink++;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccCollapseClauseNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccReductionClauseNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccWaitNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.CPrefixUnaryExpression;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.IASTNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.OpenACCParser;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.SyntaxException;
+
+import junit.framework.TestCase;
+
+public class OpenACCParserReuseTest extends TestCase {
+
+    private static String print(IASTNode node) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        node.printOn(new PrintStream(out));
+        return out.toString();
+    }
+
+    public void testInlinedSymbols() throws Exception {
+        OpenACCParser parser = new OpenACCParser();
+
+        ASTAccWaitNode wait = (ASTAccWaitNode) parser.parse("#pragma acc wait(3)");
+        assertEquals("#pragma acc wait(3)", print(wait));
+        assertEquals("3", print(wait.getWaitParameter()));
+        assertSame(wait, wait.getWaitParameter().getParent());
+
+        ASTAccLoopNode loop = (ASTAccLoopNode) parser.parse("#pragma acc loop collapse(2) reduction(max:m)");
+        ASTAccCollapseClauseNode collapse = loop.findFirst(ASTAccCollapseClauseNode.class);
+        assertEquals("2", print(collapse.getCount()));
+        ASTAccReductionClauseNode reduction = loop.findFirst(ASTAccReductionClauseNode.class);
+        assertEquals("max", reduction.getOperator().getText());
+        assertSame(reduction, reduction.getOperator().getParent());
+
+        loop = (ASTAccLoopNode) parser.parse("#pragma acc loop gang(-n)");
+        CPrefixUnaryExpression negation = loop.findFirst(CPrefixUnaryExpression.class);
+        assertEquals("-", negation.getOperator().getText());
+        assertEquals("n", print(negation.getSubexpression()));
+    }
+
+    public void testReuse() throws Exception {
+        OpenACCParser parser = new OpenACCParser();
+        for (String pragma : new OpenACCParserTests().epccPragmas) {
+            assertEquals(print(new OpenACCParser().parse(pragma)), print(parser.parse(pragma)));
+        }
+    }
+
+    public void testReuseAfterSyntaxError() throws Exception {
+        OpenACCParser parser = new OpenACCParser();
+        try {
+            parser.parse("#pragma acc data copy(a[0:n]) create(");
+            fail();
+        } catch (SyntaxException e) {
+            // Expected
+        }
+        String pragma = "#pragma acc parallel loop reduction(+:s)";
+        assertEquals(pragma, print(parser.parse(pragma)));
+    }
+}
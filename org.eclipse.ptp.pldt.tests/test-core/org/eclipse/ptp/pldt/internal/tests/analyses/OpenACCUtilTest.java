@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.List;
+
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AccConstructKind;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.OpenACCUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccDataNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccKernelsLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.ASTAccParallelLoopNode;
+import org.eclipse.ptp.pldt.openacc.internal.core.parser.IAccConstruct;
+
+import junit.framework.TestCase;
+
+public class OpenACCUtilTest extends TestCase {
+
+    private IASTTranslationUnit tu;
+    private List<IASTPreprocessorPragmaStatement> pragmas;
+    private List<IASTForStatement> loops;
+
+    @Override
+    protected void setUp() throws Exception {
+        tu = ASTUtil.translationUnitForString("void f() {\n" + //
+                "  int a[10];\n" + //
+                "#pragma acc parallel loop\n" + //
+                "  for (int i = 0; i < 10; i++) a[i] = 0;\n" + //
+                "#pragma omp parallel for\n" + //
+                "  for (int i = 0; i < 10; i++) a[i] = 1;\n" + //
+                "#pragma acc kernels loop copy(a)\n" + //
+                "  for (int i = 0; i < 10; i++) a[i] = 2;\n" + //
+                "#pragma acc data copy(\n" + //
+                "  for (int i = 0; i < 10; i++) a[i] = 3;\n" + //
+                "}\n");
+        pragmas = ASTUtil.find(tu, IASTPreprocessorPragmaStatement.class);
+        loops = ASTUtil.find(tu, IASTForStatement.class);
+        assertEquals(4, pragmas.size());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        AnalysisSession.invalidate(tu);
+    }
+
+    public void testConstructs() {
+        assertTrue(OpenACCUtil.getAccConstruct(pragmas.get(0)) instanceof ASTAccParallelLoopNode);
+        assertNull(OpenACCUtil.getAccConstruct(pragmas.get(1)));
+        assertTrue(OpenACCUtil.getAccConstruct(pragmas.get(2)) instanceof ASTAccKernelsLoopNode);
+        assertNull(OpenACCUtil.getAccConstruct(pragmas.get(3)));
+
+        assertTrue(OpenACCUtil.isAccAccelConstruct(loops.get(0)));
+        assertFalse(OpenACCUtil.isAccConstruct(loops.get(1)));
+        assertTrue(OpenACCUtil.isAccAccelConstruct(loops.get(2)));
+        assertFalse(OpenACCUtil.isAccConstruct(loops.get(2), ASTAccDataNode.class));
+        // Constructs are classified by their directive names, even if their clauses are malformed
+        assertTrue(OpenACCUtil.isAccConstruct(loops.get(3)));
+        assertTrue(OpenACCUtil.isAccConstruct(loops.get(3), ASTAccDataNode.class));
+    }
+
+    public void testFindMalformedPragma() {
+        assertNull(OpenACCUtil.findMalformedAccPragma(loops.get(0), loops.get(1), loops.get(2)));
+        assertSame(pragmas.get(3), OpenACCUtil.findMalformedAccPragma(loops.get(0), loops.get(3)));
+        IASTFunctionDefinition f = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+        assertSame(pragmas.get(3), OpenACCUtil.findMalformedAccPragma(f.getBody()));
+    }
+
+    public void testMalformedLoopDirectiveIsIgnored() throws Exception {
+        IASTTranslationUnit loopTu = ASTUtil.translationUnitForString("void g() {\n" + //
+                "  int a[10];\n" + //
+                "#pragma acc parallel\n" + //
+                "  {\n" + //
+                "#pragma acc loop gang(\n" + //
+                "    for (int i = 0; i < 10; i++) a[i] = 0;\n" + //
+                "  }\n" + //
+                "}\n");
+        try {
+            IASTFunctionDefinition g = ASTUtil.findFirst(loopTu, IASTFunctionDefinition.class);
+            assertNull(OpenACCUtil.findMalformedAccPragma(g.getBody()));
+        } finally {
+            AnalysisSession.invalidate(loopTu);
+        }
+    }
+
+    public void testConstructKinds() {
+        assertEquals(AccConstructKind.PARALLEL_LOOP, OpenACCUtil.getAccConstructKind(pragmas.get(0)));
+        assertNull(OpenACCUtil.getAccConstructKind(pragmas.get(1)));
+        assertEquals(AccConstructKind.KERNELS_LOOP, OpenACCUtil.getAccConstructKind(pragmas.get(2)));
+        assertEquals(AccConstructKind.DATA, OpenACCUtil.getAccConstructKind(pragmas.get(3)));
+    }
+
+    public void testEachPragmaParsedOnce() {
+        IAccConstruct first = OpenACCUtil.getAccConstruct(pragmas.get(0));
+        assertSame(first, OpenACCUtil.getAccConstruct(pragmas.get(0)));
+        OpenACCUtil.isAccAccelConstruct(loops.get(0));
+        assertSame(first, OpenACCUtil.getAccConstruct(pragmas.get(0)));
+
+        // Once the translation unit is changed, pragmas are parsed again
+        AnalysisSession.invalidate(tu);
+        IAccConstruct second = OpenACCUtil.getAccConstruct(pragmas.get(0));
+        assertNotSame(first, second);
+        assertTrue(second instanceof ASTAccParallelLoopNode);
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.FourierMotzkinEliminator;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Matrix;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.PackedFourierMotzkinEliminator;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.PackedMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link PackedMatrix} and {@link PackedFourierMotzkinEliminator} classes
+ */
+public class PackedFourierMotzkinEliminatorTest {
+
+    /** The systems of inequalities used in {@link FourierMotzkinTests}, paired with whether each has a solution */
+    static final double[][][] FOURIER_MOTZKIN_TESTS_INPUTS = {
+            { { 1, 1, 1, 10 }, { 1, -1, 2, 20 }, { 2, -1, -1, -1 }, { -1, 1, -1, 5 } },
+            { { 1, -4, 2 }, { 1, 5, 7 }, { -1, 0, -3 } },
+            { { 1, 0, 0, 10 }, { -1, 0, 0, 0 }, { 1, -1, 0, 25 }, { 0, 1, 1, 15 } },
+            { { 0, 1, 6 }, { 1, 1, 9 }, { 1, -1, 5 }, { -2, -1, -7 } },
+            { { -3, 2, 0 }, { 2, -3, 1 }, { 0, 1, 2 } },
+            { { 2, -1, 3 }, { 0, -1, 3 }, { -0.8, -1, -2.5 } },
+            { { 1, 0, 20 }, { -1, 0, -10 }, { 0, 1, 5 }, { 0, -1, 0 }, { 1, -1, 4 } },
+            { { 1, -1, -2 }, { -1, 1, -2 } } };
+
+    static final boolean[] FOURIER_MOTZKIN_TESTS_EXPECTED = { true, true, true, true, true, true, false, false };
+
+    static Matrix toMatrix(double[][] rows) {
+        Matrix m = new Matrix();
+        for (double[] row : rows) {
+            m.addRowAtIndex(m.getNumRows(), row.clone());
+        }
+        return m;
+    }
+
+    @Test
+    public void testFourierMotzkinTestsInputs() {
+        PackedMatrix packed = new PackedMatrix(0);
+        PackedFourierMotzkinEliminator eliminator = new PackedFourierMotzkinEliminator();
+        for (int i = 0; i < FOURIER_MOTZKIN_TESTS_INPUTS.length; i++) {
+            Assert.assertTrue(packed.load(toMatrix(FOURIER_MOTZKIN_TESTS_INPUTS[i])));
+            Assert.assertEquals("Input " + i, FOURIER_MOTZKIN_TESTS_EXPECTED[i],
+                    eliminator.eliminateForRealSolutions(packed));
+            Assert.assertEquals("Input " + i, FOURIER_MOTZKIN_TESTS_EXPECTED[i],
+                    new FourierMotzkinEliminator().eliminateForRealSolutions(toMatrix(FOURIER_MOTZKIN_TESTS_INPUTS[i])));
+        }
+    }
+
+    @Test
+    public void testLoadScalesRationalRows() {
+        PackedMatrix packed = new PackedMatrix(0);
+        Assert.assertTrue(packed.load(toMatrix(new double[][] { { -0.8, -1, -2.5 } })));
+        Assert.assertEquals(-8, packed.get(0, 0));
+        Assert.assertEquals(-10, packed.get(0, 1));
+        Assert.assertEquals(-25, packed.get(0, 2));
+        Assert.assertFalse(packed.load(toMatrix(new double[][] { { 1.0 / 3.0, 1, 1 } })));
+    }
+
+    @Test
+    public void testRowSlotsAreReused() {
+        PackedMatrix packed = new PackedMatrix(3);
+        int r0 = packed.addRow(1, 2, 3);
+        int r1 = packed.addRow(4, 5, 6);
+        packed.addRow(7, 8, 9);
+        packed.deleteRow(r1);
+        Assert.assertEquals(2, packed.getNumRows());
+        Assert.assertEquals(r0, packed.nextRow(0));
+        Assert.assertEquals(2, packed.nextRow(r0 + 1));
+        Assert.assertEquals(r1, packed.addRow(10, 11, 12));
+        Assert.assertEquals(3, packed.getNumSlots());
+        Assert.assertEquals(11, packed.get(r1, 1));
+        Assert.assertEquals(3, packed.toMatrix().getNumRows());
+    }
+
+    @Test
+    public void testAgreesWithFourierMotzkinEliminator() {
+        PackedMatrix packed = new PackedMatrix(0);
+        PackedFourierMotzkinEliminator eliminator = new PackedFourierMotzkinEliminator();
+        Random random = new Random(20160620L);
+        for (int trial = 0; trial < 1000; trial++) {
+            double[][] rows = randomSystem(random);
+            Assert.assertTrue(packed.load(toMatrix(rows)));
+            Assert.assertEquals("Trial " + trial, new FourierMotzkinEliminator().eliminateForRealSolutions(toMatrix(rows)),
+                    eliminator.eliminateForRealSolutions(packed));
+        }
+    }
+
+    @Test
+    public void testPruningDoesNotChangeResult() {
+        PackedMatrix packed = new PackedMatrix(0);
+        PackedFourierMotzkinEliminator pruning = new PackedFourierMotzkinEliminator(true);
+        PackedFourierMotzkinEliminator nonpruning = new PackedFourierMotzkinEliminator(false);
+        Random random = new Random(20160627L);
+        for (int trial = 0; trial < 1000; trial++) {
+            double[][] rows = randomSystem(random);
+            Assert.assertTrue(packed.load(toMatrix(rows)));
+            boolean expected = nonpruning.eliminateForRealSolutions(packed);
+            Assert.assertTrue(packed.load(toMatrix(rows)));
+            Assert.assertEquals("Trial " + trial, expected, pruning.eliminateForRealSolutions(packed));
+        }
+    }
+
+    @Test
+    public void testParallelRows() {
+        PackedMatrix packed = new PackedMatrix(3);
+        packed.addRow(2, 4, 10); // x + 2y <= 5
+        packed.addRow(1, 2, 3); // x + 2y <= 3
+        packed.addRow(-3, -6, -12); // x + 2y >= 4
+        packed.addRow(1, 0, 100);
+        packed.addRow(-1, 0, 100);
+        Assert.assertFalse(new PackedFourierMotzkinEliminator(true).eliminateForRealSolutions(packed));
+    }
+
+    @Test
+    public void testPruningReducesRowCount() {
+        // for (i...) for (j...) for (k...) a[i+j+n][j+k+m][i+k] = a[i+j+n-1][j+k+m+1][i+k+1];
+        int[] lb = { 0, 0, 0 };
+        int[] ub = { 100, 100, 100 };
+        int[][] wc = { { 0, 1, 1, 0, 1, 0 }, { 0, 0, 1, 1, 0, 1 }, { 0, 1, 0, 1, 0, 0 } };
+        int[][] rc = { { -1, 1, 1, 0, 1, 0 }, { 1, 0, 1, 1, 0, 1 }, { 1, 1, 0, 1, 0, 0 } };
+        Direction[] dv = { Direction.ANY, Direction.ANY, Direction.ANY };
+        FourierMotzkinDependenceTester tester = new FourierMotzkinDependenceTester();
+
+        PackedMatrix packed = new PackedMatrix(0);
+        PackedFourierMotzkinEliminator pruning = new PackedFourierMotzkinEliminator(true);
+        tester.generatePackedDependenceMatrix(lb, ub, wc, rc, 2, dv, packed);
+        boolean expected = pruning.eliminateForRealSolutions(packed);
+        Assert.assertTrue(expected);
+
+        PackedFourierMotzkinEliminator nonpruning = new PackedFourierMotzkinEliminator(false);
+        tester.generatePackedDependenceMatrix(lb, ub, wc, rc, 2, dv, packed);
+        Assert.assertEquals(expected, nonpruning.eliminateForRealSolutions(packed));
+        Assert.assertEquals(expected, new FourierMotzkinEliminator()
+                .eliminateForRealSolutions(tester.generateDependenceMatrix(lb, ub, wc, rc, 2, dv)));
+
+        Assert.assertTrue(pruning.getMaxNumRows() < nonpruning.getMaxNumRows());
+    }
+
+    static double[][] randomSystem(Random random) {
+        int numVars = 1 + random.nextInt(4);
+        int numRows = 2 + random.nextInt(6);
+        List<double[]> rows = new ArrayList<double[]>();
+        for (int i = 0; i < numRows; i++) {
+            double[] row = new double[numVars + 1];
+            for (int j = 0; j < numVars; j++) {
+                row[j] = random.nextInt(7) - 3;
+            }
+            row[numVars] = random.nextInt(21) - 10;
+            rows.add(row);
+        }
+        return rows.toArray(new double[rows.size()][]);
+    }
+
+    @Test
+    public void testDependenceTesterUsesPackedMatrix() {
+        // for (i = 1; i <= 100; i++) a[i] = a[i-1];
+        FourierMotzkinDependenceTester tester = new FourierMotzkinDependenceTester();
+        int[] lb = { 1 };
+        int[] ub = { 100 };
+        int[][] wc = { { 0, 1 } };
+        int[][] rc = { { -1, 1 } };
+        Assert.assertTrue(tester.test(lb, ub, wc, rc, 0, new Direction[] { Direction.LT }));
+        Assert.assertFalse(tester.test(lb, ub, wc, rc, 0, new Direction[] { Direction.EQ }));
+        Assert.assertFalse(tester.test(lb, ub, wc, rc, 0, new Direction[] { Direction.GT }));
+
+        PackedMatrix packed = new PackedMatrix(0);
+        tester.generatePackedDependenceMatrix(lb, ub, wc, rc, 0, new Direction[] { Direction.LT }, packed);
+        Assert.assertEquals(
+                tester.generateDependenceMatrix(lb, ub, wc, rc, 0, new Direction[] { Direction.LT }).toString(),
+                packed.toString());
+    }
+}
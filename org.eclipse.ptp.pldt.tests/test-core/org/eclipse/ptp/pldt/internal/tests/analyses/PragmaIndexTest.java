@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTExpressionStatement;
+import org.eclipse.cdt.core.dom.ast.IASTForStatement;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorPragmaStatement;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.AnalysisSession;
+import org.eclipse.ptp.pldt.openacc.internal.core.PragmaIndex;
+
+import junit.framework.TestCase;
+
+public class PragmaIndexTest extends TestCase {
+
+    private IASTTranslationUnit tu;
+    private List<IASTPreprocessorPragmaStatement> pragmas;
+    private List<IASTFunctionDefinition> functions;
+    private List<IASTForStatement> loops;
+
+    @Override
+    protected void setUp() throws Exception {
+        tu = ASTUtil.translationUnitForString("#pragma acc routine seq\n" + // 0
+                "int g(int x) { return x; }\n" + //
+                "void f() {\n" + //
+                "  int a[10];\n" + //
+                "#pragma acc data copy(a)\n" + // 1
+                "#pragma acc kernels\n" + // 2
+                "  {\n" + //
+                "    a[0] = 1;\n" + //
+                "#pragma acc loop\n" + // 3
+                "    for (int i = 0; i < 10; i++)\n" + //
+                "      a[i] = g(i);\n" + //
+                "  }\n" + //
+                "  int b;\n" + //
+                "#pragma omp parallel for\n" + // 4
+                "  for (int i = 0; i < 10; i++)\n" + //
+                "    a[i] = 0;\n" + //
+                "}\n");
+        pragmas = ASTUtil.find(tu, IASTPreprocessorPragmaStatement.class);
+        functions = ASTUtil.find(tu, IASTFunctionDefinition.class);
+        loops = ASTUtil.find(tu, IASTForStatement.class);
+        assertEquals(5, pragmas.size());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        AnalysisSession.invalidate(tu);
+    }
+
+    private List<IASTPreprocessorPragmaStatement> pragmas(int... indices) {
+        List<IASTPreprocessorPragmaStatement> result = new ArrayList<IASTPreprocessorPragmaStatement>();
+        for (int i : indices) {
+            result.add(pragmas.get(i));
+        }
+        return result;
+    }
+
+    public void testPrecedingPragmas() {
+        IASTStatement[] body = ((IASTCompoundStatement) functions.get(1).getBody()).getStatements();
+        IASTCompoundStatement region = (IASTCompoundStatement) body[1];
+
+        assertEquals(pragmas(0), ASTUtil.getPragmaNodes(functions.get(0)));
+        assertEquals(pragmas(), ASTUtil.getPragmaNodes(functions.get(1)));
+        assertEquals(pragmas(), ASTUtil.getPragmaNodes(body[0]));
+        assertEquals(pragmas(1, 2), ASTUtil.getPragmaNodes(region));
+        assertEquals(pragmas(), ASTUtil.getPragmaNodes(region.getStatements()[0]));
+        assertEquals(pragmas(3), ASTUtil.getPragmaNodes(loops.get(0)));
+        assertEquals(pragmas(), ASTUtil.getPragmaNodes(loops.get(0).getBody()));
+        assertEquals(pragmas(4), ASTUtil.getPragmaNodes(loops.get(1)));
+    }
+
+    public void testInternalPragmas() {
+        IASTStatement[] body = ((IASTCompoundStatement) functions.get(1).getBody()).getStatements();
+        assertEquals(pragmas(1, 2, 3, 4), ASTUtil.getInternalPragmaNodes(functions.get(1).getBody()));
+        assertEquals(pragmas(3), ASTUtil.getInternalPragmaNodes(body[1]));
+        assertEquals(pragmas(), ASTUtil.getInternalPragmaNodes(loops.get(0)));
+    }
+
+    public void testEnclosingPragmas() {
+        IASTStatement call = ASTUtil.findFirst(loops.get(0), IASTExpressionStatement.class);
+        Map<IASTPreprocessorPragmaStatement, IASTNode> enclosing = ASTUtil.getEnclosingPragmas(call);
+        assertEquals(pragmas(1, 2, 3), new ArrayList<IASTPreprocessorPragmaStatement>(enclosing.keySet()));
+        assertSame(loops.get(0), enclosing.get(pragmas.get(3)));
+        assertSame(loops.get(0).getParent(), enclosing.get(pragmas.get(1)));
+        assertSame(loops.get(0).getParent(), enclosing.get(pragmas.get(2)));
+
+        assertEquals(pragmas(4), new ArrayList<IASTPreprocessorPragmaStatement>(
+                ASTUtil.getEnclosingPragmas(loops.get(1).getBody()).keySet()));
+    }
+
+    public void testIndexIsReused() {
+        PragmaIndex index = PragmaIndex.forTranslationUnit(tu);
+        ASTUtil.getPragmaNodes(loops.get(0));
+        assertSame(index, PragmaIndex.forTranslationUnit(tu));
+
+        AnalysisSession.invalidate(tu);
+        assertNotSame(index, PragmaIndex.forTranslationUnit(tu));
+    }
+}
@@ -915,6 +915,43 @@ public class ReachingDefinitionsTest extends TestCase {
         }
     }
     
+    public void testLargeLoopBody() throws Exception {
+        final int n = 500;
+        StringBuilder body = new StringBuilder();
+        for (int k = 0; k < n; k++) {
+            body.append("        s = s + 1;\n"); //4 .. n+3
+        }
+        IASTTranslationUnit tu = ASTUtil.translationUnitForString(""
+                + "void main() {                      \n" //1
+                + "    int s = 0;                     \n" //2
+                + "    for(int i = 0; i < 10; i++) {  \n" //3
+                + body
+                + "    }                              \n" //n+4
+                + "    int t = s;                     \n" //n+5
+                + "}");
+        IASTFunctionDefinition func = ASTUtil.findFirst(tu, IASTFunctionDefinition.class);
+        ReachingDefinitionsAnalysis rda = ReachingDefinitionsAnalysis.forFunction(func);
+        for(IASTNode node : getStatements(func)) {
+            int line = node.getFileLocation().getStartingLineNumber();
+            if(node.getRawSignature().equals("s = s + 1;")) {
+                Set<IASTName> rd = rda.reachingDefinitions(node);
+                if(line == 4) {
+                    assertTrue(contains(rd, "s", 2));
+                    assertTrue(contains(rd, "s", n + 3));
+                    assertTrue(rd.size() == 2);
+                } else {
+                    assertTrue(contains(rd, "s", line - 1));
+                    assertTrue(rd.size() == 1);
+                }
+            } else if(node.getRawSignature().equals("int t = s;")) {
+                Set<IASTName> rd = rda.reachingDefinitions(node);
+                assertTrue(contains(rd, "s", 2));
+                assertTrue(contains(rd, "s", n + 3));
+                assertTrue(rd.size() == 2);
+            }
+        }
+    }
+    
     private List<IASTNode> getStatements(IASTFunctionDefinition func) {
         List<IASTNode> stmts = new ArrayList<IASTNode>();
         stmts.addAll(ASTUtil.find(func, IASTStatement.class));
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.ptp.pldt.openacc.internal.core.ASTUtil;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ConstantPropagation;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.ControlFlowGraphBuilder;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.SSAForm;
+import org.eclipse.ptp.pldt.openacc.internal.core.dataflow.SSAForm.Value;
+
+import junit.framework.TestCase;
+
+public class SSAFormTest extends TestCase {
+
+    public void testIfElse() throws Exception {
+        String program = "void main(int c) {\n" + //
+                /* 2 */ "  int n = 1, m = 5;\n" + //
+                /* 3 */ "  if (c)\n" + //
+                /* 4 */ "    n = 2;\n" + //
+                /* 5 */ "  else\n" + //
+                /* 6 */ "    n = 3;\n" + //
+                /* 7 */ "  m = n + m;\n" + //
+                /* 8 */ "}";
+        IASTFunctionDefinition main = parse(program);
+        SSAForm ssa = new SSAForm(new ControlFlowGraphBuilder().build(main));
+
+        // The use of n on line 7 is reached by a phi function merging the definitions on lines 4 and 6
+        Value n = ssa.getValue(name(main, "n", 7));
+        assertTrue(n.isPhi());
+        assertEquals(2, n.getOperands().size());
+        List<Integer> lines = new ArrayList<Integer>();
+        for (Value operand : n.getOperands().values()) {
+            lines.add(operand.getDefinition().getFileLocation().getStartingLineNumber());
+        }
+        assertTrue(lines.contains(4));
+        assertTrue(lines.contains(6));
+        assertTrue(ssa.getPhiFunctions(n.getBlock()).contains(n));
+
+        // m is not defined in either branch, so its use is reached directly by its declaration
+        Value m = ssa.getValue(name(main, "m", 7, 1));
+        assertFalse(m.isPhi());
+        assertSame(name(main, "m", 2), m.getDefinition());
+        assertEquals(1, ssa.getPhiFunctions(n.getBlock()).size());
+
+        // The definition on line 7 uses the value it replaces
+        Value m2 = ssa.getValue(name(main, "m", 7, 0));
+        assertSame(m, m2.getPrevious());
+        assertTrue(m.getUses().contains(name(main, "m", 7, 1)));
+
+        // The parameter is not defined in the function, so its use sees its entry value
+        Value c = ssa.getValue(name(main, "c", 3));
+        assertTrue(c.isEntry());
+        assertSame(c, ssa.getEntryValue(c.getVariable()));
+
+        // The merge point is in the dominance frontier of both branches
+        IBasicBlock then = ssa.getValue(name(main, "n", 4)).getBlock();
+        assertTrue(ssa.getDominanceFrontier(then).contains(n.getBlock()));
+        assertFalse(ssa.dominates(then, n.getBlock()));
+        assertTrue(ssa.dominates(m.getBlock(), n.getBlock()));
+    }
+
+    public void testLoop() throws Exception {
+        String program = "void main() {\n" + //
+                /* 2 */ "  int s = 0;\n" + //
+                /* 3 */ "  for (int i = 0; i < 10; i++)\n" + //
+                /* 4 */ "    s += i;\n" + //
+                /* 5 */ "  s;\n" + //
+                /* 6 */ "}";
+        IASTFunctionDefinition main = parse(program);
+        SSAForm ssa = SSAForm.forFunction(main);
+
+        // The loop condition is reached by a phi function merging i = 0 and i++
+        Value i = ssa.getValue(name(main, "i", 3, 1));
+        assertTrue(i.isPhi());
+        Value incr = ssa.getValue(name(main, "i", 3, 2));
+        assertSame(i, incr.getPrevious());
+        assertTrue(i.getOperands().containsValue(incr));
+        assertTrue(incr.getPhiUses().contains(i));
+        assertTrue(ssa.dominates(i.getBlock(), incr.getBlock()));
+
+        // The use after the loop sees the phi function for s at the loop header
+        Value s = ssa.getValue(name(main, "s", 5));
+        assertTrue(s.isPhi());
+        assertSame(i.getBlock(), s.getBlock());
+    }
+
+    public void testUnreachable() throws Exception {
+        String program = "int main() {\n" + //
+                /* 2 */ "  int n = 1;\n" + //
+                /* 3 */ "  return n;\n" + //
+                /* 4 */ "  n = 2;\n" + //
+                /* 5 */ "}";
+        IASTFunctionDefinition main = parse(program);
+        SSAForm ssa = new SSAForm(new ControlFlowGraphBuilder().build(main));
+        assertNotNull(ssa.getValue(name(main, "n", 3)));
+        assertNull(ssa.getValue(name(main, "n", 4)));
+        assertNull(ConstantPropagation.forFunction(main).getConstantValue(name(main, "n", 4)));
+        assertEquals(Long.valueOf(1), ConstantPropagation.forFunction(main).getConstantValue(name(main, "n", 3)));
+    }
+
+    public void testClobber() throws Exception {
+        String program = "void main() {\n" + //
+                /* 2 */ "  int n = 1, m = 2, *p = &n;\n" + //
+                /* 3 */ "  *p = 3;\n" + //
+                /* 4 */ "  n + m;\n" + //
+                /* 5 */ "}";
+        IASTFunctionDefinition main = parse(program);
+        SSAForm ssa = new SSAForm(new ControlFlowGraphBuilder().build(main));
+
+        // The pointer write may change any variable, so the uses on line 4 see values created by the write
+        Value n = ssa.getValue(name(main, "n", 4));
+        assertTrue(n.isClobber());
+        assertNull(n.getDefinition());
+        assertSame(ssa.getValue(name(main, "n", 2)), n.getPrevious());
+        assertTrue(ssa.getDefinedValues(n.getBlock()).contains(n));
+        assertTrue(ssa.getValue(name(main, "m", 4)).isClobber());
+        assertNull(ConstantPropagation.forFunction(main).getConstantValue(name(main, "n", 4)));
+    }
+
+    private IASTFunctionDefinition parse(String program) throws Exception {
+        IASTTranslationUnit translationUnit = ASTUtil.translationUnitForString(program);
+        return ASTUtil.findFirst(translationUnit, IASTFunctionDefinition.class);
+    }
+
+    private IASTName name(IASTFunctionDefinition func, String name, int line) {
+        return name(func, name, line, 0);
+    }
+
+    /** @return the <code>index</code>th occurrence of the given name on the given line */
+    private IASTName name(IASTFunctionDefinition func, String name, int line, int index) {
+        for (IASTName n : ASTUtil.find(func, IASTName.class)) {
+            if (n.toString().equals(name) && n.getFileLocation().getStartingLineNumber() == line && index-- == 0) {
+                return n;
+            }
+        }
+        fail("No occurrence " + index + " of " + name + " on line " + line);
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Auburn University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jeff Overbey (Auburn) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ptp.pldt.internal.tests.analyses;
+
+import java.util.Random;
+
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.Direction;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.OmegaDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester;
+import org.eclipse.ptp.pldt.openacc.internal.core.dependence.SubscriptDependenceTester.Tier;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link SubscriptDependenceTester} class
+ */
+public class SubscriptDependenceTesterTest {
+
+    private final SubscriptDependenceTester tester = new SubscriptDependenceTester(new OmegaDependenceTester());
+
+    private static final int[] LB = { 0 };
+    private static final int[] UB = { 99 };
+    private static final Direction[] ANY = { Direction.ANY };
+
+    @Test
+    public void testZIV() {
+        // a[1] = a[2]
+        Assert.assertFalse(tester.test(LB, UB, new int[][] { { 1, 0 } }, new int[][] { { 2, 0 } }, 0, ANY));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.ZIV));
+    }
+
+    @Test
+    public void testStrongSIV() {
+        // a[i] = a[i+1]: distance -1, so there is a dependence only in the > direction
+        int[][] wc = { { 0, 1 } };
+        int[][] rc = { { 1, 1 } };
+        Assert.assertTrue(tester.test(LB, UB, wc, rc, 0, new Direction[] { Direction.GT }));
+        Assert.assertFalse(tester.test(LB, UB, wc, rc, 0, new Direction[] { Direction.LT }));
+        Assert.assertFalse(tester.test(LB, UB, wc, rc, 0, new Direction[] { Direction.EQ }));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.EXACT_SIV));
+        Assert.assertEquals(2, tester.getResolvedCount(Tier.STRONG_SIV));
+        Assert.assertEquals(0, tester.getResolvedCount(Tier.FALLBACK));
+
+        // a[i] = a[i+100]: distance exceeds the iteration count
+        Assert.assertFalse(tester.test(LB, UB, wc, new int[][] { { 100, 1 } }, 0, ANY));
+    }
+
+    @Test
+    public void testWeakZeroSIV() {
+        // a[2*i] = a[5]
+        Assert.assertFalse(tester.test(LB, UB, new int[][] { { 0, 2 } }, new int[][] { { 5, 0 } }, 0, ANY));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.WEAK_ZERO_SIV));
+
+        // a[i] = a[0]: i = 0 on the write, so there is no read on an earlier iteration
+        int[][] wc = { { 0, 1 } };
+        int[][] rc = { { 0, 0 } };
+        Assert.assertFalse(tester.test(LB, UB, wc, rc, 0, new Direction[] { Direction.GT }));
+        Assert.assertTrue(tester.test(LB, UB, wc, rc, 0, new Direction[] { Direction.LT }));
+    }
+
+    @Test
+    public void testGCD() {
+        // a[2*i] = a[4*i+1]
+        Assert.assertFalse(tester.test(LB, UB, new int[][] { { 0, 2 } }, new int[][] { { 1, 4 } }, 0, ANY));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.GCD));
+    }
+
+    @Test
+    public void testBanerjee() {
+        // a[i][j] = a[j+200][i] with 0 <= i, j <= 99 (coupled MIV)
+        int[] lb = { 0, 0 };
+        int[] ub = { 99, 99 };
+        int[][] wc = { { 0, 1, 0 }, { 0, 0, 1 } };
+        int[][] rc = { { 200, 0, 1 }, { 0, 1, 0 } };
+        Assert.assertFalse(tester.test(lb, ub, wc, rc, 0, new Direction[] { Direction.ANY, Direction.ANY }));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.BANERJEE));
+    }
+
+    @Test
+    public void testCoupledSubscriptsFallBack() {
+        // a[i][i] = a[i][i+1] -- each subscript is strong SIV, but they are coupled
+        int[][] wc = { { 0, 1 }, { 0, 1 } };
+        int[][] rc = { { 0, 1 }, { 1, 1 } };
+        Assert.assertFalse(tester.test(LB, UB, wc, rc, 0, ANY));
+        Assert.assertEquals(1, tester.getResolvedCount(Tier.FALLBACK));
+    }
+
+    @Test
+    public void testAgreesWithOmegaTest() {
+        OmegaDependenceTester omega = new OmegaDependenceTester();
+        Direction[] directions = { Direction.LT, Direction.GT, Direction.EQ, Direction.LE, Direction.GE,
+                Direction.ANY };
+        Random random = new Random(20160601L);
+        for (int trial = 0; trial < 2000; trial++) {
+            int numLoops = 1 + random.nextInt(2);
+            int numDims = 1 + random.nextInt(2);
+            int numScalars = random.nextInt(2);
+            int[] lb = new int[numLoops];
+            int[] ub = new int[numLoops];
+            Direction[] dv = new Direction[numLoops];
+            for (int k = 0; k < numLoops; k++) {
+                lb[k] = random.nextInt(3);
+                ub[k] = lb[k] + random.nextInt(10);
+                dv[k] = directions[random.nextInt(directions.length)];
+            }
+            int[][] wc = new int[numDims][1 + numLoops + numScalars];
+            int[][] rc = new int[numDims][1 + numLoops + numScalars];
+            for (int dim = 0; dim < numDims; dim++) {
+                for (int j = 0; j < wc[dim].length; j++) {
+                    // Mostly zeros and ones, like real subscripts
+                    wc[dim][j] = random.nextInt(3) == 0 ? random.nextInt(7) - 3 : (j == 0 ? 0 : random.nextInt(2));
+                    rc[dim][j] = random.nextInt(3) == 0 ? random.nextInt(7) - 3 : (j == 0 ? 0 : random.nextInt(2));
+                }
+            }
+
+            SubscriptDependenceTester subscriptTester = new SubscriptDependenceTester(omega);
+            Assert.assertEquals("Trial " + trial, omega.test(lb, ub, wc, rc, numScalars, dv),
+                    subscriptTester.test(lb, ub, wc, rc, numScalars, dv));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+int main() {
+	int a[3] = { 1, 2, 3 };
+	int b[3] = { 4, 5, 6 };
+
+	b[0] = 0; /*<<<<< 5,0,11,0,fail*/
+#pragma acc parallel loop copy(
+	for (int i = 0; i < 3; i++) {
+		a[i] = b[i] + 1;
+	}
+	b[1] = a[2];
+
+	return 0;
+
+}
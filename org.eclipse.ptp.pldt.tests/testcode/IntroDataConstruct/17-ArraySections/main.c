@@ -0,0 +1,23 @@
+#include <stdio.h>
+
+int main() {
+	int a[100], c[100], d[100], t[100];
+	for (int i = 0; i < 100; i++) {
+		a[i] = i;
+		c[i] = 0;
+		d[i] = i;
+	}
+
+#pragma acc parallel loop /*<<<<< 11,0,17,0,pass*/
+	for (int i = 10; i < 20; i++) {
+		t[i] = a[i] * 2;
+		c[i] = t[i] + 1;
+		d[i] = d[i] + t[i];
+	}
+
+	for (int i = 10; i < 20; i++) {
+		printf("%d %d\n", c[i], d[i]);
+	}
+
+	return 0;
+}
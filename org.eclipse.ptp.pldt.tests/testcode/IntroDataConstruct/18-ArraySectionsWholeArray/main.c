@@ -0,0 +1,25 @@
+#include <stdio.h>
+
+int main() {
+	int a[100], b[100], c[100];
+	for (int i = 0; i < 100; i++) {
+		a[i] = i;
+		b[i] = 0;
+		c[i] = i;
+	}
+
+#pragma acc parallel loop /*<<<<< 11,0,19,0,pass*/
+	for (int i = 0; i < 10; i++) {
+		b[i] = a[i * i];
+	}
+#pragma acc parallel loop
+	for (int i = 0; i < 100; i++) {
+		c[i] = c[i] + 1;
+	}
+
+	for (int i = 0; i < 10; i++) {
+		printf("%d %d\n", b[i], c[i]);
+	}
+
+	return 0;
+}
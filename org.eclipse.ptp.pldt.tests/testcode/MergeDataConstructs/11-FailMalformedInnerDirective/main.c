@@ -0,0 +1,22 @@
+int main() {
+	int a[3] = { 1, 2, 3 };
+	int b[3] = { 4, 5, 6 };
+#pragma acc data /*<<<<< 4,0,5,0,fail*/
+	{
+#pragma acc parallel loop copyin(
+		for (int i = 0; i < 3; i++) {
+			a[i] = b[0];
+		}
+	}
+#pragma acc data
+	{
+#pragma acc parallel loop
+		for (int i = 0; i < 3; i++) {
+			b[i] = a[i];
+		}
+	}
+	for (int i = 0; i < 3; i++) {
+		printf("%d", b[i]);
+	}
+	return 0;
+}
@@ -0,0 +1,29 @@
+#include <stdio.h>
+
+int main() {
+	int a[100], c[100], d[100], u[100];
+	for (int i = 0; i < 100; i++) {
+		a[i] = i;
+		c[i] = 0;
+		d[i] = i;
+	}
+#pragma acc data /*<<<<< 10,0,11,0,pass*/
+	{
+#pragma acc parallel loop
+		for (int i = 10; i < 20; i++) {
+			u[i] = a[i] * 2;
+			c[i] = u[i] + 1;
+		}
+	}
+#pragma acc data
+	{
+#pragma acc parallel loop
+		for (int i = 20; i < 30; i++) {
+			d[i] = d[i] + 1;
+		}
+	}
+	for (int i = 10; i < 20; i++) {
+		printf("%d %d\n", c[i], d[i + 10]);
+	}
+	return 0;
+}